@@ -0,0 +1,35 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.benchmark;
+
+/**
+ * <p>Title: EchoService.java</p>
+ * <p>Description: 基准测试服务，原样返回请求报文</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午06:05:12
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public interface EchoService
+{
+    /**
+     * 多播调用时返回各节点的结果集，因此返回类型声明为Object
+     * @param payload
+     * @return
+     */
+    public Object echo(byte[] payload);
+}
@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.frameworkset.spi.BaseApplicationContext;
+import org.frameworkset.spi.ClientProxyContext;
+import org.frameworkset.spi.RemoteCallContext;
+import org.frameworkset.spi.RemoteCallContextImpl;
+import org.frameworkset.spi.asm.RemoteStubGenerator;
+import org.frameworkset.spi.cglib.CGLibUtil;
+import org.frameworkset.spi.cglib.RemoteCGLibProxy;
+import org.frameworkset.spi.remote.RPCHelper;
+import org.frameworkset.spi.remote.RemoteServiceID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Title: ProxyOverheadBenchmark.java</p>
+ * <p>Description: 客户端代理开销的基准测试，对同一个服务标识分别创建cglib代理和asm生成的客户端桩，
+ * 通过netty回环地址发送16字节的小报文，两种代理的传输开销相同，吞吐量和延时的差值即为代理自身的开销。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午09:06:24
+ * @author biaoping.yin
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class ProxyOverheadBenchmark
+{
+    static final String PROTOCOL = "netty";
+
+    @Param({"cglib", "asm"})
+    String stub;
+
+    private EchoService service;
+
+    private final byte[] payload = new byte[16];
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        RPCHelper.getRPCHelper().startServerProtocol(PROTOCOL);
+        String url = "(" + PROTOCOL + "::127.0.0.1:" + TransportBenchmark.getPort(PROTOCOL) + ")/" + TransportBenchmark.SERVICE;
+        int containerType = BaseApplicationContext.container_type_application;
+        RemoteServiceID serviceID = ClientProxyContext.buildServiceID(url, TransportBenchmark.CONFIG, containerType);
+        serviceID.setInfType(EchoService.class.getName());
+        RemoteCallContext ccontext = new RemoteCallContextImpl(TransportBenchmark.CONFIG, containerType);
+        ClientProxyContext.buildClientCallContext(serviceID, ccontext, false);
+        if ("asm".equals(stub))
+            service = RemoteStubGenerator.newStub(EchoService.class, serviceID, ccontext);
+        else
+            service = (EchoService) CGLibUtil.getBeanInstance(EchoService.class, new RemoteCGLibProxy(serviceID, ccontext));
+        if (service == null || service.echo(payload) == null)
+            throw new IllegalStateException("echo returns null:" + url);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        RPCHelper.getRPCHelper().stopServerProtocol(PROTOCOL);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Object syncThroughput()
+    {
+        return service.echo(payload);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object syncLatency()
+    {
+        return service.echo(payload);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.frameworkset.spi.ClientProxyContext;
+import org.frameworkset.spi.remote.RPCHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * <p>Title: TransportBenchmark.java</p>
+ * <p>Description: 各传输协议的基准测试，在同一进程中启动协议服务端并通过回环地址调用，
+ * 分别测量同步调用的吞吐量、延时分布（SampleTime模式输出p50到p99.99）以及INFLIGHT个线程并发同步调用时的吞吐量，
+ * 客户端代理只提供同步调用，并发请求通过线程池发出。
+ * 每个参数组合运行在独立的jvm中，服务端端口与resources-test中manager-rpc-*.xml的配置一致，
+ * 可以通过系统属性benchmark.port覆盖。
+ * 只测量单播调用，多播调用（all）需要多个不同的服务端，而各协议的服务端在同一进程中只能启动一个；
+ * jgroup协议使用集群内的_self。
+ * http协议的服务端在RPCHelper中没有实现启动逻辑，不参与测试。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午06:08:31
+ * @author biaoping.yin
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class TransportBenchmark
+{
+    static final String CONFIG = "org/frameworkset/spi/remote/benchmark/manager-rpc-benchmark.xml";
+
+    static final String SERVICE = "rpc.benchmark.echo";
+
+    static final int INFLIGHT = 16;
+
+    @Param({"netty", "mina", "rmi", "jgroup"})
+    String protocol;
+
+    @Param({"128", "8192", "1048576"})
+    int payloadSize;
+
+    private EchoService service;
+
+    private byte[] payload;
+
+    private ExecutorService executor;
+
+    static int getPort(String protocol)
+    {
+        String port = System.getProperty("benchmark.port");
+        if (port != null)
+            return Integer.parseInt(port);
+        if ("netty".equals(protocol))
+            return 12347;
+        if ("mina".equals(protocol))
+            return 12346;
+        if ("rmi".equals(protocol))
+            return 1090;
+        //jgroup协议按集群成员寻址，不使用端口
+        return -1;
+    }
+
+    String buildServiceUrl()
+    {
+        String address = "jgroup".equals(protocol) ? "_self" : "127.0.0.1:" + getPort(protocol);
+        return "(" + protocol + "::" + address + ")/" + SERVICE;
+    }
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        RPCHelper.getRPCHelper().startServerProtocol(protocol);
+        payload = new byte[payloadSize];
+        new Random(payloadSize).nextBytes(payload);
+        service = ClientProxyContext.getApplicationClientBean(CONFIG, buildServiceUrl(), EchoService.class);
+        executor = Executors.newFixedThreadPool(INFLIGHT);
+        // 建立连接，确认服务可用
+        if (service.echo(payload) == null)
+            throw new IllegalStateException("echo returns null:" + buildServiceUrl());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        executor.shutdownNow();
+        RPCHelper.getRPCHelper().stopServerProtocol(protocol);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Object syncThroughput()
+    {
+        return service.echo(payload);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object syncLatency()
+    {
+        return service.echo(payload);
+    }
+
+    /**
+     * 通过线程池同时发出INFLIGHT个同步请求并等待全部返回
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(INFLIGHT)
+    public void concurrentThroughput(Blackhole blackhole) throws Exception
+    {
+        Future<?>[] futures = new Future<?>[INFLIGHT];
+        Callable<Object> call = new Callable<Object>()
+        {
+            public Object call()
+            {
+                return service.echo(payload);
+            }
+        };
+        for (int i = 0; i < INFLIGHT; i++)
+            futures[i] = executor.submit(call);
+        for (int i = 0; i < INFLIGHT; i++)
+            blackhole.consume(futures[i].get());
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.webservice;
+
+import java.util.concurrent.ExecutionException;
+
+import javax.xml.ws.AsyncHandler;
+import javax.xml.ws.Response;
+
+import org.frameworkset.spi.remote.BaseRPCIOHandler;
+import org.frameworkset.spi.remote.RPCIOHandler;
+import org.frameworkset.spi.remote.RPCMessage;
+import org.frameworkset.spi.remote.RemoteException;
+import org.frameworkset.spi.remote.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: BinaryResponseHandler.java</p> 
+ * <p>Description: sendRPCMessageBinary异步调用的响应回调，由cxf工作线程解码响应报文后交给客户端RPCIOHandler处理，
+ * 调用失败时以RemoteException通知对应的响应收集器</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:58:27
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class BinaryResponseHandler implements AsyncHandler<SendRPCMessageBinaryResponse>
+{
+    private static final Logger log = LoggerFactory.getLogger(BinaryResponseHandler.class);
+
+    private final RPCMessage srcmsg;
+
+    private final RPCIOHandler handler;
+
+    public BinaryResponseHandler(RPCMessage srcmsg, RPCIOHandler handler)
+    {
+        this.srcmsg = srcmsg;
+        this.handler = handler;
+    }
+
+    public void handleResponse(Response<SendRPCMessageBinaryResponse> res)
+    {
+        try
+        {
+            byte[] ret_ = res.get().getReturn();
+            RPCMessage ret = (RPCMessage)Util.objectFromByteBuffer(ret_, 0, ret_.length);
+            if (ret != null)
+                handler.messageReceived(ret);
+        }
+        catch (ExecutionException e)
+        {
+            exceptionReceived(e.getCause() != null ? e.getCause() : e);
+        }
+        catch (Exception e)
+        {
+            exceptionReceived(e);
+        }
+    }
+
+    private void exceptionReceived(Throwable cause)
+    {
+        try
+        {
+            ((BaseRPCIOHandler)handler).exceptionReceived(new RemoteException(srcmsg, cause));
+        }
+        catch (Exception e)
+        {
+            log.error("Handle webservice response failed.", e);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.namespace.QName;
+import javax.xml.ws.BindingProvider;
 import javax.xml.ws.Service;
 import javax.xml.ws.soap.SOAPBinding;
 
@@ -58,7 +59,7 @@ public class FutureCall extends BaseFutureCall
 {
     private String ws_servertype = "cxf";
     
-    static Map<String,RPCCallService> clients = new ConcurrentHashMap<String,RPCCallService>();
+    static Map<String,RPCCallServiceAsync> clients = new ConcurrentHashMap<String,RPCCallServiceAsync>();
     
     /**
      * @param srcmsg
@@ -76,11 +77,12 @@ public class FutureCall extends BaseFutureCall
     {
     	 String url = address.getWebServiceURL(Util
                  .getRPCCallServicePort());
-    	RPCCallService client = clients.get(url);
+    	RPCCallServiceAsync client = clients.get(url);
         if(client == null)
         {
             synchronized(lock)
             {
+                client = clients.get(url);
                 if(client == null)
                 {
                     QName serviceName = new QName("http://webservice.remote.spi.frameworkset.org/", "RPCCallService");
@@ -91,11 +93,22 @@ public class FutureCall extends BaseFutureCall
 //                            .getRPCCallServicePort());
                     service.addPort(portName, SOAPBinding.SOAP11HTTP_BINDING, url);
                     client = service.getPort(portName,
-                            org.frameworkset.spi.remote.webservice.RPCCallService.class);
+                            org.frameworkset.spi.remote.webservice.RPCCallServiceAsync.class);
                  // Okay, are you sick of configuration files ?
                     // This will show you how to configure the http conduit dynamically
                     
                     
+                    if(WSUtil.mtom)
+                    {
+                        BindingProvider bp = (BindingProvider)client;
+                        ((SOAPBinding)bp.getBinding()).setMTOMEnabled(true);
+                        /**
+                         * classpath中存在cxf-rt-transports-http-hc时，异步调用使用基于nio的AsyncHTTPConduit，
+                         * 否则由cxf工作线程接收响应
+                         */
+                        if(WSUtil.async)
+                            bp.getRequestContext().put("use.async.http.conduit", Boolean.TRUE);
+                    }
                     Client client_ = ClientProxy.getClient(client);                    
                     HTTPConduit http = (HTTPConduit) client_.getConduit();
                     /**
@@ -154,6 +167,20 @@ public class FutureCall extends BaseFutureCall
             }            
         }
         
+        if(WSUtil.mtom)
+        {
+            byte[] message = Util.objectToByteBuffer(srcmsg);
+            if(WSUtil.async)
+            {
+                /**
+                 * 异步调用返回null，响应由BinaryResponseHandler交给handler处理
+                 */
+                client.sendRPCMessageBinaryAsync(message, new BinaryResponseHandler(srcmsg, handler));
+                return null;
+            }
+            byte[] ret_ = client.sendRPCMessageBinary(message);
+            return (RPCMessage)Util.objectFromByteBuffer(ret_, 0, ret_.length);
+        }
         Object ret_ = client.sendRPCMessage(Util.getEncoder().encoder(srcmsg));
         RPCMessage ret = (RPCMessage)Util.getDecoder().decoder(ret_);
         return ret;
@@ -52,5 +52,13 @@ public class RPCCall implements RPCCallService {
 
 		
 	}
+	
+	public byte[] sendRPCMessageBinary(byte[] message) throws Exception
+	{
+		RPCMessage message_ = (RPCMessage)Util.objectFromByteBuffer(message, 0, message.length);
+		HandleFuture future = new HandleFuture(message_);
+		message_ = future.call();
+		return Util.objectToByteBuffer(message_);
+	}
 
 }
@@ -18,6 +18,8 @@ package org.frameworkset.spi.remote.webservice;
 import javax.jws.WebMethod;
 import javax.jws.WebParam;
 import javax.jws.WebService;
+import javax.xml.ws.RequestWrapper;
+import javax.xml.ws.ResponseWrapper;
 
 /**
  * 
@@ -34,5 +36,17 @@ public interface RPCCallService {
 
 	@WebMethod(operationName="sendRPCMessage", action="urn:SendRPCMessage")
 	public Object sendRPCMessage(@WebParam(name="message") Object message)  throws Exception;
+	
+	/**
+	 * 以二进制方式传输RPCMessage，请求和响应均为Util.objectToByteBuffer编码的字节数组，
+	 * 通讯双方启用MTOM时作为附件传输，不再将报文转义后嵌入soap报文
+	 * @param message
+	 * @return
+	 * @throws Exception
+	 */
+	@WebMethod(operationName="sendRPCMessageBinary", action="urn:SendRPCMessageBinary")
+	@RequestWrapper(localName="sendRPCMessageBinary", targetNamespace="http://webservice.remote.spi.frameworkset.org/", className="org.frameworkset.spi.remote.webservice.SendRPCMessageBinary")
+	@ResponseWrapper(localName="sendRPCMessageBinaryResponse", targetNamespace="http://webservice.remote.spi.frameworkset.org/", className="org.frameworkset.spi.remote.webservice.SendRPCMessageBinaryResponse")
+	public byte[] sendRPCMessageBinary(@WebParam(name="message") byte[] message)  throws Exception;
 
 }
\ No newline at end of file
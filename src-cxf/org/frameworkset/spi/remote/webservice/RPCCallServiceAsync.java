@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.webservice;
+
+import java.util.concurrent.Future;
+
+import javax.jws.WebMethod;
+import javax.jws.WebParam;
+import javax.jws.WebService;
+import javax.xml.ws.AsyncHandler;
+import javax.xml.ws.RequestWrapper;
+import javax.xml.ws.ResponseWrapper;
+
+/**
+ * 
+ * <p>Title: RPCCallServiceAsync.java</p> 
+ * <p>Description: RPCCallService的客户端代理接口，增加sendRPCMessageBinary的异步调用方法，
+ * 只用于FutureCall创建客户端代理，服务端RPCCall仍然只实现RPCCallService
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2008</p>
+ * @Date 2026-10-20 上午11:06:34
+ * @author biaoping.yin
+ * @version 1.0
+ */
+@WebService(name="RPCCallService", targetNamespace="http://webservice.remote.spi.frameworkset.org/")
+public interface RPCCallServiceAsync extends RPCCallService {
+
+	/**
+	 * sendRPCMessageBinary的异步调用接口，调用线程发出请求后立即返回，
+	 * 响应由cxf的工作线程回调asyncHandler
+	 * @param message
+	 * @param asyncHandler
+	 * @return
+	 */
+	@WebMethod(operationName="sendRPCMessageBinary", action="urn:SendRPCMessageBinary")
+	@RequestWrapper(localName="sendRPCMessageBinary", targetNamespace="http://webservice.remote.spi.frameworkset.org/", className="org.frameworkset.spi.remote.webservice.SendRPCMessageBinary")
+	@ResponseWrapper(localName="sendRPCMessageBinaryResponse", targetNamespace="http://webservice.remote.spi.frameworkset.org/", className="org.frameworkset.spi.remote.webservice.SendRPCMessageBinaryResponse")
+	public Future<?> sendRPCMessageBinaryAsync(@WebParam(name="message") byte[] message, @WebParam(name="asyncHandler", targetNamespace="") AsyncHandler<SendRPCMessageBinaryResponse> asyncHandler);
+
+}
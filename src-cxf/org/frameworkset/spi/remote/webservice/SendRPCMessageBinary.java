@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.webservice;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+/**
+ * 
+ * <p>Title: SendRPCMessageBinary.java</p> 
+ * <p>Description: sendRPCMessageBinary操作的请求包装类，message为二进制编码的RPCMessage，
+ * 启用MTOM时以附件方式传输</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:52:06
+ * @author biaoping.yin
+ * @version 1.0
+ */
+
+@XmlRootElement(name = "sendRPCMessageBinary", namespace = "http://webservice.remote.spi.frameworkset.org/")
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "sendRPCMessageBinary", namespace = "http://webservice.remote.spi.frameworkset.org/")
+
+public class SendRPCMessageBinary {
+
+    @XmlElement(name = "message")
+    private byte[] message;
+
+    public byte[] getMessage() {
+        return this.message;
+    }
+
+    public void setMessage(byte[] newMessage)  {
+        this.message = newMessage;
+    }
+
+}
@@ -0,0 +1,50 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.webservice;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlElement;
+import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlType;
+
+/**
+ * 
+ * <p>Title: SendRPCMessageBinaryResponse.java</p> 
+ * <p>Description: sendRPCMessageBinary操作的响应包装类，客户端异步调用时由AsyncHandler接收</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:53:40
+ * @author biaoping.yin
+ * @version 1.0
+ */
+@XmlRootElement(name = "sendRPCMessageBinaryResponse", namespace = "http://webservice.remote.spi.frameworkset.org/")
+@XmlAccessorType(XmlAccessType.FIELD)
+@XmlType(name = "sendRPCMessageBinaryResponse", namespace = "http://webservice.remote.spi.frameworkset.org/")
+public class SendRPCMessageBinaryResponse {
+
+    @XmlElement(name = "return")
+    private byte[] _return;
+
+    public byte[] getReturn() {
+        return this._return;
+    }
+
+    public void setReturn(byte[] new_return)  {
+        this._return = new_return;
+    }
+
+}
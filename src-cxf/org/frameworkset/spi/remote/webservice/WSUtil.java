@@ -32,6 +32,16 @@ import org.frameworkset.spi.remote.Util;
  */
 public class WSUtil
 {
+    /**
+     * 客户端是否通过sendRPCMessageBinary操作以MTOM附件方式发送二进制编码的RPCMessage，
+     * 默认false，仍然采用xml编码的sendRPCMessage操作；启用时服务端RPCCall服务需要配置mtom="true"
+     */
+    public static final boolean mtom = BaseSPIManager2.getBooleanProperty("rpc.webservice.mtom", false);
+    
+    /**
+     * 二进制模式下客户端是否采用cxf异步调用，请求发出后即释放请求线程池中的线程，响应由cxf工作线程回调处理，默认true
+     */
+    public static final boolean async = BaseSPIManager2.getBooleanProperty("rpc.webservice.async", true);
 
     /**
      * 标记是否启用webservice服务，为false时，启动cxf的serverlet将失效
@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.mina;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.file.DefaultFileRegion;
+import org.apache.mina.core.future.IoFutureListener;
+import org.apache.mina.core.future.WriteFuture;
+import org.apache.mina.core.session.IoSession;
+import org.frameworkset.spi.remote.RPCMessage;
+import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.remote.region.ByteRegion;
+import org.frameworkset.spi.remote.region.RegionContent;
+import org.frameworkset.spi.remote.region.RegionHeader;
+import org.frameworkset.spi.remote.region.RegionRegistry;
+
+/**
+ * <p>Title: MinaRegionTransfer.java</p>
+ * <p>Description: 发送消息前先发送消息中的字节区域，每个区域由区域头和原始内容组成，
+ * 文件内容通过DefaultFileRegion以transferTo的方式零拷贝发送，ByteBuffer直接包装后发送；
+ * 启用ssl时文件内容以内存映射的方式交给SslFilter加密。
+ * 同一会话上区域和消息的写入必须连续，因此所有写入都在会话上同步。
+ * 响应消息写入完成后释放其中作为返回值的区域。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:47:52
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class MinaRegionTransfer
+{
+    private static Boolean ssl;
+
+    private static boolean ssl()
+    {
+        if (ssl == null)
+            ssl = Boolean.valueOf(Util.defaultContext.getMapProperty("rpc.protocol.mina.params").getBoolean("enablessl", false));
+        return ssl.booleanValue();
+    }
+
+    /**
+     * @param session
+     * @param message 写入会话的消息对象
+     * @param rpcmessage 消息对象对应的RPCMessage，从中查找需要传输的字节区域
+     * @return
+     * @throws Exception
+     */
+    public static WriteFuture write(IoSession session, Object message, final RPCMessage rpcmessage) throws Exception
+    {
+        List<ByteRegion> regions = RegionRegistry.collect(rpcmessage);
+        WriteFuture future;
+        synchronized (session)
+        {
+            for (int i = 0; i < regions.size(); i++)
+                writeRegion(session, regions.get(i));
+            future = session.write(message);
+        }
+        if (!regions.isEmpty())
+        {
+            future.addListener(new IoFutureListener<WriteFuture>()
+            {
+                public void operationComplete(WriteFuture future)
+                {
+                    RegionRegistry.written(rpcmessage);
+                }
+            });
+        }
+        return future;
+    }
+
+    private static void writeRegion(IoSession session, ByteRegion region) throws Exception
+    {
+        RegionContent content = RegionRegistry.lookup(region.getId());
+        if (content == null)
+            throw new IllegalStateException("content of region " + region.getId() + " has been released.");
+        session.write(new RegionHeader(region.getId(), content.getLength()));
+        if (content.isFile() && !ssl())
+        {
+            final FileChannel file = content.openChannel();
+            session.write(new DefaultFileRegion(file, content.getPosition(), content.getLength())).addListener(new IoFutureListener<WriteFuture>()
+            {
+                public void operationComplete(WriteFuture future)
+                {
+                    try
+                    {
+                        file.close();
+                    }
+                    catch (IOException e)
+                    {
+                    }
+                }
+            });
+        }
+        else
+        {
+            session.write(IoBuffer.wrap(content.asByteBuffer()));
+        }
+    }
+}
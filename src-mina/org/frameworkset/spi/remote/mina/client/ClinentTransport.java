@@ -29,7 +29,6 @@ import org.apache.mina.core.future.ConnectFuture;
 import org.apache.mina.core.service.IoHandler;
 import org.apache.mina.core.session.IoSession;
 import org.apache.mina.filter.codec.ProtocolCodecFilter;
-import org.apache.mina.filter.codec.serialization.ObjectSerializationCodecFactory;
 import org.apache.mina.filter.ssl.SslFilter;
 import org.apache.mina.transport.socket.SocketConnector;
 import org.apache.mina.transport.socket.nio.NioSocketConnector;
@@ -42,9 +41,12 @@ import org.frameworkset.spi.remote.SSLHelper;
 import org.frameworkset.spi.remote.Target;
 import org.frameworkset.spi.remote.Util;
 import org.frameworkset.spi.remote.mina.DummyIOHandler;
+import org.frameworkset.spi.remote.mina.MinaRegionTransfer;
+import org.frameworkset.spi.remote.mina.codec.RegionCodecFactory;
 import org.frameworkset.spi.remote.mina.server.MinaRPCServer;
 import org.frameworkset.spi.remote.mina.server.MinaRunException;
 import org.frameworkset.spi.remote.mina.server.RPCServerIoHandler;
+import org.frameworkset.spi.remote.metrics.CallTimer;
 
 /**
  * <p>
@@ -366,7 +368,7 @@ public class ClinentTransport
                 throw new MinaRunException("启用了ssl模式， 请检查文件org/frameworkset/spi/manager-rpc-mina.xml是否正确设置了客服端的ssl参数rpc.protocol.mina.ssl.client。",e);
             }
         }
-        connector.getFilterChain().addLast("codec", new ProtocolCodecFilter(new ObjectSerializationCodecFactory()));
+        connector.getFilterChain().addLast("codec", new ProtocolCodecFilter(new RegionCodecFactory()));
         connector.setConnectTimeoutMillis(MinaRPCServer.getMinaRPCServer().getCONNECT_TIMEOUT());
 
         connector.setHandler(corr);
@@ -401,7 +403,7 @@ public class ClinentTransport
         this.dummy = dummy;
 
         connector = new NioSocketConnector();
-        connector.getFilterChain().addLast("codec", new ProtocolCodecFilter(new ObjectSerializationCodecFactory()));
+        connector.getFilterChain().addLast("codec", new ProtocolCodecFilter(new RegionCodecFactory()));
         connector.setConnectTimeoutMillis(MinaRPCServer.getMinaRPCServer().getCONNECT_TIMEOUT());
 
         connector.setHandler(new DummyIOHandler());
@@ -461,9 +463,16 @@ public class ClinentTransport
         try
         {
             setSourceAddress(message);
+            CallTimer timer = message.callTimer();
+            long start = timer != null ? System.nanoTime() : 0L;
             Object msg = Util.getEncoder().encoder(message);
+            if (timer != null)
+            {
+                timer.add(CallTimer.CLIENT_ENCODE, System.nanoTime() - start);
+                timer.markSent();
+            }
 //            session.write(message);
-            session.write(msg);
+            MinaRegionTransfer.write(session, msg, message);
         }
         catch(Exception e)
         {
@@ -0,0 +1,54 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.mina.codec;
+
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolCodecFactory;
+import org.apache.mina.filter.codec.ProtocolDecoder;
+import org.apache.mina.filter.codec.ProtocolEncoder;
+
+/**
+ * <p>Title: RegionCodecFactory.java</p>
+ * <p>Description: 对象序列化编解码工厂，在ObjectSerializationCodecFactory的基础上支持字节区域的原始内容传输</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:41:05
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RegionCodecFactory implements ProtocolCodecFactory
+{
+    private ProtocolEncoder encoder;
+
+    private ProtocolDecoder decoder;
+
+    public RegionCodecFactory()
+    {
+        encoder = new RegionObjectEncoder();
+        decoder = new RegionObjectDecoder();
+    }
+
+    public ProtocolEncoder getEncoder(IoSession ioSession) throws Exception
+    {
+        return encoder;
+    }
+
+    public ProtocolDecoder getDecoder(IoSession ioSession) throws Exception
+    {
+        return decoder;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.mina.codec;
+
+import java.nio.ByteBuffer;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.filterchain.IoFilter.NextFilter;
+import org.apache.mina.core.session.AttributeKey;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolDecoderOutput;
+import org.apache.mina.filter.codec.serialization.ObjectSerializationDecoder;
+import org.frameworkset.spi.remote.region.RegionHeader;
+import org.frameworkset.spi.remote.region.RegionReceiver;
+import org.frameworkset.spi.remote.region.RegionRegistry;
+
+/**
+ * <p>Title: RegionObjectDecoder.java</p>
+ * <p>Description: 对象解码器，解码到区域头时切换为原始字节模式，读取区域头指定长度的内容交给RegionReceiver，
+ * 读取完毕后恢复对象解码。正在接收的区域保存在会话属性中，收到的内容以会话标识为前缀登记。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:44:36
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RegionObjectDecoder extends ObjectSerializationDecoder
+{
+    private static final AttributeKey RECEIVER = new AttributeKey(RegionObjectDecoder.class, "receiver");
+
+    @Override
+    protected boolean doDecode(IoSession session, IoBuffer in, ProtocolDecoderOutput out) throws Exception
+    {
+        RegionReceiver receiver = (RegionReceiver) session.getAttribute(RECEIVER);
+        if (receiver != null)
+        {
+            int count = (int) Math.min(in.remaining(), receiver.getRemaining());
+            if (count > 0)
+            {
+                ByteBuffer slice = in.buf().slice();
+                slice.limit(count);
+                receiver.write(slice);
+                in.skip(count);
+            }
+            if (!receiver.isComplete())
+                return false;
+            receiver.finish();
+            session.removeAttribute(RECEIVER);
+        }
+        return super.doDecode(session, in, new RegionOutput(session, out));
+    }
+
+    private static class RegionOutput implements ProtocolDecoderOutput
+    {
+        private final IoSession session;
+
+        private final ProtocolDecoderOutput out;
+
+        RegionOutput(IoSession session, ProtocolDecoderOutput out)
+        {
+            this.session = session;
+            this.out = out;
+        }
+
+        public void write(Object message)
+        {
+            if (message instanceof RegionHeader)
+                session.setAttribute(RECEIVER, new RegionReceiver(RegionRegistry.scope("mina", session.getId()), (RegionHeader) message));
+            else
+                out.write(message);
+        }
+
+        public void flush(NextFilter nextFilter, IoSession session)
+        {
+            out.flush(nextFilter, session);
+        }
+    }
+}
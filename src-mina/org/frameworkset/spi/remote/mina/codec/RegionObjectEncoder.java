@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.mina.codec;
+
+import org.apache.mina.core.buffer.IoBuffer;
+import org.apache.mina.core.file.FileRegion;
+import org.apache.mina.core.session.IoSession;
+import org.apache.mina.filter.codec.ProtocolEncoderOutput;
+import org.apache.mina.filter.codec.serialization.ObjectSerializationEncoder;
+
+/**
+ * <p>Title: RegionObjectEncoder.java</p>
+ * <p>Description: 对象编码器，字节区域的原始内容（FileRegion和IoBuffer）不做编码直接输出</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:42:18
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RegionObjectEncoder extends ObjectSerializationEncoder
+{
+    @Override
+    public void encode(IoSession session, Object message, ProtocolEncoderOutput out) throws Exception
+    {
+        if (message instanceof IoBuffer || message instanceof FileRegion)
+        {
+            out.write(message);
+            return;
+        }
+        super.encode(session, message, out);
+    }
+}
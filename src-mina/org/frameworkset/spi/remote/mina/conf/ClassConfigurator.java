@@ -5,36 +5,27 @@ package org.frameworkset.spi.remote.mina.conf;
 
 import java.util.Iterator;
 import java.util.Map;
-import java.util.SortedSet;
-import java.util.TreeSet;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.frameworkset.spi.remote.Global;
 import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.remote.serializable.ClassRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
 /**
- * This class will be replaced with the class that read info
- * from the magic number configurator that reads info from the xml file.
- * The name and the relative path of the magic number map file can be specified
- * as value of the property <code>bboss.org.jgroups.conf.magicNumberFile</code>.
- * It must be relative to one of the classpath elements, to allow the
- * classloader to locate the file. If a value is not specified,
- * <code>MagicNumberReader.MAGIC_NUMBER_FILE</code> is used, which defaults
- * to "bboss-magic-map.xml".
+ * Magic number lookups of the mina transport, backed by the transport independent
+ * {@link ClassRegistry} so that every codec shares the same class ids.
+ * An additional magic number map file can be specified as value of the property
+ * <code>bboss.org.jgroups.conf.magicNumberFile</code>; its entries are added to the
+ * shared registry and must use magic numbers greater than 1024.
  *
  * @author Filip Hanik
  * @author Bela Ban
  * @see MagicNumberReader
+ * @see ClassRegistry
  */
 public class ClassConfigurator {
-    private static final short MIN_CUSTOM_MAGIC_NUMBER=1024;
-
-    //this is where we store magic numbers
-    private static final Map<Class,Short> classMap=new ConcurrentHashMap<Class,Short>(); // key=Class, value=magic number
-    private static final Map<Short,Class> magicMap=new ConcurrentHashMap<Short,Class>(); // key=magic number, value=Class
     protected static final Logger log = LoggerFactory.getLogger(ClassConfigurator.class);
 
 
@@ -52,44 +43,31 @@ public class ClassConfigurator {
 
     protected static void init() throws MinaConfException {
         try {
-            // make sure we have a class for DocumentBuilderFactory
-            // getClass().getClassLoader().loadClass("javax.xml.parsers.DocumentBuilderFactory");
-            Util.loadClass("javax.xml.parsers.DocumentBuilderFactory", ClassConfigurator.class);
-
-            MagicNumberReader reader=new MagicNumberReader();
-
+            String mnfile=null;
             // PropertyPermission not granted if running in an untrusted environment with JNLP.
             try {
-                String mnfile=Util.getProperty(new String[]{Global.MAGIC_NUMBER_FILE, "bboss.org.jgroups.conf.magicNumberFile"},
-                                               null, null, false, null);
-                if(mnfile != null) {
-                    if(log.isDebugEnabled()) log.debug("Using " + mnfile + " as magic number file");
-                    reader.setFilename(mnfile);
-                }
+                mnfile=Util.getProperty(new String[]{Global.MAGIC_NUMBER_FILE, "bboss.org.jgroups.conf.magicNumberFile"},
+                                        null, null, false, null);
             }
             catch (SecurityException ex){
             }
-
+            if(mnfile == null)
+                return;
+            if(log.isDebugEnabled()) log.debug("Using " + mnfile + " as magic number file");
+            MagicNumberReader reader=new MagicNumberReader();
+            reader.setFilename(mnfile);
             ClassMap[] mapping=reader.readMagicNumberMapping();
             if(mapping != null) {
-                Short m;
                 for(int i=0; i < mapping.length; i++) {
-                    m=new Short(mapping[i].getMagicNumber());
                     try {
-                        Class clazz=mapping[i].getClassForMap();
-                        if(magicMap.containsKey(m)) {
-                            throw new MinaConfException("magic key " + m + " (" + clazz.getName() + ')' +
-                                                       " is already in map; please make sure that " +
-                                                       "all magic keys are unique");
-                        }
-                        else {
-                            magicMap.put(m, clazz);
-                            classMap.put(clazz, m);
-                        }
+                        ClassRegistry.add(mapping[i].getMagicNumber(), mapping[i].getClassForMap());
                     }
                     catch(ClassNotFoundException cnf) {
                         throw new MinaConfException("failed loading class", cnf);
                     }
+                    catch(IllegalArgumentException e) {
+                        throw new MinaConfException(e.getMessage(), e);
+                    }
                 }
                 if(log.isDebugEnabled()) log.debug("mapping is:\n" + printMagicMap());
             }
@@ -102,35 +80,14 @@ public class ClassConfigurator {
         }
     }
 
-
-//    public static ClassConfigurator getInstance(boolean init) throws ChannelException {
-//        if(instance == null) {
-//            instance=new ClassConfigurator();
-//            if(init)
-//                instance.init();
-//        }
-//        return instance;
-//    }
-//
-//    public static ClassConfigurator getInstance() throws ChannelException {
-//        return getInstance(false);
-//    }
-
     /**
-     * Method to register a user-defined header with jg-magic-map at runtime
+     * Method to register a user-defined class with the shared class registry at runtime
      * @param magic The magic number. Needs to be > 1024
-     * @param clazz The class. Usually a subclass of Header
+     * @param clazz The class
      * @throws IllegalArgumentException If the magic number is already taken, or the magic number is <= 1024
      */
      public static void add(short magic, Class clazz) throws IllegalArgumentException {
-        if(magic <= MIN_CUSTOM_MAGIC_NUMBER)
-            throw new IllegalArgumentException("magic number (" + magic + ") needs to be greater than " +
-                    MIN_CUSTOM_MAGIC_NUMBER);
-        if(magicMap.containsKey(magic) || classMap.containsKey(clazz))
-            throw new IllegalArgumentException("magic number " + magic + " for class " + clazz.getName() +
-                    " is already present");
-        magicMap.put(magic, clazz);
-        classMap.put(clazz, magic);
+        ClassRegistry.add(magic, clazz);
     }
 
     /**
@@ -138,10 +95,10 @@ public class ClassConfigurator {
      * Returns null if no class is found
      *
      * @param magic the magic number that maps to the class
-     * @return a Class object that represents a class that implements java.io.Externalizable
+     * @return a Class object
      */
     public static Class get(short magic) {
-        return magicMap.get(magic);
+        return ClassRegistry.get(magic);
     }
 
     /**
@@ -168,11 +125,7 @@ public class ClassConfigurator {
      * @return the magic number for a class, -1 if no mapping is available
      */
     public static short getMagicNumber(Class clazz) {
-        Short i=classMap.get(clazz);
-        if(i == null)
-            return -1;
-        else
-            return i;
+        return ClassRegistry.getMagicNumber(clazz);
     }
 
 
@@ -183,22 +136,16 @@ public class ClassConfigurator {
     }
 
     public static String printMagicMap() {
-        StringBuilder sb=new StringBuilder();
-        SortedSet<Short> keys=new TreeSet<Short>(magicMap.keySet());
-
-        for(Short key: keys) {
-            sb.append(key).append(":\t").append(magicMap.get(key)).append('\n');
-        }
-        return sb.toString();
+        return ClassRegistry.printMagicMap();
     }
 
     public static String printClassMap() {
         StringBuilder sb=new StringBuilder();
-        Map.Entry entry;
+        Map.Entry<Short,Class> entry;
 
-        for(Iterator it=classMap.entrySet().iterator(); it.hasNext();) {
-            entry=(Map.Entry)it.next();
-            sb.append(entry.getKey()).append(": ").append(entry.getValue()).append('\n');
+        for(Iterator<Map.Entry<Short,Class>> it=ClassRegistry.getMappings().entrySet().iterator(); it.hasNext();) {
+            entry=it.next();
+            sb.append(entry.getValue()).append(": ").append(entry.getKey()).append('\n');
         }
         return sb.toString();
     }
@@ -16,6 +16,7 @@ import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.remote.serializable.ClassRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
@@ -26,7 +27,7 @@ import org.w3c.dom.NodeList;
 import bboss.org.jgroups.ChannelException;
 
 public class MagicNumberReader {
-    public static final String MAGIC_NUMBER_FILE="mina-magic-map.xml";
+    public static final String MAGIC_NUMBER_FILE=ClassRegistry.MAGIC_NUMBER_FILE;
 
     public String mMagicNumberFile=MAGIC_NUMBER_FILE;
 
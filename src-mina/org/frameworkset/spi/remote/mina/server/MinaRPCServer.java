@@ -26,7 +26,6 @@ import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.mina.core.filterchain.DefaultIoFilterChainBuilder;
 import org.apache.mina.filter.codec.ProtocolCodecFilter;
-import org.apache.mina.filter.codec.serialization.ObjectSerializationCodecFactory;
 import org.apache.mina.filter.executor.ExecutorFilter;
 import org.apache.mina.filter.ssl.SslFilter;
 import org.apache.mina.transport.socket.nio.NioSocketAcceptor;
@@ -38,6 +37,7 @@ import org.frameworkset.spi.remote.Target;
 import org.frameworkset.spi.remote.Util;
 import org.frameworkset.spi.remote.mina.MinaUtil;
 import org.frameworkset.spi.remote.mina.client.ClinentTransport;
+import org.frameworkset.spi.remote.mina.codec.RegionCodecFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -200,7 +200,7 @@ public class MinaRPCServer
 		        }
 		        // add an IoFilter .  This class is responsible for converting the incoming and 
 		        // outgoing raw data to ImageRequest and ImageResponse objects
-		        acceptor.getFilterChain().addLast("protocol", new ProtocolCodecFilter(new ObjectSerializationCodecFactory()));
+		        acceptor.getFilterChain().addLast("protocol", new ProtocolCodecFilter(new RegionCodecFactory()));
 		        
 		        // get a reference to the filter chain from the acceptor
 		        DefaultIoFilterChainBuilder filterChainBuilder = acceptor.getFilterChain();
@@ -29,6 +29,9 @@ import org.frameworkset.spi.remote.RPCMessage;
 import org.frameworkset.spi.remote.RequestHandler;
 import org.frameworkset.spi.remote.Target;
 import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.remote.metrics.RPCMetrics;
+import org.frameworkset.spi.remote.mina.MinaRegionTransfer;
+import org.frameworkset.spi.remote.region.RegionRegistry;
 import org.frameworkset.spi.serviceidentity.TargetImpl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -117,14 +120,18 @@ public class RPCServerIoHandler extends BaseRPCIOHandler implements RPCIOHandler
         // System.out.println(message);
         assertMessage(message);
 //        RPCMessage message_ = (RPCMessage) message;
+        long received = System.nanoTime();
         RPCMessage message_ = (RPCMessage)Util.getDecoder().decoder(message);
+        RegionRegistry.bind(RegionRegistry.scope("mina", session.getId()), message_);
         Header hdr = message_.getHeader(name);
+        if (RPCMetrics.enable)
+            RPCMetrics.requestReceived(message_, hdr, received, System.nanoTime() - received);
         RPCMessage rsp = super.messageReceived(message_);
         switch (hdr.getType())
         {
             case Header.REQ:
                 if (rsp != null)
-                    session.write(rsp);
+                    MinaRegionTransfer.write(session, rsp, rsp);
                 break;
             case Header.RSP:                
                 break;    
@@ -21,8 +21,6 @@ import org.frameworkset.spi.remote.Util;
 import org.jboss.netty.channel.ChannelPipeline;
 import org.jboss.netty.channel.ChannelPipelineFactory;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
-import org.jboss.netty.handler.codec.serialization.ObjectDecoder;
-import org.jboss.netty.handler.codec.serialization.ObjectEncoder;
 import org.jboss.netty.handler.ssl.SslHandler;
 
 import javax.net.ssl.SSLEngine;
@@ -78,8 +76,8 @@ public class NettyChannelPipelineFactory implements ChannelPipelineFactory
         
         ChannelUpstreamHandler sh = null;
         sh = (ChannelUpstreamHandler)Util.defaultContext.getBeanObject(Util.rpc_netty_RPCServerIoHandler); 
-        pipeline.addLast("decoder", new ObjectDecoder(maxFramgeLength));
-        pipeline.addLast("encoder", new ObjectEncoder(estimatedLength));
+        pipeline.addLast("decoder", new RegionObjectDecoder(maxFramgeLength));
+        pipeline.addLast("encoder", new RegionObjectEncoder(estimatedLength));
         pipeline.addLast("handler", sh);
         return pipeline;
     }
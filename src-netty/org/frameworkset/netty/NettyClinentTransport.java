@@ -39,14 +39,13 @@ import org.frameworkset.spi.remote.RemoteException;
 import org.frameworkset.spi.remote.SSLHelper;
 import org.frameworkset.spi.remote.Target;
 import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.remote.metrics.CallTimer;
 import org.jboss.netty.bootstrap.ClientBootstrap;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelFactory;
 import org.jboss.netty.channel.ChannelFuture;
 import org.jboss.netty.channel.ChannelUpstreamHandler;
 import org.jboss.netty.channel.socket.nio.NioClientSocketChannelFactory;
-import org.jboss.netty.handler.codec.serialization.ObjectDecoder;
-import org.jboss.netty.handler.codec.serialization.ObjectEncoder;
 import org.jboss.netty.handler.ssl.SslHandler;
 
 /**
@@ -368,8 +367,8 @@ public class NettyClinentTransport {
  	            cb.getPipeline().addFirst("ssl", new SslHandler(eg));
  	
  	        
- 	        cb.getPipeline().addLast("decoder", new ObjectDecoder(commons.getInt("maxFramgeLength_",NettyChannelPipelineFactory.maxFramgeLength_)));
- 	        cb.getPipeline().addLast("encoder", new ObjectEncoder(commons.getInt("estimatedLength_",NettyChannelPipelineFactory.estimatedLength_)));
+ 	        cb.getPipeline().addLast("decoder", new RegionObjectDecoder(commons.getInt("maxFramgeLength_",NettyChannelPipelineFactory.maxFramgeLength_)));
+ 	        cb.getPipeline().addLast("encoder", new RegionObjectEncoder(commons.getInt("estimatedLength_",NettyChannelPipelineFactory.estimatedLength_)));
  	        cb.getPipeline().addLast("handler", corr);
  	
  	        cb.setOption("connectTimeoutMillis", commons.getInt("connection.timeout",10) * 1000);
@@ -543,8 +542,15 @@ public class NettyClinentTransport {
         try
         {
             setSourceAddress(message);
+            CallTimer timer = message.callTimer();
+            long start = timer != null ? System.nanoTime() : 0L;
             Object msg = Util.getEncoder().encoder(message);
-            this.cc.write(msg);
+            if (timer != null)
+            {
+                timer.add(CallTimer.CLIENT_ENCODE, System.nanoTime() - start);
+                timer.markSent();
+            }
+            NettyRegionTransfer.write(this.cc, msg, message);
         }
         catch(Exception e)
         {
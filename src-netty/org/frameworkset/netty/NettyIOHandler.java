@@ -28,6 +28,8 @@ import org.frameworkset.spi.remote.RPCAddress;
 import org.frameworkset.spi.remote.RPCMessage;
 import org.frameworkset.spi.remote.RequestHandler;
 import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.remote.metrics.RPCMetrics;
+import org.frameworkset.spi.remote.region.RegionRegistry;
 import org.jboss.netty.buffer.ChannelBuffer;
 import org.jboss.netty.channel.Channel;
 import org.jboss.netty.channel.ChannelEvent;
@@ -142,6 +144,7 @@ public class NettyIOHandler extends BaseRPCIOHandler implements ChannelUpstreamH
      */
     public void messageReceived(
             ChannelHandlerContext ctx,final MessageEvent e) throws Exception {
+        final long received = System.nanoTime();
         executor.execute(new Runnable(){
 
             public void run()
@@ -151,16 +154,20 @@ public class NettyIOHandler extends BaseRPCIOHandler implements ChannelUpstreamH
                  RPCMessage rsp;
 				try {
 					Object m = e.getMessage();
+					long decodeStart = System.nanoTime();
 					RPCMessage message_ = (RPCMessage) Util.getDecoder().decoder(m);
+					RegionRegistry.bind(RegionRegistry.scope("netty", e.getChannel().getId()), message_);
 //	            	 RPCMessage message_ = (RPCMessage) e.getMessage();
 	                 Header hdr = message_.getHeader(name);
+	                 if (RPCMetrics.enable)
+	                	 RPCMetrics.requestReceived(message_, hdr, received, System.nanoTime() - decodeStart);
 					rsp = messageReceived( message_);
 				
 	                 switch (hdr.getType())
 	                 {
 	                     case Header.REQ:
 	                         if (rsp != null)
-	                        	 e.getChannel().write( rsp);
+	                        	 NettyRegionTransfer.write(e.getChannel(), rsp, rsp);
 	                         break;
 	                     case Header.RSP:                
 	                         break;    
@@ -0,0 +1,116 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.netty;
+
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.assemble.ProMap;
+import org.frameworkset.spi.remote.RPCMessage;
+import org.frameworkset.spi.remote.region.ByteRegion;
+import org.frameworkset.spi.remote.region.RegionContent;
+import org.frameworkset.spi.remote.region.RegionHeader;
+import org.frameworkset.spi.remote.region.RegionRegistry;
+import org.jboss.netty.buffer.ChannelBuffers;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelFuture;
+import org.jboss.netty.channel.ChannelFutureListener;
+import org.jboss.netty.channel.DefaultFileRegion;
+
+/**
+ * <p>Title: NettyRegionTransfer.java</p>
+ * <p>Description: 发送消息前先发送消息中的字节区域，每个区域由区域头和原始内容组成，
+ * 文件内容通过DefaultFileRegion以transferTo的方式零拷贝发送，ByteBuffer直接包装后发送；
+ * 启用ssl时文件内容以内存映射的方式交给SslHandler加密。
+ * 同一连接上区域和消息的写入必须连续，因此所有写入都在连接上同步。
+ * 响应消息写入完成后释放其中作为返回值的区域。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:37:22
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class NettyRegionTransfer
+{
+    private static Boolean ssl;
+
+    private static boolean ssl()
+    {
+        if (ssl == null)
+        {
+            ProMap commons = BaseSPIManager2.getMapProperty("rpc.protocol.netty.params");
+            ssl = Boolean.valueOf(commons != null && commons.getBoolean("enablessl", false));
+        }
+        return ssl.booleanValue();
+    }
+
+    /**
+     * @param channel
+     * @param message 写入连接的消息对象
+     * @param rpcmessage 消息对象对应的RPCMessage，从中查找需要传输的字节区域
+     * @return
+     * @throws Exception
+     */
+    public static ChannelFuture write(Channel channel, Object message, final RPCMessage rpcmessage) throws Exception
+    {
+        List<ByteRegion> regions = RegionRegistry.collect(rpcmessage);
+        ChannelFuture future;
+        synchronized (channel)
+        {
+            for (int i = 0; i < regions.size(); i++)
+                writeRegion(channel, regions.get(i));
+            future = channel.write(message);
+        }
+        if (!regions.isEmpty())
+        {
+            future.addListener(new ChannelFutureListener()
+            {
+                public void operationComplete(ChannelFuture future)
+                {
+                    RegionRegistry.written(rpcmessage);
+                }
+            });
+        }
+        return future;
+    }
+
+    private static void writeRegion(Channel channel, ByteRegion region) throws Exception
+    {
+        RegionContent content = RegionRegistry.lookup(region.getId());
+        if (content == null)
+            throw new IllegalStateException("content of region " + region.getId() + " has been released.");
+        channel.write(new RegionHeader(region.getId(), content.getLength()));
+        if (content.isFile() && !ssl())
+        {
+            FileChannel file = content.openChannel();
+            final DefaultFileRegion fileRegion = new DefaultFileRegion(file, content.getPosition(), content.getLength());
+            channel.write(fileRegion).addListener(new ChannelFutureListener()
+            {
+                public void operationComplete(ChannelFuture future)
+                {
+                    fileRegion.releaseExternalResources();
+                }
+            });
+        }
+        else
+        {
+            channel.write(ChannelBuffers.wrappedBuffer(content.asByteBuffer()));
+        }
+    }
+}
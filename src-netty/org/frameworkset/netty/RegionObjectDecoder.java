@@ -0,0 +1,71 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.netty;
+
+import org.frameworkset.spi.remote.region.RegionHeader;
+import org.frameworkset.spi.remote.region.RegionReceiver;
+import org.frameworkset.spi.remote.region.RegionRegistry;
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.handler.codec.serialization.ObjectDecoder;
+
+/**
+ * <p>Title: RegionObjectDecoder.java</p>
+ * <p>Description: 对象解码器，解码到区域头时切换为原始字节模式，读取区域头指定长度的内容交给RegionReceiver，
+ * 读取完毕后恢复对象解码。每个连接使用独立的解码器实例，收到的内容以连接标识为前缀登记。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:33:40
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RegionObjectDecoder extends ObjectDecoder
+{
+    private RegionReceiver receiver;
+
+    public RegionObjectDecoder(int maxObjectSize)
+    {
+        super(maxObjectSize);
+    }
+
+    @Override
+    protected Object decode(ChannelHandlerContext ctx, Channel channel, ChannelBuffer buffer) throws Exception
+    {
+        for (;;)
+        {
+            if (receiver != null)
+            {
+                int count = (int) Math.min(buffer.readableBytes(), receiver.getRemaining());
+                if (count > 0)
+                {
+                    receiver.write(buffer.toByteBuffer(buffer.readerIndex(), count));
+                    buffer.skipBytes(count);
+                }
+                if (!receiver.isComplete())
+                    return null;
+                receiver.finish();
+                receiver = null;
+            }
+            Object message = super.decode(ctx, channel, buffer);
+            if (!(message instanceof RegionHeader))
+                return message;
+            receiver = new RegionReceiver(RegionRegistry.scope("netty", channel.getId()), (RegionHeader) message);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.netty;
+
+import org.jboss.netty.buffer.ChannelBuffer;
+import org.jboss.netty.channel.Channel;
+import org.jboss.netty.channel.ChannelHandlerContext;
+import org.jboss.netty.channel.FileRegion;
+import org.jboss.netty.handler.codec.serialization.ObjectEncoder;
+
+/**
+ * <p>Title: RegionObjectEncoder.java</p>
+ * <p>Description: 对象编码器，字节区域的原始内容（FileRegion和ChannelBuffer）不做编码直接写入连接</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:31:14
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RegionObjectEncoder extends ObjectEncoder
+{
+    public RegionObjectEncoder(int estimatedLength)
+    {
+        super(estimatedLength);
+    }
+
+    @Override
+    protected Object encode(ChannelHandlerContext ctx, Channel channel, Object msg) throws Exception
+    {
+        if (msg instanceof FileRegion || msg instanceof ChannelBuffer)
+            return msg;
+        return super.encode(ctx, channel, msg);
+    }
+}
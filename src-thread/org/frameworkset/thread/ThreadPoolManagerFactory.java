@@ -15,11 +15,11 @@
  */
 package org.frameworkset.thread;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
@@ -100,7 +100,7 @@ public class ThreadPoolManagerFactory
      */
     private static final Logger log = LoggerFactory.getLogger(ThreadPoolManagerFactory.class);
 
-    private static Map<String, InnerThreadPoolExecutor> pools = new HashMap<String, InnerThreadPoolExecutor>();
+    private static Map<String, InnerThreadPoolExecutor> pools = new ConcurrentHashMap<String, InnerThreadPoolExecutor>();
 
     private static ProMap<String, Pro> defaultPoolparams = new ProMap<String, Pro>();
     static
@@ -281,6 +281,24 @@ public class ThreadPoolManagerFactory
 
     }
 
+    /**
+     * 关闭并移除指定名称的线程池，再次获取时按照配置重新创建
+     * @param threadpoolname
+     */
+    public static void shutdownThreadPoolExecutor(String threadpoolname)
+    {
+        InnerThreadPoolExecutor poolExecutor = null;
+        synchronized (ThreadPoolManagerFactory.class)
+        {
+            poolExecutor = pools.remove(threadpoolname);
+        }
+        if (poolExecutor != null)
+        {
+            log.debug("Shutdown thread pool[" + threadpoolname + "].");
+            poolExecutor.shutdown();
+        }
+    }
+
     public static class WaitParam
     {
         volatile long initdelayTime = 1 * 1000;
@@ -16,12 +16,17 @@
 
 package org.frameworkset.spi;
 
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.frameworkset.netty.NettyRPCServer;
+import org.frameworkset.spi.asm.RemoteStubGenerator;
 import org.frameworkset.spi.assemble.ServiceProviderManager;
 import org.frameworkset.spi.cglib.CGLibUtil;
 import org.frameworkset.spi.cglib.RemoteCGLibProxy;
@@ -33,10 +38,12 @@ import org.frameworkset.spi.remote.RPCHelper;
 import org.frameworkset.spi.remote.RemoteServiceID;
 import org.frameworkset.spi.remote.Target;
 import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.remote.batch.RPCBatch;
 import org.frameworkset.spi.remote.context.RequestContext;
 import org.frameworkset.spi.remote.jms.JMSServer;
 import org.frameworkset.spi.remote.mina.server.MinaRPCServer;
 import org.frameworkset.spi.remote.rmi.RMIServer;
+import org.frameworkset.spi.remote.trace.Tracer;
 import org.frameworkset.spi.security.SecurityContext;
 import org.frameworkset.spi.security.SecurityManager;
 
@@ -118,27 +125,47 @@ public class ClientProxyContext
 	/**
 	 * 缓存客户端代理组件类：
 	 * key String类型，对应容器根配置文件
-	 * value  Map<String,Object>类型，key表示组件url地址，Object代表客户端代理组件
+	 * value  ConcurrentMap<String,FutureTask<Object>>类型，key表示组件url地址，FutureTask代表客户端代理组件的创建任务，
+	 * 同一个组件的代理只创建一次，并发获取同一组件的线程等待创建完成，获取其他组件的线程不受影响
 	 */
-	private static Map<String,Map<String,Object>> clientbeans = new HashMap<String,Map<String,Object>>();
-	private static Object findObjectFromcache(String context,String name)
-	{
-		Map<String,Object> objects = clientbeans.get(context);
-		if(objects == null)
-			return null;
-		Object val = objects.get(name);
-		return val;
-	}
-	private static void cacheObject(String context,String name,Object value)
+	private static final ConcurrentMap<String,ConcurrentMap<String,FutureTask<Object>>> clientbeans = new ConcurrentHashMap<String,ConcurrentMap<String,FutureTask<Object>>>();
+	
+	/**
+	 * 缓存服务地址中的参数解析结果，key为服务地址各级restful地址的参数串
+	 */
+	private static final ConcurrentMap<String,CallParameters> callParameters = new ConcurrentHashMap<String,CallParameters>();
+	
+	/**
+	 * 参数解析结果缓存的最大条数，超过后不再缓存，避免参数中包含动态值时缓存无限增长
+	 */
+	private static final int MAX_CALLPARAMETERS = 1024;
+	
+	/**
+	 * 服务地址参数解析结果，user和password以外的参数作为消息头
+	 */
+	private static class CallParameters
 	{
-		Map<String,Object> objects = clientbeans.get(context);
-		if(objects == null)
+		final Headers headers;
+		final String user;
+		final String password;
+		final boolean hasparams;
+		CallParameters(Headers headers,String user,String password,boolean hasparams)
 		{
-			objects = new HashMap<String,Object>();
-			clientbeans.put(context, objects);
+			this.headers = headers;
+			this.user = user;
+			this.password = password;
+			this.hasparams = hasparams;
 		}
-		
-		objects.put(name,value);		
+	}
+	
+	private static ConcurrentMap<String,FutureTask<Object>> getContextCache(String context)
+	{
+		ConcurrentMap<String,FutureTask<Object>> objects = clientbeans.get(context);
+		if(objects != null)
+			return objects;
+		objects = new ConcurrentHashMap<String,FutureTask<Object>>();
+		ConcurrentMap<String,FutureTask<Object>> old = clientbeans.putIfAbsent(context, objects);
+		return old != null ? old:objects;
 	}
 	/**
 	 * 获取DefaultApplicationContext类型容器中的服务组件调用代理
@@ -174,62 +201,101 @@ public class ClientProxyContext
 	}
 	
 	@SuppressWarnings("unchecked")
-	private static <T> T _getClientBean(String context,String name,Class<T> type,int containerType)
+	private static <T> T _getClientBean(final String context,final String name,final Class<T> type,final int containerType)
 	{
-    	T value = (T)findObjectFromcache( context,name);
-		if(value != null)
-			return value;
-		synchronized(ClientProxyContext.class)
+		ConcurrentMap<String,FutureTask<Object>> objects = getContextCache(context);
+		FutureTask<Object> task = objects.get(name);
+		if(task == null)
 		{
-			
-			value = (T)findObjectFromcache( context,name);
-			if(value != null)
-				return value;
-			RemoteServiceID serviceID = buildServiceID(name,context,containerType);
-			serviceID.setInfType(type.getName());
-			RemoteCallContext ccontext = new RemoteCallContextImpl(context,containerType);
-			buildClientCallContext(serviceID, ccontext,false);
-			value =  CGLibUtil.getBeanInstance(type, new RemoteCGLibProxy(serviceID,ccontext));
-			cacheObject(context,name,value);
-			
+			FutureTask<Object> created = new FutureTask<Object>(new Callable<Object>(){
+				public Object call() throws Exception {
+					RemoteServiceID serviceID = buildServiceID(name,context,containerType);
+					serviceID.setInfType(type.getName());
+					RemoteCallContext ccontext = new RemoteCallContextImpl(context,containerType);
+					buildClientCallContext(serviceID, ccontext,false);
+					//优先使用asm生成的客户端桩，接口不支持时退回cglib代理
+					Object stub = RemoteStubGenerator.enable?RemoteStubGenerator.newStub(type, serviceID, ccontext):null;
+					if(stub != null)
+						return stub;
+					return CGLibUtil.getBeanInstance(type, new RemoteCGLibProxy(serviceID,ccontext));
+				}
+			});
+			task = objects.putIfAbsent(name, created);
+			if(task == null)
+			{
+				task = created;
+				created.run();
+			}
+		}
+		try
+		{
+			return (T)task.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new SPIException("Get client bean[" + name + "] from context[" + context + "] interrupted.");
+		}
+		catch (ExecutionException e)
+		{
+			//创建失败时移除创建任务，下次获取时重新创建
+			objects.remove(name, task);
+			Throwable cause = e.getCause();
+			if(cause instanceof RuntimeException)
+				throw (RuntimeException)cause;
+			if(cause instanceof Error)
+				throw (Error)cause;
+			throw new RuntimeException(cause);
 		}
-		return value;
 		
 	}
-
+	
 	/**
-	 * 构建特定组件管理容器远程请求调用上下文中参数头信息和安全上下文信息
-	 * 
-	 * @fixed biaoping.yin 2010-10-11
-	 * @param params
-	 * @param context
-	 * @param applicationContext
+	 * 获取服务地址中各级restful地址的参数解析结果，解析结果按参数串缓存
+	 * @param remoteServiceID
 	 * @return
 	 */
-	public static RemoteCallContext buildClientCallContext(RemoteServiceID remoteServiceID,
-			RemoteCallContext context,boolean fromrest) {
-		String params = null;
-		Headers headers = null;
-		SecurityContext securityContext = null;
-		String user = null;
-		String password = null;
-		boolean hasparams = false;
-//		Map<String,Header> contextHeaders = null;
-		Map<String,Header> contextHeaders = fromrest && RequestContext.getRequestContext(false) != null ?RequestContext.getRequestContext(false).getHeaders():null;
+	private static CallParameters getCallParameters(RemoteServiceID remoteServiceID)
+	{
+		String key = null;
+		StringBuilder builder = null;
 		do
 		{
-			params = remoteServiceID.getUrlParams();
+			String params = remoteServiceID.getUrlParams();
+			remoteServiceID = remoteServiceID.getRestfulServiceID();
 			if(params == null || params.equals(""))
-			{
-				remoteServiceID = remoteServiceID.getRestfulServiceID();
 				continue;
-			}
+			if(key == null)
+				key = params;
 			else
 			{
-				if(!hasparams)
-					hasparams = true;
-				remoteServiceID = remoteServiceID.getRestfulServiceID();
+				if(builder == null)
+					builder = new StringBuilder(key);
+				builder.append('\n').append(params);
 			}
+		}while(remoteServiceID != null);
+		if(builder != null)
+			key = builder.toString();
+		if(key == null)
+			return new CallParameters(null,null,null,false);
+		CallParameters parameters = callParameters.get(key);
+		if(parameters != null)
+			return parameters;
+		parameters = parseCallParameters(key);
+		if(callParameters.size() < MAX_CALLPARAMETERS)
+			callParameters.putIfAbsent(key, parameters);
+		return parameters;
+	}
+	
+	private static CallParameters parseCallParameters(String key)
+	{
+		Headers headers = null;
+		String user = null;
+		String password = null;
+		StringTokenizer ltokenizer = new StringTokenizer(key, "\n", false);
+		while (ltokenizer.hasMoreTokens())
+		{
+			String params = ltokenizer.nextToken();
 			StringTokenizer tokenizer = new StringTokenizer(params, "&", false);
 			
 			/**
@@ -261,13 +327,35 @@ public class ClientProxyContext
 					headers.put(header.getName(), header);
 				}
 			}
-		}while(remoteServiceID != null);
-		if(!hasparams)
+		}
+		return new CallParameters(headers,user,password,true);
+	}
+
+	/**
+	 * 构建特定组件管理容器远程请求调用上下文中参数头信息和安全上下文信息
+	 * 
+	 * @fixed biaoping.yin 2010-10-11
+	 * @param params
+	 * @param context
+	 * @param applicationContext
+	 * @return
+	 */
+	public static RemoteCallContext buildClientCallContext(RemoteServiceID remoteServiceID,
+			RemoteCallContext context,boolean fromrest) {
+		SecurityContext securityContext = null;
+//		Map<String,Header> contextHeaders = null;
+		Map<String,Header> contextHeaders = fromrest && RequestContext.getRequestContext(false) != null ?RequestContext.getRequestContext(false).getHeaders():null;
+		CallParameters parameters = getCallParameters(remoteServiceID);
+		//缓存的解析结果被多个调用上下文共享，每个上下文使用自己的消息头副本
+		Headers headers = parameters.headers == null ? null : new Headers(parameters.headers);
+		if(!parameters.hasparams)
 		{
 			if(contextHeaders != null&& contextHeaders.size() > 0)
 			{
 				headers = new Headers();
 				headers.putAll(contextHeaders);
+				//调用链上下文由RPCClient在每次发送请求时根据当前请求上下文重新生成
+				headers.remove(Tracer.TRACE_HEADER);
 				context.setHeaders(headers);
 			}
 			
@@ -276,14 +364,14 @@ public class ClientProxyContext
 		else
 		{
 			if (securityContext == null)
-				securityContext = new SecurityContext(user, password);
+				securityContext = new SecurityContext(parameters.user, parameters.password);
 			context.setSecutiryContext(securityContext);
 			if(contextHeaders != null && contextHeaders.size() > 0)
 			{
 				if(headers == null)
 					headers = new Headers();
 				headers.putAll(contextHeaders);
-				
+				headers.remove(Tracer.TRACE_HEADER);
 			}
 			context.setHeaders(headers);
 			return context;
@@ -367,6 +455,26 @@ public class ClientProxyContext
 		return _getClientBean(BaseApplicationContext.mvccontainer_identifier,name,type,BaseApplicationContext.container_type_mvc);
 	}
 	
+	/**
+	 * 创建服务端默认容器的批量调用，将同一节点上的多次调用合并为一个请求发送
+	 * @return 批量调用
+	 */
+	public static RPCBatch createBatch()
+	{
+		return createBatch(ServiceProviderManager.defaultConfigFile,BaseApplicationContext.container_type_application);
+	}
+	
+	/**
+	 * 创建指定容器的批量调用
+	 * @param context 容器标识，一般是容器初始化的配置文件路径
+	 * @param containertype 容器类型
+	 * @return 批量调用
+	 */
+	public static RPCBatch createBatch(String context,int containertype)
+	{
+		return new RPCBatch(context,containertype);
+	}
+	
 	public static RemoteServiceID buildServiceID(String serviceid,String applicationcontext,int containerType) {
 		return RPCHelper.buildClientServiceID(serviceid, applicationcontext		, containerType		 );
 
@@ -0,0 +1,66 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.asm;
+
+import org.frameworkset.spi.RemoteCallContext;
+import org.frameworkset.spi.remote.RPCHelper;
+import org.frameworkset.spi.remote.RemoteMethodDescriptor;
+
+/**
+ * <p>Title: RemoteStub.java</p>
+ * <p>Description: RemoteStubGenerator生成的客户端桩的父类，生成的接口方法把参数打包成数组后
+ * 按照方法序号调用invoke，不再经过cglib的方法拦截和Method分派。</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午08:45:02
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public abstract class RemoteStub
+{
+    protected final RemoteMethodDescriptor[] descriptors;
+
+    protected final RemoteCallContext callcontext;
+
+    protected RemoteStub(RemoteMethodDescriptor[] descriptors, RemoteCallContext callcontext)
+    {
+        this.descriptors = descriptors;
+        this.callcontext = callcontext;
+    }
+
+    protected Object invoke(int index, Object[] parameters) throws Throwable
+    {
+        return RPCHelper.getRPCHelper().rpcService(descriptors[index], parameters, callcontext);
+    }
+
+    /**
+     * 返回值为基本类型的方法调用，结果为null时抛出带有方法名称的异常，而不是拆箱时没有任何信息的NullPointerException
+     */
+    protected final Object invokePrimitive(int index, Object[] parameters) throws Throwable
+    {
+        Object value = invoke(index, parameters);
+        if (value == null)
+            throw new NullPointerException("remote method " + descriptors[index].getMethod()
+                    + " returns null, which can not be converted to primitive return type.");
+        return value;
+    }
+
+    public String toString()
+    {
+        return "RemoteStub[" + (descriptors.length > 0 ? descriptors[0].getServiceID() : "") + "]";
+    }
+}
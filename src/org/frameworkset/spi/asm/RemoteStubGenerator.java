@@ -0,0 +1,270 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.asm;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.frameworkset.spi.RemoteCallContext;
+import org.frameworkset.spi.remote.RPCHelper;
+import org.frameworkset.spi.remote.RemoteMethodDescriptor;
+import org.frameworkset.spi.remote.RemoteServiceID;
+import org.frameworkset.spi.remote.Util;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.commons.GeneratorAdapter;
+import org.objectweb.asm.commons.Method;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: RemoteStubGenerator.java</p>
+ * <p>Description: 用asm为远程服务接口生成客户端桩，桩类继承RemoteStub并实现服务接口，
+ * 每个接口方法对应一个预先计算的RemoteMethodDescriptor，调用时只打包参数并发送请求。
+ * 每个接口只生成一次桩类，不同服务标识的客户端共用桩类、各自持有方法描述。
+ * 接口不是public、方法签名中包含非public的类型或者生成失败时返回null，由调用方退回到cglib代理。
+ * 与cglib代理一致，接口的default方法同样作为远程方法调用，不在本地执行；
+ * 基本类型返回值的方法收到null结果时抛出带有方法名称的NullPointerException。
+ * 通过rpc.client.stub=cglib可以关闭桩生成。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午08:52:46
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RemoteStubGenerator
+{
+    private static final Logger log = LoggerFactory.getLogger(RemoteStubGenerator.class);
+
+    public static final boolean enable = !"cglib".equals(Util.defaultContext.getProperty("rpc.client.stub", "asm"));
+
+    private static final Method STUB_CONSTRUCTOR = new Method("<init>", Type.VOID_TYPE,
+            new Type[] { Type.getType(RemoteMethodDescriptor[].class), Type.getType(RemoteCallContext.class) });
+
+    private static final Method STUB_INVOKE = new Method("invoke", Type.getType(Object.class),
+            new Type[] { Type.INT_TYPE, Type.getType(Object[].class) });
+
+    private static final Method STUB_INVOKE_PRIMITIVE = new Method("invokePrimitive", Type.getType(Object.class),
+            new Type[] { Type.INT_TYPE, Type.getType(Object[].class) });
+
+    private static final AtomicInteger sequence = new AtomicInteger();
+
+    private static final ConcurrentMap<Class<?>, StubFactory> factories = new ConcurrentHashMap<Class<?>, StubFactory>();
+
+    /**
+     * 无法生成桩的接口，避免重复尝试
+     */
+    static final StubFactory UNSUPPORTED = new StubFactory(null, null);
+
+    static class StubFactory
+    {
+        final Constructor<?> constructor;
+
+        final java.lang.reflect.Method[] methods;
+
+        StubFactory(Constructor<?> constructor, java.lang.reflect.Method[] methods)
+        {
+            this.constructor = constructor;
+            this.methods = methods;
+        }
+    }
+
+    /**
+     * 桩类的类加载器，接口相关的类从接口的类加载器加载，桩的基础类固定从本类的类加载器加载
+     */
+    private static class StubClassLoader extends ClassLoader
+    {
+        StubClassLoader(ClassLoader parent)
+        {
+            super(parent);
+        }
+
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException
+        {
+            if (name.equals(RemoteStub.class.getName()))
+                return RemoteStub.class;
+            if (name.equals(RemoteMethodDescriptor.class.getName()))
+                return RemoteMethodDescriptor.class;
+            if (name.equals(RemoteCallContext.class.getName()))
+                return RemoteCallContext.class;
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> define(String name, byte[] bytes)
+        {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+
+    /**
+     * 创建服务接口的客户端桩
+     * @return 桩实例，接口不支持生成桩时返回null
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T newStub(Class<T> type, RemoteServiceID serviceID, RemoteCallContext callcontext)
+    {
+        StubFactory factory = getStubFactory(type);
+        if (factory == UNSUPPORTED)
+            return null;
+        RPCHelper helper = RPCHelper.getRPCHelper();
+        RemoteMethodDescriptor[] descriptors = new RemoteMethodDescriptor[factory.methods.length];
+        for (int i = 0; i < descriptors.length; i++)
+            descriptors[i] = helper.buildMethodDescriptor(serviceID, factory.methods[i]);
+        try
+        {
+            return (T) factory.constructor.newInstance(descriptors, callcontext);
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException("Instance remote stub of " + type.getName() + " failed.", e);
+        }
+    }
+
+    private static StubFactory getStubFactory(Class<?> type)
+    {
+        StubFactory factory = factories.get(type);
+        if (factory != null)
+            return factory;
+        try
+        {
+            factory = generate(type, RemoteStub.class);
+        }
+        catch (Throwable e)
+        {
+            log.warn("Generate remote stub for " + type.getName() + " failed, use cglib proxy instead.", e);
+            factory = UNSUPPORTED;
+        }
+        StubFactory old = factories.putIfAbsent(type, factory);
+        return old != null ? old : factory;
+    }
+
+    /**
+     * @param type 服务接口
+     * @param superclass 桩类的父类，必须提供与RemoteStub相同参数的public构造函数
+     */
+    static StubFactory generate(Class<?> type, Class<? extends RemoteStub> superclass) throws Exception
+    {
+        if (!type.isInterface() || !isPublic(type))
+            return UNSUPPORTED;
+        List<java.lang.reflect.Method> methods = new ArrayList<java.lang.reflect.Method>();
+        Set<String> signatures = new HashSet<String>();
+        java.lang.reflect.Method[] candidates = type.getMethods();
+        for (int i = 0; i < candidates.length; i++)
+        {
+            java.lang.reflect.Method method = candidates[i];
+            int modifiers = method.getModifiers();
+            if (Modifier.isStatic(modifiers) || isObjectMethod(method))
+                continue;
+            if (!isPublic(method.getReturnType()))
+                return UNSUPPORTED;
+            Class<?>[] parameterTypes = method.getParameterTypes();
+            for (int j = 0; j < parameterTypes.length; j++)
+            {
+                if (!isPublic(parameterTypes[j]))
+                    return UNSUPPORTED;
+            }
+            // 多个父接口声明的相同方法只生成一次
+            if (signatures.add(method.getName() + Type.getMethodDescriptor(method)))
+                methods.add(method);
+        }
+
+        String className = "org.frameworkset.spi.asm.stub." + type.getName().replace('.', '_') + "$$RemoteStub" + sequence.incrementAndGet();
+        String internalName = className.replace('.', '/');
+        Type superType = Type.getType(superclass);
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, internalName, null,
+                superType.getInternalName(), new String[] { Type.getInternalName(type) });
+
+        GeneratorAdapter constructor = new GeneratorAdapter(Opcodes.ACC_PUBLIC, STUB_CONSTRUCTOR, null, null, writer);
+        constructor.loadThis();
+        constructor.loadArgs();
+        constructor.invokeConstructor(superType, STUB_CONSTRUCTOR);
+        constructor.returnValue();
+        constructor.endMethod();
+
+        for (int i = 0; i < methods.size(); i++)
+        {
+            java.lang.reflect.Method method = methods.get(i);
+            Method signature = Method.getMethod(method);
+            Class<?>[] exceptionTypes = method.getExceptionTypes();
+            Type[] exceptions = new Type[exceptionTypes.length];
+            for (int j = 0; j < exceptionTypes.length; j++)
+                exceptions[j] = Type.getType(exceptionTypes[j]);
+            GeneratorAdapter generator = new GeneratorAdapter(Opcodes.ACC_PUBLIC, signature, null, exceptions, writer);
+            Type returnType = signature.getReturnType();
+            boolean primitive = returnType.getSort() != Type.VOID && returnType.getSort() != Type.OBJECT
+                    && returnType.getSort() != Type.ARRAY;
+            generator.loadThis();
+            generator.push(i);
+            generator.loadArgArray();
+            generator.invokeVirtual(superType, primitive ? STUB_INVOKE_PRIMITIVE : STUB_INVOKE);
+            if (returnType.getSort() == Type.VOID)
+                generator.pop();
+            else
+                generator.unbox(returnType);
+            generator.returnValue();
+            generator.endMethod();
+        }
+        writer.visitEnd();
+
+        ClassLoader parent = type.getClassLoader();
+        if (parent == null)
+            parent = RemoteStub.class.getClassLoader();
+        Class<?> stubClass = new StubClassLoader(parent).define(className, writer.toByteArray());
+        Constructor<?> stubConstructor = stubClass.getConstructor(RemoteMethodDescriptor[].class, RemoteCallContext.class);
+        return new StubFactory(stubConstructor, methods.toArray(new java.lang.reflect.Method[methods.size()]));
+    }
+
+    private static boolean isPublic(Class<?> type)
+    {
+        while (type.isArray())
+            type = type.getComponentType();
+        if (type.isPrimitive())
+            return true;
+        for (Class<?> current = type; current != null; current = current.getDeclaringClass())
+        {
+            if (!Modifier.isPublic(current.getModifiers()))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * 接口中重新声明的toString、equals、hashCode等方法由桩自身实现，不作为远程方法
+     */
+    private static boolean isObjectMethod(java.lang.reflect.Method method)
+    {
+        try
+        {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        }
+        catch (NoSuchMethodException e)
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.cglib;
+
+import java.lang.reflect.Method;
+
+import net.sf.cglib.proxy.MethodProxy;
+
+import org.frameworkset.spi.RemoteCallContext;
+import org.frameworkset.spi.remote.RemoteServiceID;
+import org.frameworkset.spi.remote.batch.RPCBatch;
+
+/**
+ * <p>Title: BatchCGLibProxy.java</p>
+ * <p>Description: 批量调用的服务代理，只把方法调用记录到RPCBatch中，
+ * 返回null或者基本类型的默认值</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午09:41:08
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class BatchCGLibProxy extends BaseCGLibProxy
+{
+	private RPCBatch batch;
+	private RemoteServiceID serviceID;
+	public BatchCGLibProxy(RPCBatch batch, RemoteServiceID serviceID)
+	{
+		super(null, null, (RemoteCallContext)null);
+		this.batch = batch;
+		this.serviceID = serviceID;
+	}
+
+	public Object intercept(Object arg0, Method method, Object[] arg2,
+			MethodProxy arg3) throws Throwable
+	{
+		if(method.getDeclaringClass() == Object.class)
+			return arg3.invokeSuper(arg0, arg2);
+		batch.record(serviceID, method.getName(), method.getParameterTypes(), arg2);
+		return defaultValue(method.getReturnType());
+	}
+
+	private static Object defaultValue(Class<?> type)
+	{
+		if(!type.isPrimitive() || type == void.class)
+			return null;
+		if(type == boolean.class)
+			return Boolean.FALSE;
+		if(type == char.class)
+			return Character.valueOf((char)0);
+		if(type == byte.class)
+			return Byte.valueOf((byte)0);
+		if(type == short.class)
+			return Short.valueOf((short)0);
+		if(type == int.class)
+			return Integer.valueOf(0);
+		if(type == long.class)
+			return Long.valueOf(0L);
+		if(type == float.class)
+			return Float.valueOf(0F);
+		return Double.valueOf(0D);
+	}
+
+}
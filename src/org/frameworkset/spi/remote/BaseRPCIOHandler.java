@@ -21,7 +21,17 @@ import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-
+import java.util.concurrent.FutureTask;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.compress.Compressor;
+import org.frameworkset.spi.remote.compress.CompressorFactory;
+import org.frameworkset.spi.remote.metrics.CallTimer;
+import org.frameworkset.spi.remote.metrics.RPCMetrics;
+import org.frameworkset.spi.remote.region.ByteRegion;
+import org.frameworkset.spi.remote.region.RegionRegistry;
+import org.frameworkset.spi.remote.serializable.Serializer;
+import org.frameworkset.spi.remote.serializable.SerializerFactory;
 import org.frameworkset.spi.security.SecurityContext;
 import org.frameworkset.thread.ThreadPoolExecutor;
 import org.frameworkset.thread.ThreadPoolManagerFactory;
@@ -55,6 +65,12 @@ public abstract class BaseRPCIOHandler implements RPCIOHandler
      * 用来标识是否采用对象结果类型
      */
     public static final boolean useOOB = true;
+    
+    /**
+     * 多播调用时是否只序列化一次消息体并在所有目标之间共享，默认false，
+     * 开启后集群中所有节点都必须能够识别RPCMessage.ENCODED类型的消息体
+     */
+    public static final boolean sharePayload = BaseSPIManager2.getBooleanProperty("rpc.multicast.sharepayload", false);
 
 //    public static ThreadPoolExecutor response_threadpool = ThreadPoolManagerFactory
 //            .getThreadPoolExecutor("RPCIOHandler.response.Threadpool");
@@ -161,6 +177,55 @@ public abstract class BaseRPCIOHandler implements RPCIOHandler
 
     protected abstract BaseFutureCall buildBaseFutureCall(RPCMessage srcmsg, RPCAddress address);
 
+    /**
+     * 多播前将对象消息体预先序列化为字节数组，各目标的消息副本共享序列化结果，只有消息头各不相同，
+     * 传输通道直接转发字节数组，避免每个传输通道各自重复序列化同一个RPCMethodCall
+     * 
+     * @param msg
+     * @throws Exception
+     */
+    static void encodePayload(RPCMessage msg) throws Exception
+    {
+        if (msg.getResultSerial() != RPCMessage.OOB || msg.getData() == null)
+            return;
+        msg.setData(Util.objectToByteBuffer(msg.getData()));
+        msg.setResultSerial(RPCMessage.ENCODED);
+    }
+
+    /**
+     * 还原encodePayload预先序列化的消息体
+     * 
+     * @param msg
+     * @return
+     * @throws Exception
+     */
+    static Object decodePayload(RPCMessage msg) throws Exception
+    {
+        byte[] payload = (byte[]) msg.getData();
+        return Util.objectFromByteBuffer(payload, 0, payload.length);
+    }
+
+    /**
+     * 将请求发送任务提交到请求线程池，开启rpc.request.cancel并且响应收集器为RPCRequest时登记发送任务，
+     * 以便收集器满足完成条件或者超时后取消尚未完成的发送
+     * 
+     * @param sender
+     * @param coll
+     */
+    private void submitRequest(Runnable sender, ResponseCollector coll)
+    {
+        if (RPCRequest.cancel_enable && coll instanceof RPCRequest)
+        {
+            FutureTask<Object> task = new FutureTask<Object>(sender, null);
+            ((RPCRequest) coll).addPendingCall(task);
+            this.getReqestThreadpool().execute(task);
+        }
+        else
+        {
+            this.getReqestThreadpool().execute(sender);
+        }
+    }
+
     /**
      * Send a request to a group. If no response collector is given, no
      * responses are expected (making the call asynchronous).
@@ -202,15 +267,29 @@ public abstract class BaseRPCIOHandler implements RPCIOHandler
             addEntry(hdr.getId(), coll);
         }
         msg.putHeader(getName(), hdr);
+        if (CompressorFactory.enable)
+            CompressorFactory.announce(msg);
+        if (SerializerFactory.enable)
+            SerializerFactory.announce(msg);
+        //携带字节区域的消息保持对象形式，由传输层找出其中的区域单独传输
+        final boolean regions = RegionRegistry.hasRegions(msg);
 
         if (dest_mbrs.size() > 1)
         {
+            //消息体序列化后不再是OOB形式，后续的压缩和预先编码不会重复处理
+            if (SerializerFactory.enable && !regions)
+                SerializerFactory.serializePayload(msg, SerializerFactory.getSerializer(msg, null),
+                        CompressorFactory.enable ? CompressorFactory.getDefaultCompressor() : null);
+            if (CompressorFactory.enable && !regions)
+                CompressorFactory.compressPayload(msg, CompressorFactory.getDefaultCompressor());
+            if (sharePayload && !regions)
+                encodePayload(msg);
             for (Iterator<RPCAddress> it = dest_mbrs.iterator(); it.hasNext();)
             {
                 final RPCAddress mbr = it.next();
                 final RPCMessage copy = msg.copy(true);
                 final RemoteException e = new RemoteException();
-                this.getReqestThreadpool().execute(new java.lang.Runnable()
+                submitRequest(new java.lang.Runnable()
                 {
                     public void run()
                     {
@@ -288,22 +367,40 @@ public abstract class BaseRPCIOHandler implements RPCIOHandler
                             }
                         }
                     }
-                });
+                }, coll);
             }
         }
         else
         {
             final RPCAddress mbr = dest_mbrs.get(0);
             final RPCMessage copy = msg;
+            final CallTimer timer = msg.callTimer();
+            if ((SerializerFactory.enable || CompressorFactory.enable) && !regions)
+            {
+                long start = timer != null ? System.nanoTime() : 0L;
+                if (SerializerFactory.enable)
+                    SerializerFactory.serializePayload(msg, SerializerFactory.getSerializer(msg, mbr),
+                            CompressorFactory.enable ? CompressorFactory.getCompressor(mbr) : null);
+                if (CompressorFactory.enable)
+                    CompressorFactory.compressPayload(msg, CompressorFactory.getCompressor(mbr));
+                if (timer != null)
+                    timer.add(CallTimer.CLIENT_ENCODE, System.nanoTime() - start);
+            }
+            final long queued = timer != null ? System.nanoTime() : 0L;
 //            System.out.println(mbr);
             final RemoteException e = new RemoteException();
 //e.printStackTrace();
-            this.getReqestThreadpool().execute(new java.lang.Runnable()
+            submitRequest(new java.lang.Runnable()
             {
                 public void run()
                 {
 
                     copy.setDest(mbr);
+                    if (timer != null)
+                    {
+                        timer.add(CallTimer.CLIENT_QUEUE, System.nanoTime() - queued);
+                        timer.markSent();
+                    }
                     try
                     {
                         BaseFutureCall future = buildBaseFutureCall(copy, mbr);
@@ -374,7 +471,7 @@ public abstract class BaseRPCIOHandler implements RPCIOHandler
                         }
                     }
                 }
-            });
+            }, coll);
             // }
             // else
             // {
@@ -431,6 +528,11 @@ public abstract class BaseRPCIOHandler implements RPCIOHandler
         // null? request_handler.getClass().getName() : "null")).
         // append(") with request ").append(hdr.id));
         // }
+        if (RPCMetrics.enable)
+            RPCMetrics.requestReceived(req, hdr, System.nanoTime(), -1);
+        CallTimer timer = req.callTimer();
+        if (timer != null)
+            RPCMetrics.requestStarted(timer);
 
         try
         {
@@ -445,7 +547,12 @@ public abstract class BaseRPCIOHandler implements RPCIOHandler
 
         if (!hdr.isRsp_expected()) // asynchronous call, we don't need to send a
             // response; terminate call here
+        {
+            if (timer != null)
+                RPCMetrics.finishServerCall(timer, null);
             return null;
+        }
+        long encodeStart = timer != null ? System.nanoTime() : 0L;
         //
         // if(transport == null) {
         // if(log.isErrorEnabled())
@@ -506,9 +613,46 @@ public abstract class BaseRPCIOHandler implements RPCIOHandler
         	  rsp = req.makeReply();
         	rsp.setResultSerial(RPCMessage.OOB);
         	rsp.setData(retval);
+        	if (SerializerFactory.enable && !(retval instanceof ByteRegion))
+        	{
+        		Serializer serializer = SerializerFactory.getReplySerializer(req);
+        		if (serializer != null)
+        		{
+        			try
+        			{
+        				SerializerFactory.serializePayload(rsp, serializer,
+        						CompressorFactory.enable ? CompressorFactory.getReplyCompressor(req) : null);
+        			}
+        			catch (Exception e)
+        			{
+        				log.warn("failed serializing return value,send it as object.", e);
+        			}
+        		}
+        	}
+        	if (CompressorFactory.enable && !(retval instanceof ByteRegion))
+        	{
+        		Compressor compressor = CompressorFactory.getReplyCompressor(req);
+        		if (compressor != null)
+        		{
+        			CompressorFactory.announce(rsp);
+        			try
+        			{
+        				CompressorFactory.compressPayload(rsp, compressor);
+        			}
+        			catch (Exception e)
+        			{
+        				log.warn("failed compressing return value,send it uncompressed.", e);
+        			}
+        		}
+        	}
         }
         rsp_hdr = new Header(Header.RSP, hdr.getId(), false, name);
         rsp.putHeader(name, rsp_hdr);
+        if (timer != null)
+        {
+            timer.add(CallTimer.SERVER_ENCODE, System.nanoTime() - encodeStart);
+            RPCMetrics.finishServerCall(timer, rsp);
+        }
         return rsp;
 
     }
@@ -569,7 +713,42 @@ public abstract class BaseRPCIOHandler implements RPCIOHandler
                 {
                     RPCAddress sender = message_.getSrc_addr();
                     Object retval = null;
-                    if(message_.getResultSerial() != RPCMessage.OOB)
+                    CallTimer timer = coll instanceof SingleRPCRequest ? ((SingleRPCRequest) coll).msg.callTimer() : null;
+                    long decodeStart = 0L;
+                    if (timer != null)
+                    {
+                        RPCMetrics.responseReceived(timer, message_);
+                        decodeStart = System.nanoTime();
+                    }
+                    if (CompressorFactory.enable)
+                        CompressorFactory.negotiate(sender, message_);
+                    if (SerializerFactory.enable)
+                        SerializerFactory.negotiate(sender, message_);
+                    if(message_.getResultSerial() == RPCMessage.SERIALIZED)
+                    {
+                        try
+                        {
+                            retval = SerializerFactory.deserializePayload(message_);
+                        }
+                        catch (Exception e)
+                        {
+                            log.error("failed deserializing buffer into return value", e);
+                            retval = e;
+                        }
+                    }
+                    else if(message_.getResultSerial() == RPCMessage.COMPRESSED)
+                    {
+                        try
+                        {
+                            retval = CompressorFactory.decompressPayload((byte[]) message_.getData());
+                        }
+                        catch (Exception e)
+                        {
+                            log.error("failed decompressing buffer into return value", e);
+                            retval = e;
+                        }
+                    }
+                    else if(message_.getResultSerial() != RPCMessage.OOB)
                     {
                     	
 	                    byte[] buf = message_.getBuffer();
@@ -589,6 +768,8 @@ public abstract class BaseRPCIOHandler implements RPCIOHandler
                     {
                     	retval = message_.getData();
                     }
+                    if (timer != null)
+                        timer.add(CallTimer.CLIENT_DECODE, System.nanoTime() - decodeStart);
                     
                     coll.receiveResponse(retval, sender);
                 }
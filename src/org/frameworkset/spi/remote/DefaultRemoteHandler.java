@@ -19,12 +19,16 @@ package org.frameworkset.spi.remote;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
 
 import org.frameworkset.spi.BaseApplicationContext;
 import org.frameworkset.spi.ClientProxyContext;
 import org.frameworkset.spi.SPIException;
 import org.frameworkset.spi.assemble.Pro;
 import org.frameworkset.spi.assemble.ProviderManagerInfo;
+import org.frameworkset.spi.remote.cache.ResultCache;
+import org.frameworkset.spi.remote.cache.ResultCacheManager;
+import org.frameworkset.spi.remote.context.RequestContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 /**
@@ -66,6 +70,8 @@ public class DefaultRemoteHandler implements RemoteHandler{
     {
         
         Object instance = null;
+        ServiceBulkhead bulkhead = null;
+        ResultCache cache = null;
         if(!serviceID.isRestStyle() )
         {
 	        if(serviceID.getBean_type() != ServiceID.PROVIDER_BEAN_SERVICE)
@@ -85,6 +91,9 @@ public class DefaultRemoteHandler implements RemoteHandler{
 	        		throw new SPIException(msg);
 	        	}
 	            instance = context.getBeanObject(serviceID.getService());
+	            bulkhead = ServiceBulkhead.getBulkhead(serviceID.getService(), p);
+	            if(ResultCacheManager.enable)
+	            	cache = ResultCacheManager.getServerCache(serviceID.getService(), p);
 	        }
 	        else
 	        {
@@ -113,8 +122,54 @@ public class DefaultRemoteHandler implements RemoteHandler{
         }
         
         Method method = instance.getClass().getMethod(methodName, types);
-        
-        return method.invoke(instance, parameters);
+        Object cacheKey = null;
+        if(cache != null)
+        {
+        	//服务端缓存键包含调用方的认证信息和消息头，避免把一个用户的结果返回给其他用户
+        	RequestContext context = RequestContext.getRequestContext(false);
+        	Object scope = cache.buildScope(null, context == null ? null : RequestContext.getSecurityContext(),
+        			context == null ? null : context.getHeaders());
+        	cacheKey = cache.buildKey(scope, methodName, types, parameters);
+        }
+        if(cacheKey == null)
+        	return invoke(method, instance, parameters, bulkhead);
+        Object value = cache.get(cacheKey);
+        if(value != null)
+        	return value;
+        value = invoke(method, instance, parameters, bulkhead);
+        cache.put(cacheKey, value);
+        return value;
+    }
+    
+    private Object invoke(final Method method, Object instance, Object[] parameters, ServiceBulkhead bulkhead)
+    		throws IllegalArgumentException, IllegalAccessException, InvocationTargetException
+    {
+        if(bulkhead == null)
+        	return method.invoke(instance, parameters);
+        final Object instance_ = instance;
+        final Object[] parameters_ = parameters;
+        try
+        {
+	        return bulkhead.invoke(new Callable<Object>(){
+	
+				public Object call() throws Exception {
+					return method.invoke(instance_, parameters_);
+				}
+	        	
+	        });
+        }
+        catch(InvocationTargetException e)
+        {
+        	throw e;
+        }
+        catch(RuntimeException e)
+        {
+        	throw e;
+        }
+        catch(Exception e)
+        {
+        	throw new InvocationTargetException(e);
+        }
     }
     
 //    /**
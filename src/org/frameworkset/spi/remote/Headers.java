@@ -16,269 +16,471 @@
 
 package org.frameworkset.spi.remote;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
 import java.io.DataOutputStream;
+import java.io.Externalizable;
 import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
-import java.util.HashMap;
+import java.io.StreamCorruptedException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 
 
 /**
- * <p>Title: Headers.java</p> 
- * <p>Description: </p>
+ * <p>Title: Headers.java</p>
+ * <p>Description: 消息头集合，消息头一般只有少数几个，因此采用数组存放（name-1 | header-1 | name-2 | header-2 ...），
+ * 线性查找，不为每个消息头创建额外的节点对象。
+ * 二进制编码时常用的消息头名称只写入其在KNOWN_KEYS中的序号，解码时直接复用KNOWN_KEYS中的字符串实例，
+ * KNOWN_KEYS的序号是通讯双方的约定，只能在末尾追加，不能调整已有名称的顺序。
+ * </p>
  * <p>bboss workgroup</p>
  * <p>Copyright (c) 2007</p>
  * @Date 2009-10-8 下午10:18:50
  * @author biaoping.yin
  * @version 1.0
  */
-public class Headers extends HashMap<String,Header>
+public class Headers extends AbstractMap<String,Header> implements Externalizable, Streamable
 {
-	
-	public void writeTo(DataOutputStream out_) throws IOException
-	{
-		
-		java.io.ObjectOutputStream out = null;
-		java.io.ByteArrayOutputStream bout = null;
-		try {
-			bout = new ByteArrayOutputStream();
-			out = new ObjectOutputStream(bout);
-			
-			out.writeObject(this);
-			byte[] bytes = bout.toByteArray();
-			out_.writeInt(bytes.length);
-			out_.write(bytes);
-			
-		} catch (IOException e) {
-			throw e;
+	/**
+	 * 常用的消息头名称，只能在末尾追加
+	 */
+	private static final String[] KNOWN_KEYS = new String[] {
+		"RPCServerIoHandler",
+		"RPCJMSIOHandler",
+		"RPCWebserviceIOHandler",
+		"lb",
+		"lb.hasharg",
+		"lb.idempotent",
+		"lb.retries",
+		"rpc.compress",
+		"rpc.metrics",
+		"rpc.trace",
+		"rpc.serializer.accept",
+		"rpc.serializer"
+	};
+
+	private static final byte KEY_INLINE = -1;
+
+	private static final byte CORRNAME_NULL = 0;
+	private static final byte CORRNAME_KEY = 1;
+	private static final byte CORRNAME_INLINE = 2;
+
+	private static final byte VALUE_NULL = 0;
+	private static final byte VALUE_STRING = 1;
+	private static final byte VALUE_INT = 2;
+	private static final byte VALUE_LONG = 3;
+	private static final byte VALUE_BOOLEAN = 4;
+	private static final byte VALUE_OBJECT = 5;
+
+	/** Used to store strings and headers, e.g: name-1 | header-1 | name-2 | header-2 */
+	private Object[] data;
+
+	private int size;
+
+	/** Add space for 2 new elements when resizing */
+	private static final int RESIZE_INCR = 4;
+
+	public Headers() {
+		this(3);
+	}
+
+	public Headers(int initial_capacity) {
+		data = new Object[(initial_capacity > 0 ? initial_capacity : 1) << 1];
+	}
+
+	public Headers(Headers hdrs) {
+		data = new Object[Math.max(hdrs.size, 1) << 1];
+		System.arraycopy(hdrs.data, 0, this.data, 0, hdrs.size << 1);
+		size = hdrs.size;
+	}
+
+	private static boolean eq(Object a, Object b) {
+		return a == b || (a != null && a.equals(b));
+	}
+
+	private int indexOf(Object key) {
+		for (int i = 0; i < size; i++) {
+			if (eq(data[i << 1], key))
+				return i;
 		}
-		finally
-		{
-			
-			try {
-				if (out != null)
-					out.close();
-			} catch (Exception e2) {
-				// TODO: handle exception
+		return -1;
+	}
+
+	/**
+	 * Returns the header associated with key
+	 * @param key
+	 * @return
+	 */
+	public Header getHeader(String key) {
+		return get(key);
+	}
+
+	public Header get(Object key) {
+		int idx = indexOf(key);
+		return idx < 0 ? null : (Header) data[(idx << 1) + 1];
+	}
+
+	public boolean containsKey(Object key) {
+		return indexOf(key) >= 0;
+	}
+
+	public Header put(String key, Header hdr) {
+		int idx = indexOf(key);
+		if (idx >= 0) {
+			Header retval = (Header) data[(idx << 1) + 1];
+			data[(idx << 1) + 1] = hdr;
+			return retval;
+		}
+		if ((size << 1) >= data.length)
+			resize();
+		data[size << 1] = key;
+		data[(size << 1) + 1] = hdr;
+		size++;
+		return null;
+	}
+
+	public void putAll(Map<? extends String, ? extends Header> m) {
+		if (m instanceof Headers) {
+			Headers hdrs = (Headers) m;
+			for (int i = 0; i < hdrs.size; i++)
+				put((String) hdrs.data[i << 1], (Header) hdrs.data[(i << 1) + 1]);
+		}
+		else {
+			super.putAll(m);
+		}
+	}
+
+	public Header remove(Object key) {
+		int idx = indexOf(key);
+		if (idx < 0)
+			return null;
+		Header retval = (Header) data[(idx << 1) + 1];
+		removeAt(idx);
+		return retval;
+	}
+
+	private void removeAt(int idx) {
+		int moved = (size - idx - 1) << 1;
+		if (moved > 0)
+			System.arraycopy(data, (idx + 1) << 1, data, idx << 1, moved);
+		size--;
+		data[size << 1] = null;
+		data[(size << 1) + 1] = null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void clear() {
+		Arrays.fill(data, 0, size << 1, null);
+		size = 0;
+	}
+
+	/**
+	 * Increases the capacity of the array and copies the contents of the old into the new array
+	 */
+	private void resize() {
+		Object[] new_data = new Object[data.length + RESIZE_INCR];
+		System.arraycopy(data, 0, new_data, 0, data.length);
+		data = new_data;
+	}
+
+	public Set<Map.Entry<String,Header>> entrySet() {
+		return new AbstractSet<Map.Entry<String,Header>>() {
+			public Iterator<Map.Entry<String,Header>> iterator() {
+				return new Iterator<Map.Entry<String,Header>>() {
+					int next = 0;
+					int last = -1;
+
+					public boolean hasNext() {
+						return next < size;
+					}
+
+					public Map.Entry<String,Header> next() {
+						if (next >= size)
+							throw new NoSuchElementException();
+						last = next++;
+						return new Entry(last);
+					}
+
+					public void remove() {
+						if (last < 0)
+							throw new IllegalStateException();
+						removeAt(last);
+						next = last;
+						last = -1;
+					}
+				};
 			}
-			try {
-				if (bout != null)
-					bout.close();
-			} catch (Exception e2) {
-				// TODO: handle exception
+
+			public int size() {
+				return size;
 			}
+		};
+	}
+
+	private class Entry implements Map.Entry<String,Header> {
+		private final int idx;
+
+		Entry(int idx) {
+			this.idx = idx;
+		}
+
+		public String getKey() {
+			return (String) data[idx << 1];
 		}
-		
-	}
-	/** Used to store strings and headers, e.g: name-1 | header-1 | name-2 | header-2 | null | null | name-3 | header-3 */
-//    private Object[] data;
-//
-//    public void setData(Object[] data)
-//    {
-//        this.data = data;
-//    }
-//
-//
-//    public Object[] getData()
-//    {
-//        return data;
-//    }
-
-
-//    /** Add space for 3 new elements when resizing */
-//    private static final int RESIZE_INCR=6;
-
-    public Headers() {
-        super(3);
-    }
-    public Headers(int initial_capacity) {
-//        data=new Object[initial_capacity << 1];
-        super(initial_capacity);
-    }
-
-    public Headers(Headers hdrs) {
-//        data=new Object[hdrs.data.length];
-//        System.arraycopy(hdrs.data, 0, this.data, 0, hdrs.data.length);
-        super(hdrs);
-    }
-
-//    public Object[] getRawData() {
-//        return data;
-//    }
-
-    /**
-     * Returns the header associated with key
-     * @param key
-     * @return
-     */
-    public Header getHeader(String key) {
-//        for(int i=0; i < data.length; i+=2) {
-//            if(data[i] == null)
-//                return null;
-//            if(data[i].equals(key))
-//                return (Header)data[i+1];
-//        }
-//        return null;
-        return this.get(key);
-    }
-
-    public Map<String,Header> getHeaders() {
-//        Map<String,Header> retval=new HashMap<String,Header>(data.length / 2);
-//        for(int i=0; i < data.length; i+=2) {
-//            if(data[i] != null)
-//                retval.put((String)data[i], (Header)data[i+1]);
-//            else
-//                break;
-//        }
-//        return retval;
-        return this;
-    }
-
-    public String printHeaders() {
-//        StringBuilder sb=new StringBuilder();
-//        boolean first=true;
-//        for(int i=0; i < data.length; i+=2) {
-//            if(data[i] != null) {
-//                if(first)
-//                    first=false;
-//                else
-//                    sb.append(", ");
-//                sb.append(data[i]).append(": ").append(data[i+1]);
-//            }
-//            else
-//                break;
-//        }
-        
-//        return sb.toString();
-        return this.toString();
-    }
-
-
-    /** Puts a header given a key into the hashmap. Overwrites potential existing entry. */
-    public void putHeader(String key, Header hdr) {
-//        _putHeader(key, hdr, 0, true);
-        this.put(key, hdr);
-    }
-
-
-
-
-    /**
-     * Puts a header given a key into the map, only if the key doesn't exist yet
-     * @param key
-     * @param hdr
-     * @return the previous value associated with the specified key, or
-     *         <tt>null</tt> if there was no mapping for the key.
-     *         (A <tt>null</tt> return can also indicate that the map
-     *         previously associated <tt>null</tt> with the key,
-     *         if the implementation supports null values.)
-     */
-    public Header putHeaderIfAbsent(String key, Header hdr) {
-//        return _putHeader(key, hdr, 0, false);
-        Header retval=this.get(key);
-        if(retval == null)
-        {
-            this.putHeader(key, hdr);
-            
-        }
-        return retval;
-    }
-
-//    /**
-//     *
-//     * @param key
-//     * @return the header assoaicted with key
-//     * @deprecated Use getHeader() instead. The issue with removing a header is described in
-//     * http://jira.jboss.com/jira/browse/JGRP-393
-//     */
-//    public Header removeHeader(String key) {
-//        return getHeader(key);
-//    }
-
-//    public Headers copy() {
-//        return new Headers(this);
-//    }
-
-//    public int marshalledSize() {
-//        int retval=0;
-//        for(int i=0; i < data.length; i+=2) {
-//            if(data[i] != null) {
-//                retval+=((String)data[i]).length() +2;
-//                retval+=(Global.SHORT_SIZE *2); // 2 for magic number, 2 for size (short)
-//                retval+=((Header)data[i+1]).size();
-//            }
-//            else
-//                break;
-//        }
-//        return retval;
-//    }
-
-//    public int size() {
-//        int retval=0;
-//        for(int i=0; i < data.length; i+=2) {
-//            if(data[i] != null)
-//                retval++;
-//            else
-//                break;
-//        }
-//        return retval;
-//    }
-
-//    public int capacity() {
-//        return data.length / 2;
-//    }
-
-//    public String printObjectHeaders() {
-//        StringBuilder sb=new StringBuilder();
-//        for(int i=0; i < data.length; i+=2) {
-//            if(data[i] != null)
-//                sb.append(data[i]).append(": ").append(data[i+1]).append('\n');
-//            else
-//                break;
-//        }
-//        return sb.toString();
-//    }
-
-//    public String toString() {
-//        return printHeaders();
-//    }
-
-
-//    /**
-//     * Increases the capacity of the array and copies the contents of the old into the new array
-//     */
-//    private void resize() {
-//        int new_size=data.length + RESIZE_INCR;
-//        Object[] new_data=new Object[new_size];
-//        System.arraycopy(data, 0, new_data, 0, data.length);
-//        data=new_data;
-//    }
-
-
-//    private Header _putHeader(String key, Header hdr, int start_index, boolean replace_if_present) {
-//        int i=start_index;
-//        while(i < data.length) {
-//            if(data[i] == null) {
-//                data[i]=key;
-//                data[i+1]=hdr;
-//                return null;
-//            }
-//            if(data[i].equals(key)) {
-//                Header retval=(Header)data[i+1];
-//                if(replace_if_present) {
-//                    data[i+1]=hdr;
-//                }
-//                return retval;
-//            }
-//            i+=2;
-//            if(i >= data.length) {
-//                resize();
-//            }
-//        }
-//        throw new IllegalStateException("unable to add element " + key + ", index=" + i); // we should never come here
-//    }
-    
-    
+
+		public Header getValue() {
+			return (Header) data[(idx << 1) + 1];
+		}
+
+		public Header setValue(Header value) {
+			Header retval = getValue();
+			data[(idx << 1) + 1] = value;
+			return retval;
+		}
+
+		public boolean equals(Object o) {
+			if (!(o instanceof Map.Entry))
+				return false;
+			Map.Entry<?,?> e = (Map.Entry<?,?>) o;
+			return eq(getKey(), e.getKey()) && eq(getValue(), e.getValue());
+		}
+
+		public int hashCode() {
+			Object key = getKey();
+			Object value = getValue();
+			return (key == null ? 0 : key.hashCode()) ^ (value == null ? 0 : value.hashCode());
+		}
+
+		public String toString() {
+			return getKey() + "=" + getValue();
+		}
+	}
+
+	public Map<String,Header> getHeaders() {
+		return this;
+	}
+
+	public String printHeaders() {
+		return this.toString();
+	}
+
+	/** Puts a header given a key into the hashmap. Overwrites potential existing entry. */
+	public void putHeader(String key, Header hdr) {
+		this.put(key, hdr);
+	}
+
+	/**
+	 * Puts a header given a key into the map, only if the key doesn't exist yet
+	 * @param key
+	 * @param hdr
+	 * @return the previous value associated with the specified key, or
+	 *         <tt>null</tt> if there was no mapping for the key.
+	 *         (A <tt>null</tt> return can also indicate that the map
+	 *         previously associated <tt>null</tt> with the key,
+	 *         if the implementation supports null values.)
+	 */
+	public Header putHeaderIfAbsent(String key, Header hdr) {
+		Header retval = this.get(key);
+		if (retval == null) {
+			this.putHeader(key, hdr);
+		}
+		return retval;
+	}
+
+	private static int knownKeyIndex(String key) {
+		for (int i = 0; i < KNOWN_KEYS.length; i++) {
+			if (KNOWN_KEYS[i].equals(key))
+				return i;
+		}
+		return -1;
+	}
+
+	private void write(DataOutput out) throws IOException {
+		out.writeShort(size);
+		for (int i = 0; i < size; i++) {
+			String key = (String) data[i << 1];
+			Header hdr = (Header) data[(i << 1) + 1];
+			int known = key == null ? -1 : knownKeyIndex(key);
+			if (known >= 0) {
+				out.writeByte(known);
+			}
+			else {
+				out.writeByte(KEY_INLINE);
+				out.writeUTF(key == null ? "" : key);
+			}
+			out.writeByte(hdr.getType());
+			if (hdr.getType() != Header.COMMON) {
+				out.writeLong(hdr.getId());
+				out.writeBoolean(hdr.isRsp_expected());
+			}
+			String corrName = hdr.getCorrName();
+			if (corrName == null) {
+				out.writeByte(CORRNAME_NULL);
+			}
+			else if (corrName.equals(key)) {
+				out.writeByte(CORRNAME_KEY);
+			}
+			else {
+				out.writeByte(CORRNAME_INLINE);
+				out.writeUTF(corrName);
+			}
+			writeValue(out, hdr.getValue());
+		}
+	}
+
+	private static void writeValue(DataOutput out, Object value) throws IOException {
+		if (value == null) {
+			out.writeByte(VALUE_NULL);
+		}
+		else if (value instanceof String) {
+			out.writeByte(VALUE_STRING);
+			writeString(out, (String) value);
+		}
+		else if (value instanceof Integer) {
+			out.writeByte(VALUE_INT);
+			out.writeInt(((Integer) value).intValue());
+		}
+		else if (value instanceof Long) {
+			out.writeByte(VALUE_LONG);
+			out.writeLong(((Long) value).longValue());
+		}
+		else if (value instanceof Boolean) {
+			out.writeByte(VALUE_BOOLEAN);
+			out.writeBoolean(((Boolean) value).booleanValue());
+		}
+		else {
+			out.writeByte(VALUE_OBJECT);
+			if (out instanceof ObjectOutput) {
+				((ObjectOutput) out).writeObject(value);
+			}
+			else {
+				ByteArrayOutputStream bout = new ByteArrayOutputStream();
+				ObjectOutputStream oout = new ObjectOutputStream(bout);
+				oout.writeObject(value);
+				oout.close();
+				out.writeInt(bout.size());
+				out.write(bout.toByteArray());
+			}
+		}
+	}
+
+	/**
+	 * 以长度+UTF-8字节的方式写入字符串，不受writeUTF的64K长度限制
+	 */
+	private static void writeString(DataOutput out, String value) throws IOException {
+		byte[] bytes = value.getBytes("UTF-8");
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length < 0)
+			throw new StreamCorruptedException("invalid header string length " + length);
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, "UTF-8");
+	}
+
+	private void read(DataInput in) throws IOException, ClassNotFoundException {
+		int count = in.readShort();
+		clear();
+		if (data.length < (count << 1))
+			data = new Object[count << 1];
+		for (int i = 0; i < count; i++) {
+			byte known = in.readByte();
+			String key;
+			if (known == KEY_INLINE)
+				key = in.readUTF();
+			else if (known >= 0 && known < KNOWN_KEYS.length)
+				key = KNOWN_KEYS[known];
+			else
+				throw new StreamCorruptedException("unknown header key index " + known);
+			Header hdr = new Header();
+			hdr.setType(in.readByte());
+			if (hdr.getType() != Header.COMMON) {
+				hdr.setId(in.readLong());
+				hdr.setRsp_expected(in.readBoolean());
+			}
+			byte corrName = in.readByte();
+			if (corrName == CORRNAME_KEY)
+				hdr.setCorrName(key);
+			else if (corrName == CORRNAME_INLINE)
+				hdr.setCorrName(in.readUTF());
+			hdr.setValue(readValue(in));
+			put(key, hdr);
+		}
+	}
+
+	private static Object readValue(DataInput in) throws IOException, ClassNotFoundException {
+		byte type = in.readByte();
+		switch (type) {
+			case VALUE_NULL:
+				return null;
+			case VALUE_STRING:
+				return readString(in);
+			case VALUE_INT:
+				return Integer.valueOf(in.readInt());
+			case VALUE_LONG:
+				return Long.valueOf(in.readLong());
+			case VALUE_BOOLEAN:
+				return Boolean.valueOf(in.readBoolean());
+			case VALUE_OBJECT:
+				if (in instanceof ObjectInput)
+					return ((ObjectInput) in).readObject();
+				byte[] bytes = new byte[in.readInt()];
+				in.readFully(bytes);
+				ObjectInputStream oin = new ObjectInputStream(new ByteArrayInputStream(bytes));
+				try {
+					return oin.readObject();
+				}
+				finally {
+					oin.close();
+				}
+			default:
+				throw new StreamCorruptedException("unknown header value type " + type);
+		}
+	}
+
+	public void writeTo(DataOutputStream out) throws IOException {
+		write(out);
+	}
+
+	public void readFrom(DataInputStream in) throws IOException, IllegalAccessException, InstantiationException {
+		try {
+			read(in);
+		}
+		catch (ClassNotFoundException e) {
+			throw new IOException("failed reading header value", e);
+		}
+	}
+
+	public void writeExternal(ObjectOutput out) throws IOException {
+		write(out);
+	}
+
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		read(in);
+	}
+
 }
@@ -0,0 +1,130 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.frameworkset.spi.BaseSPIManager2;
+
+/**
+ * <p>Title: HedgePolicy.java</p>
+ * <p>Description: 对冲请求策略，按协议统计最近的调用延时，
+ * GET_FIRST模式的多目标调用中，通过lb.idempotent参数声明为幂等的方法先发送给第一个目标，在指定百分位（默认p95）延时内没有收到响应时
+ * 再发送给下一个目标，以第一个到达的响应为准，开启rpc.request.cancel时取消其余未完成的调用。
+ * 相关参数：
+ * rpc.request.hedge.enable     是否启用对冲请求，默认false
+ * rpc.request.hedge.percentile 对冲延时采用的延时百分位，默认95
+ * rpc.request.hedge.mindelay   对冲延时的最小值，单位毫秒，默认5，样本不足时也采用该值
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午01:42:10
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class HedgePolicy
+{
+    private static final boolean enabled = BaseSPIManager2.getBooleanProperty("rpc.request.hedge.enable", false);
+
+    private static final int percentile = BaseSPIManager2.getIntProperty("rpc.request.hedge.percentile", 95);
+
+    private static final long mindelay = BaseSPIManager2.getIntProperty("rpc.request.hedge.mindelay", 5);
+
+    private static final ConcurrentMap<String, HedgePolicy> policies = new ConcurrentHashMap<String, HedgePolicy>();
+
+    /** 样本环形缓冲区大小，必须为2的幂 */
+    private static final int SAMPLES = 1024;
+
+    /** 每新增多少个样本重新计算一次对冲延时 */
+    private static final int RECALCULATE_INTERVAL = 128;
+
+    private final long[] samples = new long[SAMPLES];
+
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile long delay = mindelay;
+
+    private HedgePolicy()
+    {
+    }
+
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * 获取协议对应的对冲策略
+     *
+     * @param protocol
+     * @return
+     */
+    public static HedgePolicy getHedgePolicy(String protocol)
+    {
+        HedgePolicy policy = policies.get(protocol);
+        if (policy != null)
+            return policy;
+        policy = new HedgePolicy();
+        HedgePolicy old = policies.putIfAbsent(protocol, policy);
+        return old != null ? old : policy;
+    }
+
+    /**
+     * 记录一次调用的延时，单位毫秒
+     *
+     * @param latency
+     */
+    public void recordLatency(long latency)
+    {
+        long c = count.getAndIncrement();
+        samples[(int) (c & (SAMPLES - 1))] = latency;
+        if ((c + 1) % RECALCULATE_INTERVAL == 0)
+            recalculate(c + 1);
+    }
+
+    private void recalculate(long total)
+    {
+        int size = (int) Math.min(total, SAMPLES);
+        long[] copy = new long[size];
+        System.arraycopy(samples, 0, copy, 0, size);
+        Arrays.sort(copy);
+        int index = (int) Math.ceil(size * percentile / 100.0) - 1;
+        if (index < 0)
+            index = 0;
+        else if (index >= size)
+            index = size - 1;
+        delay = Math.max(mindelay, copy[index]);
+    }
+
+    /**
+     * 获取当前的对冲延时，单位毫秒
+     *
+     * @return
+     */
+    public long getHedgeDelay()
+    {
+        return delay;
+    }
+
+    public long getSampleCount()
+    {
+        return count.get();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+/**
+ * <p>Title: Idempotency.java</p>
+ * <p>Description: 解析调用参数lb.idempotent声明的幂等方法，多个方法名用逗号分隔，*表示所有方法。
+ * 幂等方法调用失败时负载均衡可以在其他地址上重试，多目标调用时可以发送对冲请求</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 下午02:06:35
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class Idempotency
+{
+    public static final String PARAM_IDEMPOTENT = "lb.idempotent";
+
+    private Idempotency()
+    {
+    }
+
+    /**
+     * 判断方法是否在调用参数lb.idempotent中声明为幂等方法
+     * 
+     * @param headers
+     * @param methodName 服务方法名称
+     * @return
+     */
+    public static boolean isIdempotent(Headers headers, String methodName)
+    {
+        if (methodName == null || headers == null)
+            return false;
+        Header header = headers.getHeader(PARAM_IDEMPOTENT);
+        if (header == null || header.getValue() == null)
+            return false;
+        return isIdempotent(String.valueOf(header.getValue()), methodName);
+    }
+
+    /**
+     * 判断消息调用的服务方法是否声明为幂等方法，
+     * 代理调用都以callMethod发送，args[1]为实际的服务方法名称
+     * 
+     * @param msg
+     * @return
+     */
+    public static boolean isIdempotent(RPCMessage msg)
+    {
+        if (msg == null || !(msg.getData() instanceof RPCMethodCall))
+            return false;
+        return isIdempotent(msg.getHeaders(), getServiceMethod((RPCMethodCall) msg.getData()));
+    }
+
+    /**
+     * 获取调用的服务方法名称
+     */
+    static String getServiceMethod(RPCMethodCall method_call)
+    {
+        if (!"callMethod".equals(method_call.getMethodName()))
+            return method_call.getMethodName();
+        Object[] args = method_call.getArgs();
+        return args != null && args.length > 1 && args[1] instanceof String ? (String) args[1] : null;
+    }
+
+    public static boolean isIdempotent(String idempotent, String methodName)
+    {
+        if (idempotent == null)
+            return false;
+        if (idempotent.equals("*"))
+            return true;
+        int idx = idempotent.indexOf(methodName);
+        while (idx >= 0)
+        {
+            int end = idx + methodName.length();
+            if ((idx == 0 || idempotent.charAt(idx - 1) == ',')
+                    && (end == idempotent.length() || idempotent.charAt(end) == ','))
+                return true;
+            idx = idempotent.indexOf(methodName, end);
+        }
+        return false;
+    }
+}
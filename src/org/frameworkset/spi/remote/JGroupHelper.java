@@ -19,6 +19,7 @@ import java.net.UnknownHostException;
 import java.util.Vector;
 
 import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.membership.JGroupsMembershipListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -329,7 +330,8 @@ public class JGroupHelper
                 channel.setOpt(Channel.AUTO_RECONNECT, Boolean.TRUE);
                 DefaultRemoteHandler remoteHander = (DefaultRemoteHandler) BaseSPIManager2
                         .getBeanObject("rpc.server_object");
-                remoteDispatcher = new RpcDispatcher(channel, null, null, remoteHander);
+                JGroupsMembershipListener membershipListener = new JGroupsMembershipListener();
+                remoteDispatcher = new RpcDispatcher(channel, null, membershipListener.isEnabled() ? membershipListener : null, remoteHander);
                 channel.connect(REMOTE_CLUSTER_NAME);
                 clusterstarted = true;
                 log.info("Start remote service successed.");
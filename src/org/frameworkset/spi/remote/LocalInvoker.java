@@ -0,0 +1,242 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.frameworkset.netty.NettyRPCServer;
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.RemoteCallContext;
+import org.frameworkset.spi.remote.context.RequestContext;
+import org.frameworkset.spi.remote.mina.server.MinaRPCServer;
+import org.frameworkset.spi.remote.rmi.RMIServer;
+import org.frameworkset.spi.remote.shm.ShmRPCServer;
+import org.frameworkset.spi.security.SecurityContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: LocalInvoker.java</p>
+ * <p>Description: 进程内调用短路，单播调用的目标地址就是本jvm中已经启动的同协议服务端时，
+ * 不再经过序列化、网络传输和服务端io线程，直接在调用线程中执行服务方法，
+ * 仍然按照服务端的流程做认证、鉴权并在RequestContext中设置调用参数。
+ * rpc.local.enable 是否启用进程内调用短路，默认false
+ * rpc.local.copy 是否对参数和返回值做序列化拷贝，保持与远程调用相同的隔离语义，默认true，
+ * 服务方法和调用方都不会修改参数和结果时可以设置为false以获得最好的性能
+ * 目前支持mina、netty、shm和rmi协议，本地地址的判断依据为端口相同并且ip为回环地址或者本机网卡地址。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午11:24:16
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class LocalInvoker
+{
+    private static final Logger log = LoggerFactory.getLogger(LocalInvoker.class);
+
+    public static final boolean enable = BaseSPIManager2.getBooleanProperty("rpc.local.enable", false);
+
+    public static final boolean copy = BaseSPIManager2.getBooleanProperty("rpc.local.copy", true);
+
+    private static final Set<String> localIps = initLocalIps();
+
+    /**
+     * 缓存主机名或ip是否为本机地址的判断结果，避免每次调用都做域名解析
+     */
+    private static final ConcurrentMap<String, Boolean> resolved = new ConcurrentHashMap<String, Boolean>();
+
+    private static final AtomicLong invoked = new AtomicLong();
+
+    private static RemoteHandler handler;
+
+    private static Set<String> initLocalIps()
+    {
+        Set<String> ips = new HashSet<String>();
+        ips.add("localhost");
+        try
+        {
+            Enumeration<NetworkInterface> interfaces = NetworkInterface.getNetworkInterfaces();
+            while (interfaces != null && interfaces.hasMoreElements())
+            {
+                Enumeration<InetAddress> addresses = interfaces.nextElement().getInetAddresses();
+                while (addresses.hasMoreElements())
+                    ips.add(addresses.nextElement().getHostAddress());
+            }
+        }
+        catch (Exception e)
+        {
+            log.warn("获取本机网卡地址失败，进程内调用只识别回环地址：" + e.getMessage());
+        }
+        return ips;
+    }
+
+    /**
+     * 判断ip是否为本机地址
+     */
+    static boolean isLocalIp(String ip)
+    {
+        if (ip == null)
+            return false;
+        Boolean local = resolved.get(ip);
+        if (local != null)
+            return local.booleanValue();
+        boolean result = localIps.contains(ip);
+        if (!result)
+        {
+            try
+            {
+                InetAddress address = InetAddress.getByName(ip);
+                result = address.isLoopbackAddress() || address.isAnyLocalAddress()
+                        || localIps.contains(address.getHostAddress());
+            }
+            catch (Exception e)
+            {
+                result = false;
+            }
+        }
+        resolved.put(ip, Boolean.valueOf(result));
+        return result;
+    }
+
+    /**
+     * 获取本jvm中指定协议已经启动的服务端地址，服务端没有启动或者协议不支持时返回null
+     */
+    private static RPCAddress getServerAddress(String protocol)
+    {
+        try
+        {
+            if (Target.BROADCAST_TYPE_NETTY.equals(protocol))
+            {
+                NettyRPCServer server = NettyRPCServer.getNettyRPCServer();
+                return server != null && server.started() ? server.getLocalAddress() : null;
+            }
+            else if (Target.BROADCAST_TYPE_MINA.equals(protocol))
+            {
+                MinaRPCServer server = MinaRPCServer.getMinaRPCServer();
+                return server != null && server.started() ? server.getLocalAddress() : null;
+            }
+            else if (Target.BROADCAST_TYPE_RMI.equals(protocol))
+            {
+                RMIServer server = RMIServer.getRMIServer();
+                return server != null && server.started() ? server.getLocalAddress() : null;
+            }
+            else if (Target.BROADCAST_TYPE_SHM.equals(protocol))
+            {
+                ShmRPCServer server = ShmRPCServer.getShmRPCServer();
+                return server != null && server.started() ? server.getLocalAddress() : null;
+            }
+        }
+        catch (Throwable e)
+        {
+            if (log.isDebugEnabled())
+                log.debug("获取" + protocol + "协议服务端地址失败：" + e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 判断目标地址是否为本jvm中已经启动的同协议服务端
+     */
+    public static boolean isLocal(RPCAddress dest, String protocol)
+    {
+        if (!enable || dest == null)
+            return false;
+        RPCAddress server = getServerAddress(protocol);
+        if (server == null || server.getPort() != dest.getPort())
+            return false;
+        if (dest.getIp() != null && dest.getIp().equals(server.getIp()))
+            return true;
+        return isLocalIp(dest.getIp());
+    }
+
+    private static RemoteHandler getHandler()
+    {
+        if (handler == null)
+            handler = (RemoteHandler) BaseSPIManager2.getBeanObject("rpc.server_object");
+        return handler;
+    }
+
+    /**
+     * 替换执行服务方法的处理对象，用于测试
+     */
+    static void setHandler(RemoteHandler handler_)
+    {
+        handler = handler_;
+    }
+
+    /**
+     * 在调用线程中直接执行服务方法，认证鉴权以及调用参数的处理与服务端RPCRequestHandler一致，
+     * 执行完成后恢复调用线程原有的请求上下文
+     */
+    public static Object invoke(RemoteServiceID serviceID, String methodName, Class[] types,
+                                Object[] parameters, RemoteCallContext callContext) throws Throwable
+    {
+        invoked.incrementAndGet();
+        if (copy && parameters != null && parameters.length > 0)
+            parameters = (Object[]) copy(parameters);
+        SecurityContext securityContext = callContext == null ? null : callContext.getSecutiryContext();
+        //服务方法可能修改安全上下文，使用副本避免影响调用方
+        if (securityContext != null)
+            securityContext = new SecurityContext(securityContext.getUser(), securityContext.getPassword());
+        RequestContext old = RequestContext.bindRequestContext(null);
+        try
+        {
+            RequestContext context = new RequestContext(securityContext, true);
+            if (old != null)
+                context.setTraceContext(old.getTraceContext());
+            context.preMethodCall(serviceID, methodName, types, callContext == null ? null : callContext.getHeaders());
+            Object value = getHandler().callMethod(serviceID, methodName, parameters, types);
+            return copy ? copy(value) : value;
+        }
+        catch (InvocationTargetException e)
+        {
+            Throwable t = e;
+            while (t instanceof InvocationTargetException && ((InvocationTargetException) t).getTargetException() != null)
+                t = ((InvocationTargetException) t).getTargetException();
+            throw t;
+        }
+        finally
+        {
+            RequestContext.bindRequestContext(old);
+        }
+    }
+
+    private static Object copy(Object value) throws Exception
+    {
+        if (value == null)
+            return null;
+        byte[] buffer = Util.objectToByteBuffer(value);
+        return Util.objectFromByteBuffer(buffer, 0, buffer.length);
+    }
+
+    /**
+     * 进程内短路执行的调用次数
+     */
+    public static long getInvoked()
+    {
+        return invoked.get();
+    }
+}
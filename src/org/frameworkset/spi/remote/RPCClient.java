@@ -21,9 +21,15 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.frameworkset.spi.RemoteCallContext;
 import org.frameworkset.spi.remote.BaseRPCIOHandler.Marshaller2;
+import org.frameworkset.spi.remote.loadbalance.CircuitBreaker;
+import org.frameworkset.spi.remote.metrics.CallTimer;
+import org.frameworkset.spi.remote.metrics.RPCMetrics;
+import org.frameworkset.spi.remote.trace.Span;
+import org.frameworkset.spi.remote.trace.Tracer;
 import org.frameworkset.spi.security.SecurityContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -102,8 +108,37 @@ public final class RPCClient
 	}
 
 
+	public Object callRemoteMethod(final RPCAddress dest, final String method_name,
+			final Object[] args, final Class[] types, final int mode, final long timeout,final String protocol,final RemoteCallContext callContext)
+			throws Throwable
+	{
+		//args[1]为服务方法名称，配置了请求合并的方法由相同的并发请求共享一次调用
+		String method = args != null && args.length > 1 && args[1] instanceof String ? (String)args[1] : null;
+		if (dest == null || !SingleFlight.client.isCoalesced(method))
+			return doCallRemoteMethod(dest, method_name, args, types, mode, timeout, protocol, callContext);
+		Object key = SingleFlight.buildKey(protocol + "::" + dest, method, args,
+				callContext == null ? null : callContext.getSecutiryContext(),
+				callContext == null ? null : callContext.getHeaders());
+		if (key == null)
+			return doCallRemoteMethod(dest, method_name, args, types, mode, timeout, protocol, callContext);
+		return SingleFlight.client.execute(key, new Callable<Object>()
+		{
+			public Object call() throws Exception
+			{
+				try
+				{
+					return doCallRemoteMethod(dest, method_name, args, types, mode, timeout, protocol, callContext);
+				}
+				catch (Throwable e)
+				{
+					throw SingleFlight.wrap(e);
+				}
+			}
+		});
+	}
+	
 	@SuppressWarnings("unchecked")
-	public Object callRemoteMethod(RPCAddress dest, String method_name,
+	private Object doCallRemoteMethod(RPCAddress dest, String method_name,
 			Object[] args, Class[] types, int mode, long timeout,String protocol,RemoteCallContext callContext)
 			throws Throwable
 	{
@@ -143,8 +178,37 @@ public final class RPCClient
 		if(callContext != null && callContext.getHeaders() != null && callContext.getHeaders().size() > 0)
 		    msg.setHeaders(callContext.getHeaders());		
 //		msg.setEncrypt(SecurityContext.getSecurityManager().enableEncrypt());
-		RPCResponseList rsp_list = sendMessage(mbrs, msg, mode, timeout,
-												expected_mbrs,protocol);
+		CircuitBreaker breaker = null;
+		if (CircuitBreaker.enable)
+		{
+			breaker = CircuitBreaker.getCircuitBreaker(dest);
+			if (!breaker.tryAcquire())
+				throw new CircuitBreakerOpenException("Circuit breaker of " + dest + " is open, call is rejected.");
+		}
+		long start = breaker != null ? System.currentTimeMillis() : 0L;
+		CallTimer timer = RPCMetrics.enable ? RPCMetrics.startClientCall(msg, method_call) : null;
+		Span span = Tracer.enable ? Tracer.startClientSpan(msg, method_call, dest) : null;
+		RPCResponseList rsp_list = null;
+		Throwable failure = null;
+		try
+		{
+			rsp_list = sendMessage(mbrs, msg, mode, timeout,
+									expected_mbrs,protocol);
+		}
+		catch (Throwable e)
+		{
+			failure = e;
+			throw e;
+		}
+		finally
+		{
+			if (timer != null)
+				RPCMetrics.finishClientCall(timer);
+			if (span != null)
+				Tracer.finishClientSpan(span, rsp_list, failure);
+			if (breaker != null)
+				breaker.record(System.currentTimeMillis() - start, failure == null && reachable(rsp_list));
+		}
 		
 		if (rsp_list.isEmpty())
 		{		
@@ -178,6 +242,19 @@ public final class RPCClient
 
 	}
 	
+	/**
+	 * 判断单播调用的目标地址是否正常响应，超时、节点失效和服务端繁忙都视为不可达，业务异常视为正常响应
+	 * @param rsp_list
+	 * @return
+	 */
+	private static boolean reachable(RPCResponseList rsp_list)
+	{
+		if (rsp_list == null || rsp_list.isEmpty())
+			return true;
+		RPCResponse rsp = (RPCResponse) rsp_list.elementAt(0);
+		return !rsp.wasSuspected() && rsp.wasReceived() && !(rsp.getValue() instanceof RemoteException);
+	}
+	
 	public static void handleException(Object retval) throws Throwable 
 	{
 		if(retval == null)
@@ -255,8 +332,32 @@ public final class RPCClient
 		    msg.setHeaders(headers);
 		// if(oob)
 		// msg.setFlag(Message.OOB);
-		RPCResponseList rsp_list = sendMessage(dests, msg, resultMode, timeout,
-												expected_mbrs,protocol);
+		CallTimer timer = RPCMetrics.enable ? RPCMetrics.startClientCall(msg, method_call) : null;
+		Span span = Tracer.enable ? Tracer.startClientSpan(msg, method_call, dests) : null;
+		RPCResponseList rsp_list = null;
+		Throwable failure = null;
+		try
+		{
+			rsp_list = sendMessage(dests, msg, resultMode, timeout,
+									expected_mbrs,protocol);
+		}
+		catch (RuntimeException e)
+		{
+			failure = e;
+			throw e;
+		}
+		catch (Error e)
+		{
+			failure = e;
+			throw e;
+		}
+		finally
+		{
+			if (timer != null)
+				RPCMetrics.finishClientCall(timer);
+			if (span != null)
+				Tracer.finishClientSpan(span, rsp_list, failure);
+		}
 		// if(log.isTraceEnabled()) log.trace("retval: " + retval);
 		if (rsp_list.isEmpty())
 		{
@@ -315,6 +416,24 @@ public final class RPCClient
 		}
 
 		// mbrs.add(dest); // dummy membership (of destination address)
+		if (mbrs.size() == 1)
+		{
+			//单目标调用使用无锁的响应收集器
+			SingleRPCRequest req = new SingleRPCRequest(msg, Util.getRPCIOHandler(protocol), mbrs, resultMode, timeout);
+			try
+			{
+				req.execute();
+			}
+			catch (Exception t)
+			{
+				throw new RemoteException("调用远程服务失败，请确认服务器已经启动或者检查网络是否联通： " + req, t);
+			}
+			if (resultMode == RPCRequest.GET_NONE)
+			{
+				return null;
+			}
+			return req.getResults();
+		}
 
 		_req = new RPCRequest(msg, Util.getRPCIOHandler(protocol), mbrs, resultMode, timeout, expected_mbrs);
 //		_req.setCaller(local_addr);
@@ -324,7 +443,7 @@ public final class RPCClient
 		}
 		catch (Exception t)
 		{
-			throw new RuntimeException("调用远程服务失败，请确认服务器已经启动或者检查网络是否联通： " + _req, t);
+			throw new RemoteException("调用远程服务失败，请确认服务器已经启动或者检查网络是否联通： " + _req, t);
 		}
 
 		if (resultMode == RPCRequest.GET_NONE)
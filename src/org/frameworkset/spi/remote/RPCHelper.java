@@ -24,11 +24,18 @@ import bboss.org.jgroups.util.RspList;
 import org.frameworkset.netty.NettyRPCServer;
 import org.frameworkset.spi.BaseSPIManager2;
 import org.frameworkset.spi.RemoteCallContext;
+import org.frameworkset.spi.remote.cache.ResultCache;
+import org.frameworkset.spi.remote.cache.ResultCacheManager;
+import org.frameworkset.spi.remote.health.HealthChecker;
 import org.frameworkset.spi.remote.health.RPCValidator;
+import org.frameworkset.spi.remote.loadbalance.CircuitBreaker;
+import org.frameworkset.spi.remote.loadbalance.LoadBalanceInvoker;
+import org.frameworkset.spi.remote.loadbalance.LoadBalancer;
 //import org.frameworkset.spi.remote.http.HttpServer;
 import org.frameworkset.spi.remote.jms.JMSServer;
 import org.frameworkset.spi.remote.mina.server.MinaRPCServer;
 import org.frameworkset.spi.remote.rmi.RMIServer;
+import org.frameworkset.spi.remote.shm.ShmRPCServer;
 import org.frameworkset.spi.serviceidentity.ServiceIDImpl;
 import org.frameworkset.spi.serviceidentity.TargetImpl;
 import org.frameworkset.util.shutdown.ShutdownUtil;
@@ -131,6 +138,70 @@ public class RPCHelper
     public boolean httpenabled = false;
     public boolean webserviceenabled = false;
 
+    /**
+     * 远程调用的参数类型，所有调用共用
+     */
+    private static final Class[] rpTypes = new Class[] { RemoteServiceID.class, String.class, Object[].class, Class[].class };
+
+    /**
+     * 在创建客户端桩时为接口方法预先解析调用描述，按照innerRpcService的顺序确定协议，
+     * jgroup和rest协议的描述不记录协议，调用时回到按Method分派的路径
+     */
+    public RemoteMethodDescriptor buildMethodDescriptor(RemoteServiceID serviceID, Method method)
+    {
+        return new RemoteMethodDescriptor(serviceID, method, getProtocol(serviceID.getTarget()));
+    }
+
+    /**
+     * 按照innerRpcService的顺序返回目标地址使用的RPCClient协议，jgroup和rest协议返回null
+     */
+    public String getProtocol(Target target)
+    {
+        if (target.protocol_jgroup())
+            return null;
+        if (target.protocol_mina())
+            return Target.BROADCAST_TYPE_MINA;
+        if (target.protocol_netty())
+            return Target.BROADCAST_TYPE_NETTY;
+        if (target.protocol_shm())
+            return Target.BROADCAST_TYPE_SHM;
+        if (target.protocol_jms())
+            return Target.BROADCAST_TYPE_JMS;
+        if (target.protocol_webservice())
+            return Target.BROADCAST_TYPE_WEBSERVICE;
+        if (target.protocol_rmi())
+            return Target.BROADCAST_TYPE_RMI;
+        if (target.protocol_http())
+            return Target.BROADCAST_TYPE_HTTP;
+        return null;
+    }
+
+    /**
+     * 客户端桩的调用入口，协议、方法名称和参数类型都已在描述中预先计算
+     */
+    public Object rpcService(RemoteMethodDescriptor descriptor,
+            Object[] parameters ,RemoteCallContext callContext// 服务参数
+    ) throws Throwable
+    {
+        if (descriptor.getProtocol() == null)
+            return rpcService(descriptor.getServiceID(), descriptor.getMethod(), parameters, callContext);
+        RemoteServiceID serviceID = descriptor.getServiceID();
+        ResultCache cache = getClientCache(serviceID);
+        Object cacheKey = cache != null ? buildCacheKey(cache, serviceID, descriptor.getMethodName(),
+                descriptor.getParameterTypes(), parameters, callContext) : null;
+        if (cacheKey != null)
+        {
+            Object value = cache.get(cacheKey);
+            if (value != null)
+                return value;
+        }
+        Object value = _rpcService(serviceID, descriptor.getMethodName(), descriptor.getParameterTypes(),
+                parameters, descriptor.getProtocol(), callContext);
+        if (cacheKey != null)
+            cache.put(cacheKey, value);
+        return value;
+    }
+
     public Object rpcService(RemoteServiceID serviceID,// 服务标识
             Method method,// 需要在服务上调用的方法
             Object[] parameters ,RemoteCallContext callContext// 服务参数
@@ -138,11 +209,45 @@ public class RPCHelper
     {
 
         Target target = ((RemoteServiceID)serviceID).getTarget();
-        return innerRpcService(serviceID,// 服务标识
+        ResultCache cache = getClientCache(serviceID);
+        Object cacheKey = cache != null ? buildCacheKey(cache, serviceID, method.getName(), method.getParameterTypes(),
+                parameters, callContext) : null;
+        if (cacheKey != null)
+        {
+            Object value = cache.get(cacheKey);
+            if (value != null)
+                return value;
+        }
+        Object value = innerRpcService(serviceID,// 服务标识
                 method,// 需要在服务上调用的方法
                 parameters ,callContext,// 服务参数
                 target
         ) ;
+        if (cacheKey != null)
+            cache.put(cacheKey, value);
+        return value;
+    }
+
+    /**
+     * 返回单播调用的客户端结果缓存，没有开启或者服务没有配置缓存时返回null
+     */
+    private static ResultCache getClientCache(RemoteServiceID serviceID)
+    {
+        if (!ResultCacheManager.enable || serviceID.getTarget().isAll())
+            return null;
+        return ResultCacheManager.getClientCache(serviceID);
+    }
+
+    /**
+     * 客户端缓存键包含目标地址以及调用方的认证信息和消息头，不同目标、不同用户的结果互不共享
+     */
+    private static Object buildCacheKey(ResultCache cache, RemoteServiceID serviceID, String method, Class[] types,
+            Object[] parameters, RemoteCallContext callContext)
+    {
+        Object scope = cache.buildScope(serviceID.getTarget().getTargets(),
+                callContext == null ? null : callContext.getSecutiryContext(),
+                callContext == null ? null : callContext.getHeaders());
+        return cache.buildKey(scope, method, types, parameters);
     }
     
     
@@ -178,6 +283,14 @@ public class RPCHelper
                     ,callContext
             );
         }
+        else if (target.protocol_shm())
+        {
+            return rpcShmService(serviceID,// 服务标识
+                    method,// 需要在服务上调用的方法
+                    parameters // 服务参数
+                    ,callContext
+            );
+        }
         else if (target.protocol_jms())
         {
 //            throw new RemoteException("不支持的协议类型 [target][" + target.getStringTargets() + "]");
@@ -282,7 +395,6 @@ public class RPCHelper
         RpcDispatcher dispatcher = JGroupHelper.getJGroupHelper().getRpcDispatcher();
         Class<?>[] paramsTypes = method.getParameterTypes();
         Object[] params = new Object[] { serviceID, method.getName(), parameters, paramsTypes };
-        Class[] rpTypes = new Class[] { RemoteServiceID.class, String.class, Object[].class, Class[].class };
 
         if (list.size() == 1)
         {
@@ -434,6 +546,20 @@ public class RPCHelper
     
     
     
+    /**
+     * 同一主机上jvm之间通过共享内存环形缓冲区调用服务
+     */
+    public Object rpcShmService(RemoteServiceID serviceID,// 服务标识
+            Method method,// 需要在服务上调用的方法
+            Object[] parameters // 服务参数
+            ,RemoteCallContext callContext) throws Throwable
+    {
+        return _rpcService(serviceID,// 服务标识
+                method,// 需要在服务上调用的方法
+                parameters, // 服务参数
+                Target.BROADCAST_TYPE_SHM,callContext);
+    }
+    
     @SuppressWarnings("unchecked")
     public Object rpcWebServiceService(RemoteServiceID serviceID,// 服务标识
             Method method,// 需要在服务上调用的方法
@@ -514,22 +640,39 @@ public class RPCHelper
             Method method,// 需要在服务上调用的方法
             Object[] parameters, // 服务参数
     		String protocol,RemoteCallContext callContext) throws Throwable
+    {
+        return _rpcService(serviceID, method.getName(), method.getParameterTypes(), parameters, protocol, callContext);
+    }
+
+    public Object _rpcService(RemoteServiceID serviceID,// 服务标识
+            String methodName,// 需要在服务上调用的方法
+            Class[] paramsTypes,// 方法参数类型
+            Object[] parameters, // 服务参数
+    		String protocol,RemoteCallContext callContext) throws Throwable
     {
     	//setDebug
     	Target target = !serviceID.isRestStyle()?(serviceID).getTarget():(serviceID).getRestfulTarget();
         List<RPCAddress> list = target.getTargets();
 
-        Class[] paramsTypes = method.getParameterTypes();
-        Object[] params = new Object[] { serviceID, method.getName(), parameters, paramsTypes };
-        Class[] rpTypes = new Class[] { RemoteServiceID.class, String.class, Object[].class, Class[].class };
+        Object[] params = new Object[] { serviceID, methodName, parameters, paramsTypes };
 
         if (list.size() == 1 && !target.isAll())
         {
+            //目标地址为本jvm中的同协议服务端时直接在调用线程中执行
+            if (LocalInvoker.enable && LocalInvoker.isLocal(list.get(0), protocol))
+                return LocalInvoker.invoke(serviceID, methodName, paramsTypes, parameters, callContext);
             RPCClient client = RPCClient.getInstance();
             Object ret = client.callRemoteMethod(list.get(0), "callMethod", params, rpTypes, serviceID.getResultMode(),
                     serviceID.getTimeout(),protocol,callContext);
             return ret;
         }
+        LoadBalancer balancer = target.isAll() ? null : LoadBalanceInvoker.getLoadBalancer(callContext);
+        if (balancer != null)
+        {
+            //多个等价的服务地址，按照负载均衡策略选择其中一个地址调用
+            return LoadBalanceInvoker.invoke(balancer, list, serviceID,
+                    methodName, parameters, params, rpTypes, protocol, callContext);
+        }
         else if (target.isAll())
         {
             RPCClient client = RPCClient.getInstance();
@@ -784,6 +927,18 @@ public class RPCHelper
         NettyRPCServer.getNettyRPCServer().stop();
         this.clusterenabled = false;
     }
+    
+    public void startShmServer() 
+    {
+        ShmRPCServer.getShmRPCServer().start();
+        this.clusterenabled = true;
+    }
+    
+    public void stopShmServer() 
+    {
+        ShmRPCServer.getShmRPCServer().stop();
+        this.clusterenabled = false;
+    }
 
     public void startServerProtocol(String protocol)
     {
@@ -804,6 +959,10 @@ public class RPCHelper
         {
             this.startNettyServer();
         }
+        else if (protocol.equals(Target.BROADCAST_TYPE_SHM))
+        {
+            this.startShmServer();
+        }
         else if (protocol.equals(Target.BROADCAST_TYPE_JRGOUP))
         {
             this.startJGroupServer();
@@ -842,6 +1001,10 @@ public class RPCHelper
         {
             this.stopNettyServer();
         }
+        else if (protocol.equals(Target.BROADCAST_TYPE_SHM))
+        {
+            this.stopShmServer();
+        }
         else if (protocol.equals(Target.BROADCAST_TYPE_JRGOUP))
         {
             this.stopJGroupServer();
@@ -949,6 +1112,10 @@ public class RPCHelper
 //        
 //        else
 //            return false;
+    	if(CircuitBreaker.enable && !CircuitBreaker.isAvailable(address))
+    		return false;
+    	if(HealthChecker.enable)
+    		return HealthChecker.isHealthy(address, null, null);
     	return RPCValidator.validator(address);
     }
     
@@ -988,6 +1155,10 @@ public class RPCHelper
 //        
 //        else
 //            return false;
+    	if(CircuitBreaker.enable && !CircuitBreaker.isAvailable(address))
+    		return false;
+    	if(HealthChecker.enable)
+    		return HealthChecker.isHealthy(address, user, password);
     	return RPCValidator.validator(address, user, password);
     }
     
@@ -18,6 +18,7 @@ package org.frameworkset.spi.remote;
 
 import java.io.Serializable;
 
+import org.frameworkset.spi.remote.metrics.CallTimer;
 import org.frameworkset.spi.security.SecurityContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -74,6 +75,11 @@ public class RPCMessage implements Serializable
 
     protected RPCAddress dest;
 
+    /**
+     * 采样调用的分阶段计时器，只在本地线程之间传递，不参与序列化
+     */
+    private transient CallTimer timer;
+
     public RPCAddress getSrc_addr()
     {
 
@@ -160,7 +166,7 @@ public class RPCMessage implements Serializable
     		if(headers != null)
     		{
 	    		
-	    		headers.putAll(headers);
+	    		this.headers.putAll(headers);
     		}
     	}
     	
@@ -314,6 +320,34 @@ public class RPCMessage implements Serializable
     protected static final Logger log = LoggerFactory.getLogger(RPCMessage.class);
 
 	public static final int OOB = 2;
+	
+	/**
+	 * 消息体已经由Util.objectToByteBuffer预先序列化，data中存放的是序列化后的字节数组，
+	 * 多播调用时所有目标共享同一份序列化结果，服务端通过Util.objectFromByteBuffer反序列化
+	 */
+	public static final int ENCODED = 3;
+	
+	/**
+	 * 消息体已经由CompressorFactory序列化并按需压缩，data中存放的是带压缩算法编号的字节数组，
+	 * 接收方通过CompressorFactory.decompressPayload还原
+	 */
+	public static final int COMPRESSED = 4;
+	
+	/**
+	 * 消息体已经由SerializerFactory序列化，data中存放的是带压缩算法编号的字节数组，
+	 * 使用的序列化算法记录在rpc.serializer消息头中，接收方通过SerializerFactory.deserializePayload还原
+	 */
+	public static final int SERIALIZED = 5;
+    
+    public CallTimer callTimer()
+    {
+        return timer;
+    }
+
+    public void bindTimer(CallTimer timer)
+    {
+        this.timer = timer;
+    }
     
     public void setEncrypt(boolean encrypt)
     {
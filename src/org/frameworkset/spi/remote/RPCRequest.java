@@ -20,11 +20,13 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import org.frameworkset.spi.BaseSPIManager2;
 import org.frameworkset.spi.remote.annotations.GuardedBy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -100,6 +102,30 @@ public class RPCRequest implements java.io.Serializable, ResponseCollector
     @GuardedBy("lock")
     private final List<RPCAddress> members = new ArrayList<RPCAddress>();
 
+    /**
+     * 多目标调用满足完成条件或者超时后是否取消尚未开始执行的发送任务，默认false，
+     * 开启后GET_FIRST、GET_N等模式下排在后面的目标可能不会收到请求
+     */
+    static final boolean cancel_enable = BaseSPIManager2.getBooleanProperty("rpc.request.cancel", false);
+
+    /**
+     * 取消发送任务时是否同时中断正在执行发送的线程，默认false，
+     * 同步协议（rmi，webservice，http等）的调用线程被中断后可能关闭底层连接
+     */
+    private static final boolean cancel_interrupt = BaseSPIManager2.getBooleanProperty("rpc.request.cancel.interrupt", false);
+
+    /** 已提交到请求线程池的发送任务，只在调用线程中访问 */
+    private transient List<Future<?>> pendingCalls;
+
+    /** 请求发送时间，用于统计对冲延时 */
+    private long start_time;
+
+    /**
+     * 是否采用对冲方式发送请求，只有启用了对冲请求、GET_FIRST模式的多目标调用并且调用的方法
+     * 通过lb.idempotent参数声明为幂等方法时才会对冲，避免非幂等方法被重复执行
+     */
+    boolean hedge;
+
     public RPCRequest(RPCMessage msg, RPCIOHandler corr, List<RPCAddress> mbrs, int rsp_mode, long timeout,
             int expected_mbrs)
     {
@@ -119,7 +145,7 @@ public class RPCRequest implements java.io.Serializable, ResponseCollector
             this.members.clear();
             this.members.addAll(mbrs);
         }
-
+        this.hedge = rsp_mode == GET_FIRST && members.size() > 1 && HedgePolicy.isEnabled() && Idempotency.isIdempotent(msg);
     }
 
     // public RPCRequest()
@@ -127,7 +153,7 @@ public class RPCRequest implements java.io.Serializable, ResponseCollector
     // this.id = getRequestId();
     // }
     /** Generates a new unique request ID */
-    private static synchronized long getRequestId()
+    static synchronized long getRequestId()
     {
 
         long result = System.currentTimeMillis();
@@ -193,6 +219,8 @@ public class RPCRequest implements java.io.Serializable, ResponseCollector
                                     || rsp_filter.isAcceptable(response_value, sender);
                             rsp.setValue(response_value);
                             rsp.setReceived(responseReceived);
+                            if (responseReceived && !(response_value instanceof Throwable))
+                                getHedgePolicy().recordLatency(System.currentTimeMillis() - start_time);
                             if (log.isTraceEnabled())
                                 log.trace(new StringBuilder("received response for request ").append(id)
                                         .append(", sender=").append(sender).append(", val=").append(response_value).toString());
@@ -300,12 +328,17 @@ public class RPCRequest implements java.io.Serializable, ResponseCollector
 
     public boolean execute() throws Exception
     {
-        this.corr.sendRequest(this.id, members, this.msg, this);
+        start_time = System.currentTimeMillis();
+        boolean hedged = hedge;
+        if (hedged)
+            this.corr.sendRequest(this.id, members.subList(0, 1), this.msg.copy(true), this);
+        else
+            this.corr.sendRequest(this.id, members, this.msg, this);
         lock.lock();
         try
         {
             done = false;
-            boolean retval = collectResponses(timeout);
+            boolean retval = hedged ? collectHedgedResponses(timeout) : collectResponses(timeout);
             // if(retval == false && log.isTraceEnabled())
             // log.trace("call did not execute correctly, request is " +
             // this.toString());
@@ -315,9 +348,105 @@ public class RPCRequest implements java.io.Serializable, ResponseCollector
         {
             done = true;
             lock.unlock();
+            if (pendingCalls != null)
+            {
+                cancelPendingCalls(pendingCalls, cancel_interrupt);
+                pendingCalls = null;
+            }
+        }
+    }
+
+    /**
+     * 登记提交到请求线程池的发送任务
+     * 
+     * @param call
+     */
+    void addPendingCall(Future<?> call)
+    {
+        if (pendingCalls == null)
+            pendingCalls = new ArrayList<Future<?>>(members.size());
+        pendingCalls.add(call);
+    }
+
+    /**
+     * 收集器已经满足完成条件或者已经超时，取消尚未完成的发送任务，
+     * 尚未开始执行的任务不再发送，正在执行的任务只有interrupt为true时才会被中断
+     */
+    static void cancelPendingCalls(List<Future<?>> calls, boolean interrupt)
+    {
+        for (int i = 0; i < calls.size(); i++)
+        {
+            Future<?> call = calls.get(i);
+            if (!call.isDone())
+                call.cancel(interrupt);
         }
     }
 
+    private HedgePolicy getHedgePolicy()
+    {
+        return HedgePolicy.getHedgePolicy(corr.getClass().getName());
+    }
+
+    /**
+     * 对冲模式下收集响应：先向第一个目标发送请求，超过对冲延时仍未收到响应时向下一个目标发送请求，
+     * 直到收到第一个响应或者超时
+     */
+    @GuardedBy("lock")
+    private boolean collectHedgedResponses(long timeout) throws Exception
+    {
+        long hedge_delay = getHedgePolicy().getHedgeDelay();
+        long now = System.currentTimeMillis();
+        long timeout_time = timeout > 0 ? now + timeout : Long.MAX_VALUE;
+        long next_hedge = now + hedge_delay;
+        int next = 1;
+        while (true)
+        {
+            if (responsesComplete())
+            {
+                if (corr != null)
+                    corr.done(id);
+                return true;
+            }
+            now = System.currentTimeMillis();
+            if (now >= timeout_time)
+                break;
+            if (next < members.size() && now >= next_hedge)
+            {
+                if (log.isDebugEnabled())
+                    log.debug(new StringBuilder("no response for request ").append(id).append(" after ")
+                            .append(hedge_delay).append("ms, hedge to ").append(members.get(next)).toString());
+                next++;
+                // 发送期间释放锁，避免阻塞响应线程
+                lock.unlock();
+                try
+                {
+                    this.corr.sendRequest(this.id, members.subList(next - 1, next), this.msg.copy(true), this);
+                }
+                finally
+                {
+                    lock.lock();
+                }
+                next_hedge = now + hedge_delay;
+                continue;
+            }
+            long wait = timeout_time - now;
+            if (next < members.size() && next_hedge - now < wait)
+                wait = next_hedge - now;
+            try
+            {
+                completed.await(wait, TimeUnit.MILLISECONDS);
+            }
+            catch (Exception e)
+            {
+            }
+        }
+        if (corr != null)
+        {
+            corr.done(id);
+        }
+        return false;
+    }
+
     // /**
     // * 关闭短连接
     // */
@@ -16,9 +16,26 @@
 
 package org.frameworkset.spi.remote;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
+import org.frameworkset.spi.remote.batch.BatchExecutor;
+import org.frameworkset.spi.remote.batch.RPCBatch;
+import org.frameworkset.spi.remote.batch.RPCBatchCall;
+import org.frameworkset.spi.remote.batch.RPCBatchResult;
+import org.frameworkset.spi.remote.cache.ResultCacheManager;
+import org.frameworkset.spi.remote.compress.CompressorFactory;
+import org.frameworkset.spi.remote.serializable.SerializerFactory;
 import org.frameworkset.spi.remote.context.RequestContext;
+import org.frameworkset.spi.remote.metrics.CallTimer;
+import org.frameworkset.spi.remote.metrics.RPCMetrics;
+import org.frameworkset.spi.remote.trace.Span;
+import org.frameworkset.spi.remote.trace.TraceContext;
+import org.frameworkset.spi.remote.trace.Tracer;
 import org.frameworkset.spi.security.SecurityContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -65,7 +82,39 @@ public class RPCRequestHandler implements RequestHandler
            log.error("no method handler is registered. Discarding request.");
             return null;
         }
-        if(req.getResultSerial() != RPCMessage.OOB)
+        CallTimer timer = req.callTimer();
+        long decodeStart = timer != null ? System.nanoTime() : 0L;
+        if(req.getResultSerial() == RPCMessage.ENCODED)
+        {
+        	try {
+	            body=BaseRPCIOHandler.decodePayload(req);
+	        }
+	        catch(Throwable e) {
+	           log.error("exception decoding shared payload", e);
+	            return e;
+	        }
+        }
+        else if(req.getResultSerial() == RPCMessage.SERIALIZED)
+        {
+        	try {
+	            body=SerializerFactory.deserializePayload(req);
+	        }
+	        catch(Throwable e) {
+	           log.error("exception deserializing payload", e);
+	            return e;
+	        }
+        }
+        else if(req.getResultSerial() == RPCMessage.COMPRESSED)
+        {
+        	try {
+	            body=CompressorFactory.decompressPayload((byte[])req.getData());
+	        }
+	        catch(Throwable e) {
+	           log.error("exception decompressing payload", e);
+	            return e;
+	        }
+        }
+        else if(req.getResultSerial() != RPCMessage.OOB)
         {
 	        if(req == null || req.getLength() == 0) {
 	           log.error("message or message buffer is null");
@@ -86,6 +135,9 @@ public class RPCRequestHandler implements RequestHandler
         	body = req.getData();
         }
 
+        if(timer != null && req.getResultSerial() != RPCMessage.OOB)
+            timer.add(CallTimer.SERVER_DECODE, System.nanoTime() - decodeStart);
+
         if(!(body instanceof RPCMethodCall)) {
             log.error("message does not contain a MethodCall object");
             
@@ -94,8 +146,13 @@ public class RPCRequestHandler implements RequestHandler
         }
 
         method_call=(RPCMethodCall)body;
+        if(RPCBatch.BATCH_METHOD.equals(method_call.getMethodName()))
+            return handleBatch(req, method_call, timer);
+        if(ResultCacheManager.INVALIDATE_METHOD.equals(method_call.getMethodName()))
+            return handleInvalidate(req, method_call);
         
-        
+        Span span = null;
+        Throwable failure = null;
         try {
             if(log.isTraceEnabled())
                 log.trace("[sender=" + req.getSrc_addr() + "], method_call: " + method_call);
@@ -107,20 +164,199 @@ public class RPCRequestHandler implements RequestHandler
             ServiceID id = (ServiceID)method_call.getArgs()[0];
             String method = (String)method_call.getArgs()[1];
             Class[] types = (Class[])method_call.getArgs()[3];
+            long start = 0L;
+            if(timer != null)
+            {
+                RPCMetrics.describe(timer, id.getService(), method);
+                start = System.nanoTime();
+            }
+            if(Tracer.enable)
+                span = Tracer.startServerSpan(req, context, id.getService(), method);
             context.preMethodCall( id, method, types, req.getHeaders());
-            return method_call.invoke(server_obj,this.callMethod);
+            if(timer != null)
+            {
+                long now = System.nanoTime();
+                timer.add(CallTimer.SERVER_SECURITY, now - start);
+                start = now;
+            }
+            try
+            {
+                //配置了请求合并的方法，相同的并发请求只执行一次
+                Object key = SingleFlight.server.isCoalesced(method)
+                        ? SingleFlight.buildKey(id.getService(), method, method_call.getArgs(), securityContext, req.getHeaders()) : null;
+                if(key == null)
+                    return method_call.invoke(server_obj,this.callMethod);
+                final RPCMethodCall call = method_call;
+                return SingleFlight.server.execute(key, new Callable<Object>(){
+                    public Object call() throws Exception {
+                        try
+                        {
+                            return call.invoke(server_obj,callMethod);
+                        }
+                        catch(Throwable e)
+                        {
+                            throw SingleFlight.wrap(e);
+                        }
+                    }
+                });
+            }
+            finally
+            {
+                if(timer != null)
+                    timer.add(CallTimer.SERVER_EXECUTE, System.nanoTime() - start);
+            }
         }
         catch(Throwable x) {
+            failure = x;
             return x;
         }
         finally
         {
+            if(span != null)
+                Tracer.finish(span, failure);
         	RequestContext.destoryRequestContext();
         }
     }
 	public Method getCallMethod() {
 		return callMethod;
 	}
+
+    /**
+     * 执行批量调用，每个调用单独做认证和鉴权，单个调用的异常记录在结果中，不影响其他调用
+     */
+    private Object handleBatch(final RPCMessage req, RPCMethodCall method_call, CallTimer timer)
+    {
+        Object[] args = method_call.getArgs();
+        if(args == null || args.length < 2 || !(args[0] instanceof RPCBatchCall[]))
+            return new IllegalArgumentException("message does not contain a batch call");
+        final RPCBatchCall[] calls = (RPCBatchCall[])args[0];
+        if(calls.length > BatchExecutor.maxCalls)
+            return new RemoteException("Batch calls[" + calls.length + "] exceeds rpc.batch.max.calls[" + BatchExecutor.maxCalls + "].");
+        final SecurityContext securityContext = method_call.getSecurityContext();
+        final Object[] values = new Object[calls.length];
+        final Throwable[] failures = new Throwable[calls.length];
+        long start = 0L;
+        if(timer != null)
+        {
+            RPCMetrics.describe(timer, RPCBatch.BATCH_SERVICE, RPCBatch.BATCH_METHOD);
+            start = System.nanoTime();
+        }
+        Span span = null;
+        TraceContext trace = null;
+        if(Tracer.enable)
+        {
+            RequestContext context = new RequestContext(null, false);
+            span = Tracer.startServerSpan(req, context, RPCBatch.BATCH_SERVICE, RPCBatch.BATCH_METHOD);
+            trace = context.getTraceContext();
+        }
+        try
+        {
+            if(!BatchExecutor.parallelEnable || !Boolean.TRUE.equals(args[1]) || calls.length == 1)
+            {
+                for(int i = 0; i < calls.length; i ++)
+                    executeBatchCall(req, securityContext, trace, calls, i, values, failures);
+            }
+            else
+            {
+                FutureTask<?>[] tasks = new FutureTask<?>[calls.length];
+                final TraceContext trace_ = trace;
+                for(int i = 0; i < calls.length; i ++)
+                {
+                    final int index = i;
+                    tasks[i] = new FutureTask<Object>(new Runnable(){
+                        public void run() {
+                            executeBatchCall(req, securityContext, trace_, calls, index, values, failures);
+                        }
+                    }, null);
+                    BatchExecutor.execute(tasks[i]);
+                }
+                long deadline = System.currentTimeMillis() + RPCHelper.getRPCRequestTimeout();
+                for(int i = 0; i < tasks.length; i ++)
+                {
+                    try
+                    {
+                        tasks[i].get(Math.max(deadline - System.currentTimeMillis(), 0L), TimeUnit.MILLISECONDS);
+                    }
+                    catch(ExecutionException e)
+                    {
+                        failures[i] = e.getCause();
+                    }
+                    catch(java.util.concurrent.TimeoutException e)
+                    {
+                        tasks[i].cancel(true);
+                        failures[i] = new TimeoutException("Execute batch call " + calls[i] + " timeout.", e);
+                    }
+                    catch(InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        tasks[i].cancel(true);
+                        failures[i] = e;
+                    }
+                }
+            }
+            return new RPCBatchResult(values, failures);
+        }
+        finally
+        {
+            if(timer != null)
+                timer.add(CallTimer.SERVER_EXECUTE, System.nanoTime() - start);
+            if(span != null)
+                Tracer.finish(span, null);
+        }
+    }
+
+    /**
+     * 处理结果缓存的失效广播，按服务的invalidateCache(String,String)方法做认证和鉴权
+     */
+    private Object handleInvalidate(RPCMessage req, RPCMethodCall method_call)
+    {
+        Object[] args = method_call.getArgs();
+        if(args == null || args.length < 2 || !(args[0] instanceof String))
+            return new IllegalArgumentException("message does not contain a cache invalidation");
+        RequestContext context = new RequestContext(method_call.getSecurityContext(), true);
+        try
+        {
+            context.preMethodCall((String)args[0], ResultCacheManager.INVALIDATE_METHOD,
+                    ResultCacheManager.INVALIDATE_TYPES, req.getHeaders());
+            ResultCacheManager.invalidateLocal((String)args[0], (String)args[1]);
+            return Boolean.TRUE;
+        }
+        catch(Throwable e)
+        {
+            return e;
+        }
+        finally
+        {
+            RequestContext.destoryRequestContext();
+        }
+    }
+
+    private void executeBatchCall(RPCMessage req, SecurityContext securityContext, TraceContext trace,
+                                  RPCBatchCall[] calls, int index, Object[] values, Throwable[] failures)
+    {
+        RPCBatchCall call = calls[index];
+        //每个调用使用独立的安全上下文，并行执行时互不影响
+        SecurityContext callSecurityContext = securityContext == null ? null
+                : new SecurityContext(securityContext.getUser(), securityContext.getPassword());
+        RequestContext context = new RequestContext(callSecurityContext, true);
+        context.setTraceContext(trace);
+        try
+        {
+            context.preMethodCall(call.getServiceID(), call.getMethodName(), call.getTypes(), req.getHeaders());
+            values[index] = this.callMethod.invoke(server_obj, new Object[]{call.getServiceID(), call.getMethodName(),
+                    call.getParameters(), call.getTypes()});
+        }
+        catch(Throwable e)
+        {
+            while(e instanceof InvocationTargetException && ((InvocationTargetException)e).getTargetException() != null)
+                e = ((InvocationTargetException)e).getTargetException();
+            failures[index] = e;
+        }
+        finally
+        {
+            RequestContext.destoryRequestContext();
+        }
+    }
     
 //    /**
 //     * 执行远程调用的准备功能，做认证和鉴权
@@ -18,6 +18,7 @@ package org.frameworkset.spi.remote;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -37,17 +38,27 @@ import java.util.TreeSet;
 public class RPCResponseList implements Map<RPCAddress,RPCResponse> {
 
     /** Map<Address, Rsp> */
-    Map<RPCAddress,RPCResponse> rsps=new HashMap<RPCAddress,RPCResponse>();
-    List<RPCResponse> responses = new ArrayList<RPCResponse>();
+    Map<RPCAddress,RPCResponse> rsps;
+    List<RPCResponse> responses;
 
     public RPCResponseList() {
+        rsps=new HashMap<RPCAddress,RPCResponse>();
+        responses = new ArrayList<RPCResponse>();
+    }
 
+    /** 单目标调用的结果集，结果集只读
+     * @param rsp 唯一的响应
+     */
+    public RPCResponseList(RPCResponse rsp) {
+        this.rsps = Collections.singletonMap(rsp.getSender(), rsp);
+        this.responses = Collections.singletonList(rsp);
     }
 
     /** Adds a list of responses
      * @param responses Collection<Rsp>
      */
     public RPCResponseList(Map<RPCAddress,RPCResponse> rsps) {
+        this.responses = new ArrayList<RPCResponse>();
         if(rsps != null) {
         	this.rsps = new HashMap<RPCAddress,RPCResponse>();
         	this.rsps.putAll(rsps) ;
@@ -59,6 +70,10 @@ public class RPCResponseList implements Map<RPCAddress,RPCResponse> {
 //            }
 //        	this.rsps = rsps;
         }
+        else
+        {
+            this.rsps = new HashMap<RPCAddress,RPCResponse>();
+        }
         
     }
     
@@ -66,6 +81,7 @@ public class RPCResponseList implements Map<RPCAddress,RPCResponse> {
      * @param responses Collection<Rsp>
      */
     public RPCResponseList(List<RPCResponse> responses) {
+        this.rsps = new HashMap<RPCAddress,RPCResponse>();
         if(responses != null) {
         	
         	this.responses = responses;
@@ -74,6 +90,10 @@ public class RPCResponseList implements Map<RPCAddress,RPCResponse> {
             }
 //        	this.rsps = rsps;
         }
+        else
+        {
+            this.responses = new ArrayList<RPCResponse>();
+        }
         
     }
     
@@ -89,6 +109,11 @@ public class RPCResponseList implements Map<RPCAddress,RPCResponse> {
 //            }
         	this.rsps = rsps;
         }
+        else
+        {
+            this.rsps = new HashMap<RPCAddress,RPCResponse>();
+            this.responses = new ArrayList<RPCResponse>();
+        }
         
     }
   
@@ -0,0 +1,86 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.lang.reflect.Method;
+
+/**
+ * <p>Title: RemoteMethodDescriptor.java</p>
+ * <p>Description: 客户端桩为接口方法预先计算的调用描述，包含服务标识、调用协议、方法名称和参数类型，
+ * 创建桩时生成一次，之后每次调用只需要打包参数并发送请求。
+ * protocol为null时表示该方法需要回到按Method分派的调用路径（jgroup和rest协议）。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午08:41:17
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RemoteMethodDescriptor
+{
+    private final RemoteServiceID serviceID;
+
+    private final Method method;
+
+    private final String methodName;
+
+    private final Class[] parameterTypes;
+
+    private final String protocol;
+
+    public RemoteMethodDescriptor(RemoteServiceID serviceID, Method method, String protocol)
+    {
+        this.serviceID = serviceID;
+        this.method = method;
+        this.methodName = method.getName();
+        this.parameterTypes = method.getParameterTypes();
+        this.protocol = protocol;
+    }
+
+    public RemoteServiceID getServiceID()
+    {
+        return serviceID;
+    }
+
+    public Method getMethod()
+    {
+        return method;
+    }
+
+    public String getMethodName()
+    {
+        return methodName;
+    }
+
+    /**
+     * 返回缓存的参数类型数组，调用方不能修改
+     */
+    public Class[] getParameterTypes()
+    {
+        return parameterTypes;
+    }
+
+    public String getProtocol()
+    {
+        return protocol;
+    }
+
+    public String toString()
+    {
+        return serviceID + "." + methodName + "(" + protocol + ")";
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.assemble.Pro;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: ServiceBulkhead.java</p>
+ * <p>Description: 服务端按服务（或服务组）隔离的并发舱壁，避免单个慢服务耗尽传输层的全部线程。
+ * 服务始终在传输层线程中执行，舱壁通过信号量限制同时占用传输层线程的调用数，并发已满时快速失败。
+ * 舱壁与组件的enablerpc属性一起配置，例如：
+ * <pre>
+ * &lt;property name="order.service" enablerpc="true"
+ *           rpc.maxconcurrent="20"
+ *           rpc.group="order"
+ *           class="com.demo.OrderServiceImpl"/&gt;
+ * </pre>
+ * rpc.maxconcurrent 服务（组）允许的最大并发调用数，超过时快速失败并抛出ServiceBusyException
+ * rpc.group         服务组名称，同组服务共享一个舱壁，没有指定时以服务标识作为舱壁名称
+ *
+ * 获取许可的最长等待时间由全局参数rpc.bulkhead.waittime指定，单位毫秒，默认0表示不等待
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 上午10:20:41
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ServiceBulkhead
+{
+    private static final Logger log = LoggerFactory.getLogger(ServiceBulkhead.class);
+
+    public static final String ATTR_MAXCONCURRENT = "rpc.maxconcurrent";
+
+    public static final String ATTR_GROUP = "rpc.group";
+
+    private static final ConcurrentMap<String, ServiceBulkhead> bulkheads = new ConcurrentHashMap<String, ServiceBulkhead>();
+
+    private static long waittime = BaseSPIManager2.getIntProperty("rpc.bulkhead.waittime", 0);
+
+    private final String name;
+
+    private final int maxConcurrent;
+
+    /**
+     * maxConcurrent小于等于0时为null，表示不限制并发
+     */
+    private final Semaphore permits;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicInteger peak = new AtomicInteger();
+
+    private final AtomicLong completed = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    ServiceBulkhead(String name, int maxConcurrent)
+    {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.permits = maxConcurrent > 0 ? new Semaphore(maxConcurrent) : null;
+    }
+
+    private static boolean isEmpty(String value)
+    {
+        return value == null || value.trim().equals("");
+    }
+
+    /**
+     * 获取服务对应的舱壁，组件没有配置舱壁参数时返回null
+     *
+     * @param serviceid
+     * @param pro
+     * @return
+     */
+    public static ServiceBulkhead getBulkhead(String serviceid, Pro pro)
+    {
+        if (pro == null)
+            return null;
+        String maxconcurrent = pro.getStringExtendAttribute(ATTR_MAXCONCURRENT);
+        if (isEmpty(maxconcurrent))
+            return null;
+        String group = pro.getStringExtendAttribute(ATTR_GROUP);
+        String key = isEmpty(group) ? serviceid : group;
+        ServiceBulkhead bulkhead = bulkheads.get(key);
+        if (bulkhead != null)
+            return bulkhead;
+        synchronized (bulkheads)
+        {
+            bulkhead = bulkheads.get(key);
+            if (bulkhead != null)
+                return bulkhead;
+            int max = 0;
+            try
+            {
+                max = Integer.parseInt(maxconcurrent.trim());
+            }
+            catch (NumberFormatException e)
+            {
+                log.warn("Illegal " + ATTR_MAXCONCURRENT + "[" + maxconcurrent + "] for service[" + serviceid
+                        + "], concurrency of bulkhead[" + key + "] will not be limited.");
+            }
+            bulkhead = new ServiceBulkhead(key, max);
+            bulkheads.put(key, bulkhead);
+            log.debug("Create bulkhead " + bulkhead);
+        }
+        return bulkhead;
+    }
+
+    /**
+     * 返回所有舱壁，用于监控每个服务（组）的并发情况
+     */
+    public static Collection<ServiceBulkhead> getBulkheads()
+    {
+        return Collections.unmodifiableCollection(bulkheads.values());
+    }
+
+    public static ServiceBulkhead getBulkhead(String name)
+    {
+        return bulkheads.get(name);
+    }
+
+    private boolean acquire() throws InterruptedException
+    {
+        if (permits == null)
+            return true;
+        if (waittime > 0)
+            return permits.tryAcquire(waittime, TimeUnit.MILLISECONDS);
+        return permits.tryAcquire();
+    }
+
+    /**
+     * 在舱壁中执行服务调用，并发已满时抛出ServiceBusyException
+     *
+     * @param call
+     * @return
+     * @throws Exception
+     */
+    public Object invoke(Callable<Object> call) throws Exception
+    {
+        if (!acquire())
+        {
+            rejected.incrementAndGet();
+            throw new ServiceBusyException("Bulkhead[" + name + "] is full, maxConcurrent=" + maxConcurrent
+                    + ",active=" + active.get());
+        }
+        int current = active.incrementAndGet();
+        int max = peak.get();
+        while (current > max && !peak.compareAndSet(max, current))
+        {
+            max = peak.get();
+        }
+        boolean success = false;
+        try
+        {
+            Object ret = call.call();
+            success = true;
+            return ret;
+        }
+        finally
+        {
+            active.decrementAndGet();
+            if (success)
+                completed.incrementAndGet();
+            else
+                failed.incrementAndGet();
+            if (permits != null)
+                permits.release();
+        }
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getMaxConcurrent()
+    {
+        return maxConcurrent;
+    }
+
+    /**
+     * 当前正在执行的调用数
+     */
+    public int getActive()
+    {
+        return active.get();
+    }
+
+    /**
+     * 启动以来达到的最大并发数
+     */
+    public int getPeak()
+    {
+        return peak.get();
+    }
+
+    /**
+     * 成功完成的调用数
+     */
+    public long getCompleted()
+    {
+        return completed.get();
+    }
+
+    /**
+     * 获得许可后执行失败的调用数
+     */
+    public long getFailed()
+    {
+        return failed.get();
+    }
+
+    /**
+     * 因并发已满被拒绝的调用数
+     */
+    public long getRejected()
+    {
+        return rejected.get();
+    }
+
+    public String toString()
+    {
+        StringBuilder ret = new StringBuilder();
+        ret.append("[name=").append(name).append(",maxConcurrent=").append(maxConcurrent).append(",active=")
+                .append(active.get()).append(",peak=").append(peak.get()).append(",completed=")
+                .append(completed.get()).append(",failed=").append(failed.get()).append(",rejected=")
+                .append(rejected.get()).append(']');
+        return ret.toString();
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+/**
+ * <p>Title: ServiceBusyException.java</p>
+ * <p>Description: 服务端隔离舱并发数已满，请求被拒绝</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 上午10:12:30
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ServiceBusyException extends RemoteException
+{
+
+    public ServiceBusyException()
+    {
+        super();
+    }
+
+    public ServiceBusyException(String message)
+    {
+        super(message);
+    }
+
+    public ServiceBusyException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,235 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.frameworkset.spi.remote.metrics.RPCMetrics;
+import org.frameworkset.spi.remote.trace.Tracer;
+import org.frameworkset.spi.security.SecurityContext;
+
+/**
+ * <p>Title: SingleFlight.java</p>
+ * <p>Description: 合并相同的并发请求，同一时刻参数完全相同的调用只有第一个真正执行，
+ * 其余调用等待并共享它的结果或异常，用于削平缓存击穿时大量相同读请求造成的负载尖峰。
+ * 只对显式配置的方法生效，写操作不应配置：
+ * rpc.coalesce.client.methods 客户端RPCClient单播调用合并的方法名称，逗号分隔，*表示所有方法，默认不合并
+ * rpc.coalesce.server.methods 服务端RPCRequestHandler合并执行的方法名称，格式同上
+ * 请求的目标地址、服务、方法、参数序列化结果、认证信息以及调用参数（调用链和统计头除外）都相同时才会合并，
+ * 共享的结果对象被所有调用方引用，调用方不应修改。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午10:58:34
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class SingleFlight
+{
+    public static final SingleFlight client = new SingleFlight(Util.defaultContext.getProperty("rpc.coalesce.client.methods"));
+
+    public static final SingleFlight server = new SingleFlight(Util.defaultContext.getProperty("rpc.coalesce.server.methods"));
+
+    private final boolean enabled;
+
+    /**
+     * 合并的方法名称，null表示所有方法
+     */
+    private final Set<String> methods;
+
+    private final ConcurrentMap<Object, FutureTask<Object>> inflight = new ConcurrentHashMap<Object, FutureTask<Object>>();
+
+    private final AtomicLong executed = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    SingleFlight(String methods)
+    {
+        if (methods == null || methods.trim().equals(""))
+        {
+            this.enabled = false;
+            this.methods = null;
+        }
+        else if (methods.trim().equals("*"))
+        {
+            this.enabled = true;
+            this.methods = null;
+        }
+        else
+        {
+            this.enabled = true;
+            this.methods = new HashSet<String>();
+            StringTokenizer tokenizer = new StringTokenizer(methods, ", ");
+            while (tokenizer.hasMoreTokens())
+                this.methods.add(tokenizer.nextToken());
+        }
+    }
+
+    public boolean isCoalesced(String method)
+    {
+        return enabled && method != null && (methods == null || methods.contains(method));
+    }
+
+    static class Key
+    {
+        final Object[] parts;
+
+        final int hash;
+
+        Key(Object[] parts)
+        {
+            this.parts = parts;
+            this.hash = Arrays.deepHashCode(parts);
+        }
+
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        public boolean equals(Object obj)
+        {
+            return obj instanceof Key && hash == ((Key) obj).hash && Arrays.deepEquals(parts, ((Key) obj).parts);
+        }
+    }
+
+    /**
+     * 构建请求的合并键，参数无法序列化时返回null，表示不合并
+     * @param target 目标地址或者服务标识
+     * @param method 方法名称
+     * @param args 调用参数
+     * @param securityContext 认证信息
+     * @param headers 调用参数
+     */
+    public static Object buildKey(Object target, String method, Object args, SecurityContext securityContext,
+            Map<String, Header> headers)
+    {
+        byte[] bytes;
+        try
+        {
+            bytes = Util.objectToByteBuffer(args);
+        }
+        catch (Exception e)
+        {
+            return null;
+        }
+        String user = securityContext != null ? securityContext.getUser() : null;
+        String password = securityContext != null ? securityContext.getPassword() : null;
+        return new Key(new Object[] { String.valueOf(target), method, bytes, user, password, headersKey(headers) });
+    }
+
+    /**
+     * 消息头转换为键的一部分，忽略每次调用都不同的调用链和监控消息头
+     */
+    public static String headersKey(Map<String, Header> headers)
+    {
+        if (headers == null || headers.isEmpty())
+            return null;
+        TreeMap<String, String> values = new TreeMap<String, String>();
+        for (Iterator<Map.Entry<String, Header>> it = headers.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry<String, Header> entry = it.next();
+            if (Tracer.TRACE_HEADER.equals(entry.getKey()) || RPCMetrics.METRICS_HEADER.equals(entry.getKey()))
+                continue;
+            Header header = entry.getValue();
+            values.put(entry.getKey(), header == null ? null : String.valueOf(header.getValue()));
+        }
+        return values.toString();
+    }
+
+    /**
+     * 执行请求，相同键的请求正在执行时等待并共享其结果
+     * @param key buildKey构建的合并键
+     * @param call 真正执行的调用
+     * @return
+     * @throws Throwable 调用的异常
+     */
+    public Object execute(Object key, Callable<Object> call) throws Throwable
+    {
+        FutureTask<Object> task = new FutureTask<Object>(call);
+        FutureTask<Object> running = inflight.putIfAbsent(key, task);
+        if (running == null)
+        {
+            executed.incrementAndGet();
+            running = task;
+            try
+            {
+                task.run();
+            }
+            finally
+            {
+                inflight.remove(key, task);
+            }
+        }
+        else
+        {
+            coalesced.incrementAndGet();
+        }
+        try
+        {
+            return running.get();
+        }
+        catch (ExecutionException e)
+        {
+            throw e.getCause();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new RemoteException("Wait for coalesced call interrupted.", e);
+        }
+    }
+
+    /**
+     * 把调用中的Throwable转换为Callable可以抛出的异常
+     */
+    public static Exception wrap(Throwable e)
+    {
+        if (e instanceof Exception)
+            return (Exception) e;
+        if (e instanceof Error)
+            throw (Error) e;
+        return new RemoteException(e);
+    }
+
+    public long getExecuted()
+    {
+        return executed.get();
+    }
+
+    public long getCoalesced()
+    {
+        return coalesced.get();
+    }
+
+    public int getInflight()
+    {
+        return inflight.size();
+    }
+}
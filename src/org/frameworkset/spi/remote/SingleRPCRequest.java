@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Title: SingleRPCRequest.java</p>
+ * <p>Description: 单目标地址调用的响应收集器，RPCClient在目标地址只有一个时自动使用。
+ * 与RPCRequest相比不再创建响应Map、成员列表和锁，响应保存在一个volatile槽中，
+ * 调用线程通过park/unpark等待响应到达。
+ * 对于单个目标，GET_FIRST、GET_ALL、GET_MAJORITY、GET_ABS_MAJORITY、GET_N的完成条件相同，
+ * 都是收到唯一的响应；GET_NONE发送后立即返回。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 上午11:05:18
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class SingleRPCRequest implements java.io.Serializable, ResponseCollector
+{
+    private static final AtomicReferenceFieldUpdater<SingleRPCRequest, RPCResponse> RESPONSE_UPDATER = AtomicReferenceFieldUpdater
+            .newUpdater(SingleRPCRequest.class, RPCResponse.class, "response");
+
+    private final long id;
+
+    protected final int rsp_mode;
+
+    private final RPCAddress target;
+
+    /** 传递给RPCIOHandler的目标列表，只包含target一个地址 */
+    private final List<RPCAddress> members;
+
+    RPCMessage msg;
+
+    RPCIOHandler corr;
+
+    long timeout;
+
+    protected ResponseFilter rsp_filter = null;
+
+    /** 唯一的响应槽，只被设置一次 */
+    private volatile RPCResponse response;
+
+    private volatile boolean done = false;
+
+    /** 等待响应的调用线程 */
+    private transient volatile Thread waiter;
+
+    /** 请求发送时间，用于统计对冲延时 */
+    private long start_time;
+
+    public SingleRPCRequest(RPCMessage msg, RPCIOHandler corr, List<RPCAddress> mbrs, int rsp_mode, long timeout)
+    {
+        this.msg = msg;
+        this.corr = corr;
+        this.members = mbrs;
+        this.target = mbrs.get(0);
+        this.rsp_mode = rsp_mode;
+        this.timeout = timeout;
+        this.id = RPCRequest.getRequestId();
+    }
+
+    public long getId()
+    {
+        return id;
+    }
+
+    public void setResponseFilter(ResponseFilter filter)
+    {
+        rsp_filter = filter;
+    }
+
+    public void receiveResponse(Object response_value, RPCAddress sender)
+    {
+        if (done || response != null || !target.equals(sender))
+            return;
+        boolean responseReceived = (rsp_filter == null) || rsp_filter.isAcceptable(response_value, sender);
+        RPCResponse rsp = new RPCResponse(target);
+        rsp.setValue(response_value);
+        rsp.setReceived(responseReceived);
+        if (!RESPONSE_UPDATER.compareAndSet(this, null, rsp))
+            return;
+        if (responseReceived && !(response_value instanceof Throwable))
+            HedgePolicy.getHedgePolicy(corr.getClass().getName()).recordLatency(System.currentTimeMillis() - start_time);
+        if (responseReceived || (rsp_filter != null && !rsp_filter.needMoreResponses()))
+        {
+            done = true;
+            Thread t = waiter;
+            if (t != null)
+                LockSupport.unpark(t);
+        }
+    }
+
+    public boolean execute() throws Exception
+    {
+        waiter = Thread.currentThread();
+        start_time = System.currentTimeMillis();
+        try
+        {
+            this.corr.sendRequest(this.id, members, this.msg, this);
+            if (rsp_mode == RPCRequest.GET_NONE)
+            {
+                done = true;
+                return true;
+            }
+            return collectResponse(timeout);
+        }
+        finally
+        {
+            waiter = null;
+            done = true;
+            if (corr != null)
+                corr.done(id);
+        }
+    }
+
+    private boolean collectResponse(long timeout)
+    {
+        boolean interrupted = false;
+        try
+        {
+            if (timeout <= 0)
+            {
+                while (!done)
+                {
+                    LockSupport.park(this);
+                    if (Thread.interrupted())
+                        interrupted = true;
+                }
+                return true;
+            }
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (!done)
+            {
+                long remain = deadline - System.nanoTime();
+                if (remain <= 0)
+                    return false;
+                LockSupport.parkNanos(this, remain);
+                if (Thread.interrupted())
+                    interrupted = true;
+            }
+            return true;
+        }
+        finally
+        {
+            // 与RPCRequest一致，等待期间不响应中断，但恢复线程的中断状态
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    public RPCResponseList getResults()
+    {
+        RPCResponse rsp = response;
+        if (rsp == null)
+            rsp = new RPCResponse(target);
+        return new RPCResponseList(rsp);
+    }
+
+    public String toString()
+    {
+        return msg.toString();
+    }
+}
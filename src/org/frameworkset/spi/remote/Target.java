@@ -59,6 +59,10 @@ public interface Target extends java.io.Serializable
 
 	public static final String	BROADCAST_TYPE_MINA			= "mina";
 	public static final String BROADCAST_TYPE_NETTY         = "netty";
+	/**
+	 * 同一主机上jvm之间的共享内存协议
+	 */
+	public static final String BROADCAST_TYPE_SHM           = "shm";
 
 	public static final String	BROADCAST_TYPE_JMS			= "jms";
 	
@@ -96,6 +100,8 @@ public interface Target extends java.io.Serializable
 	
 	public boolean protocol_netty();
 	
+	public boolean protocol_shm();
+	
 	public boolean protocol_webservice();
 	
 	public boolean protocol_jms();
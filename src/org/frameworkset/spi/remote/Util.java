@@ -16,7 +16,6 @@
 
 package org.frameworkset.spi.remote;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -24,18 +23,17 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.StreamCorruptedException;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Properties;
 
 import org.frameworkset.spi.BaseApplicationContext;
 import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.membership.Membership;
+import org.frameworkset.spi.remote.serializable.ClassRegistry;
 import org.frameworkset.spi.remote.serializable.Decoder;
 import org.frameworkset.spi.remote.serializable.Encoder;
 import org.frameworkset.spi.remote.serializable.SOADecoder;
 import org.frameworkset.spi.remote.serializable.SOAEncoder;
-import org.frameworkset.spi.serviceidentity.TargetImpl;
 
 
 
@@ -71,7 +69,7 @@ public class Util
         {
         	out_stream=new ByteArrayOutputStream();
         
-            out=new ObjectOutputStream(out_stream);
+            out=ClassRegistry.newObjectOutputStream(out_stream);
             out.writeObject(obj);
             
             result=out_stream.toByteArray();
@@ -162,8 +160,7 @@ public class Util
         Object retval=null;
 
         try {  // to read the object as an Externalizable
-            ByteArrayInputStream in_stream=new ByteArrayInputStream(buffer, offset, length);
-            ObjectInputStream in=new ObjectInputStream(in_stream); // changed Nov 29 2004 (bela)
+            ObjectInputStream in=ClassRegistry.newObjectInputStream(buffer, offset, length);
             retval=in.readObject();
             in.close();
         }
@@ -353,6 +350,7 @@ public class Util
    
    public static String rpc_mina_RPCServerIoHandler = "rpc.mina.RPCServerIoHandler";
    public static String rpc_netty_RPCServerIoHandler = "rpc.netty.RPCServerIoHandler";
+   public static String rpc_shm_RPCServerIoHandler = "rpc.shm.RPCServerIoHandler";
    public static String rpc_webservice_RPCCall = "rpc.webservice.RPCCall";
    public static String rpc_webservice_RPCServerIoHandler = "rpc.webservice.RPCServerIoHandler";
    public static String rpc_jms_RPCServerIoHandler = "rpc.jms.RPCServerIoHandler";
@@ -379,6 +377,8 @@ public class Util
 		   return (RPCIOHandler)defaultContext.getBeanObject(Util.rpc_mina_RPCServerIoHandler);
 	   if(Target.BROADCAST_TYPE_NETTY.equals(protocol))
            return (RPCIOHandler)defaultContext.getBeanObject(Util.rpc_netty_RPCServerIoHandler);
+	   else if(Target.BROADCAST_TYPE_SHM.equals(protocol))
+           return (RPCIOHandler)defaultContext.getBeanObject(Util.rpc_shm_RPCServerIoHandler);
 	   else if(Target.BROADCAST_TYPE_WEBSERVICE.equals(protocol))
 		   return (RPCIOHandler)defaultContext.getBeanObject(Util.rpc_webservice_RPCServerIoHandler);
 	   else if(Target.BROADCAST_TYPE_JMS.equals(protocol))
@@ -393,41 +393,14 @@ public class Util
    }
    
 
-   private static Map<String ,List<RPCAddress>> allAddress = new HashMap<String ,List<RPCAddress>>();
-//   static
-//   {
-//	   allAddress = buildAllAddress();
-//   }
-   
-   private static List<RPCAddress> buildAllAddress(String protocol)
-	{
-		String temps = rpc_all_servers;
-		if(temps != null && !temps.equals(""))
-		{
-			return java.util.Collections.unmodifiableList(TargetImpl.buildAllTargets(temps,protocol));
-		}
-		return null;
-	}
-   
    /**
-    * 需要进行特殊处理
+    * 获取协议的组播地址列表，列表初始值取自rpc.all.servers，节点上下线时由Membership整体替换
     * @param protocol
     * @return
     */
    public static List<RPCAddress> getAllAddress(String protocol)
 	{
-	   List<RPCAddress> temp = allAddress.get(protocol);
-	   if(temp != null)
-		   return temp;
-	   synchronized(allAddress)
-	   {
-		   temp = allAddress.get(protocol);
-		   if(temp != null)
-			   return temp;
-		   temp = buildAllAddress(protocol);
-		   allAddress.put(protocol, temp);
-	   }
-	   return temp;
+	   return Membership.getMembers(protocol);
 	}
    public static BaseApplicationContext defaultContext = null;
    public static String rpc_all_servers ;
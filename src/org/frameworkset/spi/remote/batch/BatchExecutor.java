@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.batch;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.Util;
+import org.frameworkset.thread.ThreadPoolExecutor;
+import org.frameworkset.thread.ThreadPoolManagerFactory;
+
+/**
+ * <p>Title: BatchExecutor.java</p>
+ * <p>Description: 服务端执行批量调用的参数和并行线程池：
+ * rpc.batch.max.calls       一个批量允许的最大调用数，默认256，超过时整个批量被拒绝
+ * rpc.batch.parallel.enable 是否允许并行执行批量中的调用，默认true，关闭后客户端要求并行时也按顺序执行
+ * rpc.batch.threadpool      并行执行使用的线程池配置名称，参数格式与ThreadPoolManagerFactory一致，
+ *                           默认rpc.batch.threadpool，线程池拒绝任务时在当前线程中执行
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午09:52:39
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class BatchExecutor
+{
+    public static final int maxCalls = BaseSPIManager2.getIntProperty("rpc.batch.max.calls", 256);
+
+    public static final boolean parallelEnable = BaseSPIManager2.getBooleanProperty("rpc.batch.parallel.enable", true);
+
+    private static final String threadpool = Util.defaultContext.getProperty("rpc.batch.threadpool", "rpc.batch.threadpool");
+
+    private static volatile ThreadPoolExecutor executor;
+
+    private static ThreadPoolExecutor getExecutor()
+    {
+        if (executor != null)
+            return executor;
+        synchronized (BatchExecutor.class)
+        {
+            if (executor != null)
+                return executor;
+            executor = ThreadPoolManagerFactory.getThreadPoolExecutor(threadpool);
+        }
+        return executor;
+    }
+
+    public static void execute(Runnable task)
+    {
+        try
+        {
+            getExecutor().execute(task);
+        }
+        catch (RejectedExecutionException e)
+        {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.batch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.ClientProxyContext;
+import org.frameworkset.spi.RemoteCallContext;
+import org.frameworkset.spi.RemoteCallContextImpl;
+import org.frameworkset.spi.SPIException;
+import org.frameworkset.spi.cglib.BatchCGLibProxy;
+import org.frameworkset.spi.cglib.CGLibUtil;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.remote.RPCClient;
+import org.frameworkset.spi.remote.RPCHelper;
+import org.frameworkset.spi.remote.RemoteServiceID;
+import org.frameworkset.spi.remote.Target;
+
+/**
+ * <p>Title: RPCBatch.java</p>
+ * <p>Description: 显式的批量调用，将同一个目标节点上一个或多个服务的多次方法调用合并为一个请求发送，
+ * 服务端依次或者并行执行后在一个响应中返回全部结果。使用方法：
+ * <pre>
+ * RPCBatch batch = ClientProxyContext.createBatch();
+ * UserService users = batch.getService("(netty::192.168.1.22:12347)/rpc.user", UserService.class);
+ * users.getUser("a");
+ * users.getUser("b");
+ * RPCBatchResult result = batch.execute();
+ * User a = (User)result.get(0);
+ * </pre>
+ * getService返回的代理只记录调用，方法返回null或者基本类型的默认值，真正的结果在execute之后按记录顺序获取。
+ * 批量中的服务必须是同一个单播地址，不支持jgroup和rest协议；请求使用第一个服务的认证信息和调用参数。
+ * rpc.batch.parallel设置默认是否由服务端并行执行，也可以通过setParallel单独指定。
+ * RPCBatch不是线程安全的，一个批量只应在一个线程中使用。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午09:35:26
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RPCBatch
+{
+    public static final String BATCH_METHOD = "callBatch";
+
+    public static final String BATCH_SERVICE = "rpc.batch";
+
+    private static final Class[] BATCH_TYPES = new Class[] { RPCBatchCall[].class, Boolean.class };
+
+    public static final boolean defaultParallel = BaseSPIManager2.getBooleanProperty("rpc.batch.parallel", false);
+
+    private final String context;
+
+    private final int containerType;
+
+    private final List<RPCBatchCall> calls = new ArrayList<RPCBatchCall>();
+
+    private final Map<String, RemoteServiceID> services = new HashMap<String, RemoteServiceID>();
+
+    private RemoteServiceID first;
+
+    private RemoteCallContext callContext;
+
+    private RPCAddress address;
+
+    private String protocol;
+
+    private boolean parallel = defaultParallel;
+
+    public RPCBatch(String context, int containerType)
+    {
+        this.context = context;
+        this.containerType = containerType;
+    }
+
+    /**
+     * 获取记录调用的服务代理
+     * @param name 服务组件访问地址
+     * @param type 组件接口类型
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getService(String name, Class<T> type)
+    {
+        RemoteServiceID serviceID = getServiceID(name);
+        serviceID.setInfType(type.getName());
+        return (T) CGLibUtil.getBeanInstance(type, new BatchCGLibProxy(this, serviceID));
+    }
+
+    /**
+     * 直接记录一次方法调用
+     * @param name 服务组件访问地址
+     * @param methodName 方法名称
+     * @param types 方法参数类型
+     * @param parameters 方法参数
+     * @return 调用在批量结果中的位置
+     */
+    public int add(String name, String methodName, Class[] types, Object[] parameters)
+    {
+        return record(getServiceID(name), methodName, types, parameters);
+    }
+
+    public int record(RemoteServiceID serviceID, String methodName, Class[] types, Object[] parameters)
+    {
+        calls.add(new RPCBatchCall(serviceID, methodName, parameters, types));
+        return calls.size() - 1;
+    }
+
+    private RemoteServiceID getServiceID(String name)
+    {
+        RemoteServiceID serviceID = services.get(name);
+        if (serviceID != null)
+            return serviceID;
+        serviceID = ClientProxyContext.buildServiceID(name, context, containerType);
+        Target target = serviceID.getTarget();
+        if (target.isAll() || target.getTargets() == null || target.getTargets().size() != 1)
+            throw new SPIException("Batch call requires a single target address:" + name);
+        String protocol_ = RPCHelper.getRPCHelper().getProtocol(target);
+        if (protocol_ == null)
+            throw new SPIException("Batch call is not supported by protocol of " + name);
+        RPCAddress address_ = target.getTargets().get(0);
+        if (first == null)
+        {
+            first = serviceID;
+            protocol = protocol_;
+            address = address_;
+            callContext = ClientProxyContext.buildClientCallContext(serviceID,
+                    new RemoteCallContextImpl(context, containerType), false);
+        }
+        else if (!protocol.equals(protocol_) || !address.equals(address_))
+        {
+            throw new SPIException("Batch call requires services on the same target, " + name
+                    + " is not on " + protocol + "::" + address);
+        }
+        services.put(name, serviceID);
+        return serviceID;
+    }
+
+    public int size()
+    {
+        return calls.size();
+    }
+
+    public boolean isParallel()
+    {
+        return parallel;
+    }
+
+    /**
+     * 设置服务端是否并行执行批量中的调用
+     */
+    public RPCBatch setParallel(boolean parallel)
+    {
+        this.parallel = parallel;
+        return this;
+    }
+
+    /**
+     * 发送记录的全部调用并清空批量，批量可以继续记录新的调用
+     * @return 按记录顺序排列的调用结果
+     * @throws Throwable 请求发送失败或者服务端拒绝整个批量时抛出
+     */
+    public RPCBatchResult execute() throws Throwable
+    {
+        if (calls.isEmpty())
+            return new RPCBatchResult(new Object[0], new Throwable[0]);
+        RPCBatchCall[] batch = calls.toArray(new RPCBatchCall[calls.size()]);
+        calls.clear();
+        Object[] params = new Object[] { batch, Boolean.valueOf(parallel) };
+        return (RPCBatchResult) RPCClient.getInstance().callRemoteMethod(address, BATCH_METHOD, params, BATCH_TYPES,
+                first.getResultMode(), first.getTimeout(), protocol, callContext);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.batch;
+
+import org.frameworkset.spi.remote.RemoteServiceID;
+
+/**
+ * <p>Title: RPCBatchCall.java</p>
+ * <p>Description: 批量调用中记录的一次方法调用</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午09:32:10
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RPCBatchCall implements java.io.Serializable
+{
+    private static final long serialVersionUID = -3310862207528640531L;
+
+    private final RemoteServiceID serviceID;
+
+    private final String methodName;
+
+    private final Object[] parameters;
+
+    private final Class[] types;
+
+    public RPCBatchCall(RemoteServiceID serviceID, String methodName, Object[] parameters, Class[] types)
+    {
+        this.serviceID = serviceID;
+        this.methodName = methodName;
+        this.parameters = parameters;
+        this.types = types;
+    }
+
+    public RemoteServiceID getServiceID()
+    {
+        return serviceID;
+    }
+
+    public String getMethodName()
+    {
+        return methodName;
+    }
+
+    public Object[] getParameters()
+    {
+        return parameters;
+    }
+
+    public Class[] getTypes()
+    {
+        return types;
+    }
+
+    public String toString()
+    {
+        return serviceID.getService() + "." + methodName;
+    }
+}
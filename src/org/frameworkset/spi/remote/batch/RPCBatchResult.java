@@ -0,0 +1,70 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.batch;
+
+/**
+ * <p>Title: RPCBatchResult.java</p>
+ * <p>Description: 批量调用的结果，按照调用的记录顺序保存每次调用的返回值或者异常，
+ * 单个调用失败不影响其他调用的结果。</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午09:33:47
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RPCBatchResult implements java.io.Serializable
+{
+    private static final long serialVersionUID = 5862287106630459320L;
+
+    private final Object[] values;
+
+    private final Throwable[] failures;
+
+    public RPCBatchResult(Object[] values, Throwable[] failures)
+    {
+        this.values = values;
+        this.failures = failures;
+    }
+
+    public int size()
+    {
+        return values.length;
+    }
+
+    /**
+     * 返回第index次调用的结果，调用失败时抛出服务端的异常
+     * @param index
+     * @return
+     * @throws Throwable
+     */
+    public Object get(int index) throws Throwable
+    {
+        if (failures[index] != null)
+            throw failures[index];
+        return values[index];
+    }
+
+    public boolean isFailed(int index)
+    {
+        return failures[index] != null;
+    }
+
+    public Throwable getFailure(int index)
+    {
+        return failures[index];
+    }
+}
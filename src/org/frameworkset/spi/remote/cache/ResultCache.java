@@ -0,0 +1,308 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.cache;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringTokenizer;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.frameworkset.spi.remote.Header;
+import org.frameworkset.spi.remote.SingleFlight;
+import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.security.SecurityContext;
+
+/**
+ * <p>Title: ResultCache.java</p>
+ * <p>Description: 一个服务的方法结果缓存，缓存键为（调用范围，方法名称，参数类型，参数序列化后的字节），
+ * 调用范围包含调用的目标地址以及调用方的用户、口令和消息头，不同目标、不同用户的结果互不共享；
+ * 服务配置rpc.cache.shared=true时结果与调用方无关，调用范围只包含目标地址。
+ * 按最近最少使用淘汰超出容量的条目，条目超过存活时间后失效。只缓存非null的正常返回结果，
+ * 参数无法序列化时不缓存；缓存的结果对象不复制，被命中同一条目的调用方共享，服务应返回不可变对象，调用方不应修改。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午10:08:52
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ResultCache
+{
+    private final String service;
+
+    /**
+     * 缓存的方法名称，null表示缓存所有方法
+     */
+    private final Set<String> methods;
+
+    private final long ttl;
+
+    private final int maxSize;
+
+    /**
+     * 结果是否与调用方无关
+     */
+    private final boolean shared;
+
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    static class Key
+    {
+        final Object scope;
+
+        final String method;
+
+        final Class[] types;
+
+        final byte[] args;
+
+        final int hash;
+
+        Key(Object scope, String method, Class[] types, byte[] args)
+        {
+            this.scope = scope;
+            this.method = method;
+            this.types = types;
+            this.args = args;
+            this.hash = 31 * (31 * (scope == null ? 0 : scope.hashCode()) + method.hashCode()) + Arrays.hashCode(args);
+        }
+
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return hash == other.hash && method.equals(other.method) && Arrays.equals(types, other.types)
+                    && Arrays.equals(args, other.args) && (scope == null ? other.scope == null : scope.equals(other.scope));
+        }
+    }
+
+    static class Entry
+    {
+        final Object value;
+
+        final long expireTime;
+
+        Entry(Object value, long expireTime)
+        {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+    }
+
+    /**
+     * @param service 服务标识
+     * @param methods 逗号分隔的方法名称，*表示所有方法
+     * @param ttl 条目存活时间，单位毫秒
+     * @param maxSize 最大条目数
+     */
+    public ResultCache(String service, String methods, long ttl, final int maxSize)
+    {
+        this(service, methods, ttl, maxSize, false);
+    }
+
+    /**
+     * @param service 服务标识
+     * @param methods 逗号分隔的方法名称，*表示所有方法
+     * @param ttl 条目存活时间，单位毫秒
+     * @param maxSize 最大条目数
+     * @param shared 结果是否与调用方无关，为true时不同用户共享缓存结果
+     */
+    public ResultCache(String service, String methods, long ttl, final int maxSize, boolean shared)
+    {
+        this.service = service;
+        this.methods = parseMethods(methods);
+        this.ttl = ttl;
+        this.maxSize = maxSize;
+        this.shared = shared;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true)
+        {
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest)
+            {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    private static Set<String> parseMethods(String methods)
+    {
+        if (methods == null || methods.trim().equals("*"))
+            return null;
+        Set<String> names = new HashSet<String>();
+        StringTokenizer tokenizer = new StringTokenizer(methods, ", ");
+        while (tokenizer.hasMoreTokens())
+            names.add(tokenizer.nextToken());
+        return names;
+    }
+
+    public boolean isCached(String method)
+    {
+        return methods == null || methods.contains(method);
+    }
+
+    /**
+     * 构建调用范围，共享缓存只区分目标地址
+     * @param target 调用的目标地址，服务端缓存为null
+     * @param securityContext 调用方的安全上下文
+     * @param headers 调用方的消息头
+     */
+    public Object buildScope(Object target, SecurityContext securityContext, Map<String, Header> headers)
+    {
+        String target_ = target == null ? null : String.valueOf(target);
+        if (shared)
+            return target_;
+        String user = securityContext != null ? securityContext.getUser() : null;
+        String password = securityContext != null ? securityContext.getPassword() : null;
+        return Arrays.asList(new Object[] { target_, user, password, SingleFlight.headersKey(headers) });
+    }
+
+    /**
+     * 构建缓存键，方法不缓存或者参数无法序列化时返回null
+     * @param scope buildScope构建的调用范围
+     */
+    public Object buildKey(Object scope, String method, Class[] types, Object[] parameters)
+    {
+        if (!isCached(method))
+            return null;
+        try
+        {
+            byte[] args = parameters == null || parameters.length == 0 ? new byte[0] : Util.objectToByteBuffer(parameters);
+            return new Key(scope, method, types, args);
+        }
+        catch (Exception e)
+        {
+            return null;
+        }
+    }
+
+    /**
+     * 返回缓存的结果，没有命中时返回null
+     */
+    public Object get(Object key)
+    {
+        Entry entry;
+        synchronized (entries)
+        {
+            entry = entries.get(key);
+            if (entry != null && entry.expireTime < System.currentTimeMillis())
+            {
+                entries.remove(key);
+                entry = null;
+            }
+        }
+        if (entry == null)
+        {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.value;
+    }
+
+    public void put(Object key, Object value)
+    {
+        if (value == null)
+            return;
+        Entry entry = new Entry(value, System.currentTimeMillis() + ttl);
+        synchronized (entries)
+        {
+            entries.put((Key) key, entry);
+        }
+    }
+
+    /**
+     * 清除指定方法的缓存结果
+     * @param method 方法名称，null时清除所有结果
+     */
+    public void invalidate(String method)
+    {
+        synchronized (entries)
+        {
+            if (method == null)
+            {
+                entries.clear();
+                return;
+            }
+            for (Iterator<Key> it = entries.keySet().iterator(); it.hasNext();)
+            {
+                if (it.next().method.equals(method))
+                    it.remove();
+            }
+        }
+    }
+
+    public String getService()
+    {
+        return service;
+    }
+
+    public long getTtl()
+    {
+        return ttl;
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    public boolean isShared()
+    {
+        return shared;
+    }
+
+    public int size()
+    {
+        synchronized (entries)
+        {
+            return entries.size();
+        }
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+
+    public String toString()
+    {
+        return "ResultCache[service=" + service + ",methods=" + (methods == null ? "*" : methods.toString())
+                + ",ttl=" + ttl + ",maxSize=" + maxSize + ",shared=" + shared + ",size=" + size() + ",hits=" + hits + ",misses=" + misses + "]";
+    }
+}
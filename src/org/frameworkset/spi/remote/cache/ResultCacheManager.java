@@ -0,0 +1,245 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import bboss.org.jgroups.blocks.GroupRequest;
+
+import org.frameworkset.spi.BaseApplicationContext;
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.RemoteCallContext;
+import org.frameworkset.spi.assemble.Pro;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.remote.RPCClient;
+import org.frameworkset.spi.remote.RPCHelper;
+import org.frameworkset.spi.remote.RemoteServiceID;
+import org.frameworkset.spi.remote.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: ResultCacheManager.java</p>
+ * <p>Description: 幂等方法的结果缓存，通过全局参数rpc.cache.enable=true开启，
+ * 在组件配置中按服务指定需要缓存的方法，例如：
+ * <pre>
+ * &lt;property name="user.service" enablerpc="true"
+ *           rpc.cache="getUser,listRoles"
+ *           rpc.cache.ttl="60000"
+ *           rpc.cache.size="1000"
+ *           rpc.cache.side="both"
+ *           class="com.demo.UserServiceImpl"/&gt;
+ * </pre>
+ * rpc.cache      逗号分隔的方法名称，*表示缓存所有方法
+ * rpc.cache.ttl  缓存结果的存活时间，单位毫秒，默认60000
+ * rpc.cache.size 每个服务最多缓存的结果数，默认1000
+ * rpc.cache.side client在客户端代理中缓存（读取客户端容器中同名组件的配置），
+ *                server在服务端DefaultRemoteHandler中缓存，both两端都缓存，默认both
+ * rpc.cache.shared 结果是否与调用方无关，默认false，此时缓存按调用方的用户、口令和消息头隔离；
+ *                为true时所有调用方共享缓存结果。客户端缓存始终按目标地址隔离
+ *
+ * 缓存结果不复制，命中同一条目的调用方共享同一个对象，缓存的方法应返回不可变对象。
+ *
+ * 数据变更后通过invalidate向target=all的所有节点广播失效消息，收到消息的节点按服务的invalidateCache(String,String)方法
+ * 做认证和鉴权，通过后清除本地的客户端和服务端缓存。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午10:21:15
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ResultCacheManager
+{
+    private static final Logger log = LoggerFactory.getLogger(ResultCacheManager.class);
+
+    public static final boolean enable = BaseSPIManager2.getBooleanProperty("rpc.cache.enable", false);
+
+    public static final String INVALIDATE_METHOD = "invalidateCache";
+
+    public static final String ATTR_CACHE = "rpc.cache";
+
+    public static final String ATTR_TTL = "rpc.cache.ttl";
+
+    public static final String ATTR_SIZE = "rpc.cache.size";
+
+    public static final String ATTR_SIDE = "rpc.cache.side";
+
+    public static final String ATTR_SHARED = "rpc.cache.shared";
+
+    public static final Class[] INVALIDATE_TYPES = new Class[] { String.class, String.class };
+
+    /**
+     * 没有配置缓存的服务
+     */
+    private static final ResultCache NONE = new ResultCache(null, "", 0L, 0);
+
+    private static final ConcurrentMap<String, ResultCache> serverCaches = new ConcurrentHashMap<String, ResultCache>();
+
+    private static final ConcurrentMap<String, ResultCache> clientCaches = new ConcurrentHashMap<String, ResultCache>();
+
+    private static boolean isEmpty(String value)
+    {
+        return value == null || value.trim().equals("");
+    }
+
+    private static long parse(String service, String name, String value, long defaultValue)
+    {
+        if (isEmpty(value))
+            return defaultValue;
+        try
+        {
+            return Long.parseLong(value.trim());
+        }
+        catch (NumberFormatException e)
+        {
+            log.warn("Illegal " + name + "[" + value + "] for service[" + service + "], use default value " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static ResultCache buildCache(String service, Pro pro, String side)
+    {
+        if (pro == null)
+            return NONE;
+        String methods = pro.getStringExtendAttribute(ATTR_CACHE);
+        if (isEmpty(methods))
+            return NONE;
+        String sides = pro.getStringExtendAttribute(ATTR_SIDE);
+        if (!isEmpty(sides) && !sides.trim().equals("both") && !sides.trim().equals(side))
+            return NONE;
+        long ttl = parse(service, ATTR_TTL, pro.getStringExtendAttribute(ATTR_TTL), 60000L);
+        int size = (int) parse(service, ATTR_SIZE, pro.getStringExtendAttribute(ATTR_SIZE), 1000L);
+        String shared = pro.getStringExtendAttribute(ATTR_SHARED);
+        ResultCache cache = new ResultCache(service, methods.trim(), ttl, size,
+                !isEmpty(shared) && Boolean.valueOf(shared.trim()).booleanValue());
+        log.debug("Create " + side + " " + cache);
+        return cache;
+    }
+
+    /**
+     * 返回服务端的结果缓存，服务没有配置缓存时返回null
+     */
+    public static ResultCache getServerCache(String service, Pro pro)
+    {
+        ResultCache cache = serverCaches.get(service);
+        if (cache == null)
+        {
+            cache = buildCache(service, pro, "server");
+            ResultCache old = serverCaches.putIfAbsent(service, cache);
+            if (old != null)
+                cache = old;
+        }
+        return cache == NONE ? null : cache;
+    }
+
+    /**
+     * 返回客户端代理的结果缓存，缓存配置读取客户端容器中同名组件的属性，没有配置缓存时返回null
+     */
+    public static ResultCache getClientCache(RemoteServiceID serviceID)
+    {
+        String key = serviceID.getApplicationContext() + "|" + serviceID.getService();
+        ResultCache cache = clientCaches.get(key);
+        if (cache == null)
+        {
+            Pro pro = null;
+            try
+            {
+                BaseApplicationContext context = BaseApplicationContext.getBaseApplicationContext(
+                        serviceID.getApplicationContext(), serviceID.getContainerType());
+                pro = context != null ? context.getProBean(serviceID.getService()) : null;
+            }
+            catch (Throwable e)
+            {
+                log.debug("Load cache config of service[" + serviceID.getService() + "] failed:" + e.getMessage());
+            }
+            cache = buildCache(serviceID.getService(), pro, "client");
+            ResultCache old = clientCaches.putIfAbsent(key, cache);
+            if (old != null)
+                cache = old;
+        }
+        return cache == NONE ? null : cache;
+    }
+
+    /**
+     * 清除本节点上服务的客户端和服务端缓存
+     * @param service 服务标识
+     * @param method 方法名称，null时清除服务的所有结果
+     */
+    public static void invalidateLocal(String service, String method)
+    {
+        ResultCache cache = serverCaches.get(service);
+        if (cache != null && cache != NONE)
+            cache.invalidate(method);
+        for (Iterator<ResultCache> it = clientCaches.values().iterator(); it.hasNext();)
+        {
+            cache = it.next();
+            if (cache != NONE && service.equals(cache.getService()))
+                cache.invalidate(method);
+        }
+    }
+
+    /**
+     * 清除本节点的缓存，并通过protocol协议向target=all的所有节点广播失效消息
+     * @param protocol 广播使用的协议
+     * @param service 服务标识
+     * @param method 方法名称，null时清除服务的所有结果
+     * @param callContext 广播请求的认证信息和调用参数，可以为null
+     * @throws Throwable
+     */
+    public static void invalidate(String protocol, String service, String method, RemoteCallContext callContext)
+            throws Throwable
+    {
+        invalidateLocal(service, method);
+        List<RPCAddress> all = Util.getAllAddress(protocol);
+        if (all == null || all.isEmpty())
+            return;
+        RPCClient.getInstance().callRemoteMethod(all, INVALIDATE_METHOD, new Object[] { service, method },
+                INVALIDATE_TYPES, GroupRequest.GET_ALL, RPCHelper.getRPCRequestTimeout(), false, null, protocol, callContext);
+    }
+
+    private static Collection<ResultCache> configured(Collection<ResultCache> caches)
+    {
+        List<ResultCache> result = new ArrayList<ResultCache>();
+        for (Iterator<ResultCache> it = caches.iterator(); it.hasNext();)
+        {
+            ResultCache cache = it.next();
+            if (cache != NONE)
+                result.add(cache);
+        }
+        return Collections.unmodifiableCollection(result);
+    }
+
+    /**
+     * 返回服务端的所有结果缓存，用于监控命中率
+     */
+    public static Collection<ResultCache> getServerCaches()
+    {
+        return configured(serverCaches.values());
+    }
+
+    public static Collection<ResultCache> getClientCaches()
+    {
+        return configured(clientCaches.values());
+    }
+}
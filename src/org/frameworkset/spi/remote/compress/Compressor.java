@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.compress;
+
+/**
+ * <p>Title: Compressor.java</p>
+ * <p>Description: 消息体压缩算法，实现类必须是线程安全的</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午04:40:12
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public interface Compressor
+{
+    /**
+     * 压缩算法编号，写入压缩消息体的第一个字节，通讯双方据此选择解压算法
+     * @return
+     */
+    public byte getId();
+
+    /**
+     * 压缩算法名称，用于配置和协商
+     * @return
+     */
+    public String getName();
+
+    public byte[] compress(byte[] src) throws Exception;
+
+    /**
+     * 解压src中从offset开始的length个字节
+     * @param originalLength 压缩前的字节数
+     */
+    public byte[] decompress(byte[] src, int offset, int length, int originalLength) throws Exception;
+}
@@ -0,0 +1,287 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.compress;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.Header;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.remote.RPCMessage;
+import org.frameworkset.spi.remote.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: CompressorFactory.java</p>
+ * <p>Description: 消息体压缩管理，在传输层编码之前把消息体序列化为字节数组并按需压缩，
+ * 压缩后的消息体格式为：压缩算法编号(1字节) | 压缩前长度(4字节) | 压缩数据，
+ * 序列化后小于rpc.compress.threshold的消息体保持对象形式，由传输层直接编码；压缩后没有变小时不压缩，算法编号为0。
+ * 请求消息通过rpc.compress消息头告知对方本端优先使用的压缩算法，服务端按请求方的算法压缩响应，
+ * 并在响应中回送服务端的算法，客户端据此记录每个服务地址协商好的算法，尚未协商的地址使用deflate算法。
+ * 压缩前长度来自对方，接收时通过rpc.compress.max.length限制允许的最大长度，默认134217728，小于等于0时不限制。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午04:52:16
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class CompressorFactory
+{
+    private static Logger log = LoggerFactory.getLogger(CompressorFactory.class);
+
+    public static final String ACCEPT_HEADER = "rpc.compress";
+
+    public static final byte NONE = 0;
+
+    public static final int FRAME_HEADER = 5;
+
+    public static final boolean enable = BaseSPIManager2.getBooleanProperty("rpc.compress.enable", false);
+
+    public static final int threshold = BaseSPIManager2.getIntProperty("rpc.compress.threshold", 2048);
+
+    public static final int maxLength = BaseSPIManager2.getIntProperty("rpc.compress.max.length", 128 * 1024 * 1024);
+
+    private static final Compressor[] compressors = new Compressor[8];
+
+    private static final Map<String, Compressor> namedCompressors = new ConcurrentHashMap<String, Compressor>();
+
+    private static final ConcurrentMap<RPCAddress, Compressor> negotiated = new ConcurrentHashMap<RPCAddress, Compressor>();
+
+    private static final Compressor deflate = new DeflateCompressor();
+
+    private static Compressor preferred;
+
+    static
+    {
+        register(deflate);
+        registerOptional("org.frameworkset.spi.remote.compress.LZ4BlockCompressor");
+        registerOptional("org.frameworkset.spi.remote.compress.SnappyCompressor");
+        String codec = Util.defaultContext.getProperty("rpc.compress.codec", LZ4BlockCompressor.NAME);
+        preferred = namedCompressors.get(codec);
+        if (preferred == null)
+        {
+            if (enable)
+                log.warn("compressor " + codec + " is not available,use " + DeflateCompressor.NAME + " instead.");
+            preferred = deflate;
+        }
+    }
+
+    public static void register(Compressor compressor)
+    {
+        compressors[compressor.getId()] = compressor;
+        namedCompressors.put(compressor.getName(), compressor);
+    }
+
+    /**
+     * 第三方压缩包不在classpath中或者本地库加载失败时忽略对应的压缩算法
+     * @param className
+     */
+    private static void registerOptional(String className)
+    {
+        try
+        {
+            Compressor compressor = (Compressor) Class.forName(className).newInstance();
+            compressor.compress(new byte[16]);
+            register(compressor);
+        }
+        catch (Throwable e)
+        {
+            if (log.isDebugEnabled())
+                log.debug("compressor " + className + " is not available:" + e);
+        }
+    }
+
+    public static Compressor getCompressor(String name)
+    {
+        return name == null ? null : namedCompressors.get(name);
+    }
+
+    public static Compressor getCompressor(byte id)
+    {
+        return id > 0 && id < compressors.length ? compressors[id] : null;
+    }
+
+    /**
+     * 获取通讯双方都支持的缺省压缩算法
+     * @return
+     */
+    public static Compressor getDefaultCompressor()
+    {
+        return deflate;
+    }
+
+    /**
+     * 获取与服务地址协商好的压缩算法
+     * @param address
+     * @return
+     */
+    public static Compressor getCompressor(RPCAddress address)
+    {
+        Compressor compressor = address == null ? null : negotiated.get(address);
+        return compressor != null ? compressor : deflate;
+    }
+
+    /**
+     * 获取压缩请求方响应消息的算法，请求方没有声明支持压缩时返回null
+     * @param req
+     * @return
+     */
+    public static Compressor getReplyCompressor(RPCMessage req)
+    {
+        Header accept = req.getHeader(ACCEPT_HEADER);
+        if (accept == null)
+            return null;
+        Compressor compressor = getCompressor((String) accept.getValue());
+        return compressor != null ? compressor : deflate;
+    }
+
+    /**
+     * 在消息中声明本端优先使用的压缩算法
+     * @param msg
+     */
+    public static void announce(RPCMessage msg)
+    {
+        msg.putHeader(ACCEPT_HEADER, new Header(ACCEPT_HEADER, preferred.getName()));
+    }
+
+    /**
+     * 根据响应消息中服务端声明的压缩算法记录协商结果
+     * @param address
+     * @param rsp
+     */
+    public static void negotiate(RPCAddress address, RPCMessage rsp)
+    {
+        if (address == null)
+            return;
+        Header accept = rsp.getHeader(ACCEPT_HEADER);
+        if (accept == null)
+            return;
+        Compressor compressor = getCompressor((String) accept.getValue());
+        negotiated.put(address, compressor != null ? compressor : deflate);
+    }
+
+    /**
+     * 将对象消息体序列化并按需压缩，消息体不能被java序列化、没有指定压缩算法或者序列化后小于压缩阈值时保持原样由传输层处理
+     * @param msg
+     * @param compressor
+     * @return 消息体是否被转换为压缩格式
+     */
+    public static boolean compressPayload(RPCMessage msg, Compressor compressor) throws Exception
+    {
+        if (msg.getResultSerial() != RPCMessage.OOB || msg.getData() == null || compressor == null)
+            return false;
+        byte[] raw;
+        try
+        {
+            raw = Util.objectToByteBuffer(msg.getData());
+        }
+        catch (Exception e)
+        {
+            if (log.isDebugEnabled())
+                log.debug("payload is not serializable,skip compress:" + e);
+            return false;
+        }
+        //小消息体不值得压缩，保持OOB形式，避免额外的帧头和一次反序列化拷贝
+        if (raw.length < threshold)
+            return false;
+        byte[] body = raw;
+        byte id = NONE;
+        byte[] compressed = compressor.compress(raw);
+        //不能压缩的大消息体也保留已经序列化的结果，避免传输层再序列化一次
+        if (compressed.length < raw.length)
+        {
+            body = compressed;
+            id = compressor.getId();
+        }
+        byte[] frame = new byte[FRAME_HEADER + body.length];
+        writeFrameHeader(frame, id, raw.length);
+        System.arraycopy(body, 0, frame, FRAME_HEADER, body.length);
+        msg.setData(frame);
+        msg.setResultSerial(RPCMessage.COMPRESSED);
+        return true;
+    }
+
+    /**
+     * 解压并反序列化compressPayload生成的消息体
+     * @param frame
+     * @return
+     */
+    public static Object decompressPayload(byte[] frame) throws Exception
+    {
+        int length = readFrameLength(frame, maxLength);
+        if (frame[0] == NONE)
+            return Util.objectFromByteBuffer(frame, FRAME_HEADER, length);
+        byte[] raw = decompressFrame(frame, length);
+        return Util.objectFromByteBuffer(raw, 0, raw.length);
+    }
+
+    /**
+     * 写入帧头：压缩算法编号(1字节) | 压缩前长度(4字节)
+     * @param frame
+     * @param id 压缩算法编号，未压缩时为NONE
+     * @param length 压缩前长度
+     */
+    public static void writeFrameHeader(byte[] frame, byte id, int length)
+    {
+        frame[0] = id;
+        frame[1] = (byte) (length >>> 24);
+        frame[2] = (byte) (length >>> 16);
+        frame[3] = (byte) (length >>> 8);
+        frame[4] = (byte) length;
+    }
+
+    /**
+     * 读取并校验帧头中的压缩前长度
+     * @param frame
+     * @param maxLength 允许的最大长度，小于等于0时不限制
+     * @return 压缩前长度
+     * @throws IOException 帧不完整、长度为负数或者超过maxLength，未压缩的帧长度超过实际数据
+     */
+    public static int readFrameLength(byte[] frame, int maxLength) throws IOException
+    {
+        if (frame == null || frame.length < FRAME_HEADER)
+            throw new IOException("payload frame is truncated: " + (frame == null ? 0 : frame.length) + " bytes.");
+        int length = ((frame[1] & 0xff) << 24) | ((frame[2] & 0xff) << 16) | ((frame[3] & 0xff) << 8) | (frame[4] & 0xff);
+        if (length < 0)
+            throw new IOException("payload frame length " + length + " is negative.");
+        if (maxLength > 0 && length > maxLength)
+            throw new IOException("payload frame length " + length + " exceeds rpc.compress.max.length " + maxLength);
+        if (frame[0] == NONE && length > frame.length - FRAME_HEADER)
+            throw new IOException("payload frame length " + length + " exceeds the frame data "
+                    + (frame.length - FRAME_HEADER) + " bytes.");
+        return length;
+    }
+
+    /**
+     * 按帧头中的算法解压帧数据，length必须是readFrameLength校验过的长度
+     * @param frame
+     * @param length 压缩前长度
+     * @return
+     */
+    public static byte[] decompressFrame(byte[] frame, int length) throws Exception
+    {
+        Compressor compressor = getCompressor(frame[0]);
+        if (compressor == null)
+            throw new IOException("unsupported compressor id " + frame[0] + ",please check the classpath.");
+        return compressor.decompress(frame, FRAME_HEADER, frame.length - FRAME_HEADER, length);
+    }
+}
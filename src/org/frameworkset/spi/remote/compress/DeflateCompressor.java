@@ -0,0 +1,108 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.compress;
+
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <p>Title: DeflateCompressor.java</p>
+ * <p>Description: 基于jdk Deflater的压缩算法，不依赖第三方包，是通讯双方都能支持的缺省算法，
+ * 每个线程缓存自己的Deflater和Inflater实例</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午04:43:27
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class DeflateCompressor implements Compressor
+{
+    public static final byte ID = 1;
+
+    public static final String NAME = "deflate";
+
+    private final ThreadLocal<Deflater> deflaters = new ThreadLocal<Deflater>()
+    {
+        protected Deflater initialValue()
+        {
+            return new Deflater(Deflater.BEST_SPEED);
+        }
+    };
+
+    private final ThreadLocal<Inflater> inflaters = new ThreadLocal<Inflater>()
+    {
+        protected Inflater initialValue()
+        {
+            return new Inflater();
+        }
+    };
+
+    public byte getId()
+    {
+        return ID;
+    }
+
+    public String getName()
+    {
+        return NAME;
+    }
+
+    public byte[] compress(byte[] src)
+    {
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(src);
+        deflater.finish();
+        byte[] out = new byte[Math.max(64, src.length >> 1)];
+        int len = 0;
+        while (!deflater.finished())
+        {
+            if (len == out.length)
+            {
+                byte[] tmp = new byte[out.length << 1];
+                System.arraycopy(out, 0, tmp, 0, len);
+                out = tmp;
+            }
+            len += deflater.deflate(out, len, out.length - len);
+        }
+        if (len == out.length)
+            return out;
+        byte[] retval = new byte[len];
+        System.arraycopy(out, 0, retval, 0, len);
+        return retval;
+    }
+
+    public byte[] decompress(byte[] src, int offset, int length, int originalLength) throws DataFormatException
+    {
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(src, offset, length);
+        byte[] out = new byte[originalLength];
+        int len = 0;
+        while (len < originalLength && !inflater.finished())
+        {
+            int n = inflater.inflate(out, len, originalLength - len);
+            if (n == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                break;
+            len += n;
+        }
+        if (len != originalLength)
+            throw new DataFormatException("deflate payload corrupted: expect " + originalLength + " bytes,but " + len);
+        return out;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.compress;
+
+import java.io.IOException;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * <p>Title: LZ4BlockCompressor.java</p>
+ * <p>Description: 基于lz4-java的快速压缩算法，classpath中存在lz4-java时才会被CompressorFactory注册</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午04:47:05
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class LZ4BlockCompressor implements Compressor
+{
+    public static final byte ID = 2;
+
+    public static final String NAME = "lz4";
+
+    private final LZ4Compressor compressor;
+
+    private final LZ4SafeDecompressor decompressor;
+
+    public LZ4BlockCompressor()
+    {
+        LZ4Factory factory = LZ4Factory.fastestInstance();
+        compressor = factory.fastCompressor();
+        decompressor = factory.safeDecompressor();
+    }
+
+    public byte getId()
+    {
+        return ID;
+    }
+
+    public String getName()
+    {
+        return NAME;
+    }
+
+    public byte[] compress(byte[] src)
+    {
+        return compressor.compress(src);
+    }
+
+    public byte[] decompress(byte[] src, int offset, int length, int originalLength) throws IOException
+    {
+        byte[] out = new byte[originalLength];
+        //数据来自对方，使用带边界检查的解压器
+        int len = decompressor.decompress(src, offset, length, out, 0, originalLength);
+        if (len != originalLength)
+            throw new IOException("lz4 payload corrupted: expect " + originalLength + " bytes,but " + len);
+        return out;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.compress;
+
+import java.io.IOException;
+
+import org.xerial.snappy.Snappy;
+
+/**
+ * <p>Title: SnappyCompressor.java</p>
+ * <p>Description: 基于snappy-java的快速压缩算法，classpath中存在snappy-java并且本地库加载成功时才会被CompressorFactory注册</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午04:49:38
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class SnappyCompressor implements Compressor
+{
+    public static final byte ID = 3;
+
+    public static final String NAME = "snappy";
+
+    public byte getId()
+    {
+        return ID;
+    }
+
+    public String getName()
+    {
+        return NAME;
+    }
+
+    public byte[] compress(byte[] src) throws IOException
+    {
+        return Snappy.compress(src);
+    }
+
+    public byte[] decompress(byte[] src, int offset, int length, int originalLength) throws IOException
+    {
+        byte[] out = new byte[originalLength];
+        int len = Snappy.uncompress(src, offset, length, out, 0);
+        if (len != originalLength)
+            throw new IOException("snappy payload corrupted: expect " + originalLength + " bytes,but " + len);
+        return out;
+    }
+}
@@ -16,13 +16,14 @@
 
 package org.frameworkset.spi.remote.context;
 
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
 import org.frameworkset.spi.assemble.SynchronizedMethod;
 import org.frameworkset.spi.remote.Header;
+import org.frameworkset.spi.remote.Headers;
 import org.frameworkset.spi.remote.ServiceID;
+import org.frameworkset.spi.remote.trace.TraceContext;
 import org.frameworkset.spi.security.SecurityContext;
 import org.frameworkset.spi.security.SecurityException;
 
@@ -66,6 +67,19 @@ public class RequestContext {
 		requestLocal.set(null);
 	}
 
+	/**
+	 * 将请求上下文绑定到当前线程，返回当前线程原有的请求上下文，
+	 * 用于服务方法被转交到其他线程执行时传递安全上下文和调用链上下文
+	 * 
+	 * @param context
+	 * @return
+	 */
+	public static RequestContext bindRequestContext(RequestContext context) {
+		RequestContext old = requestLocal.get();
+		requestLocal.set(context);
+		return old;
+	}
+
 	SecurityContext getSecurityContext_() {
 		return this.securityContext;
 	}
@@ -94,10 +108,24 @@ public class RequestContext {
 	 */
 	public void preMethodCall(ServiceID id, String method, Class[] types,
 			Map<String, Header> headers) throws Throwable {
+		preMethodCall(id.getService(), method, types, headers);
+	}
+
+	/**
+	 * 按服务名称执行远程调用的准备功能，做认证和鉴权
+	 * 
+	 * @param service 服务标识
+	 * @param method 方法名称
+	 * @param types 方法参数类型
+	 * @param headers 请求消息头
+	 * @throws Throwable
+	 */
+	public void preMethodCall(String service, String method, Class[] types,
+			Map<String, Header> headers) throws Throwable {
 		try {
 			// SecurityContext securityContext =
 			// method_call.getSecurityContext();
-			initPermissionInfo(id, method, types);
+			initPermissionInfo(service, method, types);
 			if (SecurityContext.getSecurityManager().checkUser(securityContext)) {
 				// initPermissionInfo( id, method, types);
 				if (SecurityContext.getSecurityManager().checkPermission(
@@ -136,20 +164,19 @@ public class RequestContext {
 	{
 		return this.callparameters;
 	}
-	private void initPermissionInfo(ServiceID id, String method, Class[] types) {
+	private void initPermissionInfo(String service, String method, Class[] types) {
 		// SecurityContext securityContext = method_call.getSecurityContext();
 
 		// ServiceID id = (ServiceID)method_call.getArgs()[0];
 		// if(securityContext == null)
 		// return;
-		setServiceid(id.getService());
 		// String method = (String)method_call.getArgs()[1];
 		// Class[] types = (Class[])method_call.getArgs()[3];
-		setServiceid(id.getService());
+		setServiceid(service);
 		setMethodop(SynchronizedMethod.buildMethodUUID(method, types));
 
 	}
-	static class UtilMap extends HashMap<String,Header>
+	static class UtilMap extends Headers
 	{
 	    public int getInt(String key)
 	    {            
@@ -336,6 +363,21 @@ public class RequestContext {
 		this.methodop = methodop;
 	}
 
+	private TraceContext traceContext;
+
+	/**
+	 * 获取当前请求所在调用链的上下文，未开启链路跟踪时返回null
+	 * 
+	 * @return
+	 */
+	public TraceContext getTraceContext() {
+		return traceContext;
+	}
+
+	public void setTraceContext(TraceContext traceContext) {
+		this.traceContext = traceContext;
+	}
+
 
 
 }
@@ -0,0 +1,264 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.health;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: HealthChecker.java</p>
+ * <p>Description: 服务地址后台健康检查，rpc.health.enable开启后RPCHelper.validateAddress直接返回缓存的检查结果。
+ * 地址第一次被校验时登记到检查列表并同步检查一次，最多等待rpc.health.timeout毫秒（默认3000），
+ * 之后由后台线程每隔rpc.health.interval毫秒（默认5000）用rpc.health.threads个线程（默认4）并发检查所有登记的地址，
+ * 同一地址上一次检查未结束时跳过本轮检查。检查结果按地址、用户和口令分别缓存，不同的认证信息不会共享检查结果。
+ * 超过rpc.health.expire毫秒（默认600000）没有被校验过的地址从检查列表中移除。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午07:48:26
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class HealthChecker
+{
+    private static final Logger log = LoggerFactory.getLogger(HealthChecker.class);
+
+    public static final boolean enable = BaseSPIManager2.getBooleanProperty("rpc.health.enable", false);
+
+    private static final long interval = BaseSPIManager2.getIntProperty("rpc.health.interval", 5000);
+
+    private static final long timeout = BaseSPIManager2.getIntProperty("rpc.health.timeout", 3000);
+
+    private static final int threads = BaseSPIManager2.getIntProperty("rpc.health.threads", 4);
+
+    private static final long expire = BaseSPIManager2.getIntProperty("rpc.health.expire", 600000);
+
+    private static final ConcurrentMap<HealthKey, HealthStatus> statuses = new ConcurrentHashMap<HealthKey, HealthStatus>();
+
+    private static volatile ExecutorService executor;
+
+    private static ScheduledExecutorService scheduler;
+
+    /**
+     * 健康检查结果的缓存键，带认证信息的检查以地址、用户和口令共同区分
+     */
+    static final class HealthKey
+    {
+        private final RPCAddress address;
+
+        private final String user;
+
+        private final String password;
+
+        HealthKey(RPCAddress address, String user, String password)
+        {
+            this.address = address;
+            this.user = user;
+            this.password = password;
+        }
+
+        public int hashCode()
+        {
+            int h = address.hashCode();
+            h = 31 * h + (user == null ? 0 : user.hashCode());
+            return 31 * h + (password == null ? 0 : password.hashCode());
+        }
+
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof HealthKey))
+                return false;
+            HealthKey other = (HealthKey) obj;
+            return address.equals(other.address) && (user == null ? other.user == null : user.equals(other.user))
+                    && (password == null ? other.password == null : password.equals(other.password));
+        }
+    }
+
+    private static class HealthThreadFactory implements ThreadFactory
+    {
+        private final String prefix;
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        HealthThreadFactory(String prefix)
+        {
+            this.prefix = prefix;
+        }
+
+        public Thread newThread(Runnable r)
+        {
+            Thread thread = new Thread(r, prefix + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    private static ExecutorService getExecutor()
+    {
+        if (executor != null)
+            return executor;
+        synchronized (HealthChecker.class)
+        {
+            if (executor != null)
+                return executor;
+            scheduler = Executors.newSingleThreadScheduledExecutor(new HealthThreadFactory("RPC-HealthScheduler-"));
+            scheduler.scheduleWithFixedDelay(new Runnable()
+            {
+                public void run()
+                {
+                    checkAll();
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS);
+            executor = Executors.newFixedThreadPool(Math.max(1, threads), new HealthThreadFactory("RPC-HealthCheck-"));
+        }
+        return executor;
+    }
+
+    private static void checkAll()
+    {
+        checkAll(System.currentTimeMillis());
+    }
+
+    /**
+     * 提交所有登记地址的检查，并移除在now之前超过rpc.health.expire毫秒没有被校验过的地址
+     * @param now
+     */
+    static void checkAll(long now)
+    {
+        for (Iterator<HealthStatus> it = statuses.values().iterator(); it.hasNext();)
+        {
+            HealthStatus status = it.next();
+            if (now - status.getLastAccess() > expire)
+            {
+                it.remove();
+                if (log.isDebugEnabled())
+                    log.debug("Remove expired health check " + status);
+                continue;
+            }
+            try
+            {
+                submit(status);
+            }
+            catch (Exception e)
+            {
+                log.warn("Submit health check of " + status.getAddress() + " failed.", e);
+            }
+        }
+    }
+
+    private static FutureTask<Boolean> submit(HealthStatus status)
+    {
+        boolean[] created = new boolean[1];
+        FutureTask<Boolean> task = status.pending(created);
+        if (created[0])
+            getExecutor().execute(task);
+        return task;
+    }
+
+    /**
+     * 将地址登记到健康检查列表中，已经登记过时返回原有的检查结果
+     * @param address
+     * @param user
+     * @param password
+     * @return
+     */
+    public static HealthStatus register(RPCAddress address, String user, String password)
+    {
+        HealthStatus status = statuses.get(new HealthKey(address, user, password));
+        if (status != null)
+            return status;
+        return register(new HealthStatus(address, user, password));
+    }
+
+    /**
+     * 登记检查结果缓存，相同地址和认证信息已经登记过时返回原有的检查结果
+     * @param status
+     * @return
+     */
+    static HealthStatus register(HealthStatus status)
+    {
+        HealthStatus old = statuses.putIfAbsent(status.getKey(), status);
+        return old != null ? old : status;
+    }
+
+    /**
+     * 从缓存中获取地址是否可用，地址还没有检查结果时同步检查一次，最多等待rpc.health.timeout毫秒
+     * @param address
+     * @param user
+     * @param password
+     * @return
+     */
+    public static boolean isHealthy(RPCAddress address, String user, String password)
+    {
+        HealthStatus status = register(address, user, password);
+        status.touch();
+        if (status.getLastChecked() > 0)
+            return status.isHealthy();
+        FutureTask<Boolean> task = submit(status);
+        try
+        {
+            return task.get(timeout, TimeUnit.MILLISECONDS).booleanValue();
+        }
+        catch (java.util.concurrent.TimeoutException e)
+        {
+            log.warn("Health check of " + address + " is not completed in " + timeout + "ms.");
+            return false;
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        catch (Exception e)
+        {
+            log.warn("Health check of " + address + " failed.", e);
+            return false;
+        }
+    }
+
+    public static HealthStatus getHealthStatus(RPCAddress address)
+    {
+        return getHealthStatus(address, null, null);
+    }
+
+    public static HealthStatus getHealthStatus(RPCAddress address, String user, String password)
+    {
+        return statuses.get(new HealthKey(address, user, password));
+    }
+
+    public static Collection<HealthStatus> getAllHealthStatus()
+    {
+        return Collections.unmodifiableCollection(statuses.values());
+    }
+}
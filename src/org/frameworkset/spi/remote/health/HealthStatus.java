@@ -0,0 +1,179 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.health;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import org.frameworkset.spi.remote.RPCAddress;
+
+/**
+ * <p>Title: HealthStatus.java</p>
+ * <p>Description: 服务地址的健康检查结果缓存，记录最近一次检查的结果、时间、耗时和连续失败次数，
+ * 同一地址同时只会有一个检查在执行，并发的校验请求共享该检查的结果</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午07:41:52
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class HealthStatus
+{
+    private final HealthChecker.HealthKey key;
+
+    private final RPCAddress address;
+
+    private final String user;
+
+    private final String password;
+
+    private volatile boolean healthy;
+
+    private volatile long lastChecked;
+
+    private volatile long lastLatency;
+
+    private volatile int consecutiveFailures;
+
+    private volatile long lastAccess;
+
+    private FutureTask<Boolean> pending;
+
+    HealthStatus(RPCAddress address, String user, String password)
+    {
+        this.address = address;
+        this.user = user;
+        this.password = password;
+        this.key = new HealthChecker.HealthKey(address, user, password);
+        this.lastAccess = System.currentTimeMillis();
+    }
+
+    void touch()
+    {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    HealthChecker.HealthKey getKey()
+    {
+        return key;
+    }
+
+    long getLastAccess()
+    {
+        return lastAccess;
+    }
+
+    /**
+     * 获取正在执行的检查，没有时创建一个新的检查，返回的检查需要由调用方提交执行
+     * @param created 用于返回是否新建了检查
+     * @return
+     */
+    synchronized FutureTask<Boolean> pending(boolean[] created)
+    {
+        if (pending != null)
+        {
+            created[0] = false;
+            return pending;
+        }
+        created[0] = true;
+        pending = new FutureTask<Boolean>(new Callable<Boolean>()
+        {
+            public Boolean call() throws Exception
+            {
+                return Boolean.valueOf(check());
+            }
+        });
+        return pending;
+    }
+
+    synchronized boolean isChecking()
+    {
+        return pending != null;
+    }
+
+    private boolean check()
+    {
+        long start = System.currentTimeMillis();
+        boolean result = false;
+        try
+        {
+            result = probe();
+            return result;
+        }
+        finally
+        {
+            long now = System.currentTimeMillis();
+            lastLatency = now - start;
+            healthy = result;
+            consecutiveFailures = result ? 0 : consecutiveFailures + 1;
+            lastChecked = now;
+            synchronized (this)
+            {
+                pending = null;
+            }
+        }
+    }
+
+    /**
+     * 执行一次检查，带认证信息时通过rpc.fc服务校验认证信息
+     * @return
+     */
+    protected boolean probe()
+    {
+        return user == null ? RPCValidator.validator(address) : RPCValidator.validator(address, user, password);
+    }
+
+    public RPCAddress getAddress()
+    {
+        return address;
+    }
+
+    public boolean isHealthy()
+    {
+        return healthy;
+    }
+
+    /**
+     * @return 最近一次检查完成的时间，还没有检查过时返回0
+     */
+    public long getLastChecked()
+    {
+        return lastChecked;
+    }
+
+    /**
+     * @return 最近一次检查的耗时，单位毫秒
+     */
+    public long getLastLatency()
+    {
+        return lastLatency;
+    }
+
+    public int getConsecutiveFailures()
+    {
+        return consecutiveFailures;
+    }
+
+    public String toString()
+    {
+        StringBuilder ret = new StringBuilder();
+        ret.append("[address=").append(address).append(",healthy=").append(healthy).append(",lastChecked=")
+                .append(lastChecked).append(",lastLatency=").append(lastLatency).append(",consecutiveFailures=")
+                .append(consecutiveFailures).append(']');
+        return ret.toString();
+    }
+}
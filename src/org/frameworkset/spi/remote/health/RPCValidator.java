@@ -26,6 +26,8 @@ import java.net.UnknownHostException;
 import org.frameworkset.spi.ApplicationContext;
 import org.frameworkset.spi.remote.RPCAddress;
 import org.frameworkset.spi.remote.RPCHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * <p>Title: RPCValidator.java</p> 
@@ -37,6 +39,7 @@ import org.frameworkset.spi.remote.RPCHelper;
  * @version 1.0
  */
 public class RPCValidator {
+	private static final Logger log = LoggerFactory.getLogger(RPCValidator.class);
 	private static final String fcservice = "rpc.fc";
 	public static boolean validator(String contextpath)
 	{
@@ -124,7 +127,7 @@ public class RPCValidator {
 	* @return
 	* @throws UnknownHostException
 	*/
-	public synchronized static boolean checkIpaddressAndPort(String ipAddress,
+	public static boolean checkIpaddressAndPort(String ipAddress,
 	    int port) throws UnknownHostException {
 	   return checkIpaddressAndPort(ipAddress, port, 3000);
 	}
@@ -138,18 +141,23 @@ public class RPCValidator {
 	* @return
 	* @throws UnknownHostException
 	*/
-	public synchronized static boolean checkIpaddressAndPort(String ipAddress,
+	public static boolean checkIpaddressAndPort(String ipAddress,
 	    int port, int delayTime) throws UnknownHostException {
-	   SocketAddress sa;
+	   SocketAddress sa = new InetSocketAddress(InetAddress.getByName(ipAddress), port);
+	   Socket sc = new Socket();
 	   try {
-	    sa = new InetSocketAddress(InetAddress.getByName(ipAddress), port);
-	    Socket sc = new Socket();
 	    sc.connect(sa, delayTime);
-	    sc.close();
 	   } catch (IOException e) {
 		  // e.printStackTrace();
 	    return false;
 	   }
+	   finally
+	   {
+		   try {
+			   sc.close();
+		   } catch (IOException e) {
+		   }
+	   }
 	   return true;
 	}
 
@@ -160,7 +168,7 @@ public class RPCValidator {
 	* @return
 	* @throws UnknownHostException
 	*/
-	public synchronized static boolean checkIpaddress(String ipAddress)
+	public static boolean checkIpaddress(String ipAddress)
 	    throws UnknownHostException {
 	   return checkIpaddress(ipAddress, 3000);
 
@@ -174,7 +182,7 @@ public class RPCValidator {
 	* @return
 	* @throws UnknownHostException
 	*/
-	public synchronized static boolean checkIpaddress(String ipAddress,
+	public static boolean checkIpaddress(String ipAddress,
 	    int delayTime) throws UnknownHostException {
 	   try {
 	    InetAddress address = InetAddress.getByName(ipAddress);
@@ -213,7 +221,7 @@ public class RPCValidator {
 			fc.check();
 			return true;
 		} catch (Exception e) {
-			e.printStackTrace();
+			log.debug("Validate address " + address + " failed.", e);
 			return false;
 		}
 		
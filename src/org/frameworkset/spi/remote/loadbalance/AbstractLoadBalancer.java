@@ -0,0 +1,64 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.loadbalance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.frameworkset.spi.remote.RPCAddress;
+
+/**
+ * <p>Title: AbstractLoadBalancer.java</p>
+ * <p>Description: 负载均衡策略基类，负责剔除需要排除的地址和处于熔断状态的地址</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午02:22:40
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public abstract class AbstractLoadBalancer implements LoadBalancer
+{
+    public RPCAddress select(List<RPCAddress> targets, Object hashKey, Collection<RPCAddress> excludes)
+    {
+        if (targets == null || targets.isEmpty())
+            return null;
+        List<RPCAddress> candidates = targets;
+        if (excludes != null && !excludes.isEmpty())
+        {
+            candidates = new ArrayList<RPCAddress>(targets.size());
+            for (int i = 0; i < targets.size(); i++)
+            {
+                RPCAddress address = targets.get(i);
+                if (!excludes.contains(address))
+                    candidates.add(address);
+            }
+            if (candidates.isEmpty())
+                return null;
+        }
+        if (CircuitBreaker.enable)
+            candidates = CircuitBreaker.filterAvailable(candidates);
+        if (candidates.size() == 1)
+            return candidates.get(0);
+        return doSelect(candidates, hashKey);
+    }
+
+    /**
+     * 从至少包含两个地址的候选地址中选择一个地址
+     */
+    protected abstract RPCAddress doSelect(List<RPCAddress> candidates, Object hashKey);
+}
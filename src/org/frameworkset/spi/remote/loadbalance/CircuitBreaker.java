@@ -0,0 +1,385 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.loadbalance;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: CircuitBreaker.java</p>
+ * <p>Description: 服务地址熔断器，rpc.circuit.enable开启后客户端为每个服务地址维护一个熔断器。
+ * 熔断器按时间窗口（rpc.circuit.window，默认10秒，分10个桶滚动）统计调用总数、失败数和慢调用数，
+ * 窗口内调用数达到rpc.circuit.minimum.calls（默认20）并且失败率达到rpc.circuit.error.rate（默认50%）
+ * 或者慢调用（耗时超过rpc.circuit.slow.threshold毫秒，默认5000）比例达到rpc.circuit.slow.rate（默认80%）时熔断，
+ * 熔断期间对该地址的调用直接抛出CircuitBreakerOpenException，不再等待请求超时，负载均衡时也不再选择该地址。
+ * 熔断rpc.circuit.open.time毫秒（默认10000）后进入半开状态，放行rpc.circuit.halfopen.probes个（默认3）探测调用，
+ * 探测调用全部成功后恢复，任何一个失败则重新熔断。
+ * 只有连接失败、超时、节点失效和服务端繁忙等通讯类异常才算作失败，业务异常视为成功。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午07:05:16
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class CircuitBreaker
+{
+    private static final Logger log = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public static final int CLOSED = 0;
+
+    public static final int OPEN = 1;
+
+    public static final int HALF_OPEN = 2;
+
+    private static final int BUCKETS = 10;
+
+    public static final boolean enable = BaseSPIManager2.getBooleanProperty("rpc.circuit.enable", false);
+
+    private static final long defaultWindow = BaseSPIManager2.getIntProperty("rpc.circuit.window", 10000);
+
+    private static final int defaultMinimumCalls = BaseSPIManager2.getIntProperty("rpc.circuit.minimum.calls", 20);
+
+    private static final int defaultErrorRate = BaseSPIManager2.getIntProperty("rpc.circuit.error.rate", 50);
+
+    private static final long defaultSlowThreshold = BaseSPIManager2.getIntProperty("rpc.circuit.slow.threshold", 5000);
+
+    private static final int defaultSlowRate = BaseSPIManager2.getIntProperty("rpc.circuit.slow.rate", 80);
+
+    private static final long defaultOpenTime = BaseSPIManager2.getIntProperty("rpc.circuit.open.time", 10000);
+
+    private static final int defaultProbes = BaseSPIManager2.getIntProperty("rpc.circuit.halfopen.probes", 3);
+
+    private static final ConcurrentMap<RPCAddress, CircuitBreaker> breakers = new ConcurrentHashMap<RPCAddress, CircuitBreaker>();
+
+    private final RPCAddress address;
+
+    private final long bucketTime;
+
+    private final int minimumCalls;
+
+    private final int errorRate;
+
+    private final long slowThreshold;
+
+    private final int slowRate;
+
+    private final long openTime;
+
+    private final int probes;
+
+    private final Bucket[] buckets = new Bucket[BUCKETS];
+
+    private final AtomicInteger state = new AtomicInteger(CLOSED);
+
+    private volatile long openedAt;
+
+    /**
+     * 本次半开状态已放行的探测调用数
+     */
+    private final AtomicInteger probing = new AtomicInteger();
+
+    /**
+     * 本次半开状态已成功的探测调用数
+     */
+    private final AtomicInteger probeSuccess = new AtomicInteger();
+
+    private final AtomicLong opened = new AtomicLong();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private static class Bucket
+    {
+        volatile long epoch = -1L;
+
+        final AtomicLong total = new AtomicLong();
+
+        final AtomicLong failed = new AtomicLong();
+
+        final AtomicLong slow = new AtomicLong();
+    }
+
+    private CircuitBreaker(RPCAddress address)
+    {
+        this(address, defaultWindow, defaultMinimumCalls, defaultErrorRate, defaultSlowThreshold, defaultSlowRate,
+                defaultOpenTime, defaultProbes);
+    }
+
+    CircuitBreaker(RPCAddress address, long window, int minimumCalls, int errorRate, long slowThreshold,
+            int slowRate, long openTime, int probes)
+    {
+        this.address = address;
+        this.bucketTime = Math.max(1L, window / BUCKETS);
+        this.minimumCalls = Math.max(1, minimumCalls);
+        this.errorRate = errorRate;
+        this.slowThreshold = slowThreshold;
+        this.slowRate = slowRate;
+        this.openTime = openTime;
+        this.probes = Math.max(1, probes);
+        for (int i = 0; i < BUCKETS; i++)
+            buckets[i] = new Bucket();
+    }
+
+    public static CircuitBreaker getCircuitBreaker(RPCAddress address)
+    {
+        CircuitBreaker breaker = breakers.get(address);
+        if (breaker != null)
+            return breaker;
+        breaker = new CircuitBreaker(address);
+        CircuitBreaker old = breakers.putIfAbsent(address, breaker);
+        return old != null ? old : breaker;
+    }
+
+    public static Collection<CircuitBreaker> getAllCircuitBreakers()
+    {
+        return Collections.unmodifiableCollection(breakers.values());
+    }
+
+    /**
+     * 判断地址当前是否可以调用，不占用半开状态的探测名额
+     * @param address
+     * @return
+     */
+    public static boolean isAvailable(RPCAddress address)
+    {
+        CircuitBreaker breaker = breakers.get(address);
+        return breaker == null || breaker.isAvailable();
+    }
+
+    /**
+     * 过滤掉处于熔断状态的地址，所有地址都被熔断时返回原地址列表，由调用快速失败
+     * @param addresses
+     * @return
+     */
+    public static List<RPCAddress> filterAvailable(List<RPCAddress> addresses)
+    {
+        int i = 0;
+        int size = addresses.size();
+        while (i < size && isAvailable(addresses.get(i)))
+            i++;
+        if (i == size)
+            return addresses;
+        List<RPCAddress> available = new ArrayList<RPCAddress>(size - 1);
+        for (int j = 0; j < i; j++)
+            available.add(addresses.get(j));
+        for (i++; i < size; i++)
+        {
+            RPCAddress address = addresses.get(i);
+            if (isAvailable(address))
+                available.add(address);
+        }
+        return available.isEmpty() ? addresses : available;
+    }
+
+    public boolean isAvailable()
+    {
+        int s = state.get();
+        if (s == CLOSED)
+            return true;
+        if (s == OPEN)
+            return System.currentTimeMillis() - openedAt >= openTime;
+        return probing.get() < probes;
+    }
+
+    /**
+     * 申请一次调用，熔断期间或者半开状态探测名额已满时返回false，
+     * 返回true时调用结束后必须通过record记录调用结果
+     * @return
+     */
+    public boolean tryAcquire()
+    {
+        int s = state.get();
+        if (s == CLOSED)
+            return true;
+        if (s == OPEN)
+        {
+            if (System.currentTimeMillis() - openedAt < openTime)
+            {
+                rejected.incrementAndGet();
+                return false;
+            }
+            synchronized (this)
+            {
+                if (state.get() == OPEN)
+                {
+                    probing.set(0);
+                    probeSuccess.set(0);
+                    state.set(HALF_OPEN);
+                    log.info("Circuit breaker of " + address + " is half open, probing with " + probes + " calls.");
+                }
+            }
+        }
+        for (;;)
+        {
+            if (state.get() == CLOSED)
+                return true;
+            int current = probing.get();
+            if (current >= probes)
+            {
+                rejected.incrementAndGet();
+                return false;
+            }
+            if (probing.compareAndSet(current, current + 1))
+                return true;
+        }
+    }
+
+    /**
+     * 记录调用结果
+     * @param latency 调用耗时，单位毫秒
+     * @param success 调用是否成功，业务异常视为成功
+     */
+    public void record(long latency, boolean success)
+    {
+        boolean slow = slowThreshold > 0 && latency >= slowThreshold;
+        int s = state.get();
+        if (s == HALF_OPEN)
+        {
+            if (!success || slow)
+                trip(HALF_OPEN, success ? "slow probe call " + latency + "ms" : "probe call failed");
+            else if (probeSuccess.incrementAndGet() >= probes)
+                close();
+            return;
+        }
+        if (s == OPEN)
+            return;
+        long now = System.currentTimeMillis();
+        Bucket bucket = bucket(now);
+        bucket.total.incrementAndGet();
+        if (!success)
+            bucket.failed.incrementAndGet();
+        else if (slow)
+            bucket.slow.incrementAndGet();
+        else
+            return;
+        long total = 0L;
+        long failed = 0L;
+        long slows = 0L;
+        long current = now / bucketTime;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            Bucket b = buckets[i];
+            if (current - b.epoch >= BUCKETS)
+                continue;
+            total += b.total.get();
+            failed += b.failed.get();
+            slows += b.slow.get();
+        }
+        if (total < minimumCalls)
+            return;
+        if (failed * 100 >= errorRate * total)
+            trip(CLOSED, "error rate " + (failed * 100 / total) + "% of " + total + " calls");
+        else if (slowRate > 0 && slows * 100 >= slowRate * total)
+            trip(CLOSED, "slow call rate " + (slows * 100 / total) + "% of " + total + " calls");
+    }
+
+    private Bucket bucket(long now)
+    {
+        long epoch = now / bucketTime;
+        Bucket bucket = buckets[(int) (epoch % BUCKETS)];
+        if (bucket.epoch != epoch)
+        {
+            synchronized (bucket)
+            {
+                if (bucket.epoch != epoch)
+                {
+                    bucket.total.set(0L);
+                    bucket.failed.set(0L);
+                    bucket.slow.set(0L);
+                    bucket.epoch = epoch;
+                }
+            }
+        }
+        return bucket;
+    }
+
+    private void trip(int expect, String reason)
+    {
+        synchronized (this)
+        {
+            if (state.get() != expect)
+                return;
+            openedAt = System.currentTimeMillis();
+            state.set(OPEN);
+        }
+        opened.incrementAndGet();
+        log.warn("Circuit breaker of " + address + " is open for " + openTime + "ms:" + reason);
+    }
+
+    private void close()
+    {
+        synchronized (this)
+        {
+            if (state.get() != HALF_OPEN)
+                return;
+            for (int i = 0; i < BUCKETS; i++)
+                buckets[i].epoch = -1L;
+            state.set(CLOSED);
+        }
+        log.info("Circuit breaker of " + address + " is closed.");
+    }
+
+    public RPCAddress getAddress()
+    {
+        return address;
+    }
+
+    /**
+     * @return CLOSED、OPEN或者HALF_OPEN
+     */
+    public int getState()
+    {
+        return state.get();
+    }
+
+    /**
+     * @return 累计熔断次数
+     */
+    public long getOpened()
+    {
+        return opened.get();
+    }
+
+    /**
+     * @return 累计被拒绝的调用数
+     */
+    public long getRejected()
+    {
+        return rejected.get();
+    }
+
+    public String toString()
+    {
+        int s = state.get();
+        StringBuilder ret = new StringBuilder();
+        ret.append("[address=").append(address).append(",state=")
+                .append(s == CLOSED ? "closed" : s == OPEN ? "open" : "half-open").append(",opened=")
+                .append(opened.get()).append(",rejected=").append(rejected.get()).append(']');
+        return ret.toString();
+    }
+}
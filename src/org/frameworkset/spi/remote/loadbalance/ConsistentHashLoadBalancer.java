@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.loadbalance;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.frameworkset.spi.remote.RPCAddress;
+
+/**
+ * <p>Title: ConsistentHashLoadBalancer.java</p>
+ * <p>Description: 一致性hash负载均衡策略，相同hash键（默认为服务方法的第一个参数）的请求总是路由到同一个地址，
+ * 地址被排除时沿hash环顺时针选择下一个地址，每个地址在hash环上有160个虚拟节点</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午02:33:52
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ConsistentHashLoadBalancer implements LoadBalancer
+{
+    private static final int VIRTUAL_NODES = 160;
+
+    /**
+     * 缓存每组地址对应的hash环
+     */
+    private final ConcurrentMap<List<RPCAddress>, TreeMap<Long, RPCAddress>> rings = new ConcurrentHashMap<List<RPCAddress>, TreeMap<Long, RPCAddress>>();
+
+    public RPCAddress select(List<RPCAddress> targets, Object hashKey, Collection<RPCAddress> excludes)
+    {
+        if (targets == null || targets.isEmpty())
+            return null;
+        TreeMap<Long, RPCAddress> ring = getRing(targets);
+        byte[] digest = md5(String.valueOf(hashKey));
+        long hash = hash(digest, 0);
+        SortedMap<Long, RPCAddress> tail = ring.tailMap(hash);
+        RPCAddress address = selectFrom(tail, excludes);
+        if (address == null)
+            address = selectFrom(ring, excludes);
+        return address;
+    }
+
+    private RPCAddress selectFrom(SortedMap<Long, RPCAddress> nodes, Collection<RPCAddress> excludes)
+    {
+        for (Iterator<Map.Entry<Long, RPCAddress>> it = nodes.entrySet().iterator(); it.hasNext();)
+        {
+            RPCAddress address = it.next().getValue();
+            if (excludes == null || !excludes.contains(address))
+                return address;
+        }
+        return null;
+    }
+
+    private TreeMap<Long, RPCAddress> getRing(List<RPCAddress> targets)
+    {
+        TreeMap<Long, RPCAddress> ring = rings.get(targets);
+        if (ring != null)
+            return ring;
+        ring = new TreeMap<Long, RPCAddress>();
+        for (int i = 0; i < targets.size(); i++)
+        {
+            RPCAddress address = targets.get(i);
+            for (int n = 0; n < VIRTUAL_NODES / 4; n++)
+            {
+                byte[] digest = md5(address.toString() + "-" + n);
+                for (int h = 0; h < 4; h++)
+                {
+                    ring.put(hash(digest, h), address);
+                }
+            }
+        }
+        // 以地址列表的副本作为key，避免调用方修改列表后影响缓存
+        TreeMap<Long, RPCAddress> old = rings.putIfAbsent(new ArrayList<RPCAddress>(targets), ring);
+        return old != null ? old : ring;
+    }
+
+    private static long hash(byte[] digest, int number)
+    {
+        return (((long) (digest[3 + number * 4] & 0xFF) << 24) | ((long) (digest[2 + number * 4] & 0xFF) << 16)
+                | ((long) (digest[1 + number * 4] & 0xFF) << 8) | (digest[number * 4] & 0xFF)) & 0xFFFFFFFFL;
+    }
+
+    private static byte[] md5(String value)
+    {
+        try
+        {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            return md5.digest(value.getBytes("UTF-8"));
+        }
+        catch (Exception e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+}
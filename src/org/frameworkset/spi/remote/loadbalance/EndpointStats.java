@@ -0,0 +1,149 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.loadbalance;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.frameworkset.spi.remote.RPCAddress;
+
+/**
+ * <p>Title: EndpointStats.java</p>
+ * <p>Description: 客户端维护的服务地址调用统计信息：未完成请求数、调用总数、失败数、
+ * 连续失败次数以及指数加权平均延时，供负载均衡策略使用</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午02:37:15
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class EndpointStats
+{
+    private static final ConcurrentMap<RPCAddress, EndpointStats> stats = new ConcurrentHashMap<RPCAddress, EndpointStats>();
+
+    private final RPCAddress address;
+
+    private final AtomicInteger active = new AtomicInteger();
+
+    private final AtomicLong total = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * 指数加权平均延时，单位毫秒，权重1/8
+     */
+    private volatile long averageLatency;
+
+    private EndpointStats(RPCAddress address)
+    {
+        this.address = address;
+    }
+
+    public static EndpointStats getEndpointStats(RPCAddress address)
+    {
+        EndpointStats stat = stats.get(address);
+        if (stat != null)
+            return stat;
+        stat = new EndpointStats(address);
+        EndpointStats old = stats.putIfAbsent(address, stat);
+        return old != null ? old : stat;
+    }
+
+    public static Collection<EndpointStats> getAllEndpointStats()
+    {
+        return Collections.unmodifiableCollection(stats.values());
+    }
+
+    public void beginCall()
+    {
+        active.incrementAndGet();
+    }
+
+    /**
+     * @param latency 调用耗时，单位毫秒
+     * @param success 调用是否成功，业务异常视为成功
+     */
+    public void endCall(long latency, boolean success)
+    {
+        active.decrementAndGet();
+        total.incrementAndGet();
+        if (success)
+        {
+            consecutiveFailures.set(0);
+            long average = averageLatency;
+            averageLatency = average == 0 ? latency : average + ((latency - average) >> 3);
+        }
+        else
+        {
+            failed.incrementAndGet();
+            consecutiveFailures.incrementAndGet();
+        }
+    }
+
+    /**
+     * 调用代价，值越小越优先被选中
+     */
+    public long getCost()
+    {
+        return (active.get() + 1L) * (averageLatency + 1L) * (consecutiveFailures.get() + 1L);
+    }
+
+    public RPCAddress getAddress()
+    {
+        return address;
+    }
+
+    public int getActive()
+    {
+        return active.get();
+    }
+
+    public long getTotal()
+    {
+        return total.get();
+    }
+
+    public long getFailed()
+    {
+        return failed.get();
+    }
+
+    public int getConsecutiveFailures()
+    {
+        return consecutiveFailures.get();
+    }
+
+    public long getAverageLatency()
+    {
+        return averageLatency;
+    }
+
+    public String toString()
+    {
+        StringBuilder ret = new StringBuilder();
+        ret.append("[address=").append(address).append(",active=").append(active.get()).append(",total=")
+                .append(total.get()).append(",failed=").append(failed.get()).append(",averageLatency=")
+                .append(averageLatency).append(']');
+        return ret.toString();
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.loadbalance;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.frameworkset.spi.remote.RPCAddress;
+
+/**
+ * <p>Title: LeastActiveLoadBalancer.java</p>
+ * <p>Description: 最少未完成请求负载均衡策略，选择当前正在执行的请求数最少的地址，
+ * 请求数相同时从轮询位置开始选择，避免总是选中第一个地址</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午02:27:36
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class LeastActiveLoadBalancer extends AbstractLoadBalancer
+{
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    protected RPCAddress doSelect(List<RPCAddress> candidates, Object hashKey)
+    {
+        int size = candidates.size();
+        int offset = (sequence.getAndIncrement() & Integer.MAX_VALUE) % size;
+        RPCAddress selected = null;
+        int least = Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++)
+        {
+            RPCAddress address = candidates.get((offset + i) % size);
+            int active = EndpointStats.getEndpointStats(address).getActive();
+            if (active < least)
+            {
+                least = active;
+                selected = address;
+            }
+        }
+        return selected;
+    }
+}
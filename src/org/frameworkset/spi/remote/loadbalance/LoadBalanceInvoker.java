@@ -0,0 +1,175 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.loadbalance;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.frameworkset.spi.RemoteCallContext;
+import org.frameworkset.spi.remote.Header;
+import org.frameworkset.spi.remote.Headers;
+import org.frameworkset.spi.remote.Idempotency;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.remote.RPCClient;
+import org.frameworkset.spi.remote.RemoteException;
+import org.frameworkset.spi.remote.RemoteServiceID;
+import org.frameworkset.spi.remote.SuspectedException;
+import org.frameworkset.spi.remote.TimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: LoadBalanceInvoker.java</p>
+ * <p>Description: 负载均衡调用器，服务地址中包含多个地址并通过lb参数指定负载均衡策略时，
+ * 只从中选择一个地址进行调用（不再向所有地址广播），例如：
+ * <pre>
+ * (netty::192.168.1.22:12347;192.168.1.23:12347)/rpc.test?lb=p2c&amp;lb.idempotent=*&amp;lb.retries=1
+ * </pre>
+ * lb             负载均衡策略：roundrobin（轮询）、leastactive（最少未完成请求）、
+ *                p2c（两次随机选择）、hash（按参数一致性hash）
+ * lb.hasharg     hash策略使用的参数位置，默认0
+ * lb.idempotent  幂等的方法名称，多个用逗号分隔，*表示所有方法，幂等方法调用失败时自动在其他地址上重试
+ * lb.retries     幂等方法失败后的最大重试次数，默认1
+ *
+ * 只有连接失败、超时、服务端繁忙等通讯类异常才会重试，业务异常直接抛出。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午02:41:27
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class LoadBalanceInvoker
+{
+    private static final Logger log = LoggerFactory.getLogger(LoadBalanceInvoker.class);
+
+    public static final String PARAM_LB = "lb";
+
+    public static final String PARAM_HASHARG = "lb.hasharg";
+
+    public static final String PARAM_IDEMPOTENT = Idempotency.PARAM_IDEMPOTENT;
+
+    public static final String PARAM_RETRIES = "lb.retries";
+
+    private static final LoadBalancer roundrobin = new RoundRobinLoadBalancer();
+
+    private static final LoadBalancer leastactive = new LeastActiveLoadBalancer();
+
+    private static final LoadBalancer p2c = new PowerOfTwoChoicesLoadBalancer();
+
+    private static final LoadBalancer hash = new ConsistentHashLoadBalancer();
+
+    public static LoadBalancer getLoadBalancer(String name)
+    {
+        if (name == null)
+            return null;
+        if (name.equals(LoadBalancer.LB_ROUNDROBIN))
+            return roundrobin;
+        if (name.equals(LoadBalancer.LB_LEASTACTIVE))
+            return leastactive;
+        if (name.equals(LoadBalancer.LB_P2C))
+            return p2c;
+        if (name.equals(LoadBalancer.LB_HASH))
+            return hash;
+        throw new IllegalArgumentException("未支持的负载均衡策略[" + name + "]，必须为[" + LoadBalancer.LB_ROUNDROBIN + "]或者["
+                + LoadBalancer.LB_LEASTACTIVE + "]或者[" + LoadBalancer.LB_P2C + "]或者[" + LoadBalancer.LB_HASH + "]");
+    }
+
+    private static String getParameter(Headers headers, String name)
+    {
+        if (headers == null)
+            return null;
+        Header header = headers.getHeader(name);
+        return header == null || header.getValue() == null ? null : String.valueOf(header.getValue());
+    }
+
+    /**
+     * 获取调用上下文中指定的负载均衡策略，没有指定时返回null
+     */
+    public static LoadBalancer getLoadBalancer(RemoteCallContext callContext)
+    {
+        if (callContext == null)
+            return null;
+        return getLoadBalancer(getParameter(callContext.getHeaders(), PARAM_LB));
+    }
+
+    /**
+     * 判断异常是否为通讯类异常，通讯类异常可以在其他地址上重试
+     */
+    private static boolean isFailover(Throwable e)
+    {
+        return e instanceof RemoteException || e instanceof TimeoutException || e instanceof SuspectedException;
+    }
+
+    public static Object invoke(LoadBalancer balancer, List<RPCAddress> targets, RemoteServiceID serviceID,
+            String methodName, Object[] parameters, Object[] params, Class[] rpTypes, String protocol,
+            RemoteCallContext callContext) throws Throwable
+    {
+        Headers headers = callContext.getHeaders();
+        int retries = 0;
+        if (Idempotency.isIdempotent(headers, methodName))
+        {
+            String retries_ = getParameter(headers, PARAM_RETRIES);
+            retries = retries_ == null ? 1 : Integer.parseInt(retries_.trim());
+        }
+        Object hashKey = null;
+        if (balancer == hash && parameters != null)
+        {
+            String hasharg = getParameter(headers, PARAM_HASHARG);
+            int idx = hasharg == null ? 0 : Integer.parseInt(hasharg.trim());
+            if (idx >= 0 && idx < parameters.length)
+                hashKey = parameters[idx];
+        }
+        RPCClient client = RPCClient.getInstance();
+        List<RPCAddress> excludes = null;
+        for (int i = 0;; i++)
+        {
+            RPCAddress address = balancer.select(targets, hashKey, excludes);
+            EndpointStats stats = EndpointStats.getEndpointStats(address);
+            stats.beginCall();
+            long start = System.currentTimeMillis();
+            boolean success = false;
+            try
+            {
+                Object ret = client.callRemoteMethod(address, "callMethod", params, rpTypes, serviceID
+                        .getResultMode(), serviceID.getTimeout(), protocol, callContext);
+                success = true;
+                return ret;
+            }
+            catch (Throwable e)
+            {
+                if (!isFailover(e))
+                {
+                    // 业务异常，说明服务地址本身是可用的
+                    success = true;
+                    throw e;
+                }
+                if (i >= retries || excludes != null && excludes.size() + 1 >= targets.size())
+                    throw e;
+                if (excludes == null)
+                    excludes = new ArrayList<RPCAddress>(retries);
+                excludes.add(address);
+                log.warn("Call " + serviceID.getService() + "." + methodName + " on " + address
+                        + " failed, retry on another address:" + e.getMessage());
+            }
+            finally
+            {
+                stats.endCall(System.currentTimeMillis() - start, success);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.loadbalance;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.frameworkset.spi.remote.RPCAddress;
+
+/**
+ * <p>Title: LoadBalancer.java</p>
+ * <p>Description: 客户端负载均衡策略，从一组等价的服务地址中选择一个地址进行调用</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午02:20:11
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public interface LoadBalancer
+{
+    public static final String LB_ROUNDROBIN = "roundrobin";
+
+    public static final String LB_LEASTACTIVE = "leastactive";
+
+    public static final String LB_P2C = "p2c";
+
+    public static final String LB_HASH = "hash";
+
+    /**
+     * 选择一个服务地址
+     *
+     * @param targets 所有候选地址
+     * @param hashKey 一致性hash策略使用的hash键，其他策略忽略该参数
+     * @param excludes 本次调用中已经失败需要排除的地址，可以为null
+     * @return 选中的地址，所有地址都被排除时返回null
+     */
+    public RPCAddress select(List<RPCAddress> targets, Object hashKey, Collection<RPCAddress> excludes);
+}
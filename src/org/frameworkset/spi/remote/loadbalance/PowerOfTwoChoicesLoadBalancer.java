@@ -0,0 +1,48 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.loadbalance;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.frameworkset.spi.remote.RPCAddress;
+
+/**
+ * <p>Title: PowerOfTwoChoicesLoadBalancer.java</p>
+ * <p>Description: 两次随机选择负载均衡策略（power of two choices），随机选出两个地址，
+ * 取其中调用代价（未完成请求数、平均延时和连续失败次数）较低的一个</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午02:30:18
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class PowerOfTwoChoicesLoadBalancer extends AbstractLoadBalancer
+{
+    protected RPCAddress doSelect(List<RPCAddress> candidates, Object hashKey)
+    {
+        int size = candidates.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first)
+            second++;
+        RPCAddress a = candidates.get(first);
+        RPCAddress b = candidates.get(second);
+        return EndpointStats.getEndpointStats(a).getCost() <= EndpointStats.getEndpointStats(b).getCost() ? a : b;
+    }
+}
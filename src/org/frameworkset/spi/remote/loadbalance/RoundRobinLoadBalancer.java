@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.loadbalance;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.frameworkset.spi.remote.RPCAddress;
+
+/**
+ * <p>Title: RoundRobinLoadBalancer.java</p>
+ * <p>Description: 轮询负载均衡策略</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午02:25:03
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RoundRobinLoadBalancer extends AbstractLoadBalancer
+{
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    protected RPCAddress doSelect(List<RPCAddress> candidates, Object hashKey)
+    {
+        int index = (sequence.getAndIncrement() & Integer.MAX_VALUE) % candidates.size();
+        return candidates.get(index);
+    }
+}
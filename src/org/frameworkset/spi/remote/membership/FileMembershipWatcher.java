@@ -0,0 +1,170 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.membership;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.serviceidentity.TargetImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: FileMembershipWatcher.java</p>
+ * <p>Description: 成员文件检查线程，定时检查成员文件的修改时间，文件修改后重新加载各协议的成员列表，
+ * 文件格式为属性文件，例如：
+ * <pre>
+ * netty=192.168.1.21:12347;192.168.1.22:12347
+ * mina=192.168.1.21:12346
+ * </pre>
+ * 从文件中删除的协议清空文件来源登记的成员，其他来源登记的成员不受影响</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午08:24:18
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class FileMembershipWatcher implements Runnable
+{
+    private static final Logger log = LoggerFactory.getLogger(FileMembershipWatcher.class);
+
+    private final File file;
+
+    private final long interval;
+
+    private long lastModified = -1L;
+
+    private Set<String> protocols = new HashSet<String>();
+
+    private volatile Thread thread;
+
+    public FileMembershipWatcher(String file, long interval)
+    {
+        this.file = new File(file);
+        this.interval = interval <= 0 ? 5000 : interval;
+    }
+
+    public void start()
+    {
+        reload();
+        Thread thread = new Thread(this, "RPC-MembershipFileWatcher");
+        thread.setDaemon(true);
+        this.thread = thread;
+        thread.start();
+    }
+
+    public void stop()
+    {
+        Thread thread = this.thread;
+        this.thread = null;
+        if (thread != null)
+            thread.interrupt();
+    }
+
+    public void run()
+    {
+        while (thread == Thread.currentThread())
+        {
+            try
+            {
+                Thread.sleep(interval);
+            }
+            catch (InterruptedException e)
+            {
+                break;
+            }
+            try
+            {
+                reload();
+            }
+            catch (Exception e)
+            {
+                log.warn("Reload membership file " + file.getAbsolutePath() + " failed.", e);
+            }
+        }
+    }
+
+    /**
+     * 文件修改时间变化后重新加载成员列表
+     */
+    void reload()
+    {
+        long modified = file.lastModified();
+        if (modified == lastModified)
+            return;
+        if (modified == 0L)
+        {
+            log.warn("Membership file " + file.getAbsolutePath() + " does not exist.");
+            lastModified = 0L;
+            return;
+        }
+        Properties properties = new Properties();
+        InputStream in = null;
+        try
+        {
+            in = new FileInputStream(file);
+            properties.load(in);
+        }
+        catch (IOException e)
+        {
+            log.warn("Load membership file " + file.getAbsolutePath() + " failed.", e);
+            return;
+        }
+        finally
+        {
+            if (in != null)
+            {
+                try
+                {
+                    in.close();
+                }
+                catch (IOException e)
+                {
+                }
+            }
+        }
+        lastModified = modified;
+        Set<String> loaded = new HashSet<String>();
+        for (Iterator<Map.Entry<Object, Object>> it = properties.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry<Object, Object> entry = it.next();
+            String protocol = String.valueOf(entry.getKey()).trim();
+            String servers = String.valueOf(entry.getValue()).trim();
+            List<RPCAddress> addresses = servers.equals("") ? new ArrayList<RPCAddress>(0)
+                    : TargetImpl.buildAllTargets(servers, protocol);
+            Membership.update(Membership.SOURCE_FILE, protocol, addresses);
+            loaded.add(protocol);
+        }
+        for (Iterator<String> it = protocols.iterator(); it.hasNext();)
+        {
+            String protocol = it.next();
+            if (!loaded.contains(protocol))
+                Membership.update(Membership.SOURCE_FILE, protocol, new ArrayList<RPCAddress>(0));
+        }
+        protocols = loaded;
+    }
+}
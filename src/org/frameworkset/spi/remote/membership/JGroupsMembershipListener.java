@@ -0,0 +1,124 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.membership;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Vector;
+
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.remote.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import bboss.org.jgroups.Address;
+import bboss.org.jgroups.MembershipListener;
+import bboss.org.jgroups.View;
+import bboss.org.jgroups.stack.IpAddress;
+
+/**
+ * <p>Title: JGroupsMembershipListener.java</p>
+ * <p>Description: 将内置jgroups通道的视图变化同步到其他协议的成员列表，
+ * 通过rpc.membership.jgroups.ports配置需要同步的协议和端口，例如netty:12347,mina:12346，
+ * 集群中每个节点的ip加上对应协议的端口即为该协议的成员地址，未配置时不做同步。
+ * 视图变化只替换jgroups来源的成员，成员文件和服务注册中心登记的成员不受影响</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午08:31:50
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class JGroupsMembershipListener implements MembershipListener
+{
+    private static final Logger log = LoggerFactory.getLogger(JGroupsMembershipListener.class);
+
+    private final String[] protocols;
+
+    private final int[] ports;
+
+    public JGroupsMembershipListener()
+    {
+        this(Util.defaultContext.getProperty("rpc.membership.jgroups.ports"));
+    }
+
+    public JGroupsMembershipListener(String config)
+    {
+        List<String> protocols = new ArrayList<String>();
+        List<Integer> ports = new ArrayList<Integer>();
+        if (config != null)
+        {
+            String[] items = config.split(",");
+            for (int i = 0; i < items.length; i++)
+            {
+                String item = items[i].trim();
+                int idx = item.indexOf(':');
+                if (idx <= 0)
+                    continue;
+                try
+                {
+                    ports.add(Integer.valueOf(item.substring(idx + 1).trim()));
+                    protocols.add(item.substring(0, idx).trim());
+                }
+                catch (NumberFormatException e)
+                {
+                    log.warn("Illegal rpc.membership.jgroups.ports item[" + item + "] ignored.");
+                }
+            }
+        }
+        this.protocols = protocols.toArray(new String[protocols.size()]);
+        this.ports = new int[ports.size()];
+        for (int i = 0; i < this.ports.length; i++)
+            this.ports[i] = ports.get(i).intValue();
+    }
+
+    public boolean isEnabled()
+    {
+        return protocols.length > 0;
+    }
+
+    public void viewAccepted(View new_view)
+    {
+        if (protocols.length == 0)
+            return;
+        Vector<Address> addresses = new_view.getMembers();
+        for (int i = 0; i < protocols.length; i++)
+        {
+            List<RPCAddress> list = new ArrayList<RPCAddress>(addresses.size());
+            for (int j = 0; j < addresses.size(); j++)
+            {
+                Address address = addresses.get(j);
+                if (address instanceof IpAddress)
+                    list.add(new RPCAddress(((IpAddress) address).getIpAddress().getHostAddress(), ports[i], null,
+                            protocols[i]));
+            }
+            Membership.update(Membership.SOURCE_JGROUPS, protocols[i], list);
+        }
+    }
+
+    public void suspect(Address suspected_mbr)
+    {
+        if (protocols.length == 0 || !(suspected_mbr instanceof IpAddress))
+            return;
+        String ip = ((IpAddress) suspected_mbr).getIpAddress().getHostAddress();
+        for (int i = 0; i < protocols.length; i++)
+            Membership.leave(Membership.SOURCE_JGROUPS, protocols[i], new RPCAddress(ip, ports[i], null, protocols[i]));
+    }
+
+    public void block()
+    {
+    }
+}
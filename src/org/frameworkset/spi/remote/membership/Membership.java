@@ -0,0 +1,333 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.membership;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.serviceidentity.TargetImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: Membership.java</p>
+ * <p>Description: 各协议的组播成员列表，即(all)/serviceid调用的目标地址列表。
+ * 成员列表初始值取自rpc.all.servers，之后可以由以下来源动态更新：
+ * 1.内置jgroups通道的视图变化（rpc.membership.jgroups.ports，例如netty:12347,mina:12346，
+ *   集群中每个节点的ip加上对应协议的端口即为该协议的成员地址）
+ * 2.成员文件（rpc.membership.file，属性文件，键为协议，值的格式和rpc.all.servers相同，
+ *   每隔rpc.membership.file.interval毫秒检查一次文件是否修改，默认5000）
+ * 3.服务注册中心（rpc.membership.registry，ServiceRegistry接口的实现类）
+ * 每个来源分别登记自己的成员，某个来源更新时只替换该来源的成员，协议的成员列表为所有来源的并集（去重），
+ * 某个来源报告节点离开时，其他来源中仍然登记的节点继续保留；任何来源登记成员之前使用rpc.all.servers中的初始值。
+ * 成员列表是不可修改的列表，每次变化都整体替换（copy-on-write），调用方拿到的列表在调用过程中不会变化，
+ * 下一次调用即可看到新加入或者离开的节点，无需重启。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午08:16:42
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class Membership
+{
+    private static final Logger log = LoggerFactory.getLogger(Membership.class);
+
+    public static final String SOURCE_DEFAULT = "default";
+
+    public static final String SOURCE_JGROUPS = "jgroups";
+
+    public static final String SOURCE_FILE = "file";
+
+    /**
+     * 合并后的成员列表
+     */
+    private static final ConcurrentMap<String, List<RPCAddress>> members = new ConcurrentHashMap<String, List<RPCAddress>>();
+
+    /**
+     * 各协议在每个来源中登记的成员，key为协议，value的key为来源，只在持有Membership类锁时访问
+     */
+    private static final Map<String, Map<String, List<RPCAddress>>> sources = new HashMap<String, Map<String, List<RPCAddress>>>();
+
+    private static final List<MembershipChangeListener> listeners = new CopyOnWriteArrayList<MembershipChangeListener>();
+
+    private static final List<ServiceRegistry> registries = new ArrayList<ServiceRegistry>();
+
+    private static FileMembershipWatcher fileWatcher;
+
+    private static volatile boolean started;
+
+    public static void addListener(MembershipChangeListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(MembershipChangeListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 启动成员文件检查和服务注册中心订阅，第一次获取成员列表时自动调用
+     */
+    public static synchronized void start()
+    {
+        if (started)
+            return;
+        started = true;
+        String file = Util.defaultContext.getProperty("rpc.membership.file");
+        if (file != null && !file.trim().equals(""))
+        {
+            fileWatcher = new FileMembershipWatcher(file.trim(),
+                    BaseSPIManager2.getIntProperty("rpc.membership.file.interval", 5000));
+            fileWatcher.start();
+        }
+        String classes = Util.defaultContext.getProperty("rpc.membership.registry");
+        if (classes != null)
+        {
+            String[] names = classes.split(",");
+            for (int i = 0; i < names.length; i++)
+            {
+                String name = names[i].trim();
+                if (name.length() == 0)
+                    continue;
+                try
+                {
+                    ServiceRegistry registry = (ServiceRegistry) Class.forName(name).newInstance();
+                    registry.start();
+                    registries.add(registry);
+                }
+                catch (Exception e)
+                {
+                    log.warn("Start service registry " + name + " failed.", e);
+                }
+            }
+        }
+    }
+
+    public static synchronized void stop()
+    {
+        if (!started)
+            return;
+        started = false;
+        if (fileWatcher != null)
+        {
+            fileWatcher.stop();
+            fileWatcher = null;
+        }
+        for (int i = 0; i < registries.size(); i++)
+        {
+            try
+            {
+                registries.get(i).stop();
+            }
+            catch (Exception e)
+            {
+                log.warn("Stop service registry " + registries.get(i) + " failed.", e);
+            }
+        }
+        registries.clear();
+    }
+
+    /**
+     * 获取协议的成员列表，没有配置也没有动态登记过成员时返回null
+     * @param protocol
+     * @return 不可修改的成员列表
+     */
+    public static List<RPCAddress> getMembers(String protocol)
+    {
+        if (!started)
+            start();
+        List<RPCAddress> list = members.get(protocol);
+        if (list != null)
+            return list;
+        list = getConfiguredMembers(protocol);
+        if (list == null)
+            return null;
+        List<RPCAddress> old = members.putIfAbsent(protocol, list);
+        return old != null ? old : list;
+    }
+
+    /**
+     * 取自rpc.all.servers的初始成员列表
+     */
+    private static List<RPCAddress> getConfiguredMembers(String protocol)
+    {
+        String servers = Util.rpc_all_servers;
+        if (servers == null || servers.equals(""))
+            return null;
+        return Collections.unmodifiableList(TargetImpl.buildAllTargets(servers, protocol));
+    }
+
+    private static Map<String, List<RPCAddress>> getSources(String protocol)
+    {
+        Map<String, List<RPCAddress>> protocolSources = sources.get(protocol);
+        if (protocolSources == null)
+        {
+            protocolSources = new LinkedHashMap<String, List<RPCAddress>>();
+            sources.put(protocol, protocolSources);
+        }
+        return protocolSources;
+    }
+
+    /**
+     * 合并协议在各个来源中的成员，按来源登记的先后顺序排列并去掉重复的地址
+     */
+    private static void merge(String protocol, Map<String, List<RPCAddress>> protocolSources)
+    {
+        List<RPCAddress> list = new ArrayList<RPCAddress>();
+        for (Iterator<List<RPCAddress>> it = protocolSources.values().iterator(); it.hasNext();)
+        {
+            List<RPCAddress> addresses = it.next();
+            for (int i = 0; i < addresses.size(); i++)
+            {
+                if (!list.contains(addresses.get(i)))
+                    list.add(addresses.get(i));
+            }
+        }
+        list = Collections.unmodifiableList(list);
+        List<RPCAddress> old = members.put(protocol, list);
+        if (old == null)
+            old = getConfiguredMembers(protocol);
+        changed(protocol, old, list);
+    }
+
+    /**
+     * 整体替换协议在缺省来源中的成员列表
+     * @param protocol
+     * @param addresses
+     */
+    public static void update(String protocol, List<RPCAddress> addresses)
+    {
+        update(SOURCE_DEFAULT, protocol, addresses);
+    }
+
+    /**
+     * 整体替换协议在指定来源中的成员列表，其他来源登记的成员保持不变
+     * @param source 成员来源，例如jgroups、file或者服务注册中心的名称
+     * @param protocol
+     * @param addresses
+     */
+    public static synchronized void update(String source, String protocol, List<RPCAddress> addresses)
+    {
+        Map<String, List<RPCAddress>> protocolSources = getSources(protocol);
+        protocolSources.put(source, new ArrayList<RPCAddress>(addresses));
+        merge(protocol, protocolSources);
+    }
+
+    /**
+     * 节点加入缺省来源
+     * @param protocol
+     * @param address
+     */
+    public static void join(String protocol, RPCAddress address)
+    {
+        join(SOURCE_DEFAULT, protocol, address);
+    }
+
+    /**
+     * 节点加入指定来源
+     * @param source
+     * @param protocol
+     * @param address
+     */
+    public static synchronized void join(String source, String protocol, RPCAddress address)
+    {
+        Map<String, List<RPCAddress>> protocolSources = getSources(protocol);
+        List<RPCAddress> addresses = protocolSources.get(source);
+        if (addresses == null)
+        {
+            addresses = new ArrayList<RPCAddress>();
+            protocolSources.put(source, addresses);
+        }
+        else if (addresses.contains(address))
+        {
+            return;
+        }
+        addresses.add(address);
+        merge(protocol, protocolSources);
+    }
+
+    /**
+     * 节点离开缺省来源
+     * @param protocol
+     * @param address
+     */
+    public static void leave(String protocol, RPCAddress address)
+    {
+        leave(SOURCE_DEFAULT, protocol, address);
+    }
+
+    /**
+     * 节点离开指定来源，其他来源中仍然登记了该节点时节点保留在成员列表中
+     * @param source
+     * @param protocol
+     * @param address
+     */
+    public static synchronized void leave(String source, String protocol, RPCAddress address)
+    {
+        Map<String, List<RPCAddress>> protocolSources = sources.get(protocol);
+        List<RPCAddress> addresses = protocolSources != null ? protocolSources.get(source) : null;
+        if (addresses == null || !addresses.remove(address))
+            return;
+        merge(protocol, protocolSources);
+    }
+
+    private static void changed(String protocol, List<RPCAddress> old, List<RPCAddress> list)
+    {
+        List<RPCAddress> joined = new ArrayList<RPCAddress>();
+        List<RPCAddress> left = new ArrayList<RPCAddress>();
+        for (int i = 0; i < list.size(); i++)
+        {
+            if (old == null || !old.contains(list.get(i)))
+                joined.add(list.get(i));
+        }
+        if (old != null)
+        {
+            for (int i = 0; i < old.size(); i++)
+            {
+                if (!list.contains(old.get(i)))
+                    left.add(old.get(i));
+            }
+        }
+        if (joined.isEmpty() && left.isEmpty())
+            return;
+        log.info("Members of protocol[" + protocol + "] changed, joined:" + joined + ",left:" + left + ",members:" + list);
+        for (int i = 0; i < listeners.size(); i++)
+        {
+            try
+            {
+                listeners.get(i).membersChanged(protocol, joined, left, list);
+            }
+            catch (Throwable e)
+            {
+                log.warn("Notify membership change of protocol[" + protocol + "] failed.", e);
+            }
+        }
+    }
+}
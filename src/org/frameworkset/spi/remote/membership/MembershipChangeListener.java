@@ -0,0 +1,42 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.membership;
+
+import java.util.List;
+
+import org.frameworkset.spi.remote.RPCAddress;
+
+/**
+ * <p>Title: MembershipChangeListener.java</p>
+ * <p>Description: 协议成员列表变化监听器，监听器在更新成员列表的线程中被同步执行</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午08:11:37
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public interface MembershipChangeListener
+{
+    /**
+     * @param protocol 协议
+     * @param joined 新加入的地址
+     * @param left 离开的地址
+     * @param members 变化后的全部地址
+     */
+    public void membersChanged(String protocol, List<RPCAddress> joined, List<RPCAddress> left,
+            List<RPCAddress> members);
+}
@@ -0,0 +1,36 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.membership;
+
+/**
+ * <p>Title: ServiceRegistry.java</p>
+ * <p>Description: 服务注册中心接入接口，通过rpc.membership.registry配置，多个类名用逗号分隔。
+ * 实现类在start中订阅注册中心，节点上下线时调用Membership带来源参数的update、join或者leave方法更新对应协议的成员列表，
+ * 来源使用注册中心自己的名称，与jgroups视图、成员文件以及其他注册中心登记的成员合并，
+ * 在stop中释放订阅</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午08:13:05
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public interface ServiceRegistry
+{
+    public void start();
+
+    public void stop();
+}
@@ -0,0 +1,31 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.metrics;
+
+/**
+ * <p>Title: CallMetricsListener.java</p>
+ * <p>Description: 采样调用完成监听器，可以将每次采样的各阶段耗时输出到外部监控系统，
+ * 监听器在调用线程中被同步执行，实现中不能有耗时操作</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午05:34:27
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public interface CallMetricsListener
+{
+    public void callCompleted(CallTimer timer);
+}
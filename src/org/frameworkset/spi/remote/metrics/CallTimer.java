@@ -0,0 +1,183 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.metrics;
+
+/**
+ * <p>Title: CallTimer.java</p>
+ * <p>Description: 一次被采样的远程调用在客户端或者服务端各个阶段的耗时（纳秒），
+ * 随请求消息在线程之间传递，未记录的阶段耗时为-1</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午05:20:44
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class CallTimer
+{
+    /** 客户端请求序列化、压缩 */
+    public static final int CLIENT_ENCODE = 0;
+    /** 请求在RPCIOHandler.request.Threadpool中的排队时间 */
+    public static final int CLIENT_QUEUE = 1;
+    /** 网络往返时间，不含服务端处理时间 */
+    public static final int NETWORK = 2;
+    /** 客户端响应解压、反序列化 */
+    public static final int CLIENT_DECODE = 3;
+    /** 客户端调用总耗时 */
+    public static final int CLIENT_TOTAL = 4;
+    /** 服务端请求反序列化、解压 */
+    public static final int SERVER_DECODE = 5;
+    /** 服务端收到请求到开始处理之间的排队时间 */
+    public static final int SERVER_QUEUE = 6;
+    /** 服务端认证鉴权（RequestContext.preMethodCall） */
+    public static final int SERVER_SECURITY = 7;
+    /** 服务方法执行 */
+    public static final int SERVER_EXECUTE = 8;
+    /** 服务端响应序列化、压缩 */
+    public static final int SERVER_ENCODE = 9;
+    /** 服务端处理总耗时 */
+    public static final int SERVER_TOTAL = 10;
+
+    public static final int PHASES = 11;
+
+    public static final String[] PHASE_NAMES = new String[] {
+        "client.encode", "client.queue", "network", "client.decode", "client.total",
+        "server.decode", "server.queue", "server.security", "server.execute", "server.encode", "server.total"
+    };
+
+    private final boolean server;
+
+    private final long startTime;
+
+    private final long[] phases = new long[PHASES];
+
+    private String service;
+
+    private String method;
+
+    private long sentTime;
+
+    private boolean requested;
+
+    CallTimer(boolean server, long startTime)
+    {
+        this.server = server;
+        this.startTime = startTime;
+        for (int i = 0; i < PHASES; i++)
+            phases[i] = -1;
+    }
+
+    public static int getPhase(String name)
+    {
+        for (int i = 0; i < PHASES; i++)
+        {
+            if (PHASE_NAMES[i].equals(name))
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 累加阶段耗时，同一个阶段可能在序列化和传输层编码等多处被记录
+     * @param phase
+     * @param nanos
+     */
+    public void add(int phase, long nanos)
+    {
+        if (nanos < 0)
+            return;
+        phases[phase] = phases[phase] < 0 ? nanos : phases[phase] + nanos;
+    }
+
+    public long get(int phase)
+    {
+        return phases[phase];
+    }
+
+    /**
+     * 标记请求交给传输层发送的时间，传输层编码完成后会再次标记
+     */
+    public void markSent()
+    {
+        this.sentTime = System.nanoTime();
+    }
+
+    public long getSentTime()
+    {
+        return sentTime;
+    }
+
+    public long getStartTime()
+    {
+        return startTime;
+    }
+
+    public boolean isServer()
+    {
+        return server;
+    }
+
+    void describe(String service, String method)
+    {
+        this.service = service;
+        this.method = method;
+    }
+
+    public String getService()
+    {
+        return service;
+    }
+
+    public String getMethod()
+    {
+        return method;
+    }
+
+    public String getKey()
+    {
+        return service == null ? null : service + "#" + method;
+    }
+
+    /**
+     * 服务端计时器是否由客户端的采样请求触发，是则需要在响应中回送服务端处理时间
+     * @return
+     */
+    public boolean isRequested()
+    {
+        return requested;
+    }
+
+    void setRequested(boolean requested)
+    {
+        this.requested = requested;
+    }
+
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append(server ? "server " : "client ").append(getKey()).append(" [");
+        boolean first = true;
+        for (int i = 0; i < PHASES; i++)
+        {
+            if (phases[i] < 0)
+                continue;
+            if (!first)
+                builder.append(", ");
+            builder.append(PHASE_NAMES[i]).append("=").append(phases[i] / 1000).append("us");
+            first = false;
+        }
+        return builder.append("]").toString();
+    }
+}
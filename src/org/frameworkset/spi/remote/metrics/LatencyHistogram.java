@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>Title: LatencyHistogram.java</p>
+ * <p>Description: 对数分段的延时直方图，以微秒为单位记录，每个2的幂区间再均分为16个桶，
+ * 相对误差不超过1/16，记录范围上限约19小时，固定占用528个计数器，记录时无锁</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午05:26:10
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BITS = 4;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private static final long MAX_VALUE = (1L << 36) - 1;
+
+    private static final int BUCKETS = (36 - SUB_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    static int bucketIndex(long value)
+    {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+    }
+
+    static long bucketValue(int index)
+    {
+        if (index < SUB_BUCKETS)
+            return index;
+        int shift = index / SUB_BUCKETS - 1;
+        long low = (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return low + ((1L << shift) >> 1);
+    }
+
+    /**
+     * 记录一个耗时
+     * @param nanos 纳秒
+     */
+    public void record(long nanos)
+    {
+        long micros = nanos / 1000;
+        if (micros < 0)
+            return;
+        if (micros > MAX_VALUE)
+            micros = MAX_VALUE;
+        counts.incrementAndGet(bucketIndex(micros));
+        count.incrementAndGet();
+        sum.addAndGet(micros);
+        long current = max.get();
+        while (micros > current && !max.compareAndSet(current, micros))
+            current = max.get();
+    }
+
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * @return 平均耗时，微秒
+     */
+    public double getMean()
+    {
+        long c = count.get();
+        return c == 0 ? 0 : (double) sum.get() / c;
+    }
+
+    /**
+     * @return 最大耗时，微秒
+     */
+    public long getMax()
+    {
+        return max.get();
+    }
+
+    /**
+     * @param percentile 0-100
+     * @return 百分位耗时，微秒
+     */
+    public long getValueAtPercentile(double percentile)
+    {
+        long total = 0;
+        long[] snapshot = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0)
+            return 0;
+        long target = (long) Math.ceil(Math.min(percentile, 100) / 100 * total);
+        if (target < 1)
+            target = 1;
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += snapshot[i];
+            if (seen >= target)
+                return Math.min(bucketValue(i), max.get());
+        }
+        return max.get();
+    }
+
+    public void reset()
+    {
+        for (int i = 0; i < BUCKETS; i++)
+            counts.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>Title: MethodMetrics.java</p>
+ * <p>Description: 一个服务方法各个调用阶段的耗时直方图，直方图在阶段第一次被记录时创建</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午05:31:52
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class MethodMetrics
+{
+    private final String key;
+
+    private final AtomicReferenceArray<LatencyHistogram> histograms = new AtomicReferenceArray<LatencyHistogram>(CallTimer.PHASES);
+
+    MethodMetrics(String key)
+    {
+        this.key = key;
+    }
+
+    public String getKey()
+    {
+        return key;
+    }
+
+    void record(CallTimer timer)
+    {
+        for (int i = 0; i < CallTimer.PHASES; i++)
+        {
+            long nanos = timer.get(i);
+            if (nanos < 0)
+                continue;
+            LatencyHistogram histogram = histograms.get(i);
+            if (histogram == null)
+            {
+                histograms.compareAndSet(i, null, new LatencyHistogram());
+                histogram = histograms.get(i);
+            }
+            histogram.record(nanos);
+        }
+    }
+
+    /**
+     * @param phase CallTimer中定义的阶段
+     * @return 阶段没有记录时返回null
+     */
+    public LatencyHistogram getHistogram(int phase)
+    {
+        return histograms.get(phase);
+    }
+
+    void reset()
+    {
+        for (int i = 0; i < CallTimer.PHASES; i++)
+        {
+            LatencyHistogram histogram = histograms.get(i);
+            if (histogram != null)
+                histogram.reset();
+        }
+    }
+
+    public String report()
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append(key).append("\r\n");
+        for (int i = 0; i < CallTimer.PHASES; i++)
+        {
+            LatencyHistogram histogram = histograms.get(i);
+            if (histogram == null || histogram.getCount() == 0)
+                continue;
+            builder.append("  ").append(CallTimer.PHASE_NAMES[i])
+                   .append(" count=").append(histogram.getCount())
+                   .append(" mean=").append((long) histogram.getMean())
+                   .append("us p50=").append(histogram.getValueAtPercentile(50))
+                   .append("us p99=").append(histogram.getValueAtPercentile(99))
+                   .append("us p999=").append(histogram.getValueAtPercentile(99.9))
+                   .append("us max=").append(histogram.getMax()).append("us\r\n");
+        }
+        return builder.toString();
+    }
+}
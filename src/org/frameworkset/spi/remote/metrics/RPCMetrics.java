@@ -0,0 +1,266 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.management.ObjectName;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.Header;
+import org.frameworkset.spi.remote.RPCMessage;
+import org.frameworkset.spi.remote.RPCMethodCall;
+import org.frameworkset.spi.remote.ServiceID;
+import org.frameworkset.spi.remote.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: RPCMetrics.java</p>
+ * <p>Description: 远程调用分阶段耗时统计，rpc.metrics.enable开启后按rpc.metrics.sample.interval
+ * 每N次调用采样一次，未被采样的调用只多一次随机数判断。
+ * 客户端采样的请求会带上rpc.metrics消息头，服务端收到后同样计时并在响应中回送服务端处理总耗时，
+ * 客户端据此从往返时间中扣除服务端处理时间得到网络耗时。
+ * 统计结果按服务方法汇总为直方图，通过jmx（org.frameworkset.rpc:type=RPCMetrics）和CallMetricsListener输出，
+ * 监听器可以通过rpc.metrics.listeners配置，多个类名用逗号分隔。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午05:40:19
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RPCMetrics
+{
+    private static Logger log = LoggerFactory.getLogger(RPCMetrics.class);
+
+    public static final String METRICS_HEADER = "rpc.metrics";
+
+    public static final String OBJECT_NAME = "org.frameworkset.rpc:type=RPCMetrics";
+
+    public static final boolean enable = BaseSPIManager2.getBooleanProperty("rpc.metrics.enable", false);
+
+    public static final int sampleInterval = BaseSPIManager2.getIntProperty("rpc.metrics.sample.interval", 100);
+
+    private static final ConcurrentMap<String, MethodMetrics> metrics = new ConcurrentHashMap<String, MethodMetrics>();
+
+    private static final List<CallMetricsListener> listeners = new CopyOnWriteArrayList<CallMetricsListener>();
+
+    static
+    {
+        if (enable)
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(new RPCMetricsView(), new ObjectName(OBJECT_NAME));
+            }
+            catch (Exception e)
+            {
+                log.warn("register rpc metrics mbean " + OBJECT_NAME + " failed:" + e);
+            }
+            String classes = Util.defaultContext.getProperty("rpc.metrics.listeners");
+            if (classes != null)
+            {
+                String[] names = classes.split(",");
+                for (int i = 0; i < names.length; i++)
+                {
+                    String name = names[i].trim();
+                    if (name.length() == 0)
+                        continue;
+                    try
+                    {
+                        addListener((CallMetricsListener) Class.forName(name).newInstance());
+                    }
+                    catch (Exception e)
+                    {
+                        log.warn("load rpc metrics listener " + name + " failed.", e);
+                    }
+                }
+            }
+        }
+    }
+
+    public static void addListener(CallMetricsListener listener)
+    {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(CallMetricsListener listener)
+    {
+        listeners.remove(listener);
+    }
+
+    private static boolean sample()
+    {
+        return sampleInterval <= 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+    }
+
+    private static void describePayload(CallTimer timer, Object payload)
+    {
+        if (!(payload instanceof RPCMethodCall))
+            return;
+        Object[] args = ((RPCMethodCall) payload).getArgs();
+        if (args != null && args.length > 1 && args[0] instanceof ServiceID)
+            timer.describe(((ServiceID) args[0]).getService(), String.valueOf(args[1]));
+    }
+
+    /**
+     * 客户端开始一次调用，调用被采样时返回计时器并将其绑定到请求消息上，否则返回null
+     * @param msg
+     * @param call
+     * @return
+     */
+    public static CallTimer startClientCall(RPCMessage msg, RPCMethodCall call)
+    {
+        if (!enable || !sample())
+            return null;
+        CallTimer timer = new CallTimer(false, System.nanoTime());
+        describePayload(timer, call);
+        msg.bindTimer(timer);
+        msg.putHeader(METRICS_HEADER, new Header(METRICS_HEADER, Boolean.TRUE));
+        return timer;
+    }
+
+    /**
+     * 客户端调用结束，记录调用总耗时
+     * @param timer
+     */
+    public static void finishClientCall(CallTimer timer)
+    {
+        timer.add(CallTimer.CLIENT_TOTAL, System.nanoTime() - timer.getStartTime());
+        record(timer);
+    }
+
+    /**
+     * 客户端收到响应，根据服务端回送的处理时间计算网络耗时
+     * @param timer
+     * @param rsp
+     */
+    public static void responseReceived(CallTimer timer, RPCMessage rsp)
+    {
+        long elapsed = System.nanoTime() - timer.getSentTime();
+        Header header = rsp.getHeader(METRICS_HEADER);
+        if (header != null && header.getValue() instanceof Long)
+            elapsed -= ((Long) header.getValue()).longValue();
+        timer.add(CallTimer.NETWORK, elapsed);
+    }
+
+    /**
+     * 服务端收到请求，请求被客户端采样或者被本端采样时为请求绑定计时器
+     * @param msg
+     * @param hdr 请求关联消息头，只有请求消息才会计时
+     * @param receivedTime 传输层收到消息的时间
+     * @param decodeNanos 传输层反序列化消息的耗时
+     */
+    public static void requestReceived(RPCMessage msg, Header hdr, long receivedTime, long decodeNanos)
+    {
+        if (!enable || hdr == null || hdr.getType() != Header.REQ || msg.callTimer() != null)
+            return;
+        boolean requested = msg.getHeader(METRICS_HEADER) != null;
+        if (!requested && !sample())
+            return;
+        CallTimer timer = new CallTimer(true, receivedTime);
+        timer.setRequested(requested);
+        timer.add(CallTimer.SERVER_DECODE, decodeNanos);
+        describePayload(timer, msg.getData());
+        msg.bindTimer(timer);
+    }
+
+    /**
+     * 服务端请求开始处理，记录排队时间
+     * @param timer
+     */
+    public static void requestStarted(CallTimer timer)
+    {
+        long decode = timer.get(CallTimer.SERVER_DECODE);
+        timer.add(CallTimer.SERVER_QUEUE, System.nanoTime() - timer.getStartTime() - (decode < 0 ? 0 : decode));
+    }
+
+    /**
+     * 服务端请求处理结束，记录处理总耗时，客户端请求计时时在响应中回送处理总耗时
+     * @param timer
+     * @param rsp 异步调用时为null
+     */
+    public static void finishServerCall(CallTimer timer, RPCMessage rsp)
+    {
+        long elapsed = System.nanoTime() - timer.getStartTime();
+        timer.add(CallTimer.SERVER_TOTAL, elapsed);
+        if (rsp != null && timer.isRequested())
+            rsp.putHeader(METRICS_HEADER, new Header(METRICS_HEADER, Long.valueOf(elapsed)));
+        record(timer);
+    }
+
+    /**
+     * 服务端解码出服务方法后补充计时器的统计维度
+     * @param timer
+     * @param service
+     * @param method
+     */
+    public static void describe(CallTimer timer, String service, String method)
+    {
+        timer.describe(service, method);
+    }
+
+    static void record(CallTimer timer)
+    {
+        String key = timer.getKey();
+        if (key != null)
+        {
+            MethodMetrics methodMetrics = metrics.get(key);
+            if (methodMetrics == null)
+            {
+                methodMetrics = new MethodMetrics(key);
+                MethodMetrics old = metrics.putIfAbsent(key, methodMetrics);
+                if (old != null)
+                    methodMetrics = old;
+            }
+            methodMetrics.record(timer);
+        }
+        for (CallMetricsListener listener : listeners)
+        {
+            try
+            {
+                listener.callCompleted(timer);
+            }
+            catch (Throwable e)
+            {
+                log.warn("rpc metrics listener " + listener + " failed.", e);
+            }
+        }
+    }
+
+    public static MethodMetrics getMethodMetrics(String key)
+    {
+        return key == null ? null : metrics.get(key);
+    }
+
+    public static Collection<MethodMetrics> getAllMethodMetrics()
+    {
+        return metrics.values();
+    }
+
+    public static void reset()
+    {
+        for (MethodMetrics methodMetrics : metrics.values())
+            methodMetrics.reset();
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.metrics;
+
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * <p>Title: RPCMetricsView.java</p>
+ * <p>Description: 远程调用耗时统计的jmx视图</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午05:37:45
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RPCMetricsView implements RPCMetricsViewMBean
+{
+    public String[] getMethods()
+    {
+        Collection<MethodMetrics> all = RPCMetrics.getAllMethodMetrics();
+        String[] methods = new String[all.size()];
+        int i = 0;
+        for (Iterator<MethodMetrics> it = all.iterator(); it.hasNext() && i < methods.length; i++)
+            methods[i] = it.next().getKey();
+        return methods;
+    }
+
+    public int getSampleInterval()
+    {
+        return RPCMetrics.sampleInterval;
+    }
+
+    public String report()
+    {
+        StringBuilder builder = new StringBuilder();
+        for (MethodMetrics metrics : RPCMetrics.getAllMethodMetrics())
+            builder.append(metrics.report());
+        return builder.toString();
+    }
+
+    public String report(String method)
+    {
+        MethodMetrics metrics = RPCMetrics.getMethodMetrics(method);
+        return metrics == null ? null : metrics.report();
+    }
+
+    private LatencyHistogram getHistogram(String method, String phase)
+    {
+        MethodMetrics metrics = RPCMetrics.getMethodMetrics(method);
+        int index = CallTimer.getPhase(phase);
+        if (metrics == null || index < 0)
+            return null;
+        return metrics.getHistogram(index);
+    }
+
+    public long getPercentile(String method, String phase, double percentile)
+    {
+        LatencyHistogram histogram = getHistogram(method, phase);
+        return histogram == null ? 0 : histogram.getValueAtPercentile(percentile);
+    }
+
+    public double getMean(String method, String phase)
+    {
+        LatencyHistogram histogram = getHistogram(method, phase);
+        return histogram == null ? 0 : histogram.getMean();
+    }
+
+    public long getCount(String method, String phase)
+    {
+        LatencyHistogram histogram = getHistogram(method, phase);
+        return histogram == null ? 0 : histogram.getCount();
+    }
+
+    public void reset()
+    {
+        RPCMetrics.reset();
+    }
+}
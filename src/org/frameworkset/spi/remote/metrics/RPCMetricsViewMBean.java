@@ -0,0 +1,44 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.metrics;
+
+/**
+ * <p>Title: RPCMetricsViewMBean.java</p>
+ * <p>Description: 远程调用耗时统计的jmx管理接口，耗时单位为微秒</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午05:36:02
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public interface RPCMetricsViewMBean
+{
+    public String[] getMethods();
+
+    public int getSampleInterval();
+
+    public String report();
+
+    public String report(String method);
+
+    public long getPercentile(String method, String phase, double percentile);
+
+    public double getMean(String method, String phase);
+
+    public long getCount(String method, String phase);
+
+    public void reset();
+}
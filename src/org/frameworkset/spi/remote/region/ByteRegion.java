@@ -0,0 +1,158 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.region;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * <p>Title: ByteRegion.java</p>
+ * <p>Description: 零拷贝传输的字节区域，可以作为远程服务方法的参数或者返回值。
+ * 消息体中只序列化区域的标识和长度，netty和mina协议在发送消息前通过FileRegion（文件区间）
+ * 或者直接包装ByteBuffer的方式把区域内容紧跟在区域头之后写入连接，接收端在io线程中把内容暂存到堆内存
+ * （不超过rpc.region.memory.threshold，默认1M）或者临时文件中，应用通过asByteBuffer获取内存映射的只读视图，
+ * 或者通过openStream、transferTo以流的方式读取，使用完毕后调用release释放暂存的内容。
+ * 发送端作为服务方法返回值的区域在响应写入连接后自动释放，每次调用需要返回新的区域；
+ * 作为请求参数的区域可能发送给多个服务端，需要由应用在调用返回后调用release释放。
+ * 没有释放的内容在rpc.region.ttl（默认300秒）后由后台线程自动释放。
+ * 其他协议不会传输区域内容，接收端访问内容时将抛出IllegalStateException。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:16:52
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ByteRegion implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private String id;
+
+    private long length;
+
+    private transient RegionContent content;
+
+    public ByteRegion()
+    {
+    }
+
+    private ByteRegion(RegionContent content)
+    {
+        this.content = content;
+        this.length = content.getLength();
+        this.id = RegionRegistry.register(content);
+    }
+
+    /**
+     * 传输整个文件
+     */
+    public static ByteRegion file(File file)
+    {
+        return file(file, 0, file.length());
+    }
+
+    /**
+     * 传输文件中从position开始的count个字节
+     */
+    public static ByteRegion file(File file, long position, long count)
+    {
+        if (!file.isFile())
+            throw new IllegalArgumentException(file + " is not a file.");
+        if (position < 0 || count < 0 || position + count > file.length())
+            throw new IllegalArgumentException("region [" + position + "," + (position + count) + ") is out of file " + file);
+        return new ByteRegion(RegionContent.file(file, position, count, false));
+    }
+
+    /**
+     * 传输ByteBuffer中position到limit之间的内容，传输前应用不能修改其中的内容
+     */
+    public static ByteRegion wrap(ByteBuffer buffer)
+    {
+        return new ByteRegion(RegionContent.buffer(buffer));
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public void setId(String id)
+    {
+        this.id = id;
+    }
+
+    public long getLength()
+    {
+        return length;
+    }
+
+    public void setLength(long length)
+    {
+        this.length = length;
+    }
+
+    private RegionContent content()
+    {
+        if (content == null)
+        {
+            content = RegionRegistry.lookup(id);
+            if (content == null)
+                throw new IllegalStateException("content of region " + id
+                        + " is not available, it has been released or the protocol does not transfer byte regions.");
+        }
+        return content;
+    }
+
+    /**
+     * 返回内容的只读视图，文件内容通过内存映射返回
+     */
+    public ByteBuffer asByteBuffer() throws IOException
+    {
+        return content().asByteBuffer();
+    }
+
+    public InputStream openStream() throws IOException
+    {
+        return content().openStream();
+    }
+
+    public long transferTo(WritableByteChannel target) throws IOException
+    {
+        return content().transferTo(target);
+    }
+
+    /**
+     * 释放区域内容，接收端暂存的临时文件将被删除
+     */
+    public void release()
+    {
+        RegionContent content = RegionRegistry.remove(id);
+        if (content != null)
+            content.release();
+        this.content = null;
+    }
+
+    public String toString()
+    {
+        return "ByteRegion[" + id + "," + length + "]";
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.region;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * <p>Title: RegionContent.java</p>
+ * <p>Description: 字节区域的实际内容，为文件中的一段区间或者一个ByteBuffer，
+ * 发送端的内容由应用提供，接收端的内容为传输层接收后暂存的堆内存或者临时文件。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:10:36
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RegionContent
+{
+    private final File file;
+
+    private final long position;
+
+    private final long length;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * 释放时是否删除文件，接收端暂存的临时文件为true
+     */
+    private final boolean temporary;
+
+    private RegionContent(File file, long position, long length, ByteBuffer buffer, boolean temporary)
+    {
+        this.file = file;
+        this.position = position;
+        this.length = length;
+        this.buffer = buffer;
+        this.temporary = temporary;
+    }
+
+    public static RegionContent file(File file, long position, long length, boolean temporary)
+    {
+        return new RegionContent(file, position, length, null, temporary);
+    }
+
+    public static RegionContent buffer(ByteBuffer buffer)
+    {
+        return new RegionContent(null, 0, buffer.remaining(), buffer.slice(), false);
+    }
+
+    public boolean isFile()
+    {
+        return file != null;
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    public long getPosition()
+    {
+        return position;
+    }
+
+    public long getLength()
+    {
+        return length;
+    }
+
+    /**
+     * 以只读方式打开文件通道，由调用方负责关闭
+     */
+    public FileChannel openChannel() throws IOException
+    {
+        return new RandomAccessFile(file, "r").getChannel();
+    }
+
+    /**
+     * 返回内容的只读视图，文件内容以内存映射的方式返回，不复制到堆中
+     */
+    public ByteBuffer asByteBuffer() throws IOException
+    {
+        if (buffer != null)
+            return buffer.asReadOnlyBuffer();
+        if (length > Integer.MAX_VALUE)
+            throw new IOException("region of " + file + " is too large to be mapped:" + length);
+        FileChannel channel = openChannel();
+        try
+        {
+            return channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    public InputStream openStream() throws IOException
+    {
+        if (buffer != null)
+            return new BufferInputStream(buffer.asReadOnlyBuffer());
+        return new FileRegionInputStream(openChannel(), position, length);
+    }
+
+    /**
+     * 将内容写入目标通道，文件内容通过FileChannel.transferTo传输
+     */
+    public long transferTo(WritableByteChannel target) throws IOException
+    {
+        if (buffer != null)
+        {
+            ByteBuffer src = buffer.asReadOnlyBuffer();
+            long count = 0;
+            while (src.hasRemaining())
+                count += target.write(src);
+            return count;
+        }
+        FileChannel channel = openChannel();
+        try
+        {
+            long count = 0;
+            while (count < length)
+            {
+                long n = channel.transferTo(position + count, length - count, target);
+                if (n <= 0)
+                    break;
+                count += n;
+            }
+            return count;
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    public void release()
+    {
+        if (temporary && file != null)
+            file.delete();
+    }
+
+    private static class BufferInputStream extends InputStream
+    {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer)
+        {
+            this.buffer = buffer;
+        }
+
+        public int read()
+        {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        public int read(byte[] b, int off, int len)
+        {
+            if (!buffer.hasRemaining())
+                return -1;
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+
+        public int available()
+        {
+            return buffer.remaining();
+        }
+    }
+
+    private static class FileRegionInputStream extends InputStream
+    {
+        private final FileChannel channel;
+
+        private long position;
+
+        private final long end;
+
+        FileRegionInputStream(FileChannel channel, long position, long length)
+        {
+            this.channel = channel;
+            this.position = position;
+            this.end = position + length;
+        }
+
+        public int read() throws IOException
+        {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException
+        {
+            if (position >= end)
+                return -1;
+            len = (int) Math.min(len, end - position);
+            int n = channel.read(ByteBuffer.wrap(b, off, len), position);
+            if (n > 0)
+                position += n;
+            return n;
+        }
+
+        public int available()
+        {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+
+        public void close() throws IOException
+        {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.region;
+
+import java.io.Serializable;
+
+/**
+ * <p>Title: RegionHeader.java</p>
+ * <p>Description: 区域头，传输层在写入区域内容之前先写入区域头，接收端据此读取随后的length个原始字节</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:19:07
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RegionHeader implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final String id;
+
+    private final long length;
+
+    public RegionHeader(String id, long length)
+    {
+        this.id = id;
+        this.length = length;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public long getLength()
+    {
+        return length;
+    }
+}
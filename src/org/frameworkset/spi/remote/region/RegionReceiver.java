@@ -0,0 +1,136 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.region;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>Title: RegionReceiver.java</p>
+ * <p>Description: 接收端在io线程中按照区域头读取随后的原始字节，小区域暂存到堆内存，
+ * 大区域直接写入临时文件，接收完成后以连接标识前缀加上发送端的标识登记到RegionRegistry。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:26:31
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RegionReceiver
+{
+    private final String scope;
+
+    private final RegionHeader header;
+
+    private long remaining;
+
+    private byte[] heap;
+
+    private int heapPosition;
+
+    private File file;
+
+    private FileChannel spool;
+
+    /**
+     * @param scope 接收区域的连接对应的标识前缀，参见RegionRegistry.scope
+     * @param header
+     * @throws IOException 区域长度为负数或者超过rpc.region.max.length
+     */
+    public RegionReceiver(String scope, RegionHeader header) throws IOException
+    {
+        this(scope, header, RegionRegistry.maxLength);
+    }
+
+    /**
+     * @param scope
+     * @param header
+     * @param maxLength 允许的最大区域长度，小于等于0时不限制
+     * @throws IOException 区域长度为负数或者超过maxLength
+     */
+    RegionReceiver(String scope, RegionHeader header, long maxLength) throws IOException
+    {
+        if (header.getLength() < 0)
+            throw new IOException("invalid region length " + header.getLength() + " of region " + header.getId());
+        if (maxLength > 0 && header.getLength() > maxLength)
+            throw new IOException("region length " + header.getLength() + " of region " + header.getId()
+                    + " exceeds rpc.region.max.length " + maxLength);
+        this.scope = scope;
+        this.header = header;
+        this.remaining = header.getLength();
+        if (header.getLength() <= RegionRegistry.memoryThreshold)
+        {
+            heap = new byte[(int) header.getLength()];
+        }
+        else
+        {
+            file = File.createTempFile("bboss-region-", ".tmp");
+            file.deleteOnExit();
+            spool = new RandomAccessFile(file, "rw").getChannel();
+        }
+    }
+
+    public long getRemaining()
+    {
+        return remaining;
+    }
+
+    public boolean isComplete()
+    {
+        return remaining == 0;
+    }
+
+    /**
+     * 写入src中的全部剩余字节，调用方保证不超过getRemaining()
+     */
+    public void write(ByteBuffer src) throws IOException
+    {
+        int count = src.remaining();
+        if (heap != null)
+        {
+            src.get(heap, heapPosition, count);
+            heapPosition += count;
+        }
+        else
+        {
+            while (src.hasRemaining())
+                spool.write(src);
+        }
+        remaining -= count;
+    }
+
+    /**
+     * 接收完成，登记接收到的内容
+     */
+    public void finish() throws IOException
+    {
+        RegionContent content;
+        if (heap != null)
+        {
+            content = RegionContent.buffer(ByteBuffer.wrap(heap));
+        }
+        else
+        {
+            spool.close();
+            content = RegionContent.file(file, 0, header.getLength(), true);
+        }
+        RegionRegistry.register(scope + header.getId(), content);
+    }
+}
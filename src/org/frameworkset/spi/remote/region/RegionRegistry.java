@@ -0,0 +1,229 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.region;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.RPCMessage;
+import org.frameworkset.spi.remote.RPCMethodCall;
+
+/**
+ * <p>Title: RegionRegistry.java</p>
+ * <p>Description: 本jvm中字节区域内容的登记表，发送端登记应用提供的内容，接收端登记传输层暂存的内容，
+ * 区域在消息中只保留标识，通过标识在登记表中查找实际内容。
+ * 发送端作为返回值的区域在响应写入完成后释放；作为请求参数的区域可能发送给多个服务端或者重试，
+ * 由应用在调用返回后调用release释放。
+ * 接收端以连接标识作为前缀登记收到的内容，消息中区域的标识也加上同样的前缀，
+ * 一个连接上的对端只能访问和替换本连接上收到的内容。
+ * 登记超过rpc.region.ttl秒的内容由后台线程定期清理，避免应用没有调用release时内容长期驻留。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:22:45
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RegionRegistry
+{
+    static final long ttl = BaseSPIManager2.getIntProperty("rpc.region.ttl", 300) * 1000L;
+
+    /**
+     * 接收端不超过该大小的区域内容暂存在堆内存中，超过时暂存到临时文件
+     */
+    public static final int memoryThreshold = BaseSPIManager2.getIntProperty("rpc.region.memory.threshold", 1024 * 1024);
+
+    /**
+     * 接收端允许的最大区域长度，超过时拒绝接收，小于等于0时不限制
+     */
+    public static final int maxLength = BaseSPIManager2.getIntProperty("rpc.region.max.length", 1024 * 1024 * 1024);
+
+    private static final ConcurrentMap<String, Entry> regions = new ConcurrentHashMap<String, Entry>();
+
+    private static final String prefix = Long.toHexString(new Random().nextLong()) + "-";
+
+    private static final AtomicLong sequence = new AtomicLong();
+
+    private static volatile ScheduledExecutorService expirer;
+
+    private static class Entry
+    {
+        final RegionContent content;
+
+        final long created = System.currentTimeMillis();
+
+        Entry(RegionContent content)
+        {
+            this.content = content;
+        }
+    }
+
+    static String register(RegionContent content)
+    {
+        String id = prefix + sequence.incrementAndGet();
+        register(id, content);
+        return id;
+    }
+
+    /**
+     * 接收端登记接收到的内容
+     * 
+     * @param id 连接标识前缀加上发送端的标识，参见scope
+     * @param content
+     */
+    public static void register(String id, RegionContent content)
+    {
+        startExpirer();
+        Entry old = regions.put(id, new Entry(content));
+        if (old != null && old.content != content)
+            old.content.release();
+    }
+
+    /**
+     * 返回连接对应的标识前缀，接收端用该前缀登记收到的内容并改写消息中区域的标识
+     * 
+     * @param protocol 协议名称
+     * @param connection 本jvm中唯一的连接标识
+     */
+    public static String scope(String protocol, Object connection)
+    {
+        return protocol + "-" + connection + ":";
+    }
+
+    /**
+     * 接收端解码消息后为其中的区域标识加上连接标识前缀，与RegionReceiver登记内容时使用的标识保持一致
+     */
+    public static void bind(String scope, RPCMessage message)
+    {
+        List<ByteRegion> list = collect(message);
+        for (int i = 0; i < list.size(); i++)
+        {
+            ByteRegion region = list.get(i);
+            region.setId(scope + region.getId());
+        }
+    }
+
+    /**
+     * 发送端写入响应后释放作为返回值的区域，返回值只会发送一次；请求参数中的区域不做处理
+     */
+    public static void written(RPCMessage message)
+    {
+        Object data = message.getResultSerial() == RPCMessage.OOB ? message.getData() : null;
+        if (data instanceof ByteRegion)
+            ((ByteRegion) data).release();
+    }
+
+    public static RegionContent lookup(String id)
+    {
+        Entry entry = id != null ? regions.get(id) : null;
+        return entry != null ? entry.content : null;
+    }
+
+    static RegionContent remove(String id)
+    {
+        Entry entry = id != null ? regions.remove(id) : null;
+        return entry != null ? entry.content : null;
+    }
+
+    private static void startExpirer()
+    {
+        if (expirer != null)
+            return;
+        synchronized (RegionRegistry.class)
+        {
+            if (expirer != null)
+                return;
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+            {
+                public Thread newThread(Runnable r)
+                {
+                    Thread thread = new Thread(r, "RPC-RegionExpirer");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            long period = Math.max(1000L, ttl / 10);
+            scheduler.scheduleWithFixedDelay(new Runnable()
+            {
+                public void run()
+                {
+                    expire(System.currentTimeMillis());
+                }
+            }, period, period, TimeUnit.MILLISECONDS);
+            expirer = scheduler;
+        }
+    }
+
+    /**
+     * 释放登记时间早于now - rpc.region.ttl的内容
+     */
+    static void expire(long now)
+    {
+        for (Iterator<Map.Entry<String, Entry>> it = regions.entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry<String, Entry> entry = it.next();
+            if (now - entry.getValue().created > ttl && regions.remove(entry.getKey(), entry.getValue()))
+                entry.getValue().content.release();
+        }
+    }
+
+    /**
+     * 消息中是否包含字节区域，包含区域的消息不做压缩和预先编码，保证传输层能够找到其中的区域
+     */
+    public static boolean hasRegions(RPCMessage message)
+    {
+        return !collect(message).isEmpty();
+    }
+
+    /**
+     * 返回消息中需要传输的字节区域，包括作为返回值的区域和作为服务方法参数的区域
+     */
+    public static List<ByteRegion> collect(RPCMessage message)
+    {
+        Object data = message.getResultSerial() == RPCMessage.OOB ? message.getData() : null;
+        if (data instanceof ByteRegion)
+            return Collections.singletonList((ByteRegion) data);
+        if (!(data instanceof RPCMethodCall))
+            return Collections.emptyList();
+        Object[] args = ((RPCMethodCall) data).getArgs();
+        if (args == null || args.length < 3 || !(args[2] instanceof Object[]))
+            return Collections.emptyList();
+        List<ByteRegion> result = null;
+        for (Object parameter : (Object[]) args[2])
+        {
+            if (parameter instanceof ByteRegion)
+            {
+                if (result == null)
+                    result = new ArrayList<ByteRegion>(2);
+                result.add((ByteRegion) parameter);
+            }
+        }
+        return result != null ? result : Collections.<ByteRegion>emptyList();
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.serializable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * <p>Title: ClassRegistry.java</p>
+ * <p>Description: 与传输协议无关的类编号注册表，为频繁传输的类分配短整型编号，二进制序列化时用编号代替类名。
+ * 内置编号从classpath中的rpc-magic-map.xml加载，应用的DTO等类可以通过rpc.classregistry.file参数指定
+ * 同样格式的映射文件（多个文件用逗号分隔），或者在运行时调用add方法注册，自定义编号必须大于1024：
+ * <pre>
+ * &lt;magic-number-class-mapping&gt;
+ *     &lt;class id="1025" name="com.demo.UserDTO"/&gt;
+ * &lt;/magic-number-class-mapping&gt;
+ * </pre>
+ * 通过rpc.classregistry.enable=true开启后，java序列化输出的流中已注册类的类描述只写入编号，
+ * 读取时根据流头自动识别普通流和编号流；kryo序列化始终按编号注册这些类。
+ * 通讯双方必须使用相同的映射配置和相同版本的类。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:31:26
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ClassRegistry
+{
+    private static final Logger log = LoggerFactory.getLogger(ClassRegistry.class);
+
+    public static final String MAGIC_NUMBER_FILE = "rpc-magic-map.xml";
+
+    public static final short MIN_CUSTOM_MAGIC_NUMBER = 1024;
+
+    public static final boolean enable = BaseSPIManager2.getBooleanProperty("rpc.classregistry.enable", false);
+
+    private static final Map<Class, Short> classMap = new ConcurrentHashMap<Class, Short>();
+
+    private static final Map<Short, Class> magicMap = new ConcurrentHashMap<Short, Class>();
+
+    private static volatile int version;
+
+    static
+    {
+        load(MAGIC_NUMBER_FILE, true);
+        String files = Util.defaultContext.getProperty("rpc.classregistry.file");
+        if (files != null)
+        {
+            String[] names = files.split(",");
+            for (int i = 0; i < names.length; i++)
+            {
+                if (!names[i].trim().equals(""))
+                    load(names[i].trim(), false);
+            }
+        }
+        if (log.isDebugEnabled())
+            log.debug("class registry is:\n" + printMagicMap());
+    }
+
+    private static void load(String file, boolean builtin)
+    {
+        InputStream stream = Util.getResourceAsStream(file, ClassRegistry.class);
+        if (stream == null)
+        {
+            log.warn("class mapping file " + file + " is not found in the classpath,ignore it.");
+            return;
+        }
+        try
+        {
+            NodeList classes = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(stream)
+                    .getElementsByTagName("class");
+            for (int i = 0; i < classes.getLength(); i++)
+            {
+                Element element = (Element) classes.item(i);
+                short magic = Short.parseShort(element.getAttribute("id").trim());
+                String name = element.getAttribute("name").trim();
+                if (!builtin && magic <= MIN_CUSTOM_MAGIC_NUMBER)
+                    throw new IllegalArgumentException("magic number (" + magic + ") of class " + name
+                            + " in " + file + " needs to be greater than " + MIN_CUSTOM_MAGIC_NUMBER);
+                Class clazz;
+                try
+                {
+                    clazz = name.startsWith("[") ? Class.forName(name, false, ClassRegistry.class.getClassLoader())
+                            : Util.loadClass(name, ClassRegistry.class);
+                }
+                catch (ClassNotFoundException e)
+                {
+                    //编号是显式指定的，跳过本端不存在的类不会影响其他类的编号
+                    if (log.isDebugEnabled())
+                        log.debug("class " + name + " of magic number " + magic + " is not found,skip it.");
+                    continue;
+                }
+                register(magic, clazz);
+            }
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new IllegalArgumentException("failed reading the class mapping file " + file, e);
+        }
+        finally
+        {
+            try
+            {
+                stream.close();
+            }
+            catch (IOException e)
+            {
+            }
+        }
+    }
+
+    private static synchronized void register(short magic, Class clazz)
+    {
+        if (magicMap.containsKey(magic) || classMap.containsKey(clazz))
+            throw new IllegalArgumentException("magic number " + magic + " for class " + clazz.getName()
+                    + " is already present");
+        magicMap.put(magic, clazz);
+        classMap.put(clazz, magic);
+        version++;
+    }
+
+    /**
+     * 运行时注册应用类，通讯双方必须以相同的编号注册
+     * @param magic 类编号，必须大于1024
+     * @param clazz
+     * @throws IllegalArgumentException 编号不大于1024，或者编号、类已经注册
+     */
+    public static void add(short magic, Class clazz) throws IllegalArgumentException
+    {
+        if (magic <= MIN_CUSTOM_MAGIC_NUMBER)
+            throw new IllegalArgumentException("magic number (" + magic + ") needs to be greater than "
+                    + MIN_CUSTOM_MAGIC_NUMBER);
+        register(magic, clazz);
+    }
+
+    /**
+     * 返回编号对应的类，没有注册时返回null
+     */
+    public static Class get(short magic)
+    {
+        return magicMap.get(magic);
+    }
+
+    /**
+     * 返回类的编号，没有注册时返回-1
+     */
+    public static short getMagicNumber(Class clazz)
+    {
+        Short magic = classMap.get(clazz);
+        return magic == null ? -1 : magic.shortValue();
+    }
+
+    /**
+     * 注册表的版本号，每注册一个类加1，供需要同步注册信息的序列化实现判断是否有新注册的类
+     */
+    public static int getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * 返回所有已注册的类，按编号排序
+     */
+    public static SortedMap<Short, Class> getMappings()
+    {
+        return new TreeMap<Short, Class>(magicMap);
+    }
+
+    /**
+     * 创建java序列化输出流，开启注册表时已注册类的类描述只写入编号
+     */
+    public static ObjectOutputStream newObjectOutputStream(OutputStream out) throws IOException
+    {
+        return enable ? new CompactObjectOutputStream(out) : new ObjectOutputStream(out);
+    }
+
+    /**
+     * 创建java序列化输入流，根据流头识别普通流和编号流
+     */
+    public static ObjectInputStream newObjectInputStream(byte[] buffer, int offset, int length) throws IOException
+    {
+        ByteArrayInputStream in = new ByteArrayInputStream(buffer, offset, length);
+        return CompactObjectInputStream.isCompact(buffer, offset, length) ? new CompactObjectInputStream(in)
+                : new ObjectInputStream(in);
+    }
+
+    public static String printMagicMap()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (Iterator<Map.Entry<Short, Class>> it = getMappings().entrySet().iterator(); it.hasNext();)
+        {
+            Map.Entry<Short, Class> entry = it.next();
+            sb.append(entry.getKey()).append(":\t").append(entry.getValue().getName()).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.serializable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.io.StreamCorruptedException;
+
+/**
+ * <p>Title: CompactObjectInputStream.java</p>
+ * <p>Description: 读取CompactObjectOutputStream输出的序列化流，按类编号从ClassRegistry中还原类描述</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:36:40
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class CompactObjectInputStream extends ObjectInputStream
+{
+    public CompactObjectInputStream(InputStream in) throws IOException
+    {
+        super(in);
+    }
+
+    /**
+     * 判断buffer中的数据是否由CompactObjectOutputStream输出
+     */
+    public static boolean isCompact(byte[] buffer, int offset, int length)
+    {
+        return length >= 2 && (short) (((buffer[offset] & 0xff) << 8) | (buffer[offset + 1] & 0xff)) == CompactObjectOutputStream.STREAM_MAGIC;
+    }
+
+    @Override
+    protected void readStreamHeader() throws IOException
+    {
+        short magic = readShort();
+        short version = readShort();
+        if (magic != CompactObjectOutputStream.STREAM_MAGIC || version != CompactObjectOutputStream.STREAM_VERSION)
+            throw new StreamCorruptedException(String.format("invalid compact stream header: %04X%04X", magic, version));
+    }
+
+    @Override
+    protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException
+    {
+        int type = read();
+        if (type < 0)
+            throw new StreamCorruptedException("unexpected end of stream");
+        if (type == CompactObjectOutputStream.TYPE_DESCRIPTOR)
+            return super.readClassDescriptor();
+        short magic = readShort();
+        Class clazz = ClassRegistry.get(magic);
+        if (clazz == null)
+            throw new ClassNotFoundException("Class for magic number " + magic + " cannot be found.");
+        return ObjectStreamClass.lookupAny(clazz);
+    }
+}
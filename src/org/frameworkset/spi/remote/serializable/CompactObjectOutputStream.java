@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.serializable;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+
+/**
+ * <p>Title: CompactObjectOutputStream.java</p>
+ * <p>Description: java序列化输出流，ClassRegistry中已注册类的类描述只写入类编号，
+ * 流头使用独立的魔数以便读取方区分普通的java序列化流
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:35:02
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class CompactObjectOutputStream extends ObjectOutputStream
+{
+    static final short STREAM_MAGIC = (short) 0xBB05;
+
+    static final short STREAM_VERSION = 1;
+
+    static final int TYPE_DESCRIPTOR = 0;
+
+    static final int TYPE_MAGIC = 1;
+
+    public CompactObjectOutputStream(OutputStream out) throws IOException
+    {
+        super(out);
+    }
+
+    @Override
+    protected void writeStreamHeader() throws IOException
+    {
+        writeShort(STREAM_MAGIC);
+        writeShort(STREAM_VERSION);
+    }
+
+    @Override
+    protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException
+    {
+        Class clazz = desc.forClass();
+        short magic = clazz != null ? ClassRegistry.getMagicNumber(clazz) : -1;
+        if (magic < 0)
+        {
+            write(TYPE_DESCRIPTOR);
+            super.writeClassDescriptor(desc);
+        }
+        else
+        {
+            write(TYPE_MAGIC);
+            writeShort(magic);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.serializable;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+
+import com.caucho.hessian.io.Hessian2Input;
+import com.caucho.hessian.io.Hessian2Output;
+import com.caucho.hessian.io.SerializerFactory;
+
+/**
+ * <p>Title: Hessian2Serializer.java</p>
+ * <p>Description: hessian2序列化，所有线程共享同一个SerializerFactory以复用其中缓存的类序列化器，
+ * 每个线程复用自己的Hessian2Output和Hessian2Input实例。
+ * 通讯双方都必须具备的基准序列化算法，尚未完成协商的服务地址使用该算法。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:06:45
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class Hessian2Serializer implements Serializer
+{
+    public static final String NAME = "hessian2";
+
+    static final SerializerFactory serializerFactory = new SerializerFactory();
+
+    private static final ThreadLocal<Hessian2Output> outputs = new ThreadLocal<Hessian2Output>()
+    {
+        protected Hessian2Output initialValue()
+        {
+            Hessian2Output output = new Hessian2Output();
+            output.setSerializerFactory(serializerFactory);
+            return output;
+        }
+    };
+
+    private static final ThreadLocal<Hessian2Input> inputs = new ThreadLocal<Hessian2Input>()
+    {
+        protected Hessian2Input initialValue()
+        {
+            Hessian2Input input = new Hessian2Input();
+            input.setSerializerFactory(serializerFactory);
+            return input;
+        }
+    };
+
+    public byte getId()
+    {
+        return 2;
+    }
+
+    public String getName()
+    {
+        return NAME;
+    }
+
+    public void serialize(Object obj, OutputStream out) throws Exception
+    {
+        Hessian2Output output = outputs.get();
+        output.init(out);
+        try
+        {
+            output.writeObject(obj);
+            output.flush();
+        }
+        finally
+        {
+            output.init(null);
+        }
+    }
+
+    public Object deserialize(byte[] src, int offset, int length) throws Exception
+    {
+        Hessian2Input input = inputs.get();
+        input.init(new ByteArrayInputStream(src, offset, length));
+        try
+        {
+            return input.readObject();
+        }
+        finally
+        {
+            input.init(null);
+        }
+    }
+}
@@ -30,14 +30,30 @@ import com.caucho.hessian.io.HessianInput;
  * @version 1.0
  */
 public class HessianDecoder   implements Decoder{
+	/**
+	 * 每个线程复用HessianInput，所有线程共享同一个SerializerFactory
+	 */
+	private static final ThreadLocal<HessianInput> inputs = new ThreadLocal<HessianInput>(){
+		protected HessianInput initialValue() {
+			HessianInput hi = new HessianInput();
+			hi.setSerializerFactory(Hessian2Serializer.serializerFactory);
+			return hi;
+		}
+	};
 
 	public Object decoder(Object msg) throws Exception {
 		if(msg == null)
 			return null;
 		if(msg instanceof byte[]){
 			ByteArrayInputStream is = new ByteArrayInputStream((byte[])msg);   
-			 HessianInput hi = new HessianInput(is);   
-			 return hi.readObject();   
+			 HessianInput hi = inputs.get();
+			 hi.init(is);
+			 try {
+				 return hi.readObject();   
+			 }
+			 finally {
+				 hi.init(null);
+			 }
 		}
 		else
 			return msg;
@@ -30,13 +30,30 @@ import com.caucho.hessian.io.HessianOutput;
  * @version 1.0
  */
 public class HessionEncoder  implements Encoder{
+	/**
+	 * 每个线程复用HessianOutput，所有线程共享同一个SerializerFactory
+	 */
+	private static final ThreadLocal<HessianOutput> outputs = new ThreadLocal<HessianOutput>(){
+		protected HessianOutput initialValue() {
+			HessianOutput ho = new HessianOutput();
+			ho.setSerializerFactory(Hessian2Serializer.serializerFactory);
+			return ho;
+		}
+	};
 
 	public Object encoder(Object msg) throws Exception {
 		if(msg == null)
 			return null;
 		ByteArrayOutputStream os = new ByteArrayOutputStream();   
-		HessianOutput ho = new HessianOutput(os);   
-		ho.writeObject(msg);   
+		HessianOutput ho = outputs.get();
+		ho.init(os);
+		try {
+			ho.writeObject(msg);   
+			ho.flush();
+		}
+		finally {
+			ho.init(null);
+		}
 		byte[] cs = os.toByteArray();   
 		return cs;
 	}
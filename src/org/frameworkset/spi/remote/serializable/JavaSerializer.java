@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.serializable;
+
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import org.frameworkset.spi.remote.Util;
+
+/**
+ * <p>Title: JavaSerializer.java</p>
+ * <p>Description: java标准序列化，与Util.objectToByteBuffer的格式一致，开启ClassRegistry时已注册类只写入类编号</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:04:10
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class JavaSerializer implements Serializer
+{
+    public static final String NAME = "java";
+
+    public byte getId()
+    {
+        return 1;
+    }
+
+    public String getName()
+    {
+        return NAME;
+    }
+
+    public void serialize(Object obj, OutputStream out) throws Exception
+    {
+        ObjectOutputStream oos = ClassRegistry.newObjectOutputStream(out);
+        oos.writeObject(obj);
+        oos.flush();
+    }
+
+    public Object deserialize(byte[] src, int offset, int length) throws Exception
+    {
+        return Util.objectFromByteBuffer(src, offset, length);
+    }
+}
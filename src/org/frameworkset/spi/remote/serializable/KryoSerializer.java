@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.serializable;
+
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+import org.objenesis.strategy.StdInstantiatorStrategy;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+
+/**
+ * <p>Title: KryoSerializer.java</p>
+ * <p>Description: kryo序列化，不要求预先注册类，每个线程复用自己的Kryo、Output和Input实例，
+ * 异常对象仍然采用java序列化以保留异常栈。ClassRegistry中注册的类按编号注册到kryo，序列化时只写入编号。
+ * kryo包不在classpath中时SerializerFactory忽略该算法，kryo5运行时还依赖minlog、reflectasm和objenesis包，需要一起加入classpath，构建脚本已经声明了这些依赖。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:09:33
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class KryoSerializer implements Serializer
+{
+    public static final String NAME = "kryo";
+
+    private static final byte[] EMPTY = new byte[0];
+
+    /**
+     * ClassRegistry编号在kryo中的偏移量，避开kryo内置类型的注册编号
+     */
+    private static final int REGISTRATION_OFFSET = 100;
+
+    private static final ThreadLocal<KryoHolder> holders = new ThreadLocal<KryoHolder>()
+    {
+        protected KryoHolder initialValue()
+        {
+            return new KryoHolder();
+        }
+    };
+
+    private static class KryoHolder
+    {
+        final Kryo kryo = new Kryo();
+
+        final Output output = new Output(4096, -1);
+
+        final Input input = new Input();
+
+        int registryVersion = -1;
+
+        KryoHolder()
+        {
+            kryo.setRegistrationRequired(false);
+            kryo.setReferences(true);
+            kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+            kryo.addDefaultSerializer(Throwable.class, com.esotericsoftware.kryo.serializers.JavaSerializer.class);
+        }
+
+        /**
+         * 注册ClassRegistry中新增的类，通讯双方的注册编号由ClassRegistry保证一致
+         */
+        Kryo kryo()
+        {
+            int version = ClassRegistry.getVersion();
+            if (version != registryVersion)
+            {
+                for (Iterator<Map.Entry<Short, Class>> it = ClassRegistry.getMappings().entrySet().iterator(); it.hasNext();)
+                {
+                    Map.Entry<Short, Class> entry = it.next();
+                    int id = REGISTRATION_OFFSET + entry.getKey().intValue();
+                    if (kryo.getClassResolver().getRegistration(id) == null)
+                        kryo.register(entry.getValue(), id);
+                }
+                registryVersion = version;
+            }
+            return kryo;
+        }
+    }
+
+    public byte getId()
+    {
+        return 3;
+    }
+
+    public String getName()
+    {
+        return NAME;
+    }
+
+    public void serialize(Object obj, OutputStream out) throws Exception
+    {
+        KryoHolder holder = holders.get();
+        Output output = holder.output;
+        output.setOutputStream(out);
+        try
+        {
+            holder.kryo().writeClassAndObject(output, obj);
+            output.flush();
+        }
+        finally
+        {
+            output.setOutputStream(null);
+        }
+    }
+
+    public Object deserialize(byte[] src, int offset, int length) throws Exception
+    {
+        KryoHolder holder = holders.get();
+        Input input = holder.input;
+        input.setBuffer(src, offset, length);
+        try
+        {
+            return holder.kryo().readClassAndObject(input);
+        }
+        finally
+        {
+            input.setBuffer(EMPTY);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.serializable;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * <p>Title: PooledOutputStream.java</p>
+ * <p>Description: 线程复用的序列化缓冲区，每次使用前保留消息体帧头的空间，
+ * 使用后容量超过上限的缓冲区被丢弃，避免偶发的大消息长期占用内存
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:11:52
+ * @author biaoping.yin
+ * @version 1.0
+ */
+class PooledOutputStream extends ByteArrayOutputStream
+{
+    private final int initialSize;
+
+    private final int maxSize;
+
+    PooledOutputStream(int initialSize, int maxSize)
+    {
+        super(initialSize);
+        this.initialSize = initialSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 清空缓冲区并保留reserved个字节
+     */
+    void begin(int reserved)
+    {
+        reset();
+        for (int i = 0; i < reserved; i++)
+            write(0);
+    }
+
+    byte[] buffer()
+    {
+        return buf;
+    }
+
+    void recycle()
+    {
+        if (buf.length > maxSize)
+            buf = new byte[initialSize];
+        reset();
+    }
+
+    /**
+     * 复用的缓冲区不需要关闭，序列化实现中误关闭时忽略
+     */
+    public void close()
+    {
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.serializable;
+
+import java.io.OutputStream;
+
+/**
+ * <p>Title: Serializer.java</p>
+ * <p>Description: 消息体序列化算法，实现类必须是线程安全的，通过SerializerFactory注册</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:02:27
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public interface Serializer
+{
+    /**
+     * 序列化算法编号，同一进程内唯一
+     * @return
+     */
+    public byte getId();
+
+    /**
+     * 序列化算法名称，用于配置、协商以及记录在rpc.serializer消息头中
+     * @return
+     */
+    public String getName();
+
+    /**
+     * 将对象序列化到out中，out为线程复用的缓冲区，实现类不能关闭或者缓存out
+     */
+    public void serialize(Object obj, OutputStream out) throws Exception;
+
+    /**
+     * 反序列化src中从offset开始的length个字节
+     */
+    public Object deserialize(byte[] src, int offset, int length) throws Exception;
+}
@@ -0,0 +1,335 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.serializable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.frameworkset.spi.BaseApplicationContext;
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.assemble.Pro;
+import org.frameworkset.spi.remote.Header;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.remote.RPCMessage;
+import org.frameworkset.spi.remote.RPCMethodCall;
+import org.frameworkset.spi.remote.RemoteServiceID;
+import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.remote.compress.Compressor;
+import org.frameworkset.spi.remote.compress.CompressorFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: SerializerFactory.java</p>
+ * <p>Description: 消息体序列化管理，通过rpc.serializer.enable=true开启，开启后在传输层编码之前用注册的序列化算法
+ * 把消息体序列化为字节数组，序列化结果写入线程复用的缓冲区，格式与压缩消息体相同：
+ * 压缩算法编号(1字节) | 压缩前长度(4字节) | 序列化数据，同时开启rpc.compress.enable时按压缩规则压缩序列化数据。
+ * 使用的序列化算法名称记录在rpc.serializer消息头中，接收方据此选择反序列化算法。
+ *
+ * 内置java和hessian2算法，kryo包在classpath中时注册kryo算法，rpc.serializer.extensions可以指定逗号分隔的其他实现类。
+ * 请求消息通过rpc.serializer.accept消息头声明本端优先使用的算法（rpc.serializer.codec，默认kryo），
+ * 服务端支持该算法时用它序列化响应，否则使用hessian2，客户端按响应实际使用的算法记录每个服务地址协商好的算法，
+ * 尚未协商的地址使用hessian2算法。也可以在组件配置中通过rpc.serializer属性为服务指定算法，例如：
+ * <pre>
+ * &lt;property name="user.service" enablerpc="true" rpc.serializer="java" class="com.demo.UserServiceImpl"/&gt;
+ * </pre>
+ * 服务指定的算法优先于协商结果，服务端必须支持该算法。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:15:08
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class SerializerFactory
+{
+    private static Logger log = LoggerFactory.getLogger(SerializerFactory.class);
+
+    public static final String SERIALIZER_HEADER = "rpc.serializer";
+
+    public static final String ACCEPT_HEADER = "rpc.serializer.accept";
+
+    public static final String ATTR_SERIALIZER = "rpc.serializer";
+
+    public static final boolean enable = BaseSPIManager2.getBooleanProperty("rpc.serializer.enable", false);
+
+    private static final int bufferSize = BaseSPIManager2.getIntProperty("rpc.serializer.buffer.size", 4096);
+
+    private static final int maxBufferSize = BaseSPIManager2.getIntProperty("rpc.serializer.buffer.max", 1024 * 1024);
+
+    private static final Serializer[] serializers = new Serializer[16];
+
+    private static final Map<String, Serializer> namedSerializers = new ConcurrentHashMap<String, Serializer>();
+
+    private static final ConcurrentMap<RPCAddress, Serializer> negotiated = new ConcurrentHashMap<RPCAddress, Serializer>();
+
+    /**
+     * 服务指定的序列化算法，没有指定的服务记录为NONE
+     */
+    private static final ConcurrentMap<String, Object> services = new ConcurrentHashMap<String, Object>();
+
+    private static final Object NONE = new Object();
+
+    private static final Serializer hessian2 = new Hessian2Serializer();
+
+    private static Serializer preferred;
+
+    private static final ThreadLocal<PooledOutputStream> buffers = new ThreadLocal<PooledOutputStream>()
+    {
+        protected PooledOutputStream initialValue()
+        {
+            return new PooledOutputStream(bufferSize, maxBufferSize);
+        }
+    };
+
+    static
+    {
+        register(new JavaSerializer());
+        register(hessian2);
+        registerOptional("org.frameworkset.spi.remote.serializable.KryoSerializer");
+        String extensions = Util.defaultContext.getProperty("rpc.serializer.extensions");
+        if (extensions != null)
+        {
+            String[] classNames = extensions.split(",");
+            for (int i = 0; i < classNames.length; i++)
+            {
+                if (!classNames[i].trim().equals(""))
+                    registerOptional(classNames[i].trim());
+            }
+        }
+        String codec = Util.defaultContext.getProperty("rpc.serializer.codec", KryoSerializer.NAME);
+        preferred = namedSerializers.get(codec);
+        if (preferred == null)
+        {
+            if (enable)
+                log.warn("serializer " + codec + " is not available,use " + Hessian2Serializer.NAME + " instead.");
+            preferred = hessian2;
+        }
+    }
+
+    public static void register(Serializer serializer)
+    {
+        serializers[serializer.getId()] = serializer;
+        namedSerializers.put(serializer.getName(), serializer);
+    }
+
+    /**
+     * 第三方序列化包不在classpath中时忽略对应的序列化算法
+     * @param className
+     */
+    private static void registerOptional(String className)
+    {
+        try
+        {
+            Serializer serializer = (Serializer) Class.forName(className).newInstance();
+            serializer.serialize("bboss", new ByteArrayOutputStream());
+            register(serializer);
+        }
+        catch (Throwable e)
+        {
+            if (log.isDebugEnabled())
+                log.debug("serializer " + className + " is not available:" + e);
+        }
+    }
+
+    public static Serializer getSerializer(String name)
+    {
+        return name == null ? null : namedSerializers.get(name);
+    }
+
+    public static Serializer getSerializer(byte id)
+    {
+        return id > 0 && id < serializers.length ? serializers[id] : null;
+    }
+
+    /**
+     * 获取通讯双方都支持的基准序列化算法
+     * @return
+     */
+    public static Serializer getDefaultSerializer()
+    {
+        return hessian2;
+    }
+
+    /**
+     * 获取请求消息使用的序列化算法，优先使用服务指定的算法，其次使用与服务地址协商好的算法
+     * @param msg
+     * @param address 多播时为null
+     * @return
+     */
+    public static Serializer getSerializer(RPCMessage msg, RPCAddress address)
+    {
+        Serializer serializer = getServiceSerializer(msg);
+        if (serializer != null)
+            return serializer;
+        serializer = address == null ? null : negotiated.get(address);
+        return serializer != null ? serializer : hessian2;
+    }
+
+    private static Serializer getServiceSerializer(RPCMessage msg)
+    {
+        Object data = msg.getData();
+        if (!(data instanceof RPCMethodCall))
+            return null;
+        Object[] args = ((RPCMethodCall) data).getArgs();
+        if (args == null || args.length == 0 || !(args[0] instanceof RemoteServiceID))
+            return null;
+        RemoteServiceID serviceID = (RemoteServiceID) args[0];
+        String key = serviceID.getApplicationContext() + "|" + serviceID.getService();
+        Object serializer = services.get(key);
+        if (serializer == null)
+        {
+            serializer = NONE;
+            try
+            {
+                BaseApplicationContext context = BaseApplicationContext.getBaseApplicationContext(
+                        serviceID.getApplicationContext(), serviceID.getContainerType());
+                Pro pro = context != null ? context.getProBean(serviceID.getService()) : null;
+                String name = pro != null ? pro.getStringExtendAttribute(ATTR_SERIALIZER) : null;
+                if (name != null && !name.trim().equals(""))
+                {
+                    Serializer configured = getSerializer(name.trim());
+                    if (configured != null)
+                        serializer = configured;
+                    else
+                        log.warn("serializer " + name + " of service[" + serviceID.getService() + "] is not available,ignore it.");
+                }
+            }
+            catch (Throwable e)
+            {
+                log.debug("Load serializer config of service[" + serviceID.getService() + "] failed:" + e.getMessage());
+            }
+            services.putIfAbsent(key, serializer);
+        }
+        return serializer == NONE ? null : (Serializer) serializer;
+    }
+
+    /**
+     * 获取序列化请求方响应消息的算法，请求方没有开启序列化时返回null
+     * @param req
+     * @return
+     */
+    public static Serializer getReplySerializer(RPCMessage req)
+    {
+        Header accept = req.getHeader(ACCEPT_HEADER);
+        if (accept == null)
+            return null;
+        Serializer serializer = getSerializer((String) accept.getValue());
+        return serializer != null ? serializer : hessian2;
+    }
+
+    /**
+     * 在消息中声明本端优先使用的序列化算法
+     * @param msg
+     */
+    public static void announce(RPCMessage msg)
+    {
+        msg.putHeader(ACCEPT_HEADER, new Header(ACCEPT_HEADER, preferred.getName()));
+    }
+
+    /**
+     * 根据响应消息实际使用的序列化算法记录协商结果
+     * @param address
+     * @param rsp
+     */
+    public static void negotiate(RPCAddress address, RPCMessage rsp)
+    {
+        if (address == null)
+            return;
+        Header used = rsp.getHeader(SERIALIZER_HEADER);
+        if (used == null)
+            return;
+        Serializer serializer = getSerializer((String) used.getValue());
+        negotiated.put(address, serializer != null ? serializer : hessian2);
+    }
+
+    /**
+     * 将对象消息体序列化，并在序列化数据超过压缩阈值时按需压缩，消息体不能被序列化时保持原样由传输层处理
+     * @param msg
+     * @param serializer
+     * @param compressor 为null时不压缩
+     * @return 消息体是否被转换为序列化格式
+     */
+    public static boolean serializePayload(RPCMessage msg, Serializer serializer, Compressor compressor) throws Exception
+    {
+        if (msg.getResultSerial() != RPCMessage.OOB || msg.getData() == null)
+            return false;
+        PooledOutputStream out = buffers.get();
+        try
+        {
+            out.begin(CompressorFactory.FRAME_HEADER);
+            try
+            {
+                serializer.serialize(msg.getData(), out);
+            }
+            catch (Exception e)
+            {
+                if (log.isDebugEnabled())
+                    log.debug("payload is not serializable by " + serializer.getName() + ",skip serialize:" + e);
+                return false;
+            }
+            int length = out.size() - CompressorFactory.FRAME_HEADER;
+            byte[] frame = null;
+            byte id = CompressorFactory.NONE;
+            if (compressor != null && length >= CompressorFactory.threshold)
+            {
+                byte[] raw = new byte[length];
+                System.arraycopy(out.buffer(), CompressorFactory.FRAME_HEADER, raw, 0, length);
+                byte[] compressed = compressor.compress(raw);
+                if (compressed.length < length)
+                {
+                    frame = new byte[CompressorFactory.FRAME_HEADER + compressed.length];
+                    System.arraycopy(compressed, 0, frame, CompressorFactory.FRAME_HEADER, compressed.length);
+                    id = compressor.getId();
+                }
+            }
+            if (frame == null)
+                frame = out.toByteArray();
+            CompressorFactory.writeFrameHeader(frame, id, length);
+            msg.setData(frame);
+            msg.setResultSerial(RPCMessage.SERIALIZED);
+            msg.putHeader(SERIALIZER_HEADER, new Header(SERIALIZER_HEADER, serializer.getName()));
+            return true;
+        }
+        finally
+        {
+            out.recycle();
+        }
+    }
+
+    /**
+     * 按消息头记录的序列化算法还原serializePayload生成的消息体
+     * @param msg
+     * @return
+     */
+    public static Object deserializePayload(RPCMessage msg) throws Exception
+    {
+        Header used = msg.getHeader(SERIALIZER_HEADER);
+        Serializer serializer = used != null ? getSerializer((String) used.getValue()) : null;
+        if (serializer == null)
+            throw new IOException("unsupported serializer " + (used != null ? used.getValue() : null) + ",please check the classpath.");
+        byte[] frame = (byte[]) msg.getData();
+        int length = CompressorFactory.readFrameLength(frame, CompressorFactory.maxLength);
+        if (frame[0] == CompressorFactory.NONE)
+            return serializer.deserialize(frame, CompressorFactory.FRAME_HEADER, length);
+        byte[] raw = CompressorFactory.decompressFrame(frame, length);
+        return serializer.deserialize(raw, 0, raw.length);
+    }
+}
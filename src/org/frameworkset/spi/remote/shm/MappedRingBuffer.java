@@ -0,0 +1,440 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.shm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Title: MappedRingBuffer.java</p>
+ * <p>Description: 基于内存映射文件的多生产者单消费者环形缓冲区，用于同一主机上不同jvm之间传递消息。
+ * 生产者通过对共享内存中的tail做CAS占用写入区间，写完消息体后以有序写的方式发布记录长度；
+ * 唯一的消费者按照head顺序读取已发布的记录，读取后清零记录区域并推进head，整个过程不需要加锁和系统调用。
+ * 文件布局为：128字节的控制区（魔数、容量、状态、tail、head，tail和head各占一个缓存行）+ 容量大小的数据区，
+ * 每条记录由8字节记录头（记录长度、记录类型）和消息体组成并按8字节对齐，
+ * 记录跨越数据区末尾时先写入一条填充记录再从数据区头部开始写。
+ * 消费者创建（或者复用）文件并初始化控制区，生产者只映射已经存在的文件，
+ * 消费者重启时复用原来的文件而不是删除重建，已经映射该文件的生产者不需要重新映射。
+ * 对映射内存的原子访问统一通过UnsafeAccess完成。
+ * 文件所在目录不存在时以0700权限创建，已经存在的目录属于其他用户、是符号链接或者组和其他用户可写时拒绝使用；
+ * 缓冲区文件以0600权限创建，并且不跟随符号链接打开，防止同一主机上的其他用户替换或者窥探缓冲区内容。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午11:31:42
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class MappedRingBuffer
+{
+    private static final int MAGIC = 0x62425348;
+
+    private static final int MAGIC_OFFSET = 0;
+
+    private static final int CAPACITY_OFFSET = 4;
+
+    private static final int STATE_OFFSET = 8;
+
+    private static final int TAIL_OFFSET = 64;
+
+    private static final int HEAD_OFFSET = 96;
+
+    public static final int CONTROL_LENGTH = 128;
+
+    public static final int RECORD_HEADER_LENGTH = 8;
+
+    private static final int ALIGNMENT = 8;
+
+    private static final int PADDING_TYPE = -1;
+
+    private static final int STATE_CLOSED = 0;
+
+    private static final int STATE_OPEN = 1;
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    /**
+     * 已经通过检查的目录，目录属于当前用户并且其他用户不可写，其他用户无法再替换其中的文件
+     */
+    private static final Set<Path> checkedDirectories = Collections.newSetFromMap(new ConcurrentHashMap<Path, Boolean>());
+
+    private final File file;
+
+    /**
+     * 保持映射区的引用，防止映射内存被回收
+     */
+    private final MappedByteBuffer buffer;
+
+    private final long address;
+
+    private final long data;
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final int maxMessageLength;
+
+    private MappedRingBuffer(File file, MappedByteBuffer buffer, int capacity)
+    {
+        this.file = file;
+        this.buffer = buffer;
+        this.address = UnsafeAccess.address(buffer);
+        this.data = address + CONTROL_LENGTH;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.maxMessageLength = (capacity >> 2) - RECORD_HEADER_LENGTH;
+    }
+
+    /**
+     * 消费者创建环形缓冲区，文件已经存在时复用原来的文件并清空其中的内容
+     * 
+     * @param file
+     * @param capacity 数据区大小，必须为2的幂
+     * @return
+     * @throws IOException
+     */
+    public static MappedRingBuffer create(File file, int capacity) throws IOException
+    {
+        if (capacity < 1024 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("ring buffer capacity must be a power of 2 and not less than 1024:" + capacity);
+        MappedByteBuffer buffer = map(file, CONTROL_LENGTH + capacity, true);
+        MappedRingBuffer ring = new MappedRingBuffer(file, buffer, capacity);
+        ring.reset();
+        return ring;
+    }
+
+    /**
+     * 生产者映射消费者已经创建的环形缓冲区
+     * 
+     * @param file
+     * @return
+     * @throws IOException 文件不存在或者不是合法的环形缓冲区文件
+     */
+    public static MappedRingBuffer open(File file) throws IOException
+    {
+        MappedByteBuffer buffer = map(file, -1, false);
+        long length = buffer.capacity();
+        long address = UnsafeAccess.address(buffer);
+        if (UnsafeAccess.getIntVolatile(address + MAGIC_OFFSET) != MAGIC)
+            throw new IOException(file + " is not a ring buffer file.");
+        int capacity = UnsafeAccess.getIntVolatile(address + CAPACITY_OFFSET);
+        if (capacity + CONTROL_LENGTH != length)
+            throw new IOException("ring buffer file " + file + " is being resized.");
+        return new MappedRingBuffer(file, buffer, capacity);
+    }
+
+    /**
+     * 映射缓冲区文件，文件是符号链接时打开失败
+     * 
+     * @param length 文件长度，小于0时按照文件的实际长度映射
+     * @param create 文件不存在时是否以0600权限创建
+     */
+    private static MappedByteBuffer map(File file, long length, boolean create) throws IOException
+    {
+        Path path = file.toPath().toAbsolutePath();
+        Path parent = path.getParent();
+        if (parent != null)
+            checkDirectory(parent);
+        boolean posix = isPosix(path);
+        FileChannel channel;
+        try
+        {
+            if (create)
+            {
+                Set<OpenOption> options = options(StandardOpenOption.READ, StandardOpenOption.WRITE,
+                        StandardOpenOption.CREATE, LinkOption.NOFOLLOW_LINKS);
+                channel = posix ? FileChannel.open(path, options, PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE))
+                        : FileChannel.open(path, options, new FileAttribute<?>[0]);
+            }
+            else
+            {
+                channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS);
+            }
+        }
+        catch (NoSuchFileException e)
+        {
+            throw new IOException("ring buffer file " + file + " does not exist.");
+        }
+        try
+        {
+            if (length < 0)
+            {
+                length = channel.size();
+                if (length <= CONTROL_LENGTH)
+                    throw new IOException("ring buffer file " + file + " does not exist.");
+            }
+            else if (channel.size() > length)
+            {
+                channel.truncate(length);
+            }
+            else if (channel.size() < length)
+            {
+                channel.write(ByteBuffer.wrap(new byte[1]), length - 1);
+            }
+            //映射建立后关闭文件不影响映射区的使用
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+        }
+        finally
+        {
+            channel.close();
+        }
+    }
+
+    private static Set<OpenOption> options(OpenOption... options)
+    {
+        Set<OpenOption> set = new HashSet<OpenOption>();
+        Collections.addAll(set, options);
+        return set;
+    }
+
+    private static boolean isPosix(Path path)
+    {
+        return path.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    /**
+     * 检查缓冲区文件所在的目录：不存在时以0700权限创建；必须是目录而不是符号链接，必须属于当前用户，
+     * 并且组和其他用户不可写。已经存在的目录不修改权限，以免误改/tmp之类的公共目录。
+     * 不支持posix属性的文件系统只检查是否为目录
+     * 
+     * @throws IOException 目录不合法或者属于其他用户
+     */
+    static void checkDirectory(Path dir) throws IOException
+    {
+        if (checkedDirectories.contains(dir))
+            return;
+        boolean posix = isPosix(dir);
+        if (!Files.exists(dir, LinkOption.NOFOLLOW_LINKS))
+        {
+            Path parent = dir.getParent();
+            if (parent != null)
+                Files.createDirectories(parent);
+            try
+            {
+                if (posix)
+                    Files.createDirectory(dir, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+                else
+                    Files.createDirectory(dir);
+            }
+            catch (FileAlreadyExistsException e)
+            {
+                //其他进程同时创建了目录，继续检查
+            }
+        }
+        if (!Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS))
+            throw new IOException("ring buffer directory " + dir + " is not a directory or is a symbolic link.");
+        if (posix)
+        {
+            PosixFileAttributeView view = Files.getFileAttributeView(dir, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+            UserPrincipal owner = view.getOwner();
+            UserPrincipal current = currentUser(dir);
+            if (!owner.equals(current))
+                throw new IOException("ring buffer directory " + dir + " is owned by " + owner.getName()
+                        + ", not by current user " + current.getName() + ".");
+            Set<PosixFilePermission> permissions = view.readAttributes().permissions();
+            if (permissions.contains(PosixFilePermission.GROUP_WRITE) || permissions.contains(PosixFilePermission.OTHERS_WRITE))
+                throw new IOException("ring buffer directory " + dir + " is writable by group or others("
+                        + PosixFilePermissions.toString(permissions) + "), change it to 0700.");
+        }
+        checkedDirectories.add(dir);
+    }
+
+    /**
+     * 以在目录中新建的临时文件的属主作为当前用户，不依赖用户名查找（容器中可能没有对应的用户记录）；
+     * 无法在目录中创建文件时目录显然不属于当前用户
+     */
+    private static UserPrincipal currentUser(Path dir) throws IOException
+    {
+        Path probe = Files.createTempFile(dir, ".owner", null);
+        try
+        {
+            return Files.getOwner(probe, LinkOption.NOFOLLOW_LINKS);
+        }
+        finally
+        {
+            Files.deleteIfExists(probe);
+        }
+    }
+
+    private void reset()
+    {
+        UnsafeAccess.putIntVolatile(address + STATE_OFFSET, STATE_CLOSED);
+        UnsafeAccess.setMemory(data, capacity, (byte) 0);
+        UnsafeAccess.putLongVolatile(address + HEAD_OFFSET, 0L);
+        UnsafeAccess.putLongVolatile(address + TAIL_OFFSET, 0L);
+        UnsafeAccess.putIntVolatile(address + CAPACITY_OFFSET, capacity);
+        UnsafeAccess.putIntVolatile(address + MAGIC_OFFSET, MAGIC);
+        UnsafeAccess.putIntVolatile(address + STATE_OFFSET, STATE_OPEN);
+    }
+
+    private static int align(int length)
+    {
+        return (length + ALIGNMENT - 1) & ~(ALIGNMENT - 1);
+    }
+
+    /**
+     * 写入一条消息，缓冲区剩余空间不足时立即返回false，由调用方决定等待还是放弃
+     * 
+     * @param type 消息类型，必须大于等于0
+     * @param message
+     * @param offset
+     * @param length
+     * @return
+     */
+    public boolean offer(int type, byte[] message, int offset, int length)
+    {
+        if (length > maxMessageLength)
+            throw new IllegalArgumentException("message length " + length + " exceeds max message length " + maxMessageLength
+                    + " of ring buffer " + file);
+        int recordLength = length + RECORD_HEADER_LENGTH;
+        int required = align(recordLength);
+        long tail;
+        int padding;
+        int index;
+        do
+        {
+            long head = UnsafeAccess.getLongVolatile(address + HEAD_OFFSET);
+            tail = UnsafeAccess.getLongVolatile(address + TAIL_OFFSET);
+            int available = capacity - (int) (tail - head);
+            if (required > available)
+                return false;
+            index = (int) tail & mask;
+            int toEnd = capacity - index;
+            padding = 0;
+            if (required > toEnd)
+            {
+                //记录不能跨越数据区末尾，剩余部分用填充记录占用
+                if (required + toEnd > available)
+                    return false;
+                padding = toEnd;
+            }
+        }
+        while (!UnsafeAccess.compareAndSwapLong(address + TAIL_OFFSET, tail, tail + padding + required));
+        if (padding != 0)
+        {
+            UnsafeAccess.putInt(data + index + 4, PADDING_TYPE);
+            UnsafeAccess.putOrderedInt(data + index, padding);
+            index = 0;
+        }
+        long record = data + index;
+        UnsafeAccess.copyFromArray(message, offset, record + RECORD_HEADER_LENGTH, length);
+        UnsafeAccess.putInt(record + 4, type);
+        //最后发布记录长度，消费者看到长度时消息体已经完整写入
+        UnsafeAccess.putOrderedInt(record, recordLength);
+        return true;
+    }
+
+    public boolean offer(int type, byte[] message)
+    {
+        return offer(type, message, 0, message.length);
+    }
+
+    /**
+     * 读取一条消息交给handler处理，没有已发布的消息时返回false，只能由唯一的消费者线程调用
+     * 
+     * @param handler 接收消息类型和消息体
+     * @return
+     */
+    public boolean poll(MessageHandler handler) throws Exception
+    {
+        long head = UnsafeAccess.getLongVolatile(address + HEAD_OFFSET);
+        for (;;)
+        {
+            int index = (int) head & mask;
+            long record = data + index;
+            int recordLength = UnsafeAccess.getIntVolatile(record);
+            if (recordLength <= 0)
+                return false;
+            int type = UnsafeAccess.getInt(record + 4);
+            int aligned = align(recordLength);
+            byte[] message = null;
+            if (type != PADDING_TYPE)
+            {
+                message = new byte[recordLength - RECORD_HEADER_LENGTH];
+                UnsafeAccess.copyToArray(record + RECORD_HEADER_LENGTH, message, 0, message.length);
+            }
+            //清零已读区域，保证下一轮写入前记录长度为0
+            UnsafeAccess.setMemory(record, aligned, (byte) 0);
+            head += aligned;
+            UnsafeAccess.putOrderedLong(address + HEAD_OFFSET, head);
+            if (message != null)
+            {
+                handler.onMessage(type, message);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 消费者关闭缓冲区，生产者写入前检测到关闭状态后将快速失败
+     */
+    public void close()
+    {
+        UnsafeAccess.putIntVolatile(address + STATE_OFFSET, STATE_CLOSED);
+    }
+
+    /**
+     * 消费者是否处于打开状态，并且没有以不同的容量重建缓冲区
+     */
+    public boolean isOpen()
+    {
+        return UnsafeAccess.getIntVolatile(address + STATE_OFFSET) == STATE_OPEN
+                && UnsafeAccess.getIntVolatile(address + CAPACITY_OFFSET) == capacity;
+    }
+
+    public int getCapacity()
+    {
+        return capacity;
+    }
+
+    public int getMaxMessageLength()
+    {
+        return maxMessageLength;
+    }
+
+    public File getFile()
+    {
+        return file;
+    }
+
+    public interface MessageHandler
+    {
+        void onMessage(int type, byte[] message) throws Exception;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.shm;
+
+import org.frameworkset.spi.remote.BaseFutureCall;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.remote.RPCIOHandler;
+import org.frameworkset.spi.remote.RPCMessage;
+
+/**
+ * <p>Title: ShmFutureCall.java</p>
+ * <p>Description: 将请求写入目标服务端的共享内存请求队列，响应由客户端的响应队列消费线程异步接收</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午11:46:02
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ShmFutureCall extends BaseFutureCall {
+
+    public ShmFutureCall(RPCMessage srcmsg, RPCAddress address, RPCIOHandler handler)
+    {
+        super(srcmsg, address, handler);
+    }
+
+	@Override
+	protected RPCMessage _call() throws Exception {
+		((ShmIOHandler)handler).write(srcmsg);
+        return null;
+	}
+
+}
@@ -0,0 +1,408 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.shm;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.LockSupport;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.assemble.ProMap;
+import org.frameworkset.spi.remote.BaseFutureCall;
+import org.frameworkset.spi.remote.BaseRPCIOHandler;
+import org.frameworkset.spi.remote.Header;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.remote.RPCMessage;
+import org.frameworkset.spi.remote.RemoteException;
+import org.frameworkset.spi.remote.RequestHandler;
+import org.frameworkset.spi.remote.Target;
+import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.remote.metrics.CallTimer;
+import org.frameworkset.spi.remote.metrics.RPCMetrics;
+import org.frameworkset.thread.ThreadPoolExecutor;
+import org.frameworkset.thread.ThreadPoolManagerFactory;
+
+/**
+ * <p>Title: ShmIOHandler.java</p>
+ * <p>Description: 同一主机上jvm之间基于共享内存环形缓冲区的请求和响应处理类。
+ * 每个服务端在共享目录下拥有一个请求队列文件server-端口.ring，本机所有客户端进程并发写入；
+ * 每个客户端进程拥有一个响应队列文件client-客户端标识.ring，所有服务端并发写入响应，
+ * 客户端标识是随机数而不是进程号，共享/dev/shm的不同容器中的进程号可能相同。
+ * 消息与netty协议一样先经过Util.getEncoder()编码，然后以字节形式写入环形缓冲区。
+ * 相关参数在rpc.protocol.shm.params中配置：
+ * shm.dir 共享目录，默认为java.io.tmpdir/bboss-rpc-shm，建议配置到/dev/shm等内存文件系统；
+ * 目录不存在时以0700权限创建，已经存在的目录必须属于当前用户并且组和其他用户不可写，不能是符号链接，
+ * 因此需要互相通信的服务端和客户端必须以同一用户运行
+ * shm.request.capacity 服务端请求队列大小，默认8M，必须为2的幂
+ * shm.response.capacity 客户端响应队列大小，默认8M，必须为2的幂
+ * shm.offer.timeout 队列已满时等待可用空间的最长时间，默认3000毫秒
+ * shm.idle.spins 消费线程空闲时自旋的次数，默认1000
+ * shm.idle.park 消费线程空闲时每次休眠的时间，默认50微秒
+ * shm.threadpool 服务端处理请求的线程池配置名称，默认rpc.shm.threadpool，服务端停止时关闭
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午11:52:18
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ShmIOHandler extends BaseRPCIOHandler
+{
+    static final int TYPE_STRING = 1;
+
+    static final int TYPE_OBJECT = 2;
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private final String threadpoolName;
+
+    private volatile ThreadPoolExecutor executor;
+
+    private final File dir;
+
+    private final int requestCapacity;
+
+    private final int responseCapacity;
+
+    private final long offerTimeout;
+
+    private final int idleSpins;
+
+    private final long idleParkNanos;
+
+    private final int clientId;
+
+    /**
+     * 已经映射的服务端请求队列，key为服务端端口
+     */
+    private final ConcurrentMap<Integer, MappedRingBuffer> requestRings = new ConcurrentHashMap<Integer, MappedRingBuffer>();
+
+    /**
+     * 已经映射的客户端响应队列，key为客户端标识
+     */
+    private final ConcurrentMap<Integer, MappedRingBuffer> responseRings = new ConcurrentHashMap<Integer, MappedRingBuffer>();
+
+    private volatile ShmReceiver responseReceiver;
+
+    private final MappedRingBuffer.MessageHandler requestHandler = new MappedRingBuffer.MessageHandler()
+    {
+        public void onMessage(int type, byte[] message)
+        {
+            requestReceived(type, message);
+        }
+    };
+
+    private final MappedRingBuffer.MessageHandler responseHandler = new MappedRingBuffer.MessageHandler()
+    {
+        public void onMessage(int type, byte[] message) throws Exception
+        {
+            messageReceived(decode(type, message));
+        }
+    };
+
+    public ShmIOHandler(String name, RequestHandler handler)
+    {
+        super(name, handler, null);
+        ProMap params = BaseSPIManager2.getMapProperty("rpc.protocol.shm.params");
+        String path = params != null ? params.getString("shm.dir") : null;
+        this.dir = new File(path != null ? path : new File(System.getProperty("java.io.tmpdir"), "bboss-rpc-shm").getPath());
+        this.requestCapacity = params != null ? params.getInt("shm.request.capacity", 8 * 1024 * 1024) : 8 * 1024 * 1024;
+        this.responseCapacity = params != null ? params.getInt("shm.response.capacity", 8 * 1024 * 1024) : 8 * 1024 * 1024;
+        this.offerTimeout = params != null ? params.getInt("shm.offer.timeout", 3000) : 3000;
+        this.idleSpins = params != null ? params.getInt("shm.idle.spins", 1000) : 1000;
+        this.idleParkNanos = (params != null ? params.getInt("shm.idle.park", 50) : 50) * 1000L;
+        this.threadpoolName = params != null ? params.getString("shm.threadpool", "rpc.shm.threadpool") : "rpc.shm.threadpool";
+        this.clientId = buildClientId();
+        this.src_address = new RPCAddress("127.0.0.1", clientId, null, Target.BROADCAST_TYPE_SHM);
+    }
+
+    /**
+     * 以随机数作为客户端标识，跳过共享目录中已经存在响应队列文件的标识。
+     * 不使用进程号，共享/dev/shm的不同容器中的进程号可能相同，会导致两个客户端消费同一个响应队列
+     */
+    private int buildClientId()
+    {
+        SecureRandom random = new SecureRandom();
+        int id;
+        do
+        {
+            id = random.nextInt(Integer.MAX_VALUE - 1) + 1;
+        }
+        while (getResponseFile(id).exists());
+        return id;
+    }
+
+    /**
+     * 进程号，只用于线程名称等诊断信息
+     */
+    private static String getProcessName()
+    {
+        return ManagementFactory.getRuntimeMXBean().getName();
+    }
+
+    File getRequestFile(int port)
+    {
+        return new File(dir, "server-" + port + ".ring");
+    }
+
+    private File getResponseFile(int clientId)
+    {
+        return new File(dir, "client-" + clientId + ".ring");
+    }
+
+    int getRequestCapacity()
+    {
+        return requestCapacity;
+    }
+
+    MappedRingBuffer.MessageHandler getRequestHandler()
+    {
+        return requestHandler;
+    }
+
+    /**
+     * 获取服务端处理请求的线程池，服务端停止后再次启动时重新创建
+     */
+    ThreadPoolExecutor getExecutor()
+    {
+        if (executor != null)
+            return executor;
+        synchronized (this)
+        {
+            if (executor == null)
+                executor = ThreadPoolManagerFactory.getThreadPoolExecutor(threadpoolName);
+            return executor;
+        }
+    }
+
+    /**
+     * 服务端停止时关闭请求处理线程池
+     */
+    void shutdownExecutor()
+    {
+        synchronized (this)
+        {
+            if (executor == null)
+                return;
+            executor = null;
+            ThreadPoolManagerFactory.shutdownThreadPoolExecutor(threadpoolName);
+        }
+    }
+
+    ShmReceiver buildReceiver(MappedRingBuffer ring, MappedRingBuffer.MessageHandler handler)
+    {
+        return new ShmReceiver(ring, handler, idleSpins, idleParkNanos);
+    }
+
+    /**
+     * 第一次发送请求时创建本进程的响应队列并启动消费线程
+     */
+    private void startResponseReceiver() throws Exception
+    {
+        if (responseReceiver != null)
+            return;
+        synchronized (this)
+        {
+            if (responseReceiver != null)
+                return;
+            File file = getResponseFile(clientId);
+            MappedRingBuffer ring = MappedRingBuffer.create(file, responseCapacity);
+            file.deleteOnExit();
+            ShmReceiver receiver = buildReceiver(ring, responseHandler);
+            receiver.start("shm-response-receiver-" + clientId + "-" + getProcessName());
+            responseReceiver = receiver;
+        }
+    }
+
+    /**
+     * 获取已经映射的队列，消费者关闭或者以不同的容量重建后重新映射
+     */
+    private static MappedRingBuffer getRing(ConcurrentMap<Integer, MappedRingBuffer> rings, Integer key, File file)
+            throws Exception
+    {
+        MappedRingBuffer ring = rings.get(key);
+        if (ring != null && ring.isOpen())
+            return ring;
+        synchronized (rings)
+        {
+            ring = rings.get(key);
+            if (ring != null && ring.isOpen())
+                return ring;
+            ring = MappedRingBuffer.open(file);
+            rings.put(key, ring);
+            return ring;
+        }
+    }
+
+    private byte[] encode(RPCMessage message, int[] type) throws Exception
+    {
+        Object msg = Util.getEncoder().encoder(message);
+        if (msg instanceof String)
+        {
+            type[0] = TYPE_STRING;
+            return ((String) msg).getBytes(UTF8);
+        }
+        type[0] = TYPE_OBJECT;
+        return Util.objectToByteBuffer(msg);
+    }
+
+    private RPCMessage decode(int type, byte[] message) throws Exception
+    {
+        Object msg = type == TYPE_STRING ? new String(message, UTF8) : Util.objectFromByteBuffer(message, 0, message.length);
+        return (RPCMessage) Util.getDecoder().decoder(msg);
+    }
+
+    /**
+     * 队列已满时短暂等待消费者腾出空间，超过shm.offer.timeout后放弃
+     */
+    private void offer(MappedRingBuffer ring, int type, byte[] data) throws Exception
+    {
+        if (ring.offer(type, data))
+            return;
+        long deadline = System.currentTimeMillis() + offerTimeout;
+        int tries = 0;
+        while (!ring.offer(type, data))
+        {
+            if (!ring.isOpen())
+                throw new ShmRunException("shared memory ring " + ring.getFile() + " is closed.");
+            if (System.currentTimeMillis() > deadline)
+                throw new ShmRunException("shared memory ring " + ring.getFile() + " is full.");
+            if (++tries < 100)
+                Thread.yield();
+            else
+                LockSupport.parkNanos(idleParkNanos);
+        }
+    }
+
+    /**
+     * 客户端将请求写入目标服务端的请求队列
+     */
+    public void write(RPCMessage message)
+    {
+        try
+        {
+            startResponseReceiver();
+            if (message.getSrc_addr() == null)
+                message.setSrc_addr(src_address);
+            RPCAddress dest = message.getDest();
+            MappedRingBuffer ring = getRing(requestRings, Integer.valueOf(dest.getPort()), getRequestFile(dest.getPort()));
+            if (!ring.isOpen())
+                throw new ShmRunException("shm server " + dest + " is not started.");
+            CallTimer timer = message.callTimer();
+            long start = timer != null ? System.nanoTime() : 0L;
+            int[] type = new int[1];
+            byte[] data = encode(message, type);
+            if (timer != null)
+            {
+                timer.add(CallTimer.CLIENT_ENCODE, System.nanoTime() - start);
+                timer.markSent();
+            }
+            offer(ring, type[0], data);
+        }
+        catch (RemoteException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            throw new RemoteException(message, e);
+        }
+    }
+
+    /**
+     * 服务端处理请求队列中的消息，业务处理在线程池中执行，消费线程只负责读取
+     */
+    void requestReceived(final int type, final byte[] data)
+    {
+        final long received = System.nanoTime();
+        getExecutor().execute(new Runnable()
+        {
+            public void run()
+            {
+                try
+                {
+                    long decodeStart = System.nanoTime();
+                    RPCMessage message_ = decode(type, data);
+                    Header hdr = message_.getHeader(name);
+                    if (RPCMetrics.enable)
+                        RPCMetrics.requestReceived(message_, hdr, received, System.nanoTime() - decodeStart);
+                    RPCMessage rsp = messageReceived(message_);
+                    if (rsp != null && hdr.getType() == Header.REQ)
+                        writeResponse(rsp);
+                }
+                catch (Exception e)
+                {
+                    log.error(e.getMessage(), e);
+                }
+            }
+        });
+    }
+
+    private void writeResponse(RPCMessage rsp) throws Exception
+    {
+        RPCAddress dest = rsp.getDest();
+        if (dest == null)
+        {
+            log.warn("the response's destination is null, cannot send response");
+            return;
+        }
+        File file = getResponseFile(dest.getPort());
+        MappedRingBuffer ring;
+        try
+        {
+            ring = getRing(responseRings, Integer.valueOf(dest.getPort()), file);
+        }
+        catch (Exception e)
+        {
+            log.warn("client " + dest + " has no response ring " + file + ", response is discarded.");
+            return;
+        }
+        int[] type = new int[1];
+        byte[] data = encode(rsp, type);
+        if (data.length > ring.getMaxMessageLength())
+        {
+            //响应超过客户端响应队列允许的最大消息长度，返回异常信息，避免客户端一直等到超时
+            ShmRunException e = new ShmRunException("response length " + data.length + " exceeds max message length "
+                    + ring.getMaxMessageLength() + " of ring " + file + ", please increase shm.response.capacity.");
+            log.warn(e.getMessage());
+            data = encode(buildErrorResponse(rsp, e), type);
+        }
+        offer(ring, type[0], data);
+    }
+
+    /**
+     * 构建与原响应对应同一个请求的异常响应
+     */
+    RPCMessage buildErrorResponse(RPCMessage rsp, Throwable e)
+    {
+        RPCMessage error = new RPCMessage(rsp.getSrc_addr(), rsp.getDest());
+        error.setResultSerial(RPCMessage.OOB);
+        error.setData(e);
+        error.putHeader(name, rsp.getHeader(name));
+        return error;
+    }
+
+    @Override
+    protected BaseFutureCall buildBaseFutureCall(RPCMessage srcmsg, RPCAddress address)
+    {
+        return new ShmFutureCall(srcmsg, address, this);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.shm;
+
+import java.io.File;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.assemble.ProMap;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.remote.Target;
+import org.frameworkset.spi.remote.Util;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: ShmRPCServer.java</p>
+ * <p>Description: 共享内存协议服务器组件，启动时在共享目录下创建（或者复用）本服务端的请求队列文件，
+ * 并启动消费线程读取本机客户端写入的请求。地址格式与netty相同，例如(shm::127.0.0.1:12350)/rpc.test，
+ * 端口只作为服务端在共享目录中的标识，不会打开任何网络端口。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午11:58:40
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ShmRPCServer
+{
+    private static Logger log = LoggerFactory.getLogger(ShmRPCServer.class);
+
+    public ProMap conparams = null;
+
+    private boolean started = false;
+
+    private RPCAddress localAddress;
+
+    int PORT = -1;
+
+    private MappedRingBuffer requestRing;
+
+    private ShmReceiver receiver;
+
+    private static ShmRPCServer server;
+
+    private ReentrantLock lock = new ReentrantLock();
+
+    public static ShmRPCServer getShmRPCServer()
+    {
+        if(server != null)
+            return server;
+        synchronized(ShmRPCServer.class)
+        {
+            if(server != null)
+                return server;
+            server = (ShmRPCServer)BaseSPIManager2.getBeanObject("rpc.shm.server");
+        }
+        return server;
+    }
+
+    public ShmRPCServer(ProMap conparams)
+    {
+        this.conparams = conparams;
+        PORT = conparams.getInt("connection.bind.port");
+        this.localAddress = new RPCAddress("127.0.0.1",PORT,null,Target.BROADCAST_TYPE_SHM);
+    }
+
+    public boolean started()
+    {
+        return this.started;
+    }
+
+    public RPCAddress getLocalAddress()
+    {
+        return this.localAddress;
+    }
+
+    public void start()
+    {
+        if(started)
+            return;
+        lock.lock();
+        try
+        {
+            if(started)
+                return;
+            ShmIOHandler handler = (ShmIOHandler)Util.getRPCIOHandler(Target.BROADCAST_TYPE_SHM);
+            File file = handler.getRequestFile(PORT);
+            requestRing = MappedRingBuffer.create(file, handler.getRequestCapacity());
+            receiver = handler.buildReceiver(requestRing, handler.getRequestHandler());
+            receiver.start("shm-request-receiver-" + PORT);
+            log.info("Shm server is listenig at " + file);
+            this.started = true;
+        }
+        catch(Exception e)
+        {
+            throw new ShmRunException(e);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    public void stop()
+    {
+        if(!this.started)
+            return;
+        log.debug("Stop shm server [" + getLocalAddress() + "] begin.");
+        lock.lock();
+        try
+        {
+            //先关闭队列，客户端后续的写入将快速失败
+            requestRing.close();
+            receiver.stop();
+            ShmIOHandler handler = (ShmIOHandler)Util.getRPCIOHandler(Target.BROADCAST_TYPE_SHM);
+            handler.shutdownExecutor();
+            this.started = false;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        log.debug("Stop shm server [" + getLocalAddress() + "] end.");
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.shm;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: ShmReceiver.java</p>
+ * <p>Description: 环形缓冲区的消费线程，有消息时连续读取，没有消息时先自旋，
+ * 再让出cpu，最后按照配置的间隔短暂休眠，避免空闲时占满cpu，同时保证繁忙时不发生线程切换。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午11:44:09
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ShmReceiver implements Runnable
+{
+    private static final Logger log = LoggerFactory.getLogger(ShmReceiver.class);
+
+    private final MappedRingBuffer ring;
+
+    private final MappedRingBuffer.MessageHandler handler;
+
+    private final int spins;
+
+    private final long parkNanos;
+
+    private volatile boolean running = true;
+
+    private Thread thread;
+
+    public ShmReceiver(MappedRingBuffer ring, MappedRingBuffer.MessageHandler handler, int spins, long parkNanos)
+    {
+        this.ring = ring;
+        this.handler = handler;
+        this.spins = spins;
+        this.parkNanos = parkNanos;
+    }
+
+    public void start(String name)
+    {
+        thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public void run()
+    {
+        int idle = 0;
+        while (running)
+        {
+            boolean received;
+            try
+            {
+                received = ring.poll(handler);
+            }
+            catch (Throwable e)
+            {
+                log.error("handle shared memory message from " + ring.getFile() + " failed.", e);
+                received = true;
+            }
+            if (received)
+            {
+                idle = 0;
+            }
+            else if (idle < spins)
+            {
+                idle++;
+            }
+            else if (idle < spins * 2)
+            {
+                idle++;
+                Thread.yield();
+            }
+            else
+            {
+                LockSupport.parkNanos(parkNanos);
+            }
+        }
+    }
+
+    public void stop()
+    {
+        running = false;
+        if (thread != null)
+            LockSupport.unpark(thread);
+    }
+}
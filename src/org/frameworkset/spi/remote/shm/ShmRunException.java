@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.shm;
+
+/**
+ * <p>Title: ShmRunException.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午11:45:27
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ShmRunException extends RuntimeException {
+
+	public ShmRunException() {
+	}
+
+	public ShmRunException(String message) {
+		super(message);
+	}
+
+	public ShmRunException(Throwable cause) {
+		super(cause);
+	}
+
+	public ShmRunException(String message, Throwable cause) {
+		super(message, cause);
+	}
+
+}
@@ -0,0 +1,144 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.shm;
+
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.MappedByteBuffer;
+
+import sun.misc.Unsafe;
+
+/**
+ * <p>Title: UnsafeAccess.java</p>
+ * <p>Description: 共享内存环形缓冲区对映射内存的原子访问，集中封装对sun.misc.Unsafe的使用。
+ * 跨进程的CAS和有序写需要直接操作映射区的本地地址，jdk8中只能通过Unsafe实现
+ * （jdk9以后可以改用VarHandle），映射区的本地地址从java.nio.Buffer的私有字段address读取。
+ * 所有方法的地址参数都是映射区内的绝对地址，调用方负责保证地址不越界，
+ * 本类只在shm包内使用，不对外开放。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午10:52:16
+ * @author biaoping.yin
+ * @version 1.0
+ */
+@SuppressWarnings("restriction") //sun.misc.Unsafe为jdk内部api，编译器会给出访问限制警告
+final class UnsafeAccess
+{
+    private static final Unsafe UNSAFE;
+
+    private static final long ADDRESS_OFFSET;
+
+    private static final long BYTE_ARRAY_OFFSET;
+
+    static
+    {
+        try
+        {
+            Field field = Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            UNSAFE = (Unsafe) field.get(null);
+            ADDRESS_OFFSET = UNSAFE.objectFieldOffset(Buffer.class.getDeclaredField("address"));
+            BYTE_ARRAY_OFFSET = UNSAFE.arrayBaseOffset(byte[].class);
+        }
+        catch (Exception e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private UnsafeAccess()
+    {
+    }
+
+    /**
+     * 获取映射区的本地起始地址
+     */
+    static long address(MappedByteBuffer buffer)
+    {
+        return UNSAFE.getLong(buffer, ADDRESS_OFFSET);
+    }
+
+    static int getInt(long address)
+    {
+        return UNSAFE.getInt(address);
+    }
+
+    static void putInt(long address, int value)
+    {
+        UNSAFE.putInt(address, value);
+    }
+
+    static int getIntVolatile(long address)
+    {
+        return UNSAFE.getIntVolatile(null, address);
+    }
+
+    static void putIntVolatile(long address, int value)
+    {
+        UNSAFE.putIntVolatile(null, address, value);
+    }
+
+    /**
+     * 有序写，保证之前的写操作先于本次写入对其他进程可见
+     */
+    static void putOrderedInt(long address, int value)
+    {
+        UNSAFE.putOrderedInt(null, address, value);
+    }
+
+    static long getLongVolatile(long address)
+    {
+        return UNSAFE.getLongVolatile(null, address);
+    }
+
+    static void putLongVolatile(long address, long value)
+    {
+        UNSAFE.putLongVolatile(null, address, value);
+    }
+
+    static void putOrderedLong(long address, long value)
+    {
+        UNSAFE.putOrderedLong(null, address, value);
+    }
+
+    static boolean compareAndSwapLong(long address, long expected, long value)
+    {
+        return UNSAFE.compareAndSwapLong(null, address, expected, value);
+    }
+
+    /**
+     * 将字节数组的内容复制到映射区
+     */
+    static void copyFromArray(byte[] src, int offset, long address, int length)
+    {
+        UNSAFE.copyMemory(src, BYTE_ARRAY_OFFSET + offset, null, address, length);
+    }
+
+    /**
+     * 将映射区的内容复制到字节数组
+     */
+    static void copyToArray(long address, byte[] dest, int offset, int length)
+    {
+        UNSAFE.copyMemory(null, address, dest, BYTE_ARRAY_OFFSET + offset, length);
+    }
+
+    static void setMemory(long address, long length, byte value)
+    {
+        UNSAFE.setMemory(address, length, value);
+    }
+}
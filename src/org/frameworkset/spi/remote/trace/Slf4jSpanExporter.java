@@ -0,0 +1,39 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.trace;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: Slf4jSpanExporter.java</p>
+ * <p>Description: 将调用链节点输出到日志，未配置rpc.trace.exporters时默认使用</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午06:29:02
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class Slf4jSpanExporter implements SpanExporter
+{
+    private static Logger log = LoggerFactory.getLogger(Slf4jSpanExporter.class);
+
+    public void export(Span span)
+    {
+        if (log.isInfoEnabled())
+            log.info(span.toString());
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.trace;
+
+/**
+ * <p>Title: Span.java</p>
+ * <p>Description: 调用链中的一个节点，记录一次远程调用在客户端或者服务端的起止时间、
+ * 服务方法、对端地址和异常信息，结束后交给SpanExporter输出。
+ * 组播调用在客户端只记录一个节点，每个接收方各自记录一个以该节点为父节点的服务端节点。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午06:25:10
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class Span
+{
+    public static final int CLIENT = 0;
+
+    public static final int SERVER = 1;
+
+    private final TraceContext context;
+
+    private final int kind;
+
+    private String service;
+
+    private String method;
+
+    private final String remote;
+
+    private final long startTime;
+
+    private final long startNanos;
+
+    private long duration = -1L;
+
+    private String error;
+
+    Span(TraceContext context, int kind, String remote)
+    {
+        this.context = context;
+        this.kind = kind;
+        this.remote = remote;
+        this.startTime = System.currentTimeMillis();
+        this.startNanos = System.nanoTime();
+    }
+
+    void describe(String service, String method)
+    {
+        this.service = service;
+        this.method = method;
+    }
+
+    void finish(Throwable error)
+    {
+        this.duration = (System.nanoTime() - startNanos) / 1000L;
+        if (error != null)
+            this.error = error.getClass().getName() + ":" + error.getMessage();
+    }
+
+    void fail(String error)
+    {
+        if (this.error == null)
+            this.error = error;
+    }
+
+    public TraceContext getContext()
+    {
+        return context;
+    }
+
+    public String getTraceId()
+    {
+        return context.getTraceId();
+    }
+
+    public String getSpanId()
+    {
+        return context.getSpanId();
+    }
+
+    public String getParentSpanId()
+    {
+        return context.getParentSpanId();
+    }
+
+    /**
+     * @return CLIENT或者SERVER
+     */
+    public int getKind()
+    {
+        return kind;
+    }
+
+    public String getService()
+    {
+        return service;
+    }
+
+    public String getMethod()
+    {
+        return method;
+    }
+
+    /**
+     * @return 服务名称#方法名称
+     */
+    public String getName()
+    {
+        return service + "#" + method;
+    }
+
+    /**
+     * @return 客户端节点为目标地址，服务端节点为请求来源地址
+     */
+    public String getRemote()
+    {
+        return remote;
+    }
+
+    /**
+     * @return 开始时间，毫秒
+     */
+    public long getStartTime()
+    {
+        return startTime;
+    }
+
+    /**
+     * @return 耗时，微秒，未结束时返回-1
+     */
+    public long getDuration()
+    {
+        return duration;
+    }
+
+    /**
+     * @return 调用异常信息，调用成功时返回null
+     */
+    public String getError()
+    {
+        return error;
+    }
+
+    public String toString()
+    {
+        StringBuilder builder = new StringBuilder(160);
+        builder.append("trace=").append(getTraceId())
+               .append(",span=").append(getSpanId())
+               .append(",parent=").append(getParentSpanId())
+               .append(",kind=").append(kind == CLIENT ? "client" : "server")
+               .append(",name=").append(getName())
+               .append(",remote=").append(remote)
+               .append(",start=").append(startTime)
+               .append(",duration=").append(duration).append("us");
+        if (error != null)
+            builder.append(",error=").append(error);
+        return builder.toString();
+    }
+}
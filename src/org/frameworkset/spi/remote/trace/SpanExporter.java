@@ -0,0 +1,32 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.trace;
+
+/**
+ * <p>Title: SpanExporter.java</p>
+ * <p>Description: 调用链节点输出接口，可以将采样的调用链节点输出到外部的链路跟踪系统，
+ * 通过rpc.trace.exporters配置，多个类名用逗号分隔。
+ * 输出器在调用线程中被同步执行，需要远程上报的实现应当自行缓冲并异步发送</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午06:27:33
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public interface SpanExporter
+{
+    public void export(Span span);
+}
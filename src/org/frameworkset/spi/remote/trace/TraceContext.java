@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <p>Title: TraceContext.java</p>
+ * <p>Description: 调用链上下文，包含调用链标识、当前节点标识、父节点标识和采样标记，
+ * 通过rpc.trace消息头在节点之间传递，格式为：traceId(32位十六进制)-spanId(16位十六进制)-采样标记(1/0)。
+ * 采样标记只在调用链的根节点决定，下游节点沿用上游的采样结果，保证同一条调用链要么完整输出，要么完全不输出。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午06:21:47
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class TraceContext
+{
+    private final String traceId;
+
+    private final long spanId;
+
+    private final long parentSpanId;
+
+    private final boolean sampled;
+
+    TraceContext(String traceId, long spanId, long parentSpanId, boolean sampled)
+    {
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.sampled = sampled;
+    }
+
+    /**
+     * 开始一条新的调用链
+     * @param sampled 是否采样
+     * @return
+     */
+    public static TraceContext newRoot(boolean sampled)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String traceId = toHex(random.nextLong()) + toHex(nextId(random));
+        return new TraceContext(traceId, nextId(random), 0L, sampled);
+    }
+
+    /**
+     * 创建当前节点的子节点上下文
+     * @return
+     */
+    public TraceContext newChild()
+    {
+        return new TraceContext(traceId, nextId(ThreadLocalRandom.current()), spanId, sampled);
+    }
+
+    private static long nextId(ThreadLocalRandom random)
+    {
+        long id = random.nextLong();
+        return id == 0L ? 1L : id;
+    }
+
+    private static String toHex(long value)
+    {
+        String hex = Long.toHexString(value);
+        if (hex.length() == 16)
+            return hex;
+        StringBuilder builder = new StringBuilder(16);
+        for (int i = hex.length(); i < 16; i++)
+            builder.append('0');
+        return builder.append(hex).toString();
+    }
+
+    /**
+     * 将上下文编码为消息头的值
+     * @return
+     */
+    public String encode()
+    {
+        return new StringBuilder(51).append(traceId).append('-').append(toHex(spanId))
+                .append('-').append(sampled ? '1' : '0').toString();
+    }
+
+    /**
+     * 解析消息头中的调用链上下文，格式不正确时返回null
+     * @param value
+     * @return
+     */
+    public static TraceContext decode(String value)
+    {
+        if (value == null || value.length() != 51 || value.charAt(32) != '-' || value.charAt(49) != '-')
+            return null;
+        try
+        {
+            String traceId = value.substring(0, 32);
+            Long.parseUnsignedLong(traceId.substring(0, 16), 16);
+            Long.parseUnsignedLong(traceId.substring(16), 16);
+            long spanId = Long.parseUnsignedLong(value.substring(33, 49), 16);
+            return new TraceContext(traceId, spanId, 0L, value.charAt(50) == '1');
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
+    public String getTraceId()
+    {
+        return traceId;
+    }
+
+    public String getSpanId()
+    {
+        return toHex(spanId);
+    }
+
+    /**
+     * @return 根节点返回null
+     */
+    public String getParentSpanId()
+    {
+        return parentSpanId == 0L ? null : toHex(parentSpanId);
+    }
+
+    public boolean isSampled()
+    {
+        return sampled;
+    }
+
+    public String toString()
+    {
+        return encode();
+    }
+}
@@ -0,0 +1,243 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.frameworkset.spi.remote.trace;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.frameworkset.spi.BaseSPIManager2;
+import org.frameworkset.spi.remote.Header;
+import org.frameworkset.spi.remote.RPCMessage;
+import org.frameworkset.spi.remote.RPCMethodCall;
+import org.frameworkset.spi.remote.RPCResponse;
+import org.frameworkset.spi.remote.RPCResponseList;
+import org.frameworkset.spi.remote.ServiceID;
+import org.frameworkset.spi.remote.Util;
+import org.frameworkset.spi.remote.context.RequestContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Title: Tracer.java</p>
+ * <p>Description: 远程调用链路跟踪，rpc.trace.enable开启后每次远程调用都会在rpc.trace消息头中携带调用链上下文。
+ * 服务端收到请求后将上下文保存到RequestContext中，服务方法中再发起的远程调用（包括restful链式调用）
+ * 由RPCClient在发送时以该上下文为父节点生成新的子节点，从而把跨节点的调用串成一条调用链。
+ * 调用链的根节点按rpc.trace.sample.interval每N条采样一条，被采样的节点通过SpanExporter输出，
+ * 输出器通过rpc.trace.exporters配置，多个类名用逗号分隔，默认输出到日志。
+ * 非远程服务线程中的调用可以通过activate方法指定父上下文。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午06:33:45
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class Tracer
+{
+    private static Logger log = LoggerFactory.getLogger(Tracer.class);
+
+    public static final String TRACE_HEADER = "rpc.trace";
+
+    public static final boolean enable = BaseSPIManager2.getBooleanProperty("rpc.trace.enable", false);
+
+    public static final int sampleInterval = BaseSPIManager2.getIntProperty("rpc.trace.sample.interval", 100);
+
+    private static final List<SpanExporter> exporters = new CopyOnWriteArrayList<SpanExporter>();
+
+    private static final ThreadLocal<TraceContext> current = new ThreadLocal<TraceContext>();
+
+    static
+    {
+        if (enable)
+        {
+            String classes = Util.defaultContext.getProperty("rpc.trace.exporters", Slf4jSpanExporter.class.getName());
+            String[] names = classes.split(",");
+            for (int i = 0; i < names.length; i++)
+            {
+                String name = names[i].trim();
+                if (name.length() == 0)
+                    continue;
+                try
+                {
+                    addExporter((SpanExporter) Class.forName(name).newInstance());
+                }
+                catch (Exception e)
+                {
+                    log.warn("load rpc span exporter " + name + " failed.", e);
+                }
+            }
+        }
+    }
+
+    public static void addExporter(SpanExporter exporter)
+    {
+        exporters.add(exporter);
+    }
+
+    public static void removeExporter(SpanExporter exporter)
+    {
+        exporters.remove(exporter);
+    }
+
+    private static boolean sample()
+    {
+        return sampleInterval <= 1 || ThreadLocalRandom.current().nextInt(sampleInterval) == 0;
+    }
+
+    /**
+     * 获取当前线程的调用链上下文，远程服务线程中返回请求携带的上下文，
+     * 否则返回通过activate方法指定的上下文，都没有时返回null
+     * @return
+     */
+    public static TraceContext currentContext()
+    {
+        RequestContext context = RequestContext.getRequestContext(false);
+        if (context != null && context.getTraceContext() != null)
+            return context.getTraceContext();
+        return current.get();
+    }
+
+    /**
+     * @return 当前线程所在调用链的标识，可以输出到业务日志中关联同一调用链的日志
+     */
+    public static String currentTraceId()
+    {
+        TraceContext context = currentContext();
+        return context != null ? context.getTraceId() : null;
+    }
+
+    /**
+     * 指定当前线程后续远程调用的父上下文，返回之前的上下文，用完后应当通过activate恢复
+     * @param context
+     * @return
+     */
+    public static TraceContext activate(TraceContext context)
+    {
+        TraceContext old = current.get();
+        if (context == null)
+            current.remove();
+        else
+            current.set(context);
+        return old;
+    }
+
+    private static void describe(Span span, Object payload)
+    {
+        if (!(payload instanceof RPCMethodCall))
+            return;
+        Object[] args = ((RPCMethodCall) payload).getArgs();
+        if (args != null && args.length > 1 && args[0] instanceof ServiceID)
+            span.describe(((ServiceID) args[0]).getService(), String.valueOf(args[1]));
+    }
+
+    /**
+     * 客户端开始一次调用，在请求消息中写入调用链上下文，调用被采样时返回客户端节点，否则返回null
+     * @param msg
+     * @param call
+     * @param remote 目标地址
+     * @return
+     */
+    public static Span startClientSpan(RPCMessage msg, RPCMethodCall call, Object remote)
+    {
+        if (!enable)
+            return null;
+        TraceContext parent = currentContext();
+        TraceContext context = parent == null ? TraceContext.newRoot(sample()) : parent.newChild();
+        msg.putHeader(TRACE_HEADER, new Header(TRACE_HEADER, context.encode()));
+        if (!context.isSampled())
+            return null;
+        Span span = new Span(context, Span.CLIENT, String.valueOf(remote));
+        describe(span, call);
+        return span;
+    }
+
+    /**
+     * 客户端调用结束，响应超时或者返回异常时记录到节点中并输出节点
+     * @param span
+     * @param rsp_list
+     * @param error 发送请求时抛出的异常
+     */
+    public static void finishClientSpan(Span span, RPCResponseList rsp_list, Throwable error)
+    {
+        if (error == null && rsp_list != null)
+        {
+            Collection<RPCResponse> rsps = rsp_list.values();
+            for (Iterator<RPCResponse> it = rsps.iterator(); it.hasNext();)
+            {
+                RPCResponse rsp = it.next();
+                if (rsp.wasSuspected())
+                    span.fail("suspected:" + rsp.getSender());
+                else if (!rsp.wasReceived())
+                    span.fail("timeout:" + rsp.getSender());
+                else if (rsp.getValue() instanceof Throwable)
+                {
+                    Throwable e = (Throwable) rsp.getValue();
+                    span.fail(e.getClass().getName() + ":" + e.getMessage());
+                }
+            }
+        }
+        finish(span, error);
+    }
+
+    /**
+     * 服务端开始处理请求，从请求消息中取出调用链上下文，生成服务端节点上下文并保存到RequestContext中，
+     * 请求没有携带上下文时开始一条新的调用链。调用被采样时返回服务端节点，否则返回null
+     * @param req
+     * @param context
+     * @param service
+     * @param method
+     * @return
+     */
+    public static Span startServerSpan(RPCMessage req, RequestContext context, String service, String method)
+    {
+        if (!enable)
+            return null;
+        Header header = req.getHeader(TRACE_HEADER);
+        TraceContext parent = header != null && header.getValue() instanceof String
+                ? TraceContext.decode((String) header.getValue()) : null;
+        TraceContext trace = parent == null ? TraceContext.newRoot(sample()) : parent.newChild();
+        context.setTraceContext(trace);
+        if (!trace.isSampled())
+            return null;
+        Span span = new Span(trace, Span.SERVER, String.valueOf(req.getSrc_addr()));
+        span.describe(service, method);
+        return span;
+    }
+
+    /**
+     * 结束节点并输出
+     * @param span
+     * @param error
+     */
+    public static void finish(Span span, Throwable error)
+    {
+        span.finish(error);
+        for (int i = 0; i < exporters.size(); i++)
+        {
+            try
+            {
+                exporters.get(i).export(span);
+            }
+            catch (Throwable e)
+            {
+                log.warn("export rpc span failed.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * <p>Title: AESGCMEncryptModule.java</p>
+ * <p>Description: 基于AES-GCM的报文加密模块，主密钥在模块初始化时由配置的口令通过PBKDF2派生一次，
+ * 模块没有缺省口令，未配置口令时拒绝创建。
+ * 每个进程启动时生成随机的16字节密钥标识，用HMAC-SHA256(主密钥, 密钥标识)派生本进程的会话密钥，
+ * 同一会话密钥下的nonce由计数器生成，保证不会重复；加密报文数达到rotateFrames后生成新的密钥标识轮换会话密钥。
+ * 接收方按照报文中的密钥标识派生并缓存发送方的会话密钥。
+ * 加密后的报文格式为：密钥标识(16字节) | nonce(12字节) | 密文 | GCM认证标签(16字节)，
+ * 通讯双方必须配置相同的口令和盐值。
+ * </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午04:12:36
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class AESGCMEncryptModule implements EncryptModule
+{
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+
+    private static final String KDF = "HmacSHA256";
+
+    private static final int KEY_ID_LENGTH = 16;
+
+    private static final int NONCE_LENGTH = 12;
+
+    private static final int HEADER_LENGTH = KEY_ID_LENGTH + NONCE_LENGTH;
+
+    private static final int TAG_BITS = 128;
+
+    private static final int DEFAULT_ITERATIONS = 10000;
+
+    private static final int DEFAULT_KEYSIZE = 128;
+
+    private static final String DEFAULT_SALT = "bboss-rpc";
+
+    /**
+     * 缺省每个会话密钥加密2^32条报文后轮换
+     */
+    private static final long DEFAULT_ROTATE_FRAMES = 1L << 32;
+
+    /**
+     * 缓存的发送方会话密钥数上限，超过后清空重新派生
+     */
+    private static final int MAX_PEER_KEYS = 1024;
+
+    private static final SecureRandom random = new SecureRandom();
+
+    private final byte[] masterKey;
+
+    private final int keyLength;
+
+    private long rotateFrames = DEFAULT_ROTATE_FRAMES;
+
+    private volatile SessionKey sessionKey;
+
+    private final ConcurrentMap<ByteBuffer, SecretKey> peerKeys = new ConcurrentHashMap<ByteBuffer, SecretKey>();
+
+    private final ThreadLocal<CipherHolder> ciphers = new ThreadLocal<CipherHolder>()
+    {
+        protected CipherHolder initialValue()
+        {
+            try
+            {
+                return new CipherHolder();
+            }
+            catch (GeneralSecurityException e)
+            {
+                throw new SecurityException("初始化AES-GCM加密算法失败：" + TRANSFORMATION, e);
+            }
+        }
+    };
+
+    private static class CipherHolder
+    {
+        final Cipher encryptor;
+
+        final Cipher decryptor;
+
+        final byte[] nonce = new byte[NONCE_LENGTH];
+
+        CipherHolder() throws GeneralSecurityException
+        {
+            encryptor = Cipher.getInstance(TRANSFORMATION);
+            decryptor = Cipher.getInstance(TRANSFORMATION);
+        }
+    }
+
+    /**
+     * 本进程当前使用的会话密钥及其nonce计数器
+     */
+    private static class SessionKey
+    {
+        final byte[] keyId;
+
+        final SecretKey key;
+
+        final AtomicLong counter = new AtomicLong();
+
+        SessionKey(byte[] keyId, SecretKey key)
+        {
+            this.keyId = keyId;
+            this.key = key;
+        }
+    }
+
+    public AESGCMEncryptModule(String password)
+    {
+        this(password, DEFAULT_SALT, DEFAULT_ITERATIONS, DEFAULT_KEYSIZE);
+    }
+
+    /**
+     * @param password 口令，不能为空
+     * @param salt 派生主密钥的盐值
+     * @param iterations PBKDF2迭代次数
+     * @param keySize 密钥长度，128、192或者256
+     */
+    public AESGCMEncryptModule(String password, String salt, int iterations, int keySize)
+    {
+        if (password == null || password.length() == 0)
+            throw new SecurityException("AESGCMEncryptModule没有配置加密口令password");
+        this.masterKey = deriveKey(password, salt == null ? DEFAULT_SALT : salt, iterations, keySize);
+        this.keyLength = keySize >> 3;
+        this.sessionKey = newSessionKey();
+    }
+
+    /**
+     * 直接使用给定的主密钥
+     * @param key 16、24或32字节的AES密钥
+     */
+    public AESGCMEncryptModule(byte[] key)
+    {
+        if (key == null)
+            throw new java.lang.IllegalArgumentException("key == null");
+        this.masterKey = key.clone();
+        this.keyLength = key.length;
+        this.sessionKey = newSessionKey();
+    }
+
+    /**
+     * 设置每个会话密钥最多加密的报文数，达到后轮换会话密钥
+     * @param rotateFrames
+     */
+    public void setRotateFrames(long rotateFrames)
+    {
+        if (rotateFrames <= 0)
+            throw new java.lang.IllegalArgumentException("rotateFrames must be greater than 0:" + rotateFrames);
+        this.rotateFrames = rotateFrames;
+    }
+
+    private static byte[] deriveKey(String password, String salt, int iterations, int keySize)
+    {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt.getBytes(Charset.forName("UTF-8")), iterations, keySize);
+        try
+        {
+            SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA1");
+            return factory.generateSecret(spec).getEncoded();
+        }
+        catch (GeneralSecurityException e)
+        {
+            throw new SecurityException("派生AES主密钥失败", e);
+        }
+        finally
+        {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * 由主密钥和密钥标识派生会话密钥
+     */
+    private SecretKey deriveSessionKey(byte[] keyId)
+    {
+        try
+        {
+            Mac mac = Mac.getInstance(KDF);
+            mac.init(new SecretKeySpec(masterKey, KDF));
+            return new SecretKeySpec(mac.doFinal(keyId), 0, keyLength, "AES");
+        }
+        catch (GeneralSecurityException e)
+        {
+            throw new SecurityException("派生AES会话密钥失败", e);
+        }
+    }
+
+    private SessionKey newSessionKey()
+    {
+        byte[] keyId = new byte[KEY_ID_LENGTH];
+        random.nextBytes(keyId);
+        return new SessionKey(keyId, deriveSessionKey(keyId));
+    }
+
+    private synchronized void rotate(SessionKey current)
+    {
+        if (sessionKey == current)
+            sessionKey = newSessionKey();
+    }
+
+    public byte[] encode(byte[] value) throws SecurityException
+    {
+        SessionKey current;
+        long sequence;
+        for (;;)
+        {
+            current = sessionKey;
+            sequence = current.counter.getAndIncrement();
+            if (sequence < rotateFrames)
+                break;
+            rotate(current);
+        }
+        CipherHolder holder = ciphers.get();
+        byte[] nonce = holder.nonce;
+        //nonce的前4个字节为0，后8个字节为计数器
+        for (int i = NONCE_LENGTH - 1; i >= NONCE_LENGTH - 8; i--)
+        {
+            nonce[i] = (byte) sequence;
+            sequence >>>= 8;
+        }
+        try
+        {
+            Cipher cipher = holder.encryptor;
+            cipher.init(Cipher.ENCRYPT_MODE, current.key, new GCMParameterSpec(TAG_BITS, nonce));
+            byte[] output = new byte[HEADER_LENGTH + cipher.getOutputSize(value.length)];
+            System.arraycopy(current.keyId, 0, output, 0, KEY_ID_LENGTH);
+            System.arraycopy(nonce, 0, output, KEY_ID_LENGTH, NONCE_LENGTH);
+            cipher.doFinal(value, 0, value.length, output, HEADER_LENGTH);
+            return output;
+        }
+        catch (GeneralSecurityException e)
+        {
+            throw new SecurityException("加密报文失败", e);
+        }
+    }
+
+    /**
+     * 获取报文中密钥标识对应的会话密钥
+     */
+    private SecretKey getSessionKey(byte[] value)
+    {
+        SessionKey current = sessionKey;
+        if (ByteBuffer.wrap(current.keyId).equals(ByteBuffer.wrap(value, 0, KEY_ID_LENGTH)))
+            return current.key;
+        SecretKey key = peerKeys.get(ByteBuffer.wrap(value, 0, KEY_ID_LENGTH));
+        if (key != null)
+            return key;
+        byte[] keyId = new byte[KEY_ID_LENGTH];
+        System.arraycopy(value, 0, keyId, 0, KEY_ID_LENGTH);
+        key = deriveSessionKey(keyId);
+        if (peerKeys.size() >= MAX_PEER_KEYS)
+            peerKeys.clear();
+        peerKeys.put(ByteBuffer.wrap(keyId), key);
+        return key;
+    }
+
+    public byte[] decode(byte[] value) throws SecurityException
+    {
+        if (value == null || value.length < HEADER_LENGTH + (TAG_BITS >> 3))
+            throw new SecurityException("解密报文失败：报文长度不合法");
+        CipherHolder holder = ciphers.get();
+        try
+        {
+            Cipher cipher = holder.decryptor;
+            cipher.init(Cipher.DECRYPT_MODE, getSessionKey(value), new GCMParameterSpec(TAG_BITS, value, KEY_ID_LENGTH, NONCE_LENGTH));
+            return cipher.doFinal(value, HEADER_LENGTH, value.length - HEADER_LENGTH);
+        }
+        catch (GeneralSecurityException e)
+        {
+            throw new SecurityException("解密报文失败，请检查通讯双方的加密口令是否一致", e);
+        }
+    }
+
+}
@@ -78,13 +78,15 @@ public class SimpleEncryptModule implements EncryptModule
     {
 //        StandardPBEByteEncryptor  encryptor = new StandardPBEByteEncryptor();
 //        encryptor.setPassword(password);
-        System.out.println("decode byte code.");
+        if(log.isDebugEnabled())
+        	log.debug("decode byte code.");
         return encryptor.decrypt(value);
     }
 
     public byte[] encode(byte[] value)
     {
-        System.out.println("encode byte code");
+        if(log.isDebugEnabled())
+        	log.debug("encode byte code");
 //        StandardPBEByteEncryptor  encryptor = new StandardPBEByteEncryptor();
 //        encryptor.setPassword(password);
         return encryptor.encrypt(value);
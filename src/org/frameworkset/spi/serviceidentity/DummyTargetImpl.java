@@ -82,6 +82,10 @@ public class DummyTargetImpl implements Target{
 		return false;
 	}
 
+	public boolean protocol_shm() {
+		return false;
+	}
+
 	public boolean protocol_jgroup() {
 		// TODO Auto-generated method stub
 		return false;
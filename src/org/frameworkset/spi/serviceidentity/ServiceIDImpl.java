@@ -19,6 +19,7 @@ package org.frameworkset.spi.serviceidentity;
 import java.util.StringTokenizer;
 
 import org.frameworkset.netty.NettyRPCServer;
+import org.frameworkset.spi.remote.shm.ShmRPCServer;
 import org.frameworkset.spi.remote.JGroupHelper;
 import org.frameworkset.spi.remote.RPCAddress;
 import org.frameworkset.spi.remote.RemoteException;
@@ -101,6 +102,10 @@ public class ServiceIDImpl extends BaseServiceIDImpl implements RemoteServiceID{
             {
                 return NettyRPCServer.getNettyRPCServer().started();
             }
+            else if (target.protocol_shm())
+            {
+                return ShmRPCServer.getShmRPCServer().started();
+            }
             else if (target.protocol_rmi())
             {
                 return RMIServer.getRMIServer().started();
@@ -462,6 +467,16 @@ public class ServiceIDImpl extends BaseServiceIDImpl implements RemoteServiceID{
                 this.sourcename = sourceip;
             }
         }
+        else if (target.protocol_shm())
+        {
+            RPCAddress address = ShmRPCServer.getShmRPCServer().getLocalAddress();
+            if (address != null)
+            {
+                this.sourceip = address.getIp();
+                this.sourceport = address.getPort() + "";
+                this.sourcename = sourceip;
+            }
+        }
         else if (target.protocol_jms())
         {
             // return false;
@@ -132,6 +132,18 @@ public class TargetImpl implements Target{
 
         return protocol.equals(BROADCAST_TYPE_NETTY);
     }
+	
+	private boolean isShm()
+    {
+
+        return this.broadcastType.equals(BROADCAST_TYPE_SHM);
+    }
+	
+	private static boolean isShm(String protocol)
+    {
+
+        return protocol.equals(BROADCAST_TYPE_SHM);
+    }
 
 
 	private boolean isWebservice()
@@ -160,6 +172,7 @@ public class TargetImpl implements Target{
 	private boolean protocol_jgroup = false;
 	private boolean protocol_mina = false;
 	private boolean protocol_netty = false;
+	private boolean protocol_shm = false;
 	private boolean protocol_jms = false;
 	private boolean protocol_webservice = false;
 
@@ -188,6 +201,11 @@ public class TargetImpl implements Target{
 	    return protocol_netty;
 	}
 	
+	public boolean protocol_shm()
+	{
+	    return protocol_shm;
+	}
+	
 	public boolean protocol_webservice()
 	{
 		return protocol_webservice;
@@ -323,6 +341,7 @@ public class TargetImpl implements Target{
 						&& !this.isWebservice()
 						&& !this.isRest()
 						&& !this.isNetty()
+						&& !this.isShm()
 						&& !this.isRMI()
 						&& !this.isHTTP())
 				    
@@ -334,6 +353,7 @@ public class TargetImpl implements Target{
 							+ "]或者[" + BROADCAST_TYPE_WEBSERVICE 
 							+ "]或者[" + BROADCAST_TYPE_JMS
 							+ "]或者[" + BROADCAST_TYPE_NETTY
+							+ "]或者[" + BROADCAST_TYPE_SHM
 							+ "]或者[" + BROADCAST_TYPE_RMI
 							+ "]或者[" + BROADCAST_TYPE_REST + "]");
 				}
@@ -343,7 +363,7 @@ public class TargetImpl implements Target{
 			{
 				dests = buildJGroupTargets(_targets_);
 			}
-			else if(this.isMina() || this.isRMI() || this.isNetty() || this.isHTTP() || this.isEJB() )
+			else if(this.isMina() || this.isRMI() || this.isNetty() || this.isShm() || this.isHTTP() || this.isEJB() )
 			{
 				dests = buildTargets(_targets_,broadcastType);
 			}
@@ -748,7 +768,7 @@ public class TargetImpl implements Target{
 	public static String buildURL(RPCAddress address)
 	{
 		
-		if(TargetImpl.isNetty(address.getProtocol()))
+		if(TargetImpl.isNetty(address.getProtocol()) || TargetImpl.isShm(address.getProtocol()))
 		{
 			return RPCHelper.buildContextAddress(address.getProtocol(), address.getIp(), address.getPort() + "");
 		}
@@ -1062,6 +1082,8 @@ public class TargetImpl implements Target{
 	        this.protocol_mina = true;
 	    else if(protocol.equals(BROADCAST_TYPE_NETTY))
 	        this.protocol_netty = true;
+	    else if(protocol.equals(BROADCAST_TYPE_SHM))
+	        this.protocol_shm = true;
 	    else if(protocol.equals(BROADCAST_TYPE_RMI))
 	        this.protocol_rmi = true;
 	    else if(this.isHTTP())
@@ -1177,7 +1199,7 @@ public class TargetImpl implements Target{
 //		List<RPCAddress> dests = new ArrayList<RPCAddress>();
 		
 		if(protocol.equals(Target.BROADCAST_TYPE_MINA) 
-		        || protocol.equals(BROADCAST_TYPE_NETTY) || protocol.equals(BROADCAST_TYPE_RMI) || protocol.equals(Target.BROADCAST_TYPE_HTTP		))
+		        || protocol.equals(BROADCAST_TYPE_NETTY) || protocol.equals(BROADCAST_TYPE_SHM) || protocol.equals(BROADCAST_TYPE_RMI) || protocol.equals(Target.BROADCAST_TYPE_HTTP		))
 		    return buildAllTargets_(_targets_,protocol);
 		else if(protocol.equals(Target.BROADCAST_TYPE_WEBSERVICE))
 		{
@@ -1243,6 +1265,7 @@ public class TargetImpl implements Target{
 		if(protocol.equals(Target.BROADCAST_TYPE_MINA)
 				|| protocol.equals(Target.BROADCAST_TYPE_RMI) 
 				|| protocol.equals(Target.BROADCAST_TYPE_NETTY)
+				|| protocol.equals(Target.BROADCAST_TYPE_SHM)
 						|| protocol.equals(Target.BROADCAST_TYPE_HTTP		)
 				)
 		    return buildAllTargets_(url,protocol).get(0);
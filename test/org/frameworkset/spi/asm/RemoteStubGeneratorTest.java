@@ -0,0 +1,238 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.asm;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.frameworkset.spi.RemoteCallContext;
+import org.frameworkset.spi.remote.RemoteMethodDescriptor;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: RemoteStubGeneratorTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 下午03:12:40
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RemoteStubGeneratorTest {
+
+	/**
+	 * 记录桩发出的调用，不经过RPCHelper发送请求
+	 */
+	public static class RecordingStub extends RemoteStub
+	{
+		final List<String> calls = new ArrayList<String>();
+
+		final List<Object[]> parameters = new ArrayList<Object[]>();
+
+		Object result;
+
+		Throwable error;
+
+		public RecordingStub(RemoteMethodDescriptor[] descriptors, RemoteCallContext callcontext)
+		{
+			super(descriptors, callcontext);
+		}
+
+		protected Object invoke(int index, Object[] parameters) throws Throwable
+		{
+			calls.add(descriptors[index].getMethodName());
+			this.parameters.add(parameters);
+			if(error != null)
+				throw error;
+			return result;
+		}
+	}
+
+	public interface BasicService
+	{
+		int count(String name);
+
+		void touch(long time, boolean force);
+
+		byte[] read(int[] offsets);
+
+		String[] names();
+
+		double ratio() throws IOException;
+
+		String lookup(String key) throws IOException, InterruptedException;
+
+		default String greeting(String name)
+		{
+			return "local " + name;
+		}
+	}
+
+	public interface Base
+	{
+		String name();
+	}
+
+	public interface Left extends Base
+	{
+	}
+
+	public interface Right extends Base
+	{
+		String name();
+	}
+
+	public interface Diamond extends Left, Right
+	{
+	}
+
+	public interface Parent
+	{
+		Object value();
+	}
+
+	public interface Child extends Parent
+	{
+		String value();
+	}
+
+	interface HiddenService
+	{
+		String name();
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> T stub(Class<T> type) throws Exception
+	{
+		RemoteStubGenerator.StubFactory factory = RemoteStubGenerator.generate(type, RecordingStub.class);
+		Assert.assertNotSame(RemoteStubGenerator.UNSUPPORTED, factory);
+		RemoteMethodDescriptor[] descriptors = new RemoteMethodDescriptor[factory.methods.length];
+		for(int i = 0; i < descriptors.length; i ++)
+			descriptors[i] = new RemoteMethodDescriptor(null, factory.methods[i], null);
+		return (T)factory.constructor.newInstance(descriptors, null);
+	}
+
+	@Test
+	public void primitiveVoidAndArray() throws Exception
+	{
+		BasicService service = stub(BasicService.class);
+		RecordingStub recorder = (RecordingStub)service;
+
+		recorder.result = Integer.valueOf(3);
+		Assert.assertEquals(3, service.count("a"));
+		Assert.assertArrayEquals(new Object[]{"a"}, recorder.parameters.get(0));
+
+		recorder.result = "ignored";
+		service.touch(10L, true);
+		Assert.assertArrayEquals(new Object[]{Long.valueOf(10L), Boolean.TRUE}, recorder.parameters.get(1));
+
+		byte[] bytes = new byte[]{1, 2};
+		int[] offsets = new int[]{0, 1};
+		recorder.result = bytes;
+		Assert.assertSame(bytes, service.read(offsets));
+		Assert.assertSame(offsets, recorder.parameters.get(2)[0]);
+
+		recorder.result = null;
+		Assert.assertNull(service.names());
+		recorder.result = Double.valueOf(0.5);
+		Assert.assertEquals(0.5, service.ratio(), 0);
+		Assert.assertEquals("count", recorder.calls.get(0));
+		Assert.assertEquals("ratio", recorder.calls.get(4));
+	}
+
+	@Test
+	public void nullForPrimitiveReturn() throws Exception
+	{
+		BasicService service = stub(BasicService.class);
+		try
+		{
+			service.count("a");
+			Assert.fail("null result of primitive return type must fail");
+		}
+		catch(NullPointerException e)
+		{
+			Assert.assertNotNull(e.getMessage());
+			Assert.assertTrue(e.getMessage().contains("count"));
+		}
+	}
+
+	@Test
+	public void declaredExceptions() throws Exception
+	{
+		Assert.assertArrayEquals(new Class[]{IOException.class, InterruptedException.class},
+				stub(BasicService.class).getClass().getMethod("lookup", String.class).getExceptionTypes());
+		BasicService service = stub(BasicService.class);
+		IOException error = new IOException("remote");
+		((RecordingStub)service).error = error;
+		try
+		{
+			service.lookup("key");
+			Assert.fail("declared exception must be thrown");
+		}
+		catch(IOException e)
+		{
+			//受检异常原样抛出，不包装为UndeclaredThrowableException
+			Assert.assertSame(error, e);
+		}
+	}
+
+	@Test
+	public void defaultMethodIsRemote() throws Exception
+	{
+		BasicService service = stub(BasicService.class);
+		RecordingStub recorder = (RecordingStub)service;
+		recorder.result = "remote";
+		Assert.assertEquals("remote", service.greeting("bboss"));
+		Assert.assertEquals("greeting", recorder.calls.get(0));
+	}
+
+	@Test
+	public void diamondInterfaces() throws Exception
+	{
+		Diamond service = stub(Diamond.class);
+		RecordingStub recorder = (RecordingStub)service;
+		//父接口中重复声明的方法只生成一次
+		Assert.assertEquals(1, recorder.descriptors.length);
+		recorder.result = "diamond";
+		Assert.assertEquals("diamond", service.name());
+		Assert.assertEquals("diamond", ((Left)service).name());
+		Assert.assertEquals("diamond", ((Right)service).name());
+	}
+
+	@Test
+	public void covariantReturn() throws Exception
+	{
+		Child service = stub(Child.class);
+		RecordingStub recorder = (RecordingStub)service;
+		recorder.result = "child";
+		Assert.assertEquals("child", service.value());
+		Assert.assertEquals("child", ((Parent)service).value());
+		Assert.assertEquals(2, recorder.calls.size());
+		Assert.assertEquals("value", recorder.calls.get(1));
+	}
+
+	@Test
+	public void nonPublicInterfaceFallsBack() throws Exception
+	{
+		Assert.assertSame(RemoteStubGenerator.UNSUPPORTED, RemoteStubGenerator.generate(HiddenService.class, RecordingStub.class));
+		//newStub返回null，由ClientProxyContext退回到cglib代理
+		Assert.assertNull(RemoteStubGenerator.newStub(HiddenService.class, null, null));
+	}
+
+}
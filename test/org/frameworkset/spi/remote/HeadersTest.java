@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.StreamCorruptedException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: HeadersTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午11:14:08
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class HeadersTest {
+
+	private String buildLargeValue()
+	{
+		StringBuilder builder = new StringBuilder();
+		while(builder.length() < 70000)
+			builder.append("大消息头value-");
+		return builder.toString();
+	}
+
+	private Headers buildHeaders(String large)
+	{
+		Headers headers = new Headers();
+		//常用消息头名称，corrName与名称相同
+		headers.putHeader("RPCServerIoHandler", new Header(Header.REQ, 12L, true, "RPCServerIoHandler"));
+		headers.putHeader("lb.retries", new Header("lb.retries", Integer.valueOf(3)));
+		//corrName与名称不同
+		headers.putHeader("lb", new Header(Header.RSP, 13L, false, "other"));
+		//非常用消息头名称
+		headers.putHeader("custom.key", new Header("custom.key", large));
+		headers.putHeader("custom.long", new Header(null, Long.valueOf(Long.MAX_VALUE)));
+		headers.putHeader("custom.bool", new Header("custom.bool", Boolean.TRUE));
+		List<String> list = new ArrayList<String>();
+		list.add("a");
+		headers.putHeader("custom.object", new Header("custom.object", list));
+		headers.putHeader("custom.null", new Header("custom.null", null));
+		return headers;
+	}
+
+	private void assertHeaders(Headers expected, Headers actual)
+	{
+		Assert.assertEquals(expected.size(), actual.size());
+		for(String key : expected.keySet())
+		{
+			Header e = expected.getHeader(key);
+			Header a = actual.getHeader(key);
+			Assert.assertNotNull(key, a);
+			Assert.assertEquals(key, e.getType(), a.getType());
+			if(e.getType() != Header.COMMON)
+			{
+				Assert.assertEquals(key, e.getId(), a.getId());
+				Assert.assertEquals(key, e.isRsp_expected(), a.isRsp_expected());
+			}
+			Assert.assertEquals(key, e.getCorrName(), a.getCorrName());
+			Assert.assertEquals(key, e.getValue(), a.getValue());
+		}
+	}
+
+	@Test
+	public void streamRoundTrip() throws Exception
+	{
+		String large = buildLargeValue();
+		Headers headers = buildHeaders(large);
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bout);
+		headers.writeTo(out);
+		out.close();
+
+		Headers read = new Headers();
+		read.readFrom(new DataInputStream(new ByteArrayInputStream(bout.toByteArray())));
+		assertHeaders(headers, read);
+		Assert.assertEquals(large, read.getHeader("custom.key").getValue());
+		//常用消息头名称复用KNOWN_KEYS中的字符串实例
+		Assert.assertSame("RPCServerIoHandler", read.keySet().iterator().next());
+	}
+
+	@Test
+	public void externalizableRoundTrip() throws Exception
+	{
+		Headers headers = buildHeaders(buildLargeValue());
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bout);
+		out.writeObject(headers);
+		out.close();
+
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bout.toByteArray()));
+		Headers read = (Headers) in.readObject();
+		in.close();
+		assertHeaders(headers, read);
+	}
+
+	@Test
+	public void serializerKeysInterned() throws Exception
+	{
+		Headers headers = new Headers();
+		headers.putHeader("rpc.serializer.accept", new Header("rpc.serializer.accept", "kryo"));
+		headers.putHeader("rpc.serializer", new Header("rpc.serializer", "kryo"));
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bout);
+		headers.writeTo(out);
+		out.close();
+
+		Headers read = new Headers();
+		read.readFrom(new DataInputStream(new ByteArrayInputStream(bout.toByteArray())));
+		assertHeaders(headers, read);
+		//序列化消息头名称只写入序号
+		for(String key : read.keySet())
+			Assert.assertSame(key.equals("rpc.serializer") ? "rpc.serializer" : "rpc.serializer.accept", key);
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void unknownKeyIndex() throws Exception
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bout);
+		out.writeShort(1);
+		out.writeByte(100);
+		out.close();
+		new Headers().readFrom(new DataInputStream(new ByteArrayInputStream(bout.toByteArray())));
+	}
+
+	@Test(expected = StreamCorruptedException.class)
+	public void negativeKeyIndex() throws Exception
+	{
+		ByteArrayOutputStream bout = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bout);
+		out.writeShort(1);
+		out.writeByte(-2);
+		out.close();
+		new Headers().readFrom(new DataInputStream(new ByteArrayInputStream(bout.toByteArray())));
+	}
+}
@@ -0,0 +1,138 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.frameworkset.spi.BaseApplicationContext;
+import org.frameworkset.spi.ClientProxyContext;
+import org.frameworkset.spi.RemoteCallContextImpl;
+import org.frameworkset.spi.assemble.ServiceProviderManager;
+import org.frameworkset.spi.security.SecurityContext;
+import org.frameworkset.spi.security.SecurityException;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: LocalInvokerTest.java</p>
+ * <p>Description: 进程内调用短路的认证和参数隔离，服务方法由记录调用的处理对象执行，
+ * 认证使用测试配置中的SimpleLoginModule（admin/123456）。</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 下午03:58:05
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class LocalInvokerTest {
+
+	private static final String SERVICE = "(netty::127.0.0.1:12347)/rpc.test";
+
+	/**
+	 * 修改收到的参数并返回自己持有的结果，用于检查调用方和服务方法之间是否共享对象
+	 */
+	private static class MutatingHandler implements RemoteHandler
+	{
+		final List<String> result = new ArrayList<String>();
+
+		List<String> received;
+
+		int calls;
+
+		@SuppressWarnings("unchecked")
+		public Object callMethod(RemoteServiceID serviceID, String methodName, Object[] parameters, Class[] types)
+		{
+			calls ++;
+			received = (List<String>)parameters[0];
+			received.add("server");
+			result.add("result");
+			return result;
+		}
+	}
+
+	private MutatingHandler handler = new MutatingHandler();
+
+	private RemoteServiceID serviceID()
+	{
+		return ClientProxyContext.buildServiceID(SERVICE, ServiceProviderManager.defaultConfigFile,
+				BaseApplicationContext.container_type_application);
+	}
+
+	private RemoteCallContextImpl callContext(String user, String password)
+	{
+		RemoteCallContextImpl callContext = new RemoteCallContextImpl(ServiceProviderManager.defaultConfigFile,
+				BaseApplicationContext.container_type_application);
+		callContext.setSecutiryContext(new SecurityContext(user, password));
+		return callContext;
+	}
+
+	@Test
+	public void rejectBadCredentials() throws Throwable
+	{
+		LocalInvoker.setHandler(handler);
+		List<String> parameter = new ArrayList<String>();
+		try
+		{
+			LocalInvoker.invoke(serviceID(), "update", new Class[]{List.class}, new Object[]{parameter},
+					callContext("admin", "wrong"));
+			Assert.fail("bad credentials must be rejected");
+		}
+		catch(SecurityException e)
+		{
+		}
+		finally
+		{
+			LocalInvoker.setHandler(null);
+		}
+		//认证失败时不执行服务方法
+		Assert.assertEquals(0, handler.calls);
+		Assert.assertTrue(parameter.isEmpty());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void copyIsolation() throws Throwable
+	{
+		if(!LocalInvoker.copy)
+			return;
+		List<String> parameter = new ArrayList<String>();
+		parameter.add("client");
+		Object[] parameters = new Object[]{parameter};
+		List<String> value;
+		LocalInvoker.setHandler(handler);
+		try
+		{
+			value = (List<String>)LocalInvoker.invoke(serviceID(), "update", new Class[]{List.class}, parameters,
+					callContext("admin", "123456"));
+		}
+		finally
+		{
+			LocalInvoker.setHandler(null);
+		}
+		Assert.assertEquals(1, handler.calls);
+		//服务方法收到的是参数的副本，对副本的修改不影响调用方
+		Assert.assertNotSame(parameter, handler.received);
+		Assert.assertEquals(2, handler.received.size());
+		Assert.assertEquals(1, parameter.size());
+		Assert.assertSame(parameter, parameters[0]);
+		//调用方拿到的是结果的副本，修改后不影响服务端持有的对象
+		Assert.assertNotSame(handler.result, value);
+		value.add("client");
+		Assert.assertEquals(1, handler.result.size());
+	}
+
+}
@@ -0,0 +1,198 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: RPCRequestTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午10:38:52
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RPCRequestTest {
+
+	/**
+	 * 记录发送目标的请求处理器，只有replyFrom中的目标会立即返回响应
+	 */
+	private static class RecordingHandler implements RPCIOHandler
+	{
+		final List<RPCAddress> sent = new ArrayList<RPCAddress>();
+
+		final List<RPCAddress> replyFrom = new ArrayList<RPCAddress>();
+
+		public void sendRequest(long id, List<RPCAddress> dest_mbrs, RPCMessage msg, ResponseCollector coll)
+		{
+			for(RPCAddress dest : dest_mbrs)
+			{
+				sent.add(dest);
+				if(replyFrom.contains(dest))
+					coll.receiveResponse("reply-" + dest, dest);
+			}
+		}
+
+		public void done(long id)
+		{
+		}
+
+		public RPCMessage messageReceived(RPCMessage ret)
+		{
+			return null;
+		}
+
+		public RPCAddress getLocalAddress()
+		{
+			return null;
+		}
+	}
+
+	private static List<RPCAddress> buildTargets()
+	{
+		List<RPCAddress> targets = new ArrayList<RPCAddress>();
+		targets.add(new RPCAddress("192.168.1.21", 12347, "netty"));
+		targets.add(new RPCAddress("192.168.1.22", 12347, "netty"));
+		targets.add(new RPCAddress("192.168.1.23", 12347, "netty"));
+		return targets;
+	}
+
+	private static RPCMessage buildMessage(String idempotent)
+	{
+		RPCMessage msg = new RPCMessage();
+		msg.setResultSerial(RPCMessage.OOB);
+		//与RPCHelper一致，代理调用以callMethod发送，args[1]为服务方法名称
+		Object[] params = new Object[]{null, "getUser", new Object[]{"a"}, new Class[]{String.class}};
+		msg.setData(new RPCMethodCall("callMethod", params,
+				new Class[]{RemoteServiceID.class, String.class, Object[].class, Class[].class}, null));
+		if(idempotent != null)
+			msg.putHeader(Idempotency.PARAM_IDEMPOTENT, new Header(Idempotency.PARAM_IDEMPOTENT, idempotent));
+		return msg;
+	}
+
+	@Test
+	public void idempotent()
+	{
+		Assert.assertFalse(Idempotency.isIdempotent(buildMessage(null)));
+		Assert.assertFalse(Idempotency.isIdempotent(buildMessage("saveUser,getUserName")));
+		Assert.assertFalse(Idempotency.isIdempotent(buildMessage("callMethod")));
+		Assert.assertTrue(Idempotency.isIdempotent(buildMessage("saveUser,getUser")));
+		Assert.assertTrue(Idempotency.isIdempotent(buildMessage("*")));
+	}
+
+	@Test
+	public void hedgeOnlyIdempotent() throws Exception
+	{
+		List<RPCAddress> targets = buildTargets();
+		RecordingHandler handler = new RecordingHandler();
+		handler.replyFrom.add(targets.get(1));
+		RPCRequest req = new RPCRequest(buildMessage(null), handler, targets, RPCRequest.GET_FIRST, 5000, 1);
+		//未声明为幂等的方法不会对冲，直接广播给所有目标
+		req.hedge = false;
+		Assert.assertTrue(req.execute());
+		Assert.assertEquals(targets, handler.sent);
+	}
+
+	@Test
+	public void hedge() throws Exception
+	{
+		List<RPCAddress> targets = buildTargets();
+		RecordingHandler handler = new RecordingHandler();
+		handler.replyFrom.add(targets.get(1));
+		RPCRequest req = new RPCRequest(buildMessage("getUser"), handler, targets, RPCRequest.GET_FIRST, 5000, 1);
+		req.hedge = true;
+		Assert.assertTrue(req.execute());
+		//第一个目标没有响应，超过对冲延时后发送给第二个目标，收到响应后不再发送给第三个目标
+		Assert.assertEquals(2, handler.sent.size());
+		Assert.assertEquals(targets.get(0), handler.sent.get(0));
+		Assert.assertEquals(targets.get(1), handler.sent.get(1));
+		Assert.assertEquals("reply-" + targets.get(1), req.getResults().getFirst());
+	}
+
+	@Test
+	public void cancelWithoutInterrupt() throws Exception
+	{
+		final CountDownLatch running = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicBoolean interrupted = new AtomicBoolean();
+		FutureTask<Object> inflight = new FutureTask<Object>(new Runnable(){
+			public void run() {
+				running.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					interrupted.set(true);
+				}
+			}
+		}, null);
+		final AtomicBoolean executed = new AtomicBoolean();
+		FutureTask<Object> queued = new FutureTask<Object>(new Runnable(){
+			public void run() {
+				executed.set(true);
+			}
+		}, null);
+		new Thread(inflight).start();
+		running.await();
+		List<Future<?>> calls = new ArrayList<Future<?>>();
+		calls.add(inflight);
+		calls.add(queued);
+		RPCRequest.cancelPendingCalls(calls, false);
+		//尚未开始的发送不再执行，正在执行的发送不会被中断
+		queued.run();
+		Assert.assertFalse(executed.get());
+		release.countDown();
+		Thread.sleep(50);
+		Assert.assertFalse(interrupted.get());
+	}
+
+	@Test
+	public void cancelWithInterrupt() throws Exception
+	{
+		final CountDownLatch running = new CountDownLatch(1);
+		final CountDownLatch finished = new CountDownLatch(1);
+		final AtomicBoolean interrupted = new AtomicBoolean();
+		FutureTask<Object> inflight = new FutureTask<Object>(new Runnable(){
+			public void run() {
+				running.countDown();
+				try {
+					Thread.sleep(5000);
+				} catch (InterruptedException e) {
+					interrupted.set(true);
+				}
+				finished.countDown();
+			}
+		}, null);
+		new Thread(inflight).start();
+		running.await();
+		List<Future<?>> calls = new ArrayList<Future<?>>();
+		calls.add(inflight);
+		RPCRequest.cancelPendingCalls(calls, true);
+		Assert.assertTrue(finished.await(1000, TimeUnit.MILLISECONDS));
+		Assert.assertTrue(interrupted.get());
+	}
+
+}
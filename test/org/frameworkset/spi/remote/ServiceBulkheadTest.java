@@ -0,0 +1,118 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: ServiceBulkheadTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午10:05:33
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ServiceBulkheadTest {
+
+	@Test
+	public void concurrencyLimit() throws Exception
+	{
+		final ServiceBulkhead bulkhead = new ServiceBulkhead("order", 2);
+		final CountDownLatch started = new CountDownLatch(2);
+		final CountDownLatch release = new CountDownLatch(1);
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+		final Callable<Object> call = new Callable<Object>(){
+			public Object call() throws Exception {
+				int current = running.incrementAndGet();
+				if(current > maxRunning.get())
+					maxRunning.set(current);
+				started.countDown();
+				release.await();
+				running.decrementAndGet();
+				return "ok";
+			}
+		};
+		Thread[] threads = new Thread[2];
+		for(int i = 0; i < threads.length; i ++)
+		{
+			threads[i] = new Thread(){
+				public void run() {
+					try {
+						bulkhead.invoke(call);
+					} catch (Exception e) {
+					}
+				}
+			};
+			threads[i].start();
+		}
+		started.await();
+		Assert.assertEquals(2, bulkhead.getActive());
+		try
+		{
+			bulkhead.invoke(call);
+			Assert.fail("bulkhead is full");
+		}
+		catch(ServiceBusyException e)
+		{
+		}
+		release.countDown();
+		for(int i = 0; i < threads.length; i ++)
+			threads[i].join();
+		Assert.assertEquals(2, maxRunning.get());
+		Assert.assertEquals(0, bulkhead.getActive());
+		Assert.assertEquals(2, bulkhead.getPeak());
+		Assert.assertEquals(2, bulkhead.getCompleted());
+		Assert.assertEquals(1, bulkhead.getRejected());
+		Assert.assertEquals(0, bulkhead.getFailed());
+		//许可已经全部归还
+		Assert.assertEquals("ok", bulkhead.invoke(call));
+	}
+
+	@Test
+	public void failureReleasesPermit() throws Exception
+	{
+		ServiceBulkhead bulkhead = new ServiceBulkhead("user", 1);
+		Callable<Object> failure = new Callable<Object>(){
+			public Object call() throws Exception {
+				throw new IllegalStateException("boom");
+			}
+		};
+		for(int i = 0; i < 3; i ++)
+		{
+			try
+			{
+				bulkhead.invoke(failure);
+				Assert.fail();
+			}
+			catch(IllegalStateException e)
+			{
+			}
+		}
+		Assert.assertEquals(3, bulkhead.getFailed());
+		Assert.assertEquals(0, bulkhead.getCompleted());
+		Assert.assertEquals(0, bulkhead.getRejected());
+		Assert.assertEquals(0, bulkhead.getActive());
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: SharePayloadTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午09:12:40
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class SharePayloadTest {
+
+	@Test
+	public void multicastRoundTrip() throws Exception
+	{
+		Map<String, Object> payload = new HashMap<String, Object>();
+		payload.put("method", "getUser");
+		payload.put("args", new Object[]{"user-a", Integer.valueOf(3)});
+		RPCMessage msg = new RPCMessage();
+		msg.setResultSerial(RPCMessage.OOB);
+		msg.setData(payload);
+
+		BaseRPCIOHandler.encodePayload(msg);
+		Assert.assertEquals(RPCMessage.ENCODED, msg.getResultSerial());
+		Assert.assertTrue(msg.getData() instanceof byte[]);
+		//已经编码的消息体不会重复编码
+		Object encoded = msg.getData();
+		BaseRPCIOHandler.encodePayload(msg);
+		Assert.assertSame(encoded, msg.getData());
+
+		RPCMessage first = msg.copy(true);
+		RPCMessage second = msg.copy(true);
+		Assert.assertSame(first.getData(), second.getData());
+		Assert.assertEquals(RPCMessage.ENCODED, second.getResultSerial());
+		for(RPCMessage copy : new RPCMessage[]{first, second})
+		{
+			Map<?, ?> body = (Map<?, ?>) BaseRPCIOHandler.decodePayload(copy);
+			Assert.assertEquals("getUser", body.get("method"));
+			Object[] args = (Object[]) body.get("args");
+			Assert.assertEquals("user-a", args[0]);
+			Assert.assertEquals(Integer.valueOf(3), args[1]);
+		}
+	}
+
+}
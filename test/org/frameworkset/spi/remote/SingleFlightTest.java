@@ -0,0 +1,102 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: SingleFlightTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午11:12:05
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class SingleFlightTest {
+
+	@Test
+	public void coalesce() throws Throwable
+	{
+		final SingleFlight flight = new SingleFlight("getUser");
+		Assert.assertTrue(flight.isCoalesced("getUser"));
+		Assert.assertFalse(flight.isCoalesced("saveUser"));
+		final AtomicInteger invocations = new AtomicInteger();
+		final CountDownLatch release = new CountDownLatch(1);
+		final Callable<Object> call = new Callable<Object>(){
+			public Object call() throws Exception {
+				invocations.incrementAndGet();
+				release.await();
+				return "user-a";
+			}
+		};
+		final Object[] results = new Object[8];
+		Thread[] threads = new Thread[results.length];
+		for(int i = 0; i < threads.length; i ++)
+		{
+			final int index = i;
+			threads[i] = new Thread(){
+				public void run() {
+					try {
+						results[index] = flight.execute("getUser:a", call);
+					} catch (Throwable e) {
+						results[index] = e;
+					}
+				}
+			};
+			threads[i].start();
+		}
+		while(flight.getExecuted() + flight.getCoalesced() < threads.length)
+			Thread.sleep(10);
+		release.countDown();
+		for(int i = 0; i < threads.length; i ++)
+		{
+			threads[i].join();
+			Assert.assertEquals("user-a", results[i]);
+		}
+		Assert.assertEquals(1, invocations.get());
+		Assert.assertEquals(0, flight.getInflight());
+		//前一次调用结束后相同的请求重新执行
+		Assert.assertEquals("user-a", flight.execute("getUser:a", call));
+		Assert.assertEquals(2, invocations.get());
+	}
+
+	@Test
+	public void shareFailure()
+	{
+		SingleFlight flight = new SingleFlight("*");
+		try
+		{
+			flight.execute("getUser:b", new Callable<Object>(){
+				public Object call() throws Exception {
+					throw new IllegalStateException("user b not found");
+				}
+			});
+			Assert.fail();
+		}
+		catch(Throwable e)
+		{
+			Assert.assertTrue(e instanceof IllegalStateException);
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.batch;
+
+import org.frameworkset.spi.BaseApplicationContext;
+import org.frameworkset.spi.ClientProxyContext;
+import org.frameworkset.spi.SPIException;
+import org.frameworkset.spi.assemble.ServiceProviderManager;
+import org.frameworkset.spi.remote.RPCMessage;
+import org.frameworkset.spi.remote.RPCMethodCall;
+import org.frameworkset.spi.remote.RPCRequestHandler;
+import org.frameworkset.spi.remote.RemoteException;
+import org.frameworkset.spi.remote.RemoteServiceID;
+import org.frameworkset.spi.security.SecurityContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: RPCBatchTest.java</p>
+ * <p>Description: 批量调用在服务端的执行顺序、单个调用失败的隔离、调用数上限以及客户端对不同目标的拒绝，
+ * 服务端直接通过RPCRequestHandler处理批量请求，不经过传输层。</p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 下午03:36:18
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class RPCBatchTest {
+
+	private static final String SERVICE = "(netty::127.0.0.1:12347)/rpc.test";
+
+	/**
+	 * 模拟服务端容器的callMethod，echo返回服务和参数，fail抛出异常，sleep休眠指定毫秒后返回
+	 */
+	public static class BatchServer
+	{
+		public Object callMethod(RemoteServiceID serviceID, String method, Object[] parameters, Class[] types) throws Exception
+		{
+			if("fail".equals(method))
+				throw new IllegalStateException("fail " + parameters[0]);
+			if("sleep".equals(method))
+				Thread.sleep(((Integer)parameters[0]).longValue());
+			return serviceID.getService() + "." + method + ":" + parameters[0];
+		}
+	}
+
+	private RPCBatchCall call(String method, Object parameter)
+	{
+		RemoteServiceID serviceID = ClientProxyContext.buildServiceID(SERVICE, ServiceProviderManager.defaultConfigFile,
+				BaseApplicationContext.container_type_application);
+		return new RPCBatchCall(serviceID, method, new Object[]{parameter}, new Class[]{parameter.getClass()});
+	}
+
+	private Object handle(RPCBatchCall[] calls, boolean parallel)
+	{
+		RPCMessage req = new RPCMessage();
+		req.setResultSerial(RPCMessage.OOB);
+		req.setData(new RPCMethodCall(RPCBatch.BATCH_METHOD, new Object[]{calls, Boolean.valueOf(parallel)},
+				new Class[]{RPCBatchCall[].class, Boolean.class}, new SecurityContext("admin", "123456")));
+		return new RPCRequestHandler(new BatchServer()).handle(req);
+	}
+
+	@Test
+	public void sequentialOrder() throws Throwable
+	{
+		RPCBatchResult result = (RPCBatchResult)handle(new RPCBatchCall[]{call("echo", "a"), call("echo", "b"), call("echo", "c")}, false);
+		Assert.assertEquals(3, result.size());
+		Assert.assertEquals("rpc.test.echo:a", result.get(0));
+		Assert.assertEquals("rpc.test.echo:b", result.get(1));
+		Assert.assertEquals("rpc.test.echo:c", result.get(2));
+	}
+
+	@Test
+	public void parallelOrder() throws Throwable
+	{
+		//先记录的调用执行时间更长，并行执行时先完成的调用也必须放在各自的记录位置
+		RPCBatchResult result = (RPCBatchResult)handle(new RPCBatchCall[]{call("sleep", Integer.valueOf(200)),
+				call("sleep", Integer.valueOf(100)), call("sleep", Integer.valueOf(0))}, true);
+		Assert.assertEquals("rpc.test.sleep:200", result.get(0));
+		Assert.assertEquals("rpc.test.sleep:100", result.get(1));
+		Assert.assertEquals("rpc.test.sleep:0", result.get(2));
+	}
+
+	private void assertFailureIsolated(boolean parallel) throws Throwable
+	{
+		RPCBatchResult result = (RPCBatchResult)handle(new RPCBatchCall[]{call("echo", "a"), call("fail", "b"), call("echo", "c")}, parallel);
+		Assert.assertFalse(result.isFailed(0));
+		Assert.assertTrue(result.isFailed(1));
+		Assert.assertFalse(result.isFailed(2));
+		Assert.assertEquals("rpc.test.echo:a", result.get(0));
+		Assert.assertEquals("rpc.test.echo:c", result.get(2));
+		try
+		{
+			result.get(1);
+			Assert.fail("failed call must throw its exception");
+		}
+		catch(IllegalStateException e)
+		{
+			Assert.assertEquals("fail b", e.getMessage());
+		}
+	}
+
+	@Test
+	public void failureIsolated() throws Throwable
+	{
+		assertFailureIsolated(false);
+		assertFailureIsolated(true);
+	}
+
+	@Test
+	public void rejectTooManyCalls() throws Throwable
+	{
+		RPCBatchCall[] calls = new RPCBatchCall[BatchExecutor.maxCalls + 1];
+		for(int i = 0; i < calls.length; i ++)
+			calls[i] = call("echo", Integer.valueOf(i));
+		Object result = handle(calls, false);
+		Assert.assertTrue(result instanceof RemoteException);
+		Assert.assertTrue(((RemoteException)result).getMessage().contains("rpc.batch.max.calls"));
+
+		calls = new RPCBatchCall[BatchExecutor.maxCalls];
+		for(int i = 0; i < calls.length; i ++)
+			calls[i] = call("echo", Integer.valueOf(i));
+		Assert.assertEquals(BatchExecutor.maxCalls, ((RPCBatchResult)handle(calls, false)).size());
+	}
+
+	private void assertRejected(RPCBatch batch, String name)
+	{
+		try
+		{
+			batch.add(name, "echo", new Class[]{String.class}, new Object[]{"a"});
+			Assert.fail(name + " must be rejected");
+		}
+		catch(SPIException e)
+		{
+		}
+	}
+
+	@Test
+	public void rejectMixedTargets()
+	{
+		RPCBatch batch = ClientProxyContext.createBatch();
+		Assert.assertEquals(0, batch.add(SERVICE, "echo", new Class[]{String.class}, new Object[]{"a"}));
+		//同一目标上的其他服务可以加入同一个批量
+		Assert.assertEquals(1, batch.add("(netty::127.0.0.1:12347)/rpc.other", "echo", new Class[]{String.class}, new Object[]{"b"}));
+		assertRejected(batch, "(netty::127.0.0.1:12348)/rpc.test");
+		assertRejected(batch, "(mina::127.0.0.1:12347)/rpc.test");
+		assertRejected(batch, "(netty::127.0.0.1:12347;127.0.0.1:12348)/rpc.test");
+		assertRejected(batch, "(netty::all)/rpc.test");
+		Assert.assertEquals(2, batch.size());
+	}
+
+}
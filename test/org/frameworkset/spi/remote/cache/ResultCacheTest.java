@@ -0,0 +1,109 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.cache;
+
+import org.frameworkset.spi.remote.Header;
+import org.frameworkset.spi.remote.Headers;
+import org.frameworkset.spi.security.SecurityContext;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: ResultCacheTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午10:40:16
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ResultCacheTest {
+
+	private static final Class[] TYPES = new Class[]{String.class};
+
+	@Test
+	public void cacheAndInvalidate()
+	{
+		ResultCache cache = new ResultCache("user.service", "getUser,listRoles", 60000, 2);
+		Assert.assertNull(cache.buildKey(null, "saveUser", TYPES, new Object[]{"a"}));
+		Object a = cache.buildKey(null, "getUser", TYPES, new Object[]{"a"});
+		Assert.assertNull(cache.get(a));
+		cache.put(a, "user-a");
+		//参数相同的不同请求命中同一个缓存结果
+		Assert.assertEquals("user-a", cache.get(cache.buildKey(null, "getUser", TYPES, new Object[]{"a"})));
+		Assert.assertNull(cache.get(cache.buildKey(null, "getUser", TYPES, new Object[]{"b"})));
+
+		Object roles = cache.buildKey(null, "listRoles", TYPES, new Object[]{"a"});
+		cache.put(roles, "roles-a");
+		cache.invalidate("getUser");
+		Assert.assertNull(cache.get(a));
+		Assert.assertEquals("roles-a", cache.get(roles));
+		Assert.assertEquals(2, cache.getHits());
+	}
+
+	@Test
+	public void evictAndExpire() throws Exception
+	{
+		ResultCache cache = new ResultCache("user.service", "*", 300, 2);
+		Object a = cache.buildKey(null, "getUser", TYPES, new Object[]{"a"});
+		Object b = cache.buildKey(null, "getUser", TYPES, new Object[]{"b"});
+		Object c = cache.buildKey(null, "getUser", TYPES, new Object[]{"c"});
+		cache.put(a, "user-a");
+		cache.put(b, "user-b");
+		cache.get(a);
+		cache.put(c, "user-c");
+		//超出容量时淘汰最近最少使用的条目
+		Assert.assertEquals(2, cache.size());
+		Assert.assertNull(cache.get(b));
+		Assert.assertEquals("user-a", cache.get(a));
+		Thread.sleep(400);
+		Assert.assertNull(cache.get(c));
+	}
+
+	@Test
+	public void scopeByTargetAndCaller()
+	{
+		ResultCache cache = new ResultCache("user.service", "*", 60000, 10);
+		SecurityContext userA = new SecurityContext("a", "pa");
+		Object a = cache.buildKey(cache.buildScope("netty::hostA", userA, null), "getUser", TYPES, new Object[]{"a"});
+		cache.put(a, "user-a");
+		Assert.assertEquals("user-a", cache.get(cache.buildKey(cache.buildScope("netty::hostA", new SecurityContext("a", "pa"), null),
+				"getUser", TYPES, new Object[]{"a"})));
+		//不同目标、不同用户、不同口令、不同消息头都不共享结果
+		Assert.assertNull(cache.get(cache.buildKey(cache.buildScope("netty::hostB", userA, null), "getUser", TYPES, new Object[]{"a"})));
+		Assert.assertNull(cache.get(cache.buildKey(cache.buildScope("netty::hostA", new SecurityContext("b", "pb"), null),
+				"getUser", TYPES, new Object[]{"a"})));
+		Assert.assertNull(cache.get(cache.buildKey(cache.buildScope("netty::hostA", new SecurityContext("a", "wrong"), null),
+				"getUser", TYPES, new Object[]{"a"})));
+		Headers headers = new Headers();
+		headers.putHeader("tenant", new Header("tenant", "t1"));
+		Assert.assertNull(cache.get(cache.buildKey(cache.buildScope("netty::hostA", userA, headers), "getUser", TYPES, new Object[]{"a"})));
+	}
+
+	@Test
+	public void sharedScope()
+	{
+		ResultCache cache = new ResultCache("user.service", "*", 60000, 10, true);
+		Object a = cache.buildKey(cache.buildScope("netty::hostA", new SecurityContext("a", "pa"), null), "getUser", TYPES, new Object[]{"a"});
+		cache.put(a, "user-a");
+		//共享缓存不区分调用方，但仍然按目标地址隔离
+		Assert.assertEquals("user-a", cache.get(cache.buildKey(cache.buildScope("netty::hostA", new SecurityContext("b", "pb"), null),
+				"getUser", TYPES, new Object[]{"a"})));
+		Assert.assertNull(cache.get(cache.buildKey(cache.buildScope("netty::hostB", null, null), "getUser", TYPES, new Object[]{"a"})));
+	}
+
+}
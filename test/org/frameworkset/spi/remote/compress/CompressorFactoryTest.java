@@ -0,0 +1,171 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.compress;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.frameworkset.spi.remote.RPCMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: CompressorFactoryTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午11:58:27
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class CompressorFactoryTest {
+
+	private RPCMessage buildMessage(Object payload)
+	{
+		RPCMessage msg = new RPCMessage();
+		msg.setResultSerial(RPCMessage.OOB);
+		msg.setData(payload);
+		return msg;
+	}
+
+	@Test
+	public void smallPayloadStaysOOB() throws Exception
+	{
+		RPCMessage msg = buildMessage("bboss");
+		Assert.assertFalse(CompressorFactory.compressPayload(msg, CompressorFactory.getDefaultCompressor()));
+		Assert.assertEquals(RPCMessage.OOB, msg.getResultSerial());
+		Assert.assertEquals("bboss", msg.getData());
+	}
+
+	@Test
+	public void noCompressor() throws Exception
+	{
+		StringBuilder builder = new StringBuilder();
+		for(int i = 0; i < 2000; i ++)
+			builder.append("bboss-").append(i);
+		RPCMessage msg = buildMessage(builder.toString());
+		Assert.assertFalse(CompressorFactory.compressPayload(msg, null));
+		Assert.assertEquals(RPCMessage.OOB, msg.getResultSerial());
+	}
+
+	@Test
+	public void compress() throws Exception
+	{
+		StringBuilder builder = new StringBuilder();
+		for(int i = 0; i < 2000; i ++)
+			builder.append("<row id=\"").append(i).append("\" name=\"bboss\"/>");
+		String payload = builder.toString();
+		RPCMessage msg = buildMessage(payload);
+		Compressor compressor = CompressorFactory.getDefaultCompressor();
+		Assert.assertTrue(CompressorFactory.compressPayload(msg, compressor));
+		Assert.assertEquals(RPCMessage.COMPRESSED, msg.getResultSerial());
+		byte[] frame = (byte[]) msg.getData();
+		Assert.assertEquals(compressor.getId(), frame[0]);
+		Assert.assertTrue(frame.length < payload.length() / 4);
+		Assert.assertEquals(payload, CompressorFactory.decompressPayload(frame));
+	}
+
+	@Test
+	public void codecs() throws Exception
+	{
+		StringBuilder builder = new StringBuilder();
+		for(int i = 0; i < 2000; i ++)
+			builder.append("<row id=\"").append(i).append("\" name=\"bboss\"/>");
+		String payload = builder.toString();
+		//lz4为rpc.compress.codec的缺省算法，构建脚本声明了lz4-java和snappy-java依赖，测试classpath中必须可用
+		String[] names = new String[]{DeflateCompressor.NAME, LZ4BlockCompressor.NAME, SnappyCompressor.NAME};
+		for(String name : names)
+		{
+			Compressor compressor = CompressorFactory.getCompressor(name);
+			Assert.assertNotNull(name, compressor);
+			RPCMessage msg = buildMessage(payload);
+			Assert.assertTrue(name, CompressorFactory.compressPayload(msg, compressor));
+			byte[] frame = (byte[]) msg.getData();
+			Assert.assertEquals(name, compressor.getId(), frame[0]);
+			Assert.assertEquals(name, payload, CompressorFactory.decompressPayload(frame));
+		}
+	}
+
+	@Test
+	public void incompressible() throws Exception
+	{
+		byte[] payload = new byte[CompressorFactory.threshold * 4];
+		new Random(1).nextBytes(payload);
+		RPCMessage msg = buildMessage(payload);
+		Assert.assertTrue(CompressorFactory.compressPayload(msg, CompressorFactory.getDefaultCompressor()));
+		byte[] frame = (byte[]) msg.getData();
+		Assert.assertEquals(CompressorFactory.NONE, frame[0]);
+		Assert.assertArrayEquals(payload, (byte[]) CompressorFactory.decompressPayload(frame));
+	}
+
+	private static byte[] buildFrame(byte id, int length, int dataLength)
+	{
+		byte[] frame = new byte[CompressorFactory.FRAME_HEADER + dataLength];
+		CompressorFactory.writeFrameHeader(frame, id, length);
+		return frame;
+	}
+
+	@Test(expected = IOException.class)
+	public void truncatedFrame() throws Exception
+	{
+		CompressorFactory.decompressPayload(new byte[]{DeflateCompressor.ID, 0, 0});
+	}
+
+	@Test(expected = IOException.class)
+	public void negativeLength() throws Exception
+	{
+		CompressorFactory.decompressPayload(buildFrame(DeflateCompressor.ID, Integer.MIN_VALUE, 16));
+	}
+
+	@Test(expected = IOException.class)
+	public void oversizedLength() throws Exception
+	{
+		//帧头声明2G的压缩前长度，不能按该长度分配内存
+		CompressorFactory.decompressPayload(buildFrame(DeflateCompressor.ID, Integer.MAX_VALUE, 16));
+	}
+
+	@Test
+	public void maxLength() throws Exception
+	{
+		Assert.assertEquals(16, CompressorFactory.readFrameLength(buildFrame(DeflateCompressor.ID, 16, 4), 16));
+		try
+		{
+			CompressorFactory.readFrameLength(buildFrame(DeflateCompressor.ID, 17, 4), 16);
+			Assert.fail();
+		}
+		catch (IOException e)
+		{
+		}
+		//小于等于0时不限制
+		Assert.assertEquals(Integer.MAX_VALUE, CompressorFactory.readFrameLength(buildFrame(DeflateCompressor.ID, Integer.MAX_VALUE, 4), 0));
+	}
+
+	@Test(expected = IOException.class)
+	public void uncompressedLengthExceedsFrame() throws Exception
+	{
+		CompressorFactory.decompressPayload(buildFrame(CompressorFactory.NONE, 100, 10));
+	}
+
+	@Test(expected = Exception.class)
+	public void corruptedData() throws Exception
+	{
+		byte[] frame = buildFrame(DeflateCompressor.ID, 1024, 16);
+		new Random(1).nextBytes(frame);
+		CompressorFactory.writeFrameHeader(frame, DeflateCompressor.ID, 1024);
+		CompressorFactory.decompressPayload(frame);
+	}
+}
@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.compress;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: DeflateCompressorTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午05:08:51
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class DeflateCompressorTest {
+
+	@Test
+	public void roundtrip() throws Exception
+	{
+		StringBuilder builder = new StringBuilder();
+		for(int i = 0; i < 2000; i ++)
+			builder.append("<row id=\"").append(i).append("\" name=\"bboss\"/>");
+		byte[] src = builder.toString().getBytes("UTF-8");
+		Compressor compressor = new DeflateCompressor();
+		byte[] compressed = compressor.compress(src);
+		Assert.assertTrue(compressed.length < src.length / 4);
+		Assert.assertArrayEquals(src, compressor.decompress(compressed, 0, compressed.length, src.length));
+		byte[] framed = new byte[compressed.length + 3];
+		System.arraycopy(compressed, 0, framed, 3, compressed.length);
+		Assert.assertArrayEquals(src, compressor.decompress(framed, 3, compressed.length, src.length));
+	}
+
+}
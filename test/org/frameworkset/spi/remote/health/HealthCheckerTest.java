@@ -0,0 +1,143 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.health;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.frameworkset.spi.remote.RPCAddress;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: HealthCheckerTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午09:41:18
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class HealthCheckerTest {
+
+	private static class CountingStatus extends HealthStatus
+	{
+		final AtomicInteger probes = new AtomicInteger();
+
+		final boolean result;
+
+		CountingStatus(RPCAddress address, String user, String password, boolean result)
+		{
+			super(address, user, password);
+			this.result = result;
+		}
+
+		protected boolean probe()
+		{
+			probes.incrementAndGet();
+			try
+			{
+				Thread.sleep(100);
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			return result;
+		}
+	}
+
+	private static void awaitChecked(HealthStatus status, long after) throws InterruptedException
+	{
+		for(int i = 0; i < 100 && (status.isChecking() || status.getLastChecked() <= after); i ++)
+			Thread.sleep(20);
+	}
+
+	@Test
+	public void cacheByCredentials()
+	{
+		RPCAddress address = new RPCAddress("10.0.0.1", 12347, "netty");
+		HealthStatus admin = HealthChecker.register(address, "admin", "123456");
+		Assert.assertSame(admin, HealthChecker.register(address, "admin", "123456"));
+		Assert.assertNotSame(admin, HealthChecker.register(address, "admin", "wrong"));
+		Assert.assertNotSame(admin, HealthChecker.register(address, null, null));
+		Assert.assertSame(admin, HealthChecker.getHealthStatus(address, "admin", "123456"));
+		Assert.assertNull(HealthChecker.getHealthStatus(address, "guest", "123456"));
+	}
+
+	@Test
+	public void credentialsNotShared()
+	{
+		RPCAddress address = new RPCAddress("10.0.0.2", 12347, "netty");
+		CountingStatus right = new CountingStatus(address, "admin", "123456", true);
+		CountingStatus wrong = new CountingStatus(address, "admin", "wrong", false);
+		Assert.assertSame(right, HealthChecker.register(right));
+		Assert.assertSame(wrong, HealthChecker.register(wrong));
+		Assert.assertTrue(HealthChecker.isHealthy(address, "admin", "123456"));
+		Assert.assertFalse(HealthChecker.isHealthy(address, "admin", "wrong"));
+		Assert.assertTrue(HealthChecker.isHealthy(address, "admin", "123456"));
+		Assert.assertEquals(1, right.probes.get());
+		Assert.assertEquals(1, wrong.probes.get());
+	}
+
+	@Test
+	public void concurrentFirstCheck() throws Exception
+	{
+		final RPCAddress address = new RPCAddress("10.0.0.3", 12347, "netty");
+		CountingStatus status = new CountingStatus(address, null, null, true);
+		HealthChecker.register(status);
+		final boolean[] results = new boolean[8];
+		Thread[] threads = new Thread[results.length];
+		for(int i = 0; i < threads.length; i ++)
+		{
+			final int index = i;
+			threads[i] = new Thread(){
+				public void run() {
+					results[index] = HealthChecker.isHealthy(address, null, null);
+				}
+			};
+			threads[i].start();
+		}
+		for(int i = 0; i < threads.length; i ++)
+		{
+			threads[i].join();
+			Assert.assertTrue(results[i]);
+		}
+		Assert.assertEquals(1, status.probes.get());
+	}
+
+	@Test
+	public void scheduler() throws Exception
+	{
+		RPCAddress address = new RPCAddress("10.0.0.4", 12347, "netty");
+		CountingStatus status = new CountingStatus(address, null, null, true);
+		HealthChecker.register(status);
+		Assert.assertTrue(HealthChecker.isHealthy(address, null, null));
+		long checked = status.getLastChecked();
+
+		HealthChecker.checkAll(System.currentTimeMillis());
+		//上一次检查未结束时同一轮内不会重复提交
+		HealthChecker.checkAll(System.currentTimeMillis());
+		awaitChecked(status, checked);
+		Assert.assertEquals(2, status.probes.get());
+		Assert.assertSame(status, HealthChecker.getHealthStatus(address));
+
+		//长期没有被校验的地址从检查列表中移除
+		HealthChecker.checkAll(System.currentTimeMillis() + Integer.MAX_VALUE + 1L);
+		Assert.assertNull(HealthChecker.getHealthStatus(address));
+	}
+
+}
@@ -0,0 +1,82 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.loadbalance;
+
+import org.frameworkset.spi.remote.RPCAddress;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: CircuitBreakerTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午07:20:35
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class CircuitBreakerTest {
+
+	private CircuitBreaker buildBreaker()
+	{
+		return new CircuitBreaker(new RPCAddress("192.168.1.21", 12347, "netty"), 10000, 10, 50, 1000, 80, 500, 2);
+	}
+
+	@Test
+	public void errorRate() throws Exception
+	{
+		CircuitBreaker breaker = buildBreaker();
+		for(int i = 0; i < 9; i ++)
+		{
+			Assert.assertTrue(breaker.tryAcquire());
+			breaker.record(1, false);
+		}
+		//未达到最小调用数，不熔断
+		Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+		breaker.record(1, false);
+		Assert.assertEquals(CircuitBreaker.OPEN, breaker.getState());
+		Assert.assertFalse(breaker.tryAcquire());
+		Assert.assertFalse(breaker.isAvailable());
+
+		Thread.sleep(600);
+		Assert.assertTrue(breaker.isAvailable());
+		Assert.assertTrue(breaker.tryAcquire());
+		Assert.assertEquals(CircuitBreaker.HALF_OPEN, breaker.getState());
+		Assert.assertTrue(breaker.tryAcquire());
+		Assert.assertFalse(breaker.tryAcquire());
+		breaker.record(1, true);
+		breaker.record(1, true);
+		Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+		breaker.record(1, false);
+		Assert.assertEquals(CircuitBreaker.CLOSED, breaker.getState());
+	}
+
+	@Test
+	public void halfOpenFailure() throws Exception
+	{
+		CircuitBreaker breaker = buildBreaker();
+		for(int i = 0; i < 10; i ++)
+			breaker.record(2000, true);
+		Assert.assertEquals(CircuitBreaker.OPEN, breaker.getState());
+		Thread.sleep(600);
+		Assert.assertTrue(breaker.tryAcquire());
+		breaker.record(1, false);
+		Assert.assertEquals(CircuitBreaker.OPEN, breaker.getState());
+		Assert.assertEquals(2, breaker.getOpened());
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.loadbalance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.frameworkset.spi.remote.RPCAddress;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: LoadBalancerTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午03:02:44
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class LoadBalancerTest {
+
+	private List<RPCAddress> buildTargets()
+	{
+		List<RPCAddress> targets = new ArrayList<RPCAddress>();
+		targets.add(new RPCAddress("192.168.1.21", 12347, "netty"));
+		targets.add(new RPCAddress("192.168.1.22", 12347, "netty"));
+		targets.add(new RPCAddress("192.168.1.23", 12347, "netty"));
+		return targets;
+	}
+
+	@Test
+	public void roundrobin()
+	{
+		List<RPCAddress> targets = buildTargets();
+		LoadBalancer balancer = new RoundRobinLoadBalancer();
+		RPCAddress first = balancer.select(targets, null, null);
+		Assert.assertNotSame(first, balancer.select(targets, null, null));
+		List<RPCAddress> excludes = new ArrayList<RPCAddress>(targets);
+		excludes.remove(2);
+		for(int i = 0; i < 5; i ++)
+			Assert.assertEquals(targets.get(2), balancer.select(targets, null, excludes));
+		Assert.assertNull(balancer.select(targets, null, targets));
+	}
+
+	@Test
+	public void consistentHash()
+	{
+		List<RPCAddress> targets = buildTargets();
+		LoadBalancer balancer = new ConsistentHashLoadBalancer();
+		RPCAddress address = balancer.select(targets, "order-1001", null);
+		for(int i = 0; i < 5; i ++)
+			Assert.assertEquals(address, balancer.select(buildTargets(), "order-1001", null));
+		RPCAddress failover = balancer.select(targets, "order-1001", Collections.singletonList(address));
+		Assert.assertNotNull(failover);
+		Assert.assertFalse(address.equals(failover));
+	}
+
+	@Test
+	public void p2c()
+	{
+		List<RPCAddress> targets = buildTargets();
+		EndpointStats busy = EndpointStats.getEndpointStats(targets.get(0));
+		for(int i = 0; i < 100; i ++)
+			busy.beginCall();
+		LoadBalancer balancer = new PowerOfTwoChoicesLoadBalancer();
+		for(int i = 0; i < 20; i ++)
+			Assert.assertFalse(targets.get(0).equals(balancer.select(targets, null, null)));
+		for(int i = 0; i < 100; i ++)
+			busy.endCall(1, true);
+	}
+
+}
@@ -0,0 +1,187 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.membership;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.frameworkset.spi.remote.RPCAddress;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: MembershipTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 下午12:16:42
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class MembershipTest
+{
+    private static RPCAddress address(String protocol, String ip, int port)
+    {
+        return new RPCAddress(ip, port, null, protocol);
+    }
+
+    private static List<RPCAddress> list(RPCAddress... addresses)
+    {
+        List<RPCAddress> list = new ArrayList<RPCAddress>();
+        for (int i = 0; i < addresses.length; i++)
+            list.add(addresses[i]);
+        return list;
+    }
+
+    private static void write(File file, String content, long modified) throws IOException
+    {
+        OutputStream out = new FileOutputStream(file);
+        try
+        {
+            out.write(content.getBytes("ISO-8859-1"));
+        }
+        finally
+        {
+            out.close();
+        }
+        file.setLastModified(modified);
+    }
+
+    @Test
+    public void updateJoinLeave()
+    {
+        String protocol = "test-update";
+        RPCAddress a = address(protocol, "10.0.0.1", 1000);
+        RPCAddress b = address(protocol, "10.0.0.2", 1000);
+        RPCAddress c = address(protocol, "10.0.0.3", 1000);
+        Membership.update(protocol, list(a, b));
+        Assert.assertEquals(list(a, b), Membership.getMembers(protocol));
+
+        Membership.join(protocol, c);
+        Membership.join(protocol, c);
+        Assert.assertEquals(list(a, b, c), Membership.getMembers(protocol));
+
+        Membership.leave(protocol, a);
+        Assert.assertEquals(list(b, c), Membership.getMembers(protocol));
+
+        Membership.update(protocol, list(a));
+        Assert.assertEquals(list(a), Membership.getMembers(protocol));
+    }
+
+    @Test
+    public void mergeSources()
+    {
+        String protocol = "test-merge";
+        RPCAddress a = address(protocol, "10.0.0.1", 1000);
+        RPCAddress b = address(protocol, "10.0.0.2", 1000);
+        RPCAddress c = address(protocol, "10.0.0.3", 1000);
+        Membership.update(Membership.SOURCE_FILE, protocol, list(a, b));
+        Membership.update(Membership.SOURCE_JGROUPS, protocol, list(b, c));
+        Assert.assertEquals(list(a, b, c), Membership.getMembers(protocol));
+
+        // jgroups视图变化不影响文件登记的成员
+        Membership.update(Membership.SOURCE_JGROUPS, protocol, list(c));
+        Assert.assertEquals(list(a, b, c), Membership.getMembers(protocol));
+
+        // 其他来源中仍然登记的节点保留
+        Membership.leave(Membership.SOURCE_JGROUPS, protocol, a);
+        Assert.assertEquals(list(a, b, c), Membership.getMembers(protocol));
+        Membership.join(Membership.SOURCE_JGROUPS, protocol, a);
+        Membership.leave(Membership.SOURCE_FILE, protocol, a);
+        Assert.assertEquals(list(b, c, a), Membership.getMembers(protocol));
+
+        Membership.update(Membership.SOURCE_FILE, protocol, new ArrayList<RPCAddress>());
+        Assert.assertEquals(list(c, a), Membership.getMembers(protocol));
+    }
+
+    @Test
+    public void notifyListeners()
+    {
+        final String protocol = "test-listener";
+        RPCAddress a = address(protocol, "10.0.0.1", 1000);
+        RPCAddress b = address(protocol, "10.0.0.2", 1000);
+        final List<List<RPCAddress>> events = new ArrayList<List<RPCAddress>>();
+        MembershipChangeListener listener = new MembershipChangeListener()
+        {
+            public void membersChanged(String changed, List<RPCAddress> joined, List<RPCAddress> left,
+                    List<RPCAddress> members)
+            {
+                if (!changed.equals(protocol))
+                    return;
+                events.add(joined);
+                events.add(left);
+            }
+        };
+        // 先登记成员，避免rpc.all.servers中的初始成员出现在通知中
+        Membership.update(Membership.SOURCE_FILE, protocol, list(a));
+        Membership.addListener(listener);
+        try
+        {
+            Membership.join(Membership.SOURCE_JGROUPS, protocol, a);
+            Membership.join(Membership.SOURCE_JGROUPS, protocol, b);
+            Membership.leave(Membership.SOURCE_FILE, protocol, a);
+            Membership.leave(Membership.SOURCE_JGROUPS, protocol, a);
+        }
+        finally
+        {
+            Membership.removeListener(listener);
+        }
+        Assert.assertEquals(4, events.size());
+        Assert.assertEquals(list(b), events.get(0));
+        Assert.assertEquals(list(), events.get(1));
+        Assert.assertEquals(list(), events.get(2));
+        Assert.assertEquals(list(a), events.get(3));
+    }
+
+    @Test
+    public void reloadFile() throws IOException
+    {
+        String netty = "test-file-netty";
+        String mina = "test-file-mina";
+        RPCAddress j = address(netty, "10.0.0.9", 12347);
+        File file = File.createTempFile("membership", ".properties");
+        try
+        {
+            long modified = System.currentTimeMillis() / 1000 * 1000 - 60000;
+            write(file, netty + "=10.0.0.1:12347;10.0.0.2:12347\n" + mina + "=10.0.0.1:12346\n", modified);
+            FileMembershipWatcher watcher = new FileMembershipWatcher(file.getAbsolutePath(), 1000);
+            watcher.reload();
+            Membership.join(Membership.SOURCE_JGROUPS, netty, j);
+            Assert.assertEquals(list(address(netty, "10.0.0.1", 12347), address(netty, "10.0.0.2", 12347), j),
+                    Membership.getMembers(netty));
+            Assert.assertEquals(list(address(mina, "10.0.0.1", 12346)), Membership.getMembers(mina));
+
+            // 文件未变化时不重新加载
+            Membership.update(Membership.SOURCE_FILE, mina, new ArrayList<RPCAddress>());
+            watcher.reload();
+            Assert.assertEquals(list(), Membership.getMembers(mina));
+
+            write(file, netty + "=10.0.0.3:12347\n", modified + 10000);
+            watcher.reload();
+            Assert.assertEquals(list(address(netty, "10.0.0.3", 12347), j), Membership.getMembers(netty));
+            Assert.assertEquals(list(), Membership.getMembers(mina));
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: LatencyHistogramTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午05:52:31
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class LatencyHistogramTest {
+
+	@Test
+	public void bucketPrecision()
+	{
+		long[] values = new long[]{0, 7, 15, 16, 17, 100, 1000, 123456, 987654321L};
+		for(int i = 0; i < values.length; i ++)
+		{
+			long value = LatencyHistogram.bucketValue(LatencyHistogram.bucketIndex(values[i]));
+			Assert.assertTrue(Math.abs(value - values[i]) <= values[i] / 16);
+		}
+	}
+
+	@Test
+	public void percentile()
+	{
+		LatencyHistogram histogram = new LatencyHistogram();
+		for(int i = 1; i <= 1000; i ++)
+			histogram.record(i * 1000L);
+		Assert.assertEquals(1000, histogram.getCount());
+		Assert.assertEquals(1000, histogram.getMax());
+		Assert.assertEquals(500.5, histogram.getMean(), 0.01);
+		long p50 = histogram.getValueAtPercentile(50);
+		Assert.assertTrue(p50 >= 470 && p50 <= 530);
+		long p99 = histogram.getValueAtPercentile(99);
+		Assert.assertTrue(p99 >= 930 && p99 <= 1000);
+	}
+
+}
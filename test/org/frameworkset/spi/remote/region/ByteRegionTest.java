@@ -0,0 +1,174 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.region;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.frameworkset.spi.remote.RPCMessage;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: ByteRegionTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午12:52:16
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ByteRegionTest {
+
+	private void roundtrip(int size) throws Exception
+	{
+		byte[] data = new byte[size];
+		for(int i = 0; i < size; i ++)
+			data[i] = (byte)i;
+		ByteRegion region = ByteRegion.wrap(ByteBuffer.wrap(data));
+		RegionContent content = RegionRegistry.lookup(region.getId());
+		String scope = RegionRegistry.scope("test", "roundtrip");
+		RegionReceiver receiver = new RegionReceiver(scope, new RegionHeader(region.getId(), content.getLength()));
+		//模拟传输层分多次收到区域内容
+		ByteBuffer buffer = content.asByteBuffer();
+		while(buffer.hasRemaining())
+		{
+			ByteBuffer slice = buffer.slice();
+			slice.limit(Math.min(4096, slice.remaining()));
+			buffer.position(buffer.position() + slice.remaining());
+			receiver.write(slice);
+		}
+		Assert.assertTrue(receiver.isComplete());
+		receiver.finish();
+
+		ByteRegion received = new ByteRegion();
+		received.setId(scope + region.getId());
+		received.setLength(size);
+		ByteBuffer view = received.asByteBuffer();
+		Assert.assertEquals(size, view.remaining());
+		for(int i = 0; i < size; i ++)
+			Assert.assertEquals((byte)i, view.get(i));
+		InputStream in = received.openStream();
+		int count = 0;
+		while(in.read() >= 0)
+			count ++;
+		in.close();
+		Assert.assertEquals(size, count);
+		//接收端以连接标识为前缀登记，不会替换发送端的内容
+		Assert.assertNotNull(RegionRegistry.lookup(region.getId()));
+		received.release();
+		region.release();
+		Assert.assertNull(RegionRegistry.lookup(scope + region.getId()));
+		Assert.assertNull(RegionRegistry.lookup(region.getId()));
+	}
+
+	@Test
+	public void memory() throws Exception
+	{
+		roundtrip(1000);
+	}
+
+	@Test
+	public void spool() throws Exception
+	{
+		roundtrip(RegionRegistry.memoryThreshold + 10000);
+	}
+
+	@Test(expected = IOException.class)
+	public void negativeLength() throws Exception
+	{
+		new RegionReceiver("", new RegionHeader("negative", -1));
+	}
+
+	@Test(expected = IOException.class)
+	public void exceedMaxLength() throws Exception
+	{
+		new RegionReceiver("", new RegionHeader("large", 1025), 1024);
+	}
+
+	@Test
+	public void maxLength() throws Exception
+	{
+		RegionReceiver receiver = new RegionReceiver("", new RegionHeader("max", 1024), 1024);
+		Assert.assertEquals(1024, receiver.getRemaining());
+		receiver = new RegionReceiver("", new RegionHeader("unlimited", 2048), 0);
+		Assert.assertEquals(2048, receiver.getRemaining());
+	}
+
+	private void receive(String scope, String id, byte[] data) throws Exception
+	{
+		RegionReceiver receiver = new RegionReceiver(scope, new RegionHeader(id, data.length));
+		receiver.write(ByteBuffer.wrap(data));
+		receiver.finish();
+	}
+
+	private RPCMessage response(String id)
+	{
+		ByteRegion region = new ByteRegion();
+		region.setId(id);
+		RPCMessage message = new RPCMessage();
+		message.setResultSerial(RPCMessage.OOB);
+		message.setData(region);
+		return message;
+	}
+
+	@Test
+	public void scopedByConnection() throws Exception
+	{
+		String first = RegionRegistry.scope("test", 1);
+		String second = RegionRegistry.scope("test", 2);
+		receive(first, "same", new byte[]{1});
+		//另一个连接上的对端使用相同的标识不会替换第一个连接收到的内容
+		receive(second, "same", new byte[]{2, 2});
+
+		RPCMessage message = response("same");
+		RegionRegistry.bind(first, message);
+		ByteRegion region = (ByteRegion)message.getData();
+		Assert.assertEquals(first + "same", region.getId());
+		Assert.assertEquals(1, region.asByteBuffer().remaining());
+		region.release();
+
+		message = response("same");
+		RegionRegistry.bind(second, message);
+		region = (ByteRegion)message.getData();
+		Assert.assertEquals(2, region.asByteBuffer().remaining());
+		region.release();
+	}
+
+	@Test
+	public void releaseWrittenResult() throws Exception
+	{
+		ByteRegion region = ByteRegion.wrap(ByteBuffer.wrap(new byte[16]));
+		RPCMessage message = new RPCMessage();
+		message.setResultSerial(RPCMessage.OOB);
+		message.setData(region);
+		RegionRegistry.written(message);
+		Assert.assertNull(RegionRegistry.lookup(region.getId()));
+	}
+
+	@Test
+	public void expire() throws Exception
+	{
+		ByteRegion region = ByteRegion.wrap(ByteBuffer.wrap(new byte[16]));
+		RegionRegistry.expire(System.currentTimeMillis());
+		Assert.assertNotNull(RegionRegistry.lookup(region.getId()));
+		RegionRegistry.expire(System.currentTimeMillis() + RegionRegistry.ttl + 1);
+		Assert.assertNull(RegionRegistry.lookup(region.getId()));
+	}
+
+}
@@ -0,0 +1,76 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.serializable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: ClassRegistryTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午01:44:18
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class ClassRegistryTest {
+
+	@Test
+	public void compactStream() throws Exception
+	{
+		Assert.assertEquals(45, ClassRegistry.getMagicNumber(ArrayList.class));
+		Assert.assertEquals(ArrayList.class, ClassRegistry.get((short)45));
+		List<Object> value = new ArrayList<Object>();
+		value.add(Integer.valueOf(5));
+		value.add(new Object[]{"a", Long.valueOf(3), new HashMap<String, Object>()});
+		value.add(new RuntimeException("boom"));
+
+		ByteArrayOutputStream compact = new ByteArrayOutputStream();
+		ObjectOutputStream out = new CompactObjectOutputStream(compact);
+		out.writeObject(value);
+		out.close();
+		ByteArrayOutputStream plain = new ByteArrayOutputStream();
+		out = new ObjectOutputStream(plain);
+		out.writeObject(value);
+		out.close();
+		Assert.assertTrue(compact.size() < plain.size());
+
+		//编号流和普通流都能读取
+		byte[][] streams = new byte[][]{compact.toByteArray(), plain.toByteArray()};
+		for(int i = 0; i < streams.length; i ++)
+		{
+			List<?> result = (List<?>)ClassRegistry.newObjectInputStream(streams[i], 0, streams[i].length).readObject();
+			Assert.assertEquals(Integer.valueOf(5), result.get(0));
+			Assert.assertEquals(Long.valueOf(3), ((Object[])result.get(1))[1]);
+			Assert.assertEquals("boom", ((RuntimeException)result.get(2)).getMessage());
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void reservedMagicNumber()
+	{
+		ClassRegistry.add((short)100, ClassRegistryTest.class);
+	}
+
+}
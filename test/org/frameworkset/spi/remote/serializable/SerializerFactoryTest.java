@@ -0,0 +1,160 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.serializable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.frameworkset.spi.remote.Header;
+import org.frameworkset.spi.remote.RPCAddress;
+import org.frameworkset.spi.remote.RPCMessage;
+import org.frameworkset.spi.remote.compress.Compressor;
+import org.frameworkset.spi.remote.compress.CompressorFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: SerializerFactoryTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午11:41:05
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class SerializerFactoryTest {
+
+	private static final String[] NAMES = new String[]{JavaSerializer.NAME, Hessian2Serializer.NAME, KryoSerializer.NAME};
+
+	private Map<String, Object> buildPayload(int items)
+	{
+		Map<String, Object> payload = new HashMap<String, Object>();
+		List<String> list = new ArrayList<String>();
+		for(int i = 0; i < items; i ++)
+			list.add("item-" + i);
+		payload.put("list", list);
+		payload.put("count", Integer.valueOf(items));
+		payload.put("name", "bboss");
+		return payload;
+	}
+
+	private RPCMessage buildMessage(Object payload)
+	{
+		RPCMessage msg = new RPCMessage();
+		msg.setResultSerial(RPCMessage.OOB);
+		msg.setData(payload);
+		return msg;
+	}
+
+	private void roundTrip(Serializer serializer, Compressor compressor, int items, boolean expectCompressed) throws Exception
+	{
+		Map<String, Object> payload = buildPayload(items);
+		RPCMessage msg = buildMessage(payload);
+		Assert.assertTrue(SerializerFactory.serializePayload(msg, serializer, compressor));
+		Assert.assertEquals(RPCMessage.SERIALIZED, msg.getResultSerial());
+		Assert.assertEquals(serializer.getName(), msg.getHeader(SerializerFactory.SERIALIZER_HEADER).getValue());
+		byte[] frame = (byte[]) msg.getData();
+		Assert.assertEquals(serializer.getName(), expectCompressed ? compressor.getId() : CompressorFactory.NONE, frame[0]);
+		Assert.assertEquals(serializer.getName(), payload, SerializerFactory.deserializePayload(msg));
+	}
+
+	@Test
+	public void roundTrip() throws Exception
+	{
+		Compressor deflate = CompressorFactory.getDefaultCompressor();
+		for(String name : NAMES)
+		{
+			//kryo为rpc.serializer.codec的缺省算法，构建脚本声明了kryo依赖，测试classpath中必须可用
+			Serializer serializer = SerializerFactory.getSerializer(name);
+			Assert.assertNotNull(name, serializer);
+			roundTrip(serializer, null, 3, false);
+			roundTrip(serializer, null, 2000, false);
+			//小于压缩阈值的消息体不压缩
+			roundTrip(serializer, deflate, 3, false);
+			roundTrip(serializer, deflate, 2000, true);
+		}
+	}
+
+	private void assertRejected(byte[] frame) throws Exception
+	{
+		RPCMessage msg = buildMessage(frame);
+		msg.setResultSerial(RPCMessage.SERIALIZED);
+		msg.putHeader(SerializerFactory.SERIALIZER_HEADER, new Header(SerializerFactory.SERIALIZER_HEADER, JavaSerializer.NAME));
+		try
+		{
+			SerializerFactory.deserializePayload(msg);
+			Assert.fail();
+		}
+		catch (IOException e)
+		{
+		}
+	}
+
+	@Test
+	public void rejectMalformedFrame() throws Exception
+	{
+		assertRejected(new byte[]{CompressorFactory.NONE, 0});
+		byte[] frame = new byte[CompressorFactory.FRAME_HEADER + 8];
+		CompressorFactory.writeFrameHeader(frame, CompressorFactory.NONE, -1);
+		assertRejected(frame);
+		CompressorFactory.writeFrameHeader(frame, CompressorFactory.NONE, 9);
+		assertRejected(frame);
+		CompressorFactory.writeFrameHeader(frame, CompressorFactory.getDefaultCompressor().getId(), Integer.MAX_VALUE);
+		assertRejected(frame);
+	}
+
+	@Test
+	public void skipNonOOB() throws Exception
+	{
+		RPCMessage msg = buildMessage("bboss");
+		msg.setResultSerial(RPCMessage.ENCODED);
+		Assert.assertFalse(SerializerFactory.serializePayload(msg, SerializerFactory.getDefaultSerializer(), null));
+		Assert.assertEquals("bboss", msg.getData());
+	}
+
+	@Test
+	public void negotiateFallback()
+	{
+		Serializer hessian2 = SerializerFactory.getSerializer(Hessian2Serializer.NAME);
+		Assert.assertSame(hessian2, SerializerFactory.getDefaultSerializer());
+		RPCAddress address = new RPCAddress("127.0.0.1", 12347, null, "netty");
+
+		//尚未协商的地址使用hessian2
+		Assert.assertSame(hessian2, SerializerFactory.getSerializer(buildMessage("bboss"), address));
+		Assert.assertSame(hessian2, SerializerFactory.getSerializer(buildMessage("bboss"), null));
+
+		//请求方没有开启序列化时不序列化响应，请求方声明的算法服务端不支持时使用hessian2
+		RPCMessage req = buildMessage("bboss");
+		Assert.assertNull(SerializerFactory.getReplySerializer(req));
+		req.putHeader(SerializerFactory.ACCEPT_HEADER, new Header(SerializerFactory.ACCEPT_HEADER, "unknown"));
+		Assert.assertSame(hessian2, SerializerFactory.getReplySerializer(req));
+		req.putHeader(SerializerFactory.ACCEPT_HEADER, new Header(SerializerFactory.ACCEPT_HEADER, JavaSerializer.NAME));
+		Assert.assertSame(SerializerFactory.getSerializer(JavaSerializer.NAME), SerializerFactory.getReplySerializer(req));
+
+		//按响应实际使用的算法记录协商结果，不支持的算法回退到hessian2
+		RPCMessage rsp = buildMessage("bboss");
+		rsp.putHeader(SerializerFactory.SERIALIZER_HEADER, new Header(SerializerFactory.SERIALIZER_HEADER, JavaSerializer.NAME));
+		SerializerFactory.negotiate(address, rsp);
+		Assert.assertSame(SerializerFactory.getSerializer(JavaSerializer.NAME), SerializerFactory.getSerializer(buildMessage("bboss"), address));
+		rsp.putHeader(SerializerFactory.SERIALIZER_HEADER, new Header(SerializerFactory.SERIALIZER_HEADER, "unknown"));
+		SerializerFactory.negotiate(address, rsp);
+		Assert.assertSame(hessian2, SerializerFactory.getSerializer(buildMessage("bboss"), address));
+	}
+}
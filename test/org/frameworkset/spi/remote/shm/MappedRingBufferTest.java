@@ -0,0 +1,212 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.shm;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: MappedRingBufferTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午11:38:20
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class MappedRingBufferTest {
+
+	private static class Collector implements MappedRingBuffer.MessageHandler
+	{
+		final List<String> messages = new ArrayList<String>();
+
+		public void onMessage(int type, byte[] message)
+		{
+			messages.add(type + ":" + new String(message));
+		}
+	}
+
+	private File buildFile() throws Exception
+	{
+		//缓冲区文件所在目录必须只有当前用户可写，不能直接放在java.io.tmpdir下
+		File dir = Files.createTempDirectory("ring").toFile();
+		dir.deleteOnExit();
+		File file = new File(dir, "test.ring");
+		file.deleteOnExit();
+		return file;
+	}
+
+	private boolean isPosix()
+	{
+		return new File(".").toPath().getFileSystem().supportedFileAttributeViews().contains("posix");
+	}
+
+	@Test
+	public void offerAndPoll() throws Exception
+	{
+		File file = buildFile();
+		MappedRingBuffer consumer = MappedRingBuffer.create(file, 1024);
+		MappedRingBuffer producer = MappedRingBuffer.open(file);
+		Assert.assertTrue(producer.isOpen());
+		Collector collector = new Collector();
+		Assert.assertFalse(consumer.poll(collector));
+		//反复写入读取，覆盖记录跨越数据区末尾时的填充逻辑
+		for(int i = 0; i < 200; i ++)
+		{
+			Assert.assertTrue(producer.offer(1, ("message-" + i).getBytes()));
+			Assert.assertTrue(producer.offer(2, ("next-" + i).getBytes()));
+			Assert.assertTrue(consumer.poll(collector));
+			Assert.assertTrue(consumer.poll(collector));
+			Assert.assertEquals("1:message-" + i, collector.messages.get(2 * i));
+			Assert.assertEquals("2:next-" + i, collector.messages.get(2 * i + 1));
+		}
+		Assert.assertFalse(consumer.poll(collector));
+		consumer.close();
+		Assert.assertFalse(producer.isOpen());
+	}
+
+	@Test
+	public void full() throws Exception
+	{
+		MappedRingBuffer ring = MappedRingBuffer.create(buildFile(), 1024);
+		byte[] message = new byte[ring.getMaxMessageLength()];
+		for(int i = 0; i < 4; i ++)
+			Assert.assertTrue(ring.offer(1, message));
+		Assert.assertFalse(ring.offer(1, new byte[1]));
+		Assert.assertTrue(ring.poll(new Collector()));
+		Assert.assertTrue(ring.offer(1, new byte[1]));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void oversizeMessage() throws Exception
+	{
+		MappedRingBuffer ring = MappedRingBuffer.create(buildFile(), 1024);
+		ring.offer(1, new byte[ring.getMaxMessageLength() + 1]);
+	}
+
+	@Test
+	public void concurrentProducers() throws Exception
+	{
+		File file = buildFile();
+		MappedRingBuffer consumer = MappedRingBuffer.create(file, 4096);
+		final MappedRingBuffer producer = MappedRingBuffer.open(file);
+		final int count = 5000;
+		Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t ++)
+		{
+			final int id = t;
+			threads[t] = new Thread(){
+				public void run()
+				{
+					for(int i = 0; i < count; i ++)
+					{
+						byte[] message = (id + "-" + i).getBytes();
+						while(!producer.offer(id, message))
+							Thread.yield();
+					}
+				}
+			};
+			threads[t].start();
+		}
+		final int[] next = new int[threads.length];
+		MappedRingBuffer.MessageHandler handler = new MappedRingBuffer.MessageHandler(){
+			public void onMessage(int type, byte[] message)
+			{
+				//同一个生产者的消息保持写入顺序
+				Assert.assertEquals(type + "-" + next[type], new String(message));
+				next[type] ++;
+			}
+		};
+		int received = 0;
+		long deadline = System.currentTimeMillis() + 30000;
+		while(received < count * threads.length && System.currentTimeMillis() < deadline)
+		{
+			if(consumer.poll(handler))
+				received ++;
+		}
+		for(int t = 0; t < threads.length; t ++)
+			threads[t].join();
+		Assert.assertEquals(count * threads.length, received);
+	}
+
+	@Test
+	public void createOwnerOnlyFiles() throws Exception
+	{
+		if(!isPosix())
+			return;
+		File parent = buildFile().getParentFile();
+		File file = new File(new File(parent, "shm"), "server-12345.ring");
+		MappedRingBuffer.create(file, 1024);
+		Assert.assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file.getParentFile().toPath())));
+		Assert.assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(file.toPath())));
+		file.delete();
+		file.getParentFile().delete();
+	}
+
+	@Test
+	public void rejectSymbolicLink() throws Exception
+	{
+		File target = buildFile();
+		MappedRingBuffer.create(target, 1024);
+		File link = new File(target.getParentFile(), "link.ring");
+		Files.createSymbolicLink(link.toPath(), target.toPath());
+		link.deleteOnExit();
+		try
+		{
+			MappedRingBuffer.open(link);
+			Assert.fail("symbolic link must be rejected");
+		}
+		catch(IOException e)
+		{
+		}
+		try
+		{
+			MappedRingBuffer.create(link, 1024);
+			Assert.fail("symbolic link must be rejected");
+		}
+		catch(IOException e)
+		{
+		}
+	}
+
+	@Test
+	public void rejectWritableDirectory() throws Exception
+	{
+		if(!isPosix())
+			return;
+		Path dir = buildFile().getParentFile().toPath();
+		Files.setPosixFilePermissions(dir, PosixFilePermissions.fromString("rwxrwxrwx"));
+		try
+		{
+			MappedRingBuffer.create(new File(dir.toFile(), "test.ring"), 1024);
+			Assert.fail("directory writable by others must be rejected");
+		}
+		catch(IOException e)
+		{
+			Assert.assertTrue(e.getMessage().contains("writable"));
+		}
+	}
+
+}
@@ -0,0 +1,58 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.remote.trace;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: TraceContextTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-19 下午06:48:12
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class TraceContextTest {
+
+	@Test
+	public void propagate()
+	{
+		TraceContext root = TraceContext.newRoot(true);
+		Assert.assertNull(root.getParentSpanId());
+		TraceContext child = root.newChild();
+		Assert.assertEquals(root.getTraceId(), child.getTraceId());
+		Assert.assertEquals(root.getSpanId(), child.getParentSpanId());
+
+		TraceContext received = TraceContext.decode(child.encode());
+		Assert.assertEquals(child.getTraceId(), received.getTraceId());
+		Assert.assertEquals(child.getSpanId(), received.getSpanId());
+		Assert.assertTrue(received.isSampled());
+		Assert.assertEquals(child.getSpanId(), received.newChild().getParentSpanId());
+		Assert.assertFalse(TraceContext.decode(TraceContext.newRoot(false).encode()).isSampled());
+	}
+
+	@Test
+	public void malformed()
+	{
+		Assert.assertNull(TraceContext.decode(null));
+		Assert.assertNull(TraceContext.decode("abc"));
+		Assert.assertNull(TraceContext.decode(TraceContext.newRoot(true).encode().replace('-', 'x')));
+	}
+
+}
@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2008 biaoping.yin
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.frameworkset.spi.security;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * <p>Title: AESGCMEncryptModuleTest.java</p>
+ * <p>Description: </p>
+ * <p>bboss workgroup</p>
+ * <p>Copyright (c) 2007</p>
+ * @Date 2026-10-20 上午11:26:50
+ * @author biaoping.yin
+ * @version 1.0
+ */
+public class AESGCMEncryptModuleTest {
+
+	private static final byte[] MESSAGE = "bboss rpc message".getBytes();
+
+	/**
+	 * 模拟两个进程，双方配置相同的口令，会话密钥各不相同
+	 */
+	@Test
+	public void roundTrip()
+	{
+		AESGCMEncryptModule client = new AESGCMEncryptModule("test-password");
+		AESGCMEncryptModule server = new AESGCMEncryptModule("test-password");
+		byte[] request = client.encode(MESSAGE);
+		Assert.assertArrayEquals(MESSAGE, server.decode(request));
+		Assert.assertArrayEquals(MESSAGE, client.decode(request));
+		byte[] response = server.encode(MESSAGE);
+		Assert.assertArrayEquals(MESSAGE, client.decode(response));
+		Assert.assertFalse(Arrays.equals(Arrays.copyOf(request, 16), Arrays.copyOf(response, 16)));
+		Assert.assertArrayEquals(new byte[0], server.decode(client.encode(new byte[0])));
+	}
+
+	@Test
+	public void counterNonce()
+	{
+		AESGCMEncryptModule module = new AESGCMEncryptModule("test-password");
+		byte[] first = module.encode(MESSAGE);
+		byte[] second = module.encode(MESSAGE);
+		Assert.assertArrayEquals(Arrays.copyOf(first, 16), Arrays.copyOf(second, 16));
+		Assert.assertArrayEquals(new byte[]{0,0,0,0,0,0,0,0,0,0,0,0}, Arrays.copyOfRange(first, 16, 28));
+		Assert.assertArrayEquals(new byte[]{0,0,0,0,0,0,0,0,0,0,0,1}, Arrays.copyOfRange(second, 16, 28));
+		Assert.assertFalse(Arrays.equals(first, second));
+	}
+
+	@Test
+	public void rotate()
+	{
+		AESGCMEncryptModule module = new AESGCMEncryptModule("test-password");
+		AESGCMEncryptModule peer = new AESGCMEncryptModule("test-password");
+		module.setRotateFrames(2);
+		Set<String> keyIds = new HashSet<String>();
+		for(int i = 0; i < 6; i ++)
+		{
+			byte[] frame = module.encode(MESSAGE);
+			keyIds.add(Arrays.toString(Arrays.copyOf(frame, 16)));
+			Assert.assertArrayEquals(MESSAGE, peer.decode(frame));
+		}
+		Assert.assertEquals(3, keyIds.size());
+	}
+
+	@Test
+	public void tamperRejected()
+	{
+		AESGCMEncryptModule client = new AESGCMEncryptModule("test-password");
+		AESGCMEncryptModule server = new AESGCMEncryptModule("test-password");
+		byte[] frame = client.encode(MESSAGE);
+		//分别篡改密钥标识、nonce、密文和认证标签
+		int[] positions = new int[]{0, 20, 30, frame.length - 1};
+		for(int position : positions)
+		{
+			byte[] tampered = frame.clone();
+			tampered[position] ^= 1;
+			try
+			{
+				server.decode(tampered);
+				Assert.fail("tampered frame at " + position + " was accepted");
+			}
+			catch(SecurityException e)
+			{
+			}
+		}
+		Assert.assertArrayEquals(MESSAGE, server.decode(frame));
+	}
+
+	@Test(expected = SecurityException.class)
+	public void wrongPassword()
+	{
+		byte[] frame = new AESGCMEncryptModule("test-password").encode(MESSAGE);
+		new AESGCMEncryptModule("other-password").decode(frame);
+	}
+
+	@Test(expected = SecurityException.class)
+	public void truncatedFrame()
+	{
+		new AESGCMEncryptModule("test-password").decode(new byte[40]);
+	}
+
+	@Test(expected = SecurityException.class)
+	public void passwordRequired()
+	{
+		new AESGCMEncryptModule("");
+	}
+}